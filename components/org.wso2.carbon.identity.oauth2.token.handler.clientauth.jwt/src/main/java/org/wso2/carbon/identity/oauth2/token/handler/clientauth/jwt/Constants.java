@@ -40,11 +40,85 @@ public class Constants {
     public static final String SUBJECT_CLAIM = "sub";
     public static final String ISSUER_CLAIM = "iss";
     public static final String PRIVATE_KEY_JWT = "signedJWT";
+    public static final String PARSED_CLIENT_ASSERTION = "parsedClientAssertion";
     public static final String JWKS_URI = "jwksURI";
+    public static final String FULLSTOP_DELIMITER = ".";
+    public static final String DASH_DELIMITER = "-";
+    public static final String KEYSTORE_FILE_EXTENSION = ".jks";
     public static final String AUTHENTICATOR_TYPE_PARAM = "authenticatorType";
     public static final String AUTHENTICATOR_TYPE_PK_JWT = "pkJWT";
     public static final String OAUTH2_PAR_URL_REF = "OAuth2ParEPUrl";
     public static final String OAUTH2_PAR_URL_CONFIG = "OAuth.OAuth2ParEPUrl";
+    public static final String ATOMIC_JTI_VALIDATION = "AtomicJTIValidation";
+    public static final String ENABLE_JTI_WRITE_BEHIND = "EnableJTIWriteBehind";
+    public static final String JTI_WRITE_BEHIND_BATCH_SIZE = "JTIWriteBehindBatchSize";
+    public static final String JTI_WRITE_BEHIND_FLUSH_INTERVAL_IN_MILLIS = "JTIWriteBehindFlushIntervalInMillis";
+    public static final String JTI_WRITE_BEHIND_QUEUE_SIZE = "JTIWriteBehindQueueSize";
+    public static final String JTI_WRITE_BEHIND_OVERFLOW_POLICY = "JTIWriteBehindOverflowPolicy";
+    public static final int DEFAULT_JTI_WRITE_BEHIND_BATCH_SIZE = 100;
+    public static final long DEFAULT_JTI_WRITE_BEHIND_FLUSH_INTERVAL_IN_MILLIS = 50;
+    public static final int DEFAULT_JTI_WRITE_BEHIND_QUEUE_SIZE = 10000;
+    public static final String ENABLE_JTI_PURGE = "EnableJTIPurge";
+    public static final String JTI_PURGE_INTERVAL_IN_MINUTES = "JTIPurgeIntervalInMinutes";
+    public static final String JTI_PURGE_CHUNK_SIZE = "JTIPurgeChunkSize";
+    public static final String JTI_PURGE_MAX_ROWS_PER_SECOND = "JTIPurgeMaxRowsPerSecond";
+    public static final long DEFAULT_JTI_PURGE_INTERVAL_IN_MINUTES = 60;
+    public static final int DEFAULT_JTI_PURGE_CHUNK_SIZE = 500;
+    public static final int DEFAULT_JTI_PURGE_MAX_ROWS_PER_SECOND = 2000;
+    public static final String JTI_REPLAY_STORE = "JTIReplayStore";
+    public static final String JTI_REPLAY_STORE_REDIS_HOST = "JTIReplayStoreRedisHost";
+    public static final String JTI_REPLAY_STORE_REDIS_PORT = "JTIReplayStoreRedisPort";
+    public static final String JTI_REPLAY_STORE_REDIS_PASSWORD = "JTIReplayStoreRedisPassword";
+    public static final String JTI_REPLAY_STORE_REDIS_TIMEOUT_IN_MILLIS = "JTIReplayStoreRedisTimeoutInMillis";
+    public static final String JTI_REPLAY_STORE_REDIS_KEY_PREFIX = "JTIReplayStoreRedisKeyPrefix";
+    public static final String JTI_REPLAY_STORE_REDIS_MAX_IDLE_CONNECTIONS = "JTIReplayStoreRedisMaxIdleConnections";
+    public static final String JTI_REPLAY_STORE_REDIS_MAX_CONNECTIONS = "JTIReplayStoreRedisMaxConnections";
+    public static final String JTI_REPLAY_STORE_REDIS_SSL_ENABLED = "JTIReplayStoreRedisSSLEnabled";
+    public static final String DEFAULT_JTI_REPLAY_STORE_REDIS_HOST = "localhost";
+    public static final int DEFAULT_JTI_REPLAY_STORE_REDIS_PORT = 6379;
+    public static final int DEFAULT_JTI_REPLAY_STORE_REDIS_TIMEOUT_IN_MILLIS = 2000;
+    public static final String DEFAULT_JTI_REPLAY_STORE_REDIS_KEY_PREFIX = "jti:";
+    public static final int DEFAULT_JTI_REPLAY_STORE_REDIS_MAX_IDLE_CONNECTIONS = 16;
+    public static final int DEFAULT_JTI_REPLAY_STORE_REDIS_MAX_CONNECTIONS = 64;
+    public static final String ENABLE_OFF_HEAP_JTI_INDEX = "EnableOffHeapJTIIndex";
+    public static final String OFF_HEAP_JTI_INDEX_CAPACITY = "OffHeapJTIIndexCapacity";
+    public static final long DEFAULT_OFF_HEAP_JTI_INDEX_CAPACITY = 1 << 20;
+    public static final String JTI_UPSERT_COALESCING_WINDOW_IN_MILLIS = "JTIUpsertCoalescingWindowInMillis";
+    public static final String ENABLE_HASHED_JTI_STORAGE = "EnableHashedJTIStorage";
+    public static final String ENABLE_HASHED_JTI_MIGRATION = "EnableHashedJTIMigration";
+    public static final String HASHED_JTI_MIGRATION_CHUNK_SIZE = "HashedJTIMigrationChunkSize";
+    public static final int DEFAULT_HASHED_JTI_MIGRATION_CHUNK_SIZE = 500;
+    public static final String ENABLE_JWS_VERIFIER_CACHE = "EnableJWSVerifierCache";
+    public static final String JWS_VERIFIER_CACHE_SIZE = "JWSVerifierCacheSize";
+    public static final String AUDIENCE_CACHE_SIZE = "AudienceCacheSize";
+    public static final String AUDIENCE_CACHE_TIMEOUT_IN_SECONDS = "AudienceCacheTimeoutInSeconds";
+    public static final String ENABLE_CLIENT_ASSERTION_POLICY_CACHE = "EnableClientAssertionPolicyCache";
+    public static final String CLIENT_ASSERTION_POLICY_CACHE_SIZE = "ClientAssertionPolicyCacheSize";
+    public static final String CLIENT_ASSERTION_POLICY_CACHE_TIMEOUT_IN_SECONDS =
+            "ClientAssertionPolicyCacheTimeoutInSeconds";
+    public static final String ENABLE_CLIENT_KEY_SOURCE_CACHE = "EnableClientKeySourceCache";
+    public static final String CLIENT_KEY_SOURCE_CACHE_SIZE = "ClientKeySourceCacheSize";
+    public static final String CLIENT_KEY_SOURCE_CACHE_TIMEOUT_IN_SECONDS = "ClientKeySourceCacheTimeoutInSeconds";
+    public static final String TENANT_KEYSTORE_INDEX_REFRESH_INTERVAL_IN_SECONDS =
+            "TenantKeyStoreIndexRefreshIntervalInSeconds";
+    public static final String ENABLE_JWKS_CACHE = "EnableJWKSCache";
+    public static final String JWKS_CACHE_REFRESH_INTERVAL_IN_SECONDS = "JWKSCacheRefreshIntervalInSeconds";
+    public static final String JWKS_CACHE_MAX_AGE_IN_SECONDS = "JWKSCacheMaxAgeInSeconds";
+    public static final String JWKS_CACHE_MIN_REFETCH_INTERVAL_IN_SECONDS = "JWKSCacheMinRefetchIntervalInSeconds";
+    // JWKS endpoint connection settings of the server, shared with the JWKS based JWT validator.
+    public static final String JWKS_ENDPOINT_HTTP_CONNECTION_TIMEOUT =
+            "JWTValidatorConfigs.JWKSEndpoint.HTTPConnectionTimeout";
+    public static final String JWKS_ENDPOINT_HTTP_READ_TIMEOUT = "JWTValidatorConfigs.JWKSEndpoint.HTTPReadTimeout";
+    public static final String JWKS_ENDPOINT_HTTP_SIZE_LIMIT = "JWTValidatorConfigs.JWKSEndpoint.HTTPSizeLimit";
+    public static final String ENABLE_VERIFIED_ASSERTION_CACHE = "EnableVerifiedAssertionCache";
+    public static final String VERIFIED_ASSERTION_CACHE_SIZE = "VerifiedAssertionCacheSize";
+    public static final String VALIDATION_STAGE_ORDER = "ValidationStageOrder";
+    public static final String ENABLE_LAZY_CLAIM_EXTRACTION = "EnableLazyClaimExtraction";
+    public static final String ENABLE_CLIENT_ASSERTION_GUARD = "EnableClientAssertionGuard";
+    public static final String CLIENT_ASSERTION_MAX_LENGTH = "ClientAssertionMaxLength";
+    public static final String CLIENT_ASSERTION_MAX_HEADER_SIZE = "ClientAssertionMaxHeaderSize";
+    public static final String CLIENT_ASSERTION_MAX_PAYLOAD_SIZE = "ClientAssertionMaxPayloadSize";
+    public static final String CLIENT_ASSERTION_ALLOWED_ALGORITHMS = "ClientAssertionAllowedAlgorithms";
 
     //query keys
     public static final String GET_JWT_ID = "GET_JWT_ID";
@@ -56,7 +130,18 @@ public class Constants {
     public static final String UPSERT_ORACLE = "UPSERT_ORACLE";
     public static final String UPSERT_MSSQL_DB2 = "UPSERT_MSSQL_DB2";
     public static final String INSERT_JWD_ID = "INSERT_JWD_ID";
+    public static final String GET_EXPIRED_JWT_IDS = "GET_EXPIRED_JWT_IDS";
+    public static final String GET_EXPIRED_JWT_IDS_AFTER = "GET_EXPIRED_JWT_IDS_AFTER";
+    public static final String DELETE_EXPIRED_JWT_ID = "DELETE_EXPIRED_JWT_ID";
+    public static final String GET_ACTIVE_JWT_IDS = "GET_ACTIVE_JWT_IDS";
+    public static final String GET_ACTIVE_JWT_IDS_AFTER = "GET_ACTIVE_JWT_IDS_AFTER";
+    public static final String DELETE_JWT_ID = "DELETE_JWT_ID";
+    public static final String UPDATE_JWT_EXPIRY = "UPDATE_JWT_EXPIRY";
+    public static final String INTEGRITY_CONSTRAINT_VIOLATION_SQL_STATE_CLASS = "23";
     public static final int DEFAULT_TENANT_ID = -1;
+    // Names of the cluster wide leases kept in the IDN_OIDC_JTI_LEASE table.
+    public static final String JTI_PURGE_LEASE = "JTI_PURGE";
+    public static final String JTI_HASH_MIGRATION_LEASE = "JTI_HASH_MIGRATION";
 
     /**
      * SQL Queries for the JWT handler.
@@ -129,5 +214,114 @@ public class Constants {
                 "EXP_TIME = ? , " +
                 "TIME_CREATED = ? WHEN NOT MATCHED THEN INSERT (JWT_ID, TENANT_ID ,EXP_TIME, TIME_CREATED) " +
                 "VALUES (?,?,?,?)";
+
+        /*
+         * Conditional inserts used for the atomic JTI validation. The row is inserted only if the JTI is not
+         * already persisted, hence the affected row count tells whether the JTI is new or replayed. The
+         * default tenant (-1) is also checked to preserve the lookup behaviour of GET_JWT_DETAIL.
+         */
+        public static final String INSERT_JWT_ID_IF_ABSENT_H2_OR_MYSQL = "INSERT INTO IDN_OIDC_JTI " +
+                "(JWT_ID, EXP_TIME, TIME_CREATED) SELECT ?, ?, ? FROM DUAL WHERE NOT EXISTS " +
+                "(SELECT 1 FROM IDN_OIDC_JTI WHERE JWT_ID = ?)";
+        public static final String INSERT_TENANTED_JWT_ID_IF_ABSENT_H2_OR_MYSQL = "INSERT INTO IDN_OIDC_JTI " +
+                "(JWT_ID, TENANT_ID, EXP_TIME, TIME_CREATED) SELECT ?, ?, ?, ? FROM DUAL WHERE NOT EXISTS " +
+                "(SELECT 1 FROM IDN_OIDC_JTI WHERE JWT_ID = ? AND TENANT_ID IN (?,?))";
+
+        public static final String INSERT_JWT_ID_IF_ABSENT_POSTGRESQL = "INSERT INTO IDN_OIDC_JTI " +
+                "(JWT_ID, EXP_TIME, TIME_CREATED) SELECT ?, ?, ? WHERE NOT EXISTS " +
+                "(SELECT 1 FROM IDN_OIDC_JTI WHERE JWT_ID = ?) ON CONFLICT DO NOTHING";
+        public static final String INSERT_TENANTED_JWT_ID_IF_ABSENT_POSTGRESQL = "INSERT INTO IDN_OIDC_JTI " +
+                "(JWT_ID, TENANT_ID, EXP_TIME, TIME_CREATED) SELECT ?, ?, ?, ? WHERE NOT EXISTS " +
+                "(SELECT 1 FROM IDN_OIDC_JTI WHERE JWT_ID = ? AND TENANT_ID IN (?,?)) ON CONFLICT DO NOTHING";
+
+        public static final String INSERT_JWT_ID_IF_ABSENT_ORACLE = "INSERT INTO IDN_OIDC_JTI " +
+                "(JWT_ID, EXP_TIME, TIME_CREATED) SELECT ?, ?, ? FROM dual WHERE NOT EXISTS " +
+                "(SELECT 1 FROM IDN_OIDC_JTI WHERE JWT_ID = ?)";
+        public static final String INSERT_TENANTED_JWT_ID_IF_ABSENT_ORACLE = "INSERT INTO IDN_OIDC_JTI " +
+                "(JWT_ID, TENANT_ID, EXP_TIME, TIME_CREATED) SELECT ?, ?, ?, ? FROM dual WHERE NOT EXISTS " +
+                "(SELECT 1 FROM IDN_OIDC_JTI WHERE JWT_ID = ? AND TENANT_ID IN (?,?))";
+
+        public static final String INSERT_JWT_ID_IF_ABSENT_MSSQL_OR_DB2 = "MERGE INTO IDN_OIDC_JTI T USING " +
+                "(VALUES (?,?,?)) S (JWT_ID, EXP_TIME, TIME_CREATED) ON T.JWT_ID = S.JWT_ID " +
+                "WHEN NOT MATCHED THEN INSERT (JWT_ID, EXP_TIME, TIME_CREATED) " +
+                "VALUES (S.JWT_ID, S.EXP_TIME, S.TIME_CREATED);";
+        public static final String INSERT_TENANTED_JWT_ID_IF_ABSENT_MSSQL_OR_DB2 = "MERGE INTO IDN_OIDC_JTI T " +
+                "USING (VALUES (?,?,?,?)) S (JWT_ID, TENANT_ID, EXP_TIME, TIME_CREATED) ON T.JWT_ID = S.JWT_ID " +
+                "AND T.TENANT_ID IN (S.TENANT_ID, -1) WHEN NOT MATCHED THEN INSERT (JWT_ID, TENANT_ID, " +
+                "EXP_TIME, TIME_CREATED) VALUES (S.JWT_ID, S.TENANT_ID, S.EXP_TIME, S.TIME_CREATED);";
+
+        /*
+         * Keyset paginated lookup of expired JTIs used by the purger. The row limit clause is appended
+         * according to the database dialect.
+         */
+        public static final String GET_EXPIRED_JWT_IDS = "SELECT JWT_ID FROM IDN_OIDC_JTI WHERE EXP_TIME < ? " +
+                "ORDER BY JWT_ID";
+        public static final String GET_EXPIRED_JWT_IDS_AFTER = "SELECT JWT_ID FROM IDN_OIDC_JTI WHERE " +
+                "EXP_TIME < ? AND JWT_ID > ? ORDER BY JWT_ID";
+        public static final String GET_EXPIRED_TENANTED_JWT_IDS = "SELECT JWT_ID, TENANT_ID FROM IDN_OIDC_JTI " +
+                "WHERE EXP_TIME < ? ORDER BY JWT_ID, TENANT_ID";
+        public static final String GET_EXPIRED_TENANTED_JWT_IDS_AFTER = "SELECT JWT_ID, TENANT_ID FROM " +
+                "IDN_OIDC_JTI WHERE EXP_TIME < ? AND (JWT_ID > ? OR (JWT_ID = ? AND TENANT_ID > ?)) " +
+                "ORDER BY JWT_ID, TENANT_ID";
+        public static final String LIMIT_CLAUSE_MYSQL_H2_OR_POSTGRESQL = " LIMIT ?";
+        public static final String LIMIT_CLAUSE_ORACLE_OR_DB2 = " FETCH FIRST ? ROWS ONLY";
+        public static final String LIMIT_CLAUSE_MSSQL = " OFFSET 0 ROWS FETCH NEXT ? ROWS ONLY";
+
+        // EXP_TIME is checked again, as the JTI could have been re-persisted after it was selected.
+        public static final String DELETE_EXPIRED_JWT_ID = "DELETE FROM IDN_OIDC_JTI WHERE JWT_ID = ? AND " +
+                "EXP_TIME < ?";
+        public static final String DELETE_EXPIRED_TENANTED_JWT_ID = "DELETE FROM IDN_OIDC_JTI WHERE JWT_ID = ? " +
+                "AND TENANT_ID = ? AND EXP_TIME < ?";
+
+        /*
+         * Cluster wide leases are kept in a dedicated table, apart from the client JTIs. A lease is renewed by its
+         * holder, or taken over by another node only once it has expired.
+         */
+        public static final String ACQUIRE_JTI_LEASE = "UPDATE IDN_OIDC_JTI_LEASE SET NODE_ID = ?, EXPIRY_TIME = ? " +
+                "WHERE LEASE_NAME = ? AND (EXPIRY_TIME < ? OR NODE_ID = ?)";
+        public static final String INSERT_JTI_LEASE = "INSERT INTO IDN_OIDC_JTI_LEASE (LEASE_NAME, NODE_ID, " +
+                "EXPIRY_TIME) VALUES (?, ?, ?)";
+        public static final String RELEASE_JTI_LEASE = "UPDATE IDN_OIDC_JTI_LEASE SET EXPIRY_TIME = ? WHERE " +
+                "LEASE_NAME = ? AND NODE_ID = ?";
+
+        /*
+         * Keyset paginated lookup of the JTIs which are not expired, and the removal of a raw JTI once its digest is
+         * persisted. Used to migrate the persisted JTIs to the hashed storage mode.
+         */
+        public static final String GET_ACTIVE_JWT_IDS = "SELECT JWT_ID, EXP_TIME, TIME_CREATED FROM IDN_OIDC_JTI " +
+                "WHERE EXP_TIME >= ? ORDER BY JWT_ID";
+        public static final String GET_ACTIVE_JWT_IDS_AFTER = "SELECT JWT_ID, EXP_TIME, TIME_CREATED FROM " +
+                "IDN_OIDC_JTI WHERE EXP_TIME >= ? AND JWT_ID > ? ORDER BY JWT_ID";
+        public static final String GET_ACTIVE_TENANTED_JWT_IDS = "SELECT JWT_ID, TENANT_ID, EXP_TIME, TIME_CREATED " +
+                "FROM IDN_OIDC_JTI WHERE EXP_TIME >= ? ORDER BY JWT_ID, TENANT_ID";
+        public static final String GET_ACTIVE_TENANTED_JWT_IDS_AFTER = "SELECT JWT_ID, TENANT_ID, EXP_TIME, " +
+                "TIME_CREATED FROM IDN_OIDC_JTI WHERE EXP_TIME >= ? AND (JWT_ID > ? OR (JWT_ID = ? AND " +
+                "TENANT_ID > ?)) ORDER BY JWT_ID, TENANT_ID";
+        public static final String DELETE_JWT_ID = "DELETE FROM IDN_OIDC_JTI WHERE JWT_ID = ?";
+        public static final String DELETE_TENANTED_JWT_ID = "DELETE FROM IDN_OIDC_JTI WHERE JWT_ID = ? AND " +
+                "TENANT_ID = ?";
+
+        /*
+         * Hashed JTI storage. The digests of the tenant id and the JTI are kept in a dedicated table with a fixed
+         * width binary primary key, which decides whether a JTI is new or replayed.
+         */
+        public static final String GET_JTI_DIGEST = "SELECT EXP_TIME, TIME_CREATED FROM IDN_OIDC_JTI_DIGEST WHERE " +
+                "JTI_DIGEST = ?";
+        public static final String INSERT_JTI_DIGEST = "INSERT INTO IDN_OIDC_JTI_DIGEST (JTI_DIGEST, EXP_TIME, " +
+                "TIME_CREATED) VALUES (?, ?, ?)";
+        public static final String UPDATE_JTI_DIGEST_EXPIRY = "UPDATE IDN_OIDC_JTI_DIGEST SET EXP_TIME = ?, " +
+                "TIME_CREATED = ? WHERE JTI_DIGEST = ?";
+        public static final String GET_EXPIRED_JTI_DIGESTS = "SELECT JTI_DIGEST FROM IDN_OIDC_JTI_DIGEST WHERE " +
+                "EXP_TIME < ? ORDER BY JTI_DIGEST";
+        public static final String GET_EXPIRED_JTI_DIGESTS_AFTER = "SELECT JTI_DIGEST FROM IDN_OIDC_JTI_DIGEST " +
+                "WHERE EXP_TIME < ? AND JTI_DIGEST > ? ORDER BY JTI_DIGEST";
+        public static final String DELETE_EXPIRED_JTI_DIGEST = "DELETE FROM IDN_OIDC_JTI_DIGEST WHERE " +
+                "JTI_DIGEST = ? AND EXP_TIME < ?";
+
+        // Used with the insert to persist the JTIs when the database has no dialect specific upsert.
+        public static final String UPDATE_JWT_EXPIRY = "UPDATE IDN_OIDC_JTI SET EXP_TIME = ?, TIME_CREATED = ? " +
+                "WHERE JWT_ID = ?";
+        public static final String UPDATE_TENANTED_JWT_EXPIRY = "UPDATE IDN_OIDC_JTI SET EXP_TIME = ?, " +
+                "TIME_CREATED = ? WHERE JWT_ID = ? AND TENANT_ID = ?";
     }
 }
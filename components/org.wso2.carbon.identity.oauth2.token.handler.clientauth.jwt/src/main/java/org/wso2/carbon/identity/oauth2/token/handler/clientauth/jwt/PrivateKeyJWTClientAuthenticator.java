@@ -18,7 +18,6 @@
 
 package org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt;
 
-import com.nimbusds.jwt.JWTClaimsSet;
 import com.nimbusds.jwt.SignedJWT;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -29,9 +28,23 @@ import org.wso2.carbon.identity.oauth2.bean.OAuthClientAuthnContext;
 import org.wso2.carbon.identity.oauth2.client.authentication.AbstractOAuthClientAuthenticator;
 import org.wso2.carbon.identity.oauth2.client.authentication.OAuthClientAuthnException;
 import org.wso2.carbon.identity.oauth2.model.ClientAuthenticationMethodModel;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache.JWKSCache;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache.OffHeapJTIIndex;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao.JTIHashMigrator;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao.JTIReplayStore;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao.JWTPurgeScheduler;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao.JWTWriteBehindQueue;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao.impl.InMemoryJTIReplayStore;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao.impl.JDBCJTIReplayStore;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao.impl.RedisJTIReplayStore;
 import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.internal.JWTServiceDataHolder;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.util.JWTAuthenticatorConfig;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.validator.ClientAssertionGuard;
 import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.validator.JWTValidator;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.validator.ParsedClientAssertion;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -42,22 +55,17 @@ import javax.servlet.http.HttpServletRequest;
 
 import static org.apache.commons.lang.StringUtils.isEmpty;
 import static org.apache.commons.lang.StringUtils.isNotEmpty;
-import static org.wso2.carbon.identity.oauth.common.OAuthConstants.OIDCConfigProperties.DEFAULT_VALUE_FOR_PREVENT_TOKEN_REUSE;
 import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.AUDIENCE_CLAIM;
-import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.DEFAULT_AUDIENCE;
 import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.DEFAULT_ENABLE_JTI_CACHE;
-import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.DEFAULT_VALIDITY_PERIOD_IN_MINUTES;
 import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.EXPIRATION_TIME_CLAIM;
 import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.ISSUER_CLAIM;
 import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.JWT_ID_CLAIM;
 import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.OAUTH_JWT_ASSERTION;
 import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.OAUTH_JWT_ASSERTION_TYPE;
 import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.OAUTH_JWT_BEARER_GRANT_TYPE;
-import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.PREVENT_TOKEN_REUSE;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.PARSED_CLIENT_ASSERTION;
 import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.PRIVATE_KEY_JWT;
-import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.REJECT_BEFORE_IN_MINUTES;
 import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.SUBJECT_CLAIM;
-import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.TOKEN_ENDPOINT_ALIAS;
 
 /**
  * Client Authentication handler to implement oidc private_key_jwt client authentication specDEFAULT_TOKEN_EP_ALIAS
@@ -68,34 +76,164 @@ public class PrivateKeyJWTClientAuthenticator extends AbstractOAuthClientAuthent
     private static final Log log = LogFactory.getLog(PrivateKeyJWTClientAuthenticator.class);
     private static final String PRIVATE_KEY_JWT_CLIENT_AUTHENTICATOR_AUTH_METHOD = "private_key_jwt";
     private static final String PRIVATE_KEY_JWT_CLIENT_AUTHENTICATOR_DISPLAY_NAME = "Private Key JWT";
-    private JWTValidator jwtValidator;
-
-    private int rejectBeforePeriod = DEFAULT_VALIDITY_PERIOD_IN_MINUTES;
-    private boolean preventTokenReuse = DEFAULT_VALUE_FOR_PREVENT_TOKEN_REUSE;
-    private String tokenEPAlias = DEFAULT_AUDIENCE;
+    private static final Object CONFIG_LOCK = new Object();
+    private volatile JWTValidator jwtValidator;
 
     public PrivateKeyJWTClientAuthenticator() {
 
-        readServerConfig();
-        jwtValidator = createJWTValidator(tokenEPAlias, preventTokenReuse, rejectBeforePeriod);
+        // The background components are started by the service component once the JTI storage is resolved.
+        applyServerConfig(JWTAuthenticatorConfig.load(properties), false);
     }
 
-    private void readServerConfig() {
+    /**
+     * Read the configuration of the authenticator again and rebuild the components from it. The background
+     * components which are built again are started right away.
+     */
+    public void reloadServerConfig() {
 
-        try {
-            if (isNotEmpty(properties.getProperty(TOKEN_ENDPOINT_ALIAS))) {
-                tokenEPAlias = properties.getProperty(TOKEN_ENDPOINT_ALIAS);
+        applyServerConfig(JWTAuthenticatorConfig.load(properties), true);
+    }
+
+    /**
+     * Build the components of the authenticator from the configuration. This is the only place the configuration is
+     * applied, both on the activation and on a reload. The components which hold state, i.e. the JTI write-behind
+     * queue, purge scheduler, replay store, off-heap index, hashed JTI migrator and the JWKS cache, are built again
+     * only if their configuration is changed, while the rest are always built again. A component which is disabled
+     * by the configuration is removed, after its background work is stopped.
+     *
+     * @param config Configuration of the authenticator.
+     * @param start  Whether to start the background components which are built again.
+     */
+    private void applyServerConfig(JWTAuthenticatorConfig config, boolean start) {
+
+        synchronized (CONFIG_LOCK) {
+            JWTServiceDataHolder dataHolder = JWTServiceDataHolder.getInstance();
+            JWTAuthenticatorConfig previous = dataHolder.getAuthenticatorConfig();
+            dataHolder.setPreventTokenReuse(config.isPreventTokenReuse());
+            dataHolder.setAtomicJTIValidation(config.isAtomicJTIValidation());
+            dataHolder.setLazyClaimExtraction(config.isLazyClaimExtraction());
+            dataHolder.setValidationStageOrder(config.getValidationStageOrder());
+
+            if (config.isJTIWriteBehindChanged(previous)) {
+                JWTWriteBehindQueue jtiWriteBehindQueue = dataHolder.getJTIWriteBehindQueue();
+                if (jtiWriteBehindQueue != null) {
+                    // The pending JTIs are flushed first, the JTIs accepted meanwhile are persisted synchronously.
+                    jtiWriteBehindQueue.shutdown();
+                }
+                jtiWriteBehindQueue = config.createJTIWriteBehindQueue();
+                dataHolder.setJTIWriteBehindQueue(jtiWriteBehindQueue);
+                if (jtiWriteBehindQueue != null && start) {
+                    jtiWriteBehindQueue.start();
+                }
+            }
+            if (config.isJTIPurgeChanged(previous)) {
+                JWTPurgeScheduler jtiPurgeScheduler = dataHolder.getJTIPurgeScheduler();
+                if (jtiPurgeScheduler != null) {
+                    jtiPurgeScheduler.shutdown();
+                }
+                jtiPurgeScheduler = config.createJTIPurgeScheduler();
+                dataHolder.setJTIPurgeScheduler(jtiPurgeScheduler);
+                if (jtiPurgeScheduler != null && start) {
+                    jtiPurgeScheduler.start();
+                }
+            }
+            if (config.isJTIReplayStoreChanged(previous)) {
+                applyJTIReplayStoreConfig(config, dataHolder);
+            }
+            if (config.isOffHeapJTIIndexChanged(previous)) {
+                OffHeapJTIIndex offHeapJTIIndex = config.createOffHeapJTIIndex();
+                dataHolder.setOffHeapJTIIndex(offHeapJTIIndex);
+                if (offHeapJTIIndex != null && log.isDebugEnabled()) {
+                    log.debug("Off-heap JTI index is enabled with capacity: " + offHeapJTIIndex.getCapacity());
+                }
+            }
+            if (config.isHashedJTIStorageChanged(previous)) {
+                applyHashedJTIStorageConfig(config, dataHolder, start);
             }
-            if (isNotEmpty(properties.getProperty(PREVENT_TOKEN_REUSE))) {
-                preventTokenReuse = Boolean.parseBoolean(properties.getProperty(PREVENT_TOKEN_REUSE));
+            if (config.isJWKSCacheChanged(previous)) {
+                JWKSCache jwksCache = dataHolder.getJWKSCache();
+                if (jwksCache != null) {
+                    jwksCache.shutdown();
+                }
+                dataHolder.setJWKSCache(config.createJWKSCache());
             }
-            if (isNotEmpty(properties.getProperty(REJECT_BEFORE_IN_MINUTES))) {
-                rejectBeforePeriod = Integer.parseInt(properties.getProperty(REJECT_BEFORE_IN_MINUTES));
+            dataHolder.setJTIUpsertCoalescer(config.createJTIUpsertCoalescer());
+            dataHolder.setJWSVerifierCache(config.createJWSVerifierCache());
+            dataHolder.setClientKeySourceCache(config.createClientKeySourceCache());
+            dataHolder.setClientAssertionPolicyCache(config.createClientAssertionPolicyCache());
+            dataHolder.setAudienceCache(config.createAudienceCache());
+            dataHolder.setTenantKeyStoreIndex(config.createTenantKeyStoreIndex());
+            dataHolder.setVerifiedAssertionCache(config.createVerifiedAssertionCache());
+            if (config.isClientAssertionGuardChanged(previous)) {
+                dataHolder.setClientAssertionGuard(config.createClientAssertionGuard());
             }
-            JWTServiceDataHolder.getInstance().setPreventTokenReuse(preventTokenReuse);
-        } catch (NumberFormatException e) {
-            log.warn("Invalid PrivateKeyJWT Validity period found in the configuration. Using default value: " +
-                    rejectBeforePeriod);
+            dataHolder.reloadServerConfigSnapshot();
+            dataHolder.setAuthenticatorConfig(config);
+            // The validator reads the claim extraction mode of the data holder when it is created.
+            jwtValidator = createJWTValidator(config.getTokenEndpointAlias(), config.isPreventTokenReuse(),
+                    config.getRejectBeforeInMinutes());
+        }
+    }
+
+    private void applyJTIReplayStoreConfig(JWTAuthenticatorConfig config, JWTServiceDataHolder dataHolder) {
+
+        JTIReplayStore previousJTIReplayStore = dataHolder.getJTIReplayStore();
+        JTIReplayStore jtiReplayStore = config.createJTIReplayStore();
+        if (jtiReplayStore != null) {
+            dataHolder.addJTIReplayStore(jtiReplayStore);
+        } else if (!JDBCJTIReplayStore.NAME.equals(config.getJTIReplayStoreName()) &&
+                !config.getJTIReplayStoreName().equals(previousJTIReplayStore.getName())) {
+            // Stores other than the built in ones are registered as OSGi services, and may not be available yet.
+            log.warn("JTI replay store: " + config.getJTIReplayStoreName() + " is not a built in store and is not " +
+                    "registered yet. JTIs are validated with the " + JDBCJTIReplayStore.NAME + " store until a " +
+                    "store with this name is registered.");
+        }
+        dataHolder.setJTIReplayStoreName(config.getJTIReplayStoreName());
+        // Only the built in stores are created by the authenticator, the registered ones are left to their bundles.
+        if (previousJTIReplayStore != jtiReplayStore && (previousJTIReplayStore instanceof InMemoryJTIReplayStore ||
+                previousJTIReplayStore instanceof RedisJTIReplayStore)) {
+            dataHolder.removeJTIReplayStore(previousJTIReplayStore);
+            if (previousJTIReplayStore instanceof Closeable) {
+                try {
+                    ((Closeable) previousJTIReplayStore).close();
+                } catch (IOException e) {
+                    log.error("Error while closing the JTI replay store: " + previousJTIReplayStore.getName(), e);
+                }
+            }
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("JTI replay store: " + config.getJTIReplayStoreName() + " is configured.");
+        }
+    }
+
+    private void applyHashedJTIStorageConfig(JWTAuthenticatorConfig config, JWTServiceDataHolder dataHolder,
+                                             boolean start) {
+
+        JTIHashMigrator jtiHashMigrator = dataHolder.getJTIHashMigrator();
+        if (jtiHashMigrator != null) {
+            jtiHashMigrator.shutdown();
+        }
+        if (config.isHashedJTIStorage()) {
+            if (!dataHolder.isHashedJTIStorage()) {
+                // The raw JTIs persisted so far are looked up along with the digests, until they are migrated.
+                dataHolder.setRawJTILookup(true);
+                dataHolder.setHashedJTIStorage(true);
+                dataHolder.setDigestJTILookup(false);
+            }
+            if (!config.isHashedJTIMigration()) {
+                log.warn("Hashed JTI migration is disabled. The raw JTIs persisted before the hashed JTI storage " +
+                        "was enabled are looked up along with the digests of the JTIs.");
+            }
+        } else if (dataHolder.isHashedJTIStorage()) {
+            // The digests persisted so far are looked up along with the raw JTIs, as they are not migrated back.
+            dataHolder.setDigestJTILookup(true);
+            dataHolder.setHashedJTIStorage(false);
+            dataHolder.setRawJTILookup(false);
+        }
+        jtiHashMigrator = config.createJTIHashMigrator();
+        dataHolder.setJTIHashMigrator(jtiHashMigrator);
+        if (jtiHashMigrator != null && start) {
+            jtiHashMigrator.start();
         }
     }
 
@@ -123,7 +261,8 @@ public class PrivateKeyJWTClientAuthenticator extends AbstractOAuthClientAuthent
             log.debug("requestUrl: " + requestUrl);
         }
 
-        return jwtValidator.isValidAssertion(getSignedJWT(bodyParameters, oAuthClientAuthnContext), requestUrl);
+        return jwtValidator.isValidAssertion(getParsedClientAssertion(bodyParameters, oAuthClientAuthnContext),
+                requestUrl);
     }
 
     /**
@@ -156,9 +295,26 @@ public class PrivateKeyJWTClientAuthenticator extends AbstractOAuthClientAuthent
     public String getClientId(HttpServletRequest httpServletRequest, Map<String, List> bodyParameters,
                               OAuthClientAuthnContext oAuthClientAuthnContext) throws OAuthClientAuthnException {
 
-        SignedJWT signedJWT = getSignedJWT(bodyParameters, oAuthClientAuthnContext);
-        JWTClaimsSet claimsSet = jwtValidator.getClaimSet(signedJWT);
-        return jwtValidator.resolveSubject(claimsSet);
+        ParsedClientAssertion assertion = getParsedClientAssertion(bodyParameters, oAuthClientAuthnContext);
+        return jwtValidator.resolveSubject(assertion);
+    }
+
+    /**
+     * Parse the client assertion once per request. The parsed assertion is kept in the context, so that resolving
+     * the client id and authenticating the client do not validate the depth and parse the claims again.
+     */
+    private ParsedClientAssertion getParsedClientAssertion(Map<String, List> bodyParameters,
+                                                           OAuthClientAuthnContext oAuthClientAuthnContext)
+            throws OAuthClientAuthnException {
+
+        Object assertionFromContext = oAuthClientAuthnContext.getParameter(PARSED_CLIENT_ASSERTION);
+        if (assertionFromContext != null) {
+            return (ParsedClientAssertion) assertionFromContext;
+        }
+        ParsedClientAssertion assertion = jwtValidator.parseClientAssertion(getSignedJWT(bodyParameters,
+                oAuthClientAuthnContext));
+        oAuthClientAuthnContext.addParameter(PARSED_CLIENT_ASSERTION, assertion);
+        return assertion;
     }
 
     private SignedJWT getSignedJWT(Map<String, List> bodyParameters, OAuthClientAuthnContext oAuthClientAuthnContext)
@@ -174,6 +330,10 @@ public class PrivateKeyJWTClientAuthenticator extends AbstractOAuthClientAuthent
         if (isEmpty(assertion)) {
             throw new OAuthClientAuthnException(errorMessage, OAuth2ErrorCodes.INVALID_REQUEST);
         }
+        ClientAssertionGuard clientAssertionGuard = JWTServiceDataHolder.getInstance().getClientAssertionGuard();
+        if (clientAssertionGuard != null) {
+            clientAssertionGuard.check(assertion);
+        }
         try {
             IdentityUtil.validateX5CLength(assertion);
             signedJWT = SignedJWT.parse(assertion);
@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache;
+
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.util.CacheUtil;
+
+import java.util.Collections;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Bounded cache of the audiences accepted in the client assertions of a tenant.
+ * The accepted audiences are derived from the token and PAR endpoints of the resident identity provider, the server
+ * configuration and, for organization qualified requests, the organization qualified endpoints. They are cached per
+ * tenant, accessing organization and whether the request is received through the mTLS alias hostname. The entries
+ * are invalidated on resident identity provider updates and expire after the configured timeout, which bounds the
+ * staleness of the updates made on other nodes.
+ */
+public class AudienceCache {
+
+    public static final int DEFAULT_CAPACITY = 1000;
+    public static final long DEFAULT_TIMEOUT_IN_MILLIS = 300000;
+
+    private final ConcurrentMap<String, Entry> audiences = new ConcurrentHashMap<>();
+    private final int capacity;
+    private final long timeoutInMillis;
+
+    public AudienceCache() {
+
+        this(DEFAULT_CAPACITY, DEFAULT_TIMEOUT_IN_MILLIS);
+    }
+
+    /**
+     * @param capacity        Maximum number of cached audience sets.
+     * @param timeoutInMillis Time an audience set is cached for.
+     */
+    public AudienceCache(int capacity, long timeoutInMillis) {
+
+        this.capacity = capacity;
+        this.timeoutInMillis = timeoutInMillis;
+    }
+
+    /**
+     * Get the accepted audiences of the tenant.
+     *
+     * @param tenantDomain   Tenant domain.
+     * @param organizationId Accessing organization id, or null if the request is not organization qualified.
+     * @param mtls           Whether the request is received through the mTLS alias hostname.
+     * @return Cached audiences, or null if the audiences are not cached.
+     */
+    public Audiences get(String tenantDomain, String organizationId, boolean mtls) {
+
+        String key = getKey(tenantDomain, organizationId, mtls);
+        Entry entry = audiences.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiryTime <= System.currentTimeMillis()) {
+            audiences.remove(key, entry);
+            return null;
+        }
+        return entry.audiences;
+    }
+
+    /**
+     * Cache the accepted audiences of the tenant.
+     *
+     * @param tenantDomain   Tenant domain.
+     * @param organizationId Accessing organization id, or null if the request is not organization qualified.
+     * @param mtls           Whether the request is received through the mTLS alias hostname.
+     * @param audiences      Accepted audiences.
+     */
+    public void put(String tenantDomain, String organizationId, boolean mtls, Audiences audiences) {
+
+        String key = getKey(tenantDomain, organizationId, mtls);
+        // Make room by evicting the expired entries, else the ones expiring first. They are derived again on the
+        // next request of their tenant.
+        CacheUtil.makeRoom(this.audiences, capacity, key, cached -> cached.expiryTime, System.currentTimeMillis());
+        this.audiences.put(key, new Entry(audiences, System.currentTimeMillis() + timeoutInMillis));
+    }
+
+    /**
+     * Remove the accepted audiences of the tenant, for all the accessing organizations.
+     *
+     * @param tenantDomain Tenant domain.
+     */
+    public void invalidate(String tenantDomain) {
+
+        String prefix = tenantDomain + ":";
+        audiences.keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    public void clear() {
+
+        audiences.clear();
+    }
+
+    public int size() {
+
+        return audiences.size();
+    }
+
+    private static String getKey(String tenantDomain, String organizationId, boolean mtls) {
+
+        return tenantDomain + ":" + (organizationId == null ? "" : organizationId) + ":" + mtls;
+    }
+
+    /**
+     * Audiences accepted in the client assertions of a tenant.
+     */
+    public static final class Audiences {
+
+        private final Set<String> audiences;
+        private final String parEndpoint;
+        private final Set<String> parAudiences;
+
+        /**
+         * @param audiences    Accepted audiences.
+         * @param parEndpoint  PAR endpoint of the tenant.
+         * @param parAudiences Accepted audiences of the requests to the PAR endpoint, or null if they could not be
+         *                     derived.
+         */
+        public Audiences(Set<String> audiences, String parEndpoint, Set<String> parAudiences) {
+
+            this.audiences = Collections.unmodifiableSet(audiences);
+            this.parEndpoint = parEndpoint;
+            this.parAudiences = parAudiences != null ? Collections.unmodifiableSet(parAudiences) : null;
+        }
+
+        /**
+         * @param requestUrl URL the client assertion is received at.
+         * @return Accepted audiences of the request, or null if the audiences of a PAR request could not be derived.
+         */
+        public Set<String> getAudiences(String requestUrl) {
+
+            return Objects.equals(requestUrl, parEndpoint) ? parAudiences : audiences;
+        }
+
+        public String getParEndpoint() {
+
+            return parEndpoint;
+        }
+    }
+
+    private static final class Entry {
+
+        private final Audiences audiences;
+        private final long expiryTime;
+
+        private Entry(Audiences audiences, long expiryTime) {
+
+            this.audiences = audiences;
+            this.expiryTime = expiryTime;
+        }
+    }
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache;
+
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.util.CacheUtil;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Bounded cache of the compiled client assertion policies of the clients.
+ * A policy holds the facts of the application the client assertion is validated against, which are otherwise
+ * re-derived from the application, the FAPI configuration and the signature algorithm mappings on every request.
+ * The policies are cached per tenant domain of the request, accessing organization and client id, as the application
+ * is resolved within the tenant the request is received for, and the application of an organization qualified request
+ * is resolved through the organization hierarchy. The entries are invalidated on the application updates made on
+ * this node only, and the changes made on other nodes are seen once the entries expire after the configured timeout.
+ * Hence the cache is disabled unless it is enabled with EnableClientAssertionPolicyCache, by a deployment which
+ * either runs a single node or accepts the timeout as the staleness bound of the application changes.
+ */
+public class ClientAssertionPolicyCache {
+
+    public static final int DEFAULT_CAPACITY = 10000;
+    public static final long DEFAULT_TIMEOUT_IN_MILLIS = 300000;
+
+    private final ConcurrentMap<String, Entry> policies = new ConcurrentHashMap<>();
+    private final int capacity;
+    private final long timeoutInMillis;
+
+    public ClientAssertionPolicyCache() {
+
+        this(DEFAULT_CAPACITY, DEFAULT_TIMEOUT_IN_MILLIS);
+    }
+
+    /**
+     * @param capacity        Maximum number of cached policies.
+     * @param timeoutInMillis Time a policy is cached for.
+     */
+    public ClientAssertionPolicyCache(int capacity, long timeoutInMillis) {
+
+        this.capacity = capacity;
+        this.timeoutInMillis = timeoutInMillis;
+    }
+
+    /**
+     * Get the policy of the client.
+     *
+     * @param clientId       Client id.
+     * @param tenantDomain   Tenant domain of the request.
+     * @param organizationId Accessing organization id, or null if the request is not organization qualified.
+     * @return Cached policy, or null if the policy of the client is not cached.
+     */
+    public ClientAssertionPolicy get(String clientId, String tenantDomain, String organizationId) {
+
+        String key = getKey(clientId, tenantDomain, organizationId);
+        Entry entry = policies.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiryTime <= System.currentTimeMillis()) {
+            policies.remove(key, entry);
+            return null;
+        }
+        return entry.policy;
+    }
+
+    /**
+     * Cache the policy of the client.
+     *
+     * @param clientId       Client id.
+     * @param tenantDomain   Tenant domain of the request.
+     * @param organizationId Accessing organization id, or null if the request is not organization qualified.
+     * @param policy         Compiled policy.
+     */
+    public void put(String clientId, String tenantDomain, String organizationId, ClientAssertionPolicy policy) {
+
+        String key = getKey(clientId, tenantDomain, organizationId);
+        // Make room by evicting the expired policies, else the ones expiring first. They are compiled again on the
+        // next request of their client.
+        CacheUtil.makeRoom(policies, capacity, key, cached -> cached.expiryTime, System.currentTimeMillis());
+        policies.put(key, new Entry(policy, System.currentTimeMillis() + timeoutInMillis));
+    }
+
+    /**
+     * Remove the policies of the client, for all the request tenant domains and accessing organizations.
+     *
+     * @param clientId Client id.
+     * @param tenantId Tenant id of the application.
+     */
+    public void invalidate(String clientId, int tenantId) {
+
+        policies.values().removeIf(entry -> entry.policy.getTenantId() == tenantId &&
+                entry.policy.getClientId().equals(clientId));
+    }
+
+    /**
+     * Remove the policies of all the clients of the tenant.
+     *
+     * @param tenantId Tenant id of the applications.
+     */
+    public void invalidate(int tenantId) {
+
+        policies.values().removeIf(entry -> entry.policy.getTenantId() == tenantId);
+    }
+
+    public void clear() {
+
+        policies.clear();
+    }
+
+    public int size() {
+
+        return policies.size();
+    }
+
+    private static String getKey(String clientId, String tenantDomain, String organizationId) {
+
+        return tenantDomain + ":" + (organizationId == null ? "" : organizationId) + ":" + clientId;
+    }
+
+    /**
+     * Facts of an application which the client assertions of its client are validated against.
+     */
+    public static final class ClientAssertionPolicy {
+
+        private final String clientId;
+        private final String tenantDomain;
+        private final int tenantId;
+        private final Set<String> allowedAlgorithms;
+        private final boolean fapiConformant;
+        private final boolean fapi2Security;
+        private final Boolean tokenReuseAllowed;
+
+        /**
+         * @param clientId          Client id of the application.
+         * @param tenantDomain      Tenant domain of the application.
+         * @param tenantId          Tenant id of the application.
+         * @param allowedAlgorithms JWS names of the signing algorithms configured for the application, or an empty
+         *                          set if any algorithm is allowed.
+         * @param fapiConformant    Whether the application is FAPI conformant.
+         * @param fapi2Security     Whether the application conforms to the FAPI 2.0 security profile.
+         * @param tokenReuseAllowed Whether the application allows reusing a client assertion, or null if the tenant
+         *                          configuration applies.
+         */
+        public ClientAssertionPolicy(String clientId, String tenantDomain, int tenantId, Set<String> allowedAlgorithms,
+                                     boolean fapiConformant, boolean fapi2Security, Boolean tokenReuseAllowed) {
+
+            this.clientId = clientId;
+            this.tenantDomain = tenantDomain;
+            this.tenantId = tenantId;
+            this.allowedAlgorithms = Collections.unmodifiableSet(allowedAlgorithms);
+            this.fapiConformant = fapiConformant;
+            this.fapi2Security = fapi2Security;
+            this.tokenReuseAllowed = tokenReuseAllowed;
+        }
+
+        public String getClientId() {
+
+            return clientId;
+        }
+
+        public String getTenantDomain() {
+
+            return tenantDomain;
+        }
+
+        public int getTenantId() {
+
+            return tenantId;
+        }
+
+        public Set<String> getAllowedAlgorithms() {
+
+            return allowedAlgorithms;
+        }
+
+        /**
+         * @param algorithm JWS name of the signing algorithm of the client assertion.
+         * @return true if the algorithm is configured for the application, or no algorithm is configured.
+         */
+        public boolean isAllowedAlgorithm(String algorithm) {
+
+            return allowedAlgorithms.isEmpty() || allowedAlgorithms.contains(algorithm);
+        }
+
+        public boolean isFapiConformant() {
+
+            return fapiConformant;
+        }
+
+        public boolean isFapi2Security() {
+
+            return fapi2Security;
+        }
+
+        /**
+         * @return Whether the application allows reusing a client assertion, or null if the tenant configuration
+         * applies.
+         */
+        public Boolean isTokenReuseAllowed() {
+
+            return tokenReuseAllowed;
+        }
+    }
+
+    private static final class Entry {
+
+        private final ClientAssertionPolicy policy;
+        private final long expiryTime;
+
+        private Entry(ClientAssertionPolicy policy, long expiryTime) {
+
+            this.policy = policy;
+            this.expiryTime = expiryTime;
+        }
+    }
+}
@@ -0,0 +1,245 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache;
+
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.util.CacheUtil;
+
+import java.security.cert.CertificateEncodingException;
+import java.security.cert.X509Certificate;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Bounded cache of the resolved signing key sources of the clients.
+ * The key source of a client is resolved from the certificate of the application, the JWKS URI of the service
+ * provider or the certificate of the client id alias in the tenant keystore, in that order. Clients without any key
+ * source are cached as well, so that the resolution chain runs once per client rather than once per request.
+ * The entries are invalidated on the application updates made on this node only, and the changes made on other nodes
+ * or directly in the tenant keystore are seen once the entries expire after the configured timeout. Hence the cache
+ * is disabled unless it is enabled with EnableClientKeySourceCache.
+ */
+public class ClientKeySourceCache {
+
+    public static final int DEFAULT_CAPACITY = 10000;
+    public static final long DEFAULT_TIMEOUT_IN_MILLIS = 300000;
+
+    private final ConcurrentMap<String, Entry> keySources = new ConcurrentHashMap<>();
+    private final int capacity;
+    private final long timeoutInMillis;
+
+    public ClientKeySourceCache() {
+
+        this(DEFAULT_CAPACITY, DEFAULT_TIMEOUT_IN_MILLIS);
+    }
+
+    /**
+     * @param capacity        Maximum number of cached key sources.
+     * @param timeoutInMillis Time a key source is cached for.
+     */
+    public ClientKeySourceCache(int capacity, long timeoutInMillis) {
+
+        this.capacity = capacity;
+        this.timeoutInMillis = timeoutInMillis;
+    }
+
+    /**
+     * Get the key source of the client.
+     *
+     * @param clientId Client id.
+     * @param tenantId Tenant id.
+     * @return Cached key source, or null if the key source of the client is not cached.
+     */
+    public ClientKeySource get(String clientId, int tenantId) {
+
+        String key = getKey(clientId, tenantId);
+        Entry entry = keySources.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiryTime <= System.currentTimeMillis()) {
+            keySources.remove(key, entry);
+            return null;
+        }
+        return entry.keySource;
+    }
+
+    /**
+     * Cache the key source of the client.
+     *
+     * @param clientId  Client id.
+     * @param tenantId  Tenant id.
+     * @param keySource Resolved key source.
+     */
+    public void put(String clientId, int tenantId, ClientKeySource keySource) {
+
+        String key = getKey(clientId, tenantId);
+        // Make room by evicting the expired key sources, else the ones expiring first. They are resolved again on
+        // the next request of their client.
+        CacheUtil.makeRoom(keySources, capacity, key, cached -> cached.expiryTime, System.currentTimeMillis());
+        keySources.put(key, new Entry(keySource, System.currentTimeMillis() + timeoutInMillis));
+    }
+
+    /**
+     * Remove the key source of the client.
+     *
+     * @param clientId Client id.
+     * @param tenantId Tenant id.
+     */
+    public void invalidate(String clientId, int tenantId) {
+
+        keySources.remove(getKey(clientId, tenantId));
+    }
+
+    /**
+     * Remove the key sources of all the clients of the tenant.
+     *
+     * @param tenantId Tenant id.
+     */
+    public void invalidate(int tenantId) {
+
+        String prefix = tenantId + ":";
+        keySources.keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    public void clear() {
+
+        keySources.clear();
+    }
+
+    public int size() {
+
+        return keySources.size();
+    }
+
+    private static String getKey(String clientId, int tenantId) {
+
+        return tenantId + ":" + clientId;
+    }
+
+    /**
+     * Resolved signing key source of a client.
+     */
+    public static final class ClientKeySource {
+
+        /**
+         * Key source of a client without a certificate, a JWKS URI or a keystore certificate.
+         */
+        public static final ClientKeySource NONE = new ClientKeySource(Type.NONE, null, null);
+
+        /**
+         * Where the signing key of the client is found.
+         */
+        public enum Type {
+
+            /**
+             * Certificate of the application.
+             */
+            CERTIFICATE,
+
+            /**
+             * JWKS URI of the service provider.
+             */
+            JWKS_URI,
+
+            /**
+             * Certificate of the client id alias in the tenant keystore.
+             */
+            KEYSTORE,
+
+            /**
+             * No signing key is configured for the client.
+             */
+            NONE
+        }
+
+        private final Type type;
+        private final X509Certificate certificate;
+        private final String jwksUri;
+        private volatile byte[] certificateThumbprint;
+
+        private ClientKeySource(Type type, X509Certificate certificate, String jwksUri) {
+
+            this.type = type;
+            this.certificate = certificate;
+            this.jwksUri = jwksUri;
+        }
+
+        public static ClientKeySource fromCertificate(X509Certificate certificate) {
+
+            return new ClientKeySource(Type.CERTIFICATE, certificate, null);
+        }
+
+        public static ClientKeySource fromJWKSURI(String jwksUri) {
+
+            return new ClientKeySource(Type.JWKS_URI, null, jwksUri);
+        }
+
+        public static ClientKeySource fromKeyStore(X509Certificate certificate) {
+
+            return new ClientKeySource(Type.KEYSTORE, certificate, null);
+        }
+
+        public Type getType() {
+
+            return type;
+        }
+
+        /**
+         * @return Certificate of the client, or null if the key source is not a certificate.
+         */
+        public X509Certificate getCertificate() {
+
+            return certificate;
+        }
+
+        /**
+         * @return SHA-256 thumbprint of the certificate, computed on the first use.
+         * @throws CertificateEncodingException If the certificate could not be encoded.
+         */
+        byte[] getCertificateThumbprint() throws CertificateEncodingException {
+
+            byte[] thumbprint = certificateThumbprint;
+            if (thumbprint == null) {
+                thumbprint = CacheUtil.sha256(certificate.getEncoded());
+                certificateThumbprint = thumbprint;
+            }
+            return thumbprint;
+        }
+
+        /**
+         * @return JWKS URI of the client, or null if the key source is not a JWKS URI.
+         */
+        public String getJWKSURI() {
+
+            return jwksUri;
+        }
+    }
+
+    private static final class Entry {
+
+        private final ClientKeySource keySource;
+        private final long expiryTime;
+
+        private Entry(ClientKeySource keySource, long expiryTime) {
+
+            this.keySource = keySource;
+            this.expiryTime = expiryTime;
+        }
+    }
+}
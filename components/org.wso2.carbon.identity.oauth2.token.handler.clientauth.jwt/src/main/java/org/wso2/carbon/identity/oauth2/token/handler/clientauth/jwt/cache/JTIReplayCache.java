@@ -0,0 +1,368 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Node local replay cache for JTIs.
+ * Each entry is evicted at its own eviction time (the expiry time of the assertion plus the allowed clock skew),
+ * instead of after a fixed cache timeout. Eviction is driven by hierarchical timing wheels which are advanced by
+ * the calling threads, so scheduling and evicting an entry costs O(1) amortized and the cache only holds the JTIs
+ * of the assertions that can still be accepted.
+ * The JTIs are spread over independently locked stripes, each with its own timing wheel, so that concurrent
+ * requests only contend when their JTIs fall into the same stripe. Lookups take no lock.
+ */
+public class JTIReplayCache {
+
+    public static final long DEFAULT_TICK_IN_MILLIS = 1000;
+    private static final int STRIPES = 16;
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS_PER_LEVEL = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS_PER_LEVEL - 1;
+    private static final int LEVELS = 4;
+    // Number of ticks covered by the wheel. Entries beyond this are parked in the last level and re-scheduled.
+    private static final long MAX_TICKS = 1L << (SLOT_BITS * LEVELS);
+
+    private final ConcurrentMap<JWTCacheKey, Node> entries = new ConcurrentHashMap<>();
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final long tickInMillis;
+
+    public JTIReplayCache() {
+
+        this(DEFAULT_TICK_IN_MILLIS);
+    }
+
+    /**
+     * @param tickInMillis Resolution of the timing wheel. Entries are evicted at most one tick after their eviction
+     *                     time, but are never returned after it.
+     */
+    public JTIReplayCache(long tickInMillis) {
+
+        this.tickInMillis = tickInMillis;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Get the entry of the JTI. Lookups do not take any lock.
+     *
+     * @param key         Cache key.
+     * @param currentTime Current time in milliseconds.
+     * @return Cache entry, or null if there is no entry or the entry is past its eviction time.
+     */
+    public JWTCacheEntry get(JWTCacheKey key, long currentTime) {
+
+        Node node = entries.get(key);
+        if (node == null || node.evictionTime <= currentTime) {
+            return null;
+        }
+        return node.entry;
+    }
+
+    /**
+     * Add the entry, unless a live entry already exists for the JTI.
+     *
+     * @param key          Cache key.
+     * @param entry        Cache entry.
+     * @param evictionTime Time in milliseconds after which the JTI can no longer be replayed.
+     * @param currentTime  Current time in milliseconds.
+     * @return The existing entry, or null if the entry was added.
+     */
+    public JWTCacheEntry putIfAbsent(JWTCacheKey key, JWTCacheEntry entry, long evictionTime, long currentTime) {
+
+        Stripe stripe = getStripe(key);
+        synchronized (stripe) {
+            stripe.advance(currentTime);
+            Node existing = entries.get(key);
+            if (existing != null && existing.evictionTime > currentTime) {
+                return existing.entry;
+            }
+            stripe.replace(key, existing, entry, evictionTime, currentTime);
+            return null;
+        }
+    }
+
+    /**
+     * Add or replace the entry of the JTI.
+     *
+     * @param key          Cache key.
+     * @param entry        Cache entry.
+     * @param evictionTime Time in milliseconds after which the JTI can no longer be replayed.
+     * @param currentTime  Current time in milliseconds.
+     */
+    public void put(JWTCacheKey key, JWTCacheEntry entry, long evictionTime, long currentTime) {
+
+        Stripe stripe = getStripe(key);
+        synchronized (stripe) {
+            stripe.advance(currentTime);
+            stripe.replace(key, entries.get(key), entry, evictionTime, currentTime);
+        }
+    }
+
+    /**
+     * Remove the entry of the JTI.
+     *
+     * @param key Cache key.
+     */
+    public void remove(JWTCacheKey key) {
+
+        Stripe stripe = getStripe(key);
+        synchronized (stripe) {
+            Node node = entries.remove(key);
+            if (node != null) {
+                node.unlink();
+                stripe.size--;
+            }
+        }
+    }
+
+    /**
+     * Evict the entries past their eviction time from all the stripes.
+     *
+     * @param currentTime Current time in milliseconds.
+     */
+    public void advance(long currentTime) {
+
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.advance(currentTime);
+            }
+        }
+    }
+
+    public int size() {
+
+        return entries.size();
+    }
+
+    public void clear() {
+
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                for (Node node : stripe.drain()) {
+                    entries.remove(node.key, node);
+                }
+            }
+        }
+    }
+
+    private Stripe getStripe(JWTCacheKey key) {
+
+        int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+    }
+
+    /**
+     * Timing wheel of a stripe. All the methods are called holding the lock of the stripe.
+     */
+    private final class Stripe {
+
+        private final Node[][] wheel = new Node[LEVELS][SLOTS_PER_LEVEL];
+        private long currentTick = -1;
+        private int size;
+
+        private Stripe() {
+
+            for (Node[] level : wheel) {
+                for (int i = 0; i < SLOTS_PER_LEVEL; i++) {
+                    level[i] = new Node(null, null, 0);
+                }
+            }
+        }
+
+        private void advance(long currentTime) {
+
+            long targetTick = currentTime / tickInMillis;
+            if (currentTick < 0 || size == 0) {
+                currentTick = targetTick;
+                return;
+            }
+            long elapsedTicks = targetTick - currentTick;
+            if (elapsedTicks >= SLOTS_PER_LEVEL && elapsedTicks >= size) {
+                // After a long idle period, re-scheduling the entries is cheaper than ticking through the gap.
+                currentTick = targetTick;
+                rescheduleAll(currentTime);
+                return;
+            }
+            while (currentTick < targetTick) {
+                currentTick++;
+                int slot = (int) (currentTick & SLOT_MASK);
+                if (slot == 0) {
+                    cascade();
+                }
+                expire(wheel[0][slot], currentTime);
+            }
+        }
+
+        private void replace(JWTCacheKey key, Node existing, JWTCacheEntry entry, long evictionTime,
+                             long currentTime) {
+
+            if (existing != null) {
+                existing.unlink();
+                size--;
+            }
+            if (evictionTime <= currentTime) {
+                entries.remove(key);
+                return;
+            }
+            Node node = new Node(key, entry, evictionTime);
+            entries.put(key, node);
+            size++;
+            schedule(node);
+        }
+
+        private void schedule(Node node) {
+
+            // Round up, so that an entry is never evicted before its eviction time.
+            long expiryTick = (node.evictionTime + tickInMillis - 1) / tickInMillis;
+            long delta = Math.max(expiryTick - currentTick, 0);
+            if (delta >= MAX_TICKS) {
+                expiryTick = currentTick + MAX_TICKS - 1;
+                delta = MAX_TICKS - 1;
+            } else {
+                expiryTick = currentTick + delta;
+            }
+            int level = 0;
+            while ((delta >>> (SLOT_BITS * (level + 1))) != 0) {
+                level++;
+            }
+            int slot = (int) ((expiryTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+            wheel[level][slot].append(node);
+        }
+
+        /**
+         * Move the entries of the next slot of each higher level down, when the lower level completes a revolution.
+         */
+        private void cascade() {
+
+            for (int level = 1; level < LEVELS; level++) {
+                int slot = (int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+                Node head = wheel[level][slot];
+                Node node = head.next;
+                head.previous = head;
+                head.next = head;
+                while (node != head) {
+                    Node next = node.next;
+                    node.previous = node;
+                    node.next = node;
+                    schedule(node);
+                    node = next;
+                }
+                if (slot != 0) {
+                    return;
+                }
+            }
+        }
+
+        private void expire(Node head, long currentTime) {
+
+            Node node = head.next;
+            while (node != head) {
+                Node next = node.next;
+                node.unlink();
+                if (node.evictionTime <= currentTime) {
+                    entries.remove(node.key, node);
+                    size--;
+                } else {
+                    // Scheduled in this tick, but its eviction time is later within the tick.
+                    schedule(node);
+                }
+                node = next;
+            }
+        }
+
+        private void rescheduleAll(long currentTime) {
+
+            for (Node node : drain()) {
+                if (node.evictionTime <= currentTime) {
+                    entries.remove(node.key, node);
+                } else {
+                    size++;
+                    schedule(node);
+                }
+            }
+        }
+
+        /**
+         * Unlink all the entries of the stripe from its wheel.
+         *
+         * @return The unlinked entries.
+         */
+        private List<Node> drain() {
+
+            List<Node> nodes = new ArrayList<>(size);
+            for (Node[] level : wheel) {
+                for (Node head : level) {
+                    Node node = head.next;
+                    while (node != head) {
+                        Node next = node.next;
+                        node.previous = node;
+                        node.next = node;
+                        nodes.add(node);
+                        node = next;
+                    }
+                    head.previous = head;
+                    head.next = head;
+                }
+            }
+            size = 0;
+            return nodes;
+        }
+    }
+
+    /**
+     * Entry of a slot, linked into the circular list of the slot. The head of each slot is a sentinel node.
+     */
+    private static final class Node {
+
+        private final JWTCacheKey key;
+        private final JWTCacheEntry entry;
+        private final long evictionTime;
+        private Node previous = this;
+        private Node next = this;
+
+        private Node(JWTCacheKey key, JWTCacheEntry entry, long evictionTime) {
+
+            this.key = key;
+            this.entry = entry;
+            this.evictionTime = evictionTime;
+        }
+
+        private void append(Node node) {
+
+            node.previous = previous;
+            node.next = this;
+            previous.next = node;
+            previous = node;
+        }
+
+        private void unlink() {
+
+            previous.next = next;
+            next.previous = previous;
+            previous = this;
+            next = this;
+        }
+    }
+}
@@ -0,0 +1,407 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.ECDSAVerifier;
+import com.nimbusds.jose.crypto.RSASSAVerifier;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.util.DefaultResourceRetriever;
+import com.nimbusds.jose.util.ResourceRetriever;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.util.CacheUtil;
+
+import java.io.IOException;
+import java.net.URL;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of the signature verifiers of the keys published at the JWKS URIs of the clients, indexed by key id.
+ * A key set which has been used since it was fetched is refreshed in the background once it is older than the
+ * refresh interval, ahead of its max age. It is served stale while the refresh is in progress or has failed, up to the
+ * max age. A failed refresh is retried by the first request after the minimum refetch interval. Only one fetch of a
+ * JWKS URI is in flight at a time, the concurrent requests of the same URI wait for and share its result. An assertion
+ * signed with an unknown key id triggers a refetch, as the client may have rotated its keys, but at most once per
+ * minimum refetch interval.
+ */
+public class JWKSCache {
+
+    private static final Log log = LogFactory.getLog(JWKSCache.class);
+    private static final String REFRESH_THREAD_NAME = "JWKSCacheRefresher";
+    public static final int DEFAULT_CAPACITY = 1000;
+    public static final long DEFAULT_REFRESH_INTERVAL_IN_MILLIS = 300000;
+    public static final long DEFAULT_MAX_AGE_IN_MILLIS = 3600000;
+    public static final long DEFAULT_MIN_REFETCH_INTERVAL_IN_MILLIS = 30000;
+    public static final int DEFAULT_CONNECT_TIMEOUT_IN_MILLIS = 1000;
+    public static final int DEFAULT_READ_TIMEOUT_IN_MILLIS = 1000;
+    public static final int DEFAULT_SIZE_LIMIT_IN_BYTES = 51200;
+
+    private final ConcurrentMap<String, KeySet> keySets = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, CompletableFuture<KeySet>> inFlightFetches = new ConcurrentHashMap<>();
+    private final ResourceRetriever resourceRetriever;
+    private final ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, REFRESH_THREAD_NAME);
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final int capacity;
+    private final long refreshIntervalInMillis;
+    private final long maxAgeInMillis;
+    private final long minRefetchIntervalInMillis;
+
+    public JWKSCache() {
+
+        this(DEFAULT_CAPACITY, DEFAULT_REFRESH_INTERVAL_IN_MILLIS, DEFAULT_MAX_AGE_IN_MILLIS,
+                DEFAULT_MIN_REFETCH_INTERVAL_IN_MILLIS);
+    }
+
+    /**
+     * @param capacity                   Maximum number of cached key sets.
+     * @param refreshIntervalInMillis    Age of a key set after which it is refreshed in the background.
+     * @param maxAgeInMillis             Age of a key set after which it is no longer served.
+     * @param minRefetchIntervalInMillis Minimum time between two fetches of a JWKS URI for an unknown key id or after
+     *                                   a failed refresh.
+     */
+    public JWKSCache(int capacity, long refreshIntervalInMillis, long maxAgeInMillis,
+                     long minRefetchIntervalInMillis) {
+
+        this(capacity, refreshIntervalInMillis, maxAgeInMillis, minRefetchIntervalInMillis,
+                DEFAULT_CONNECT_TIMEOUT_IN_MILLIS, DEFAULT_READ_TIMEOUT_IN_MILLIS, DEFAULT_SIZE_LIMIT_IN_BYTES);
+    }
+
+    /**
+     * @param capacity                   Maximum number of cached key sets.
+     * @param refreshIntervalInMillis    Age of a key set after which it is refreshed in the background.
+     * @param maxAgeInMillis             Age of a key set after which it is no longer served.
+     * @param minRefetchIntervalInMillis Minimum time between two fetches of a JWKS URI for an unknown key id or after
+     *                                   a failed refresh.
+     * @param connectTimeoutInMillis     Connection timeout of a JWKS fetch.
+     * @param readTimeoutInMillis        Read timeout of a JWKS fetch.
+     * @param sizeLimitInBytes           Maximum size of a JWKS.
+     */
+    public JWKSCache(int capacity, long refreshIntervalInMillis, long maxAgeInMillis,
+                     long minRefetchIntervalInMillis, int connectTimeoutInMillis, int readTimeoutInMillis,
+                     int sizeLimitInBytes) {
+
+        this.resourceRetriever = new DefaultResourceRetriever(connectTimeoutInMillis, readTimeoutInMillis,
+                sizeLimitInBytes);
+        this.capacity = capacity;
+        this.refreshIntervalInMillis = refreshIntervalInMillis;
+        this.maxAgeInMillis = maxAgeInMillis;
+        this.minRefetchIntervalInMillis = minRefetchIntervalInMillis;
+    }
+
+    /**
+     * Get the verifiers of the keys of the JWKS URI which may have signed an assertion.
+     *
+     * @param jwksUri   JWKS URI of the client.
+     * @param keyId     Key id of the assertion, or null if the assertion has no key id.
+     * @param algorithm Signature algorithm of the assertion.
+     * @return Verifiers of the matching keys, empty if no key matches. The list may be shared and must not be
+     *         modified.
+     * @throws IdentityOAuth2Exception If the key set could not be fetched and no usable key set is cached.
+     */
+    public List<JWSVerifier> getVerifiers(String jwksUri, String keyId, JWSAlgorithm algorithm)
+            throws IdentityOAuth2Exception {
+
+        return getVerifiers(jwksUri, keyId, null, algorithm);
+    }
+
+    /**
+     * Get the verifiers of the keys of the JWKS URI which may have signed an assertion. An assertion without a key id
+     * is matched on its X.509 certificate SHA-256 thumbprint, if any of the keys publishes that thumbprint.
+     *
+     * @param jwksUri                  JWKS URI of the client.
+     * @param keyId                    Key id of the assertion, or null if the assertion has no key id.
+     * @param x509CertSHA256Thumbprint Base64url encoded X.509 certificate SHA-256 thumbprint of the assertion, or null
+     *                                 if the assertion has none.
+     * @param algorithm                Signature algorithm of the assertion.
+     * @return Verifiers of the matching keys, empty if no key matches. The list may be shared and must not be
+     *         modified.
+     * @throws IdentityOAuth2Exception If the key set could not be fetched and no usable key set is cached.
+     */
+    public List<JWSVerifier> getVerifiers(String jwksUri, String keyId, String x509CertSHA256Thumbprint,
+                                          JWSAlgorithm algorithm) throws IdentityOAuth2Exception {
+
+        long now = System.currentTimeMillis();
+        KeySet keySet = keySets.get(jwksUri);
+        if (keySet == null || now - keySet.fetchedTime >= maxAgeInMillis) {
+            keySet = fetch(jwksUri);
+        } else if (now - keySet.fetchedTime >= refreshIntervalInMillis) {
+            refreshInBackground(jwksUri, keySet, now);
+        }
+        if (!keySet.used) {
+            keySet.used = true;
+        }
+        List<JWSVerifier> verifiers = keySet.getVerifiers(keyId, x509CertSHA256Thumbprint, algorithm);
+        if (verifiers.isEmpty() && keyId != null && now - keySet.attemptedTime.get() >= minRefetchIntervalInMillis) {
+            // The client may have rotated its keys.
+            if (log.isDebugEnabled()) {
+                log.debug("No key found for the key id: " + keyId + " in the cached JWKS of: " + jwksUri +
+                        ". Refetching the JWKS.");
+            }
+            verifiers = fetch(jwksUri).getVerifiers(keyId, x509CertSHA256Thumbprint, algorithm);
+        }
+        return verifiers;
+    }
+
+    /**
+     * Remove the key set of the JWKS URI.
+     *
+     * @param jwksUri JWKS URI.
+     */
+    public void invalidate(String jwksUri) {
+
+        keySets.remove(jwksUri);
+    }
+
+    public void clear() {
+
+        keySets.clear();
+    }
+
+    public int size() {
+
+        return keySets.size();
+    }
+
+    /**
+     * Stop the background refreshes. The key sets are fetched in the request threads from then on.
+     */
+    public void shutdown() {
+
+        refresher.shutdownNow();
+    }
+
+    private void refreshInBackground(String jwksUri, KeySet keySet, long now) {
+
+        long attemptedTime = keySet.attemptedTime.get();
+        // Only the request which claims the attempt schedules the refresh.
+        if (now - attemptedTime < minRefetchIntervalInMillis || !keySet.attemptedTime.compareAndSet(attemptedTime,
+                now)) {
+            return;
+        }
+        try {
+            refresher.execute(() -> {
+                try {
+                    fetch(jwksUri);
+                } catch (IdentityOAuth2Exception e) {
+                    log.error("Error while refreshing the JWKS of: " + jwksUri, e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            if (log.isDebugEnabled()) {
+                log.debug("JWKS cache refresher is stopped. Skipping the refresh of: " + jwksUri);
+            }
+        }
+    }
+
+    private void scheduleRefresh(String jwksUri, KeySet keySet) {
+
+        try {
+            refresher.schedule(() -> {
+                // Key sets which have been replaced, evicted or not used since they were fetched are left to age out.
+                if (keySets.get(jwksUri) != keySet || !keySet.used) {
+                    return;
+                }
+                try {
+                    fetch(jwksUri);
+                } catch (IdentityOAuth2Exception e) {
+                    log.error("Error while refreshing the JWKS of: " + jwksUri, e);
+                }
+            }, refreshIntervalInMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            if (log.isDebugEnabled()) {
+                log.debug("JWKS cache refresher is stopped. Skipping the scheduled refresh of: " + jwksUri);
+            }
+        }
+    }
+
+    private KeySet fetch(String jwksUri) throws IdentityOAuth2Exception {
+
+        CompletableFuture<KeySet> fetch = new CompletableFuture<>();
+        CompletableFuture<KeySet> inFlightFetch = inFlightFetches.putIfAbsent(jwksUri, fetch);
+        if (inFlightFetch == null) {
+            try {
+                fetch.complete(load(jwksUri));
+            } catch (IdentityOAuth2Exception | RuntimeException e) {
+                fetch.completeExceptionally(e);
+            } finally {
+                inFlightFetches.remove(jwksUri, fetch);
+            }
+            inFlightFetch = fetch;
+        }
+        try {
+            return inFlightFetch.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdentityOAuth2Exception("Interrupted while retrieving the JWKS from: " + jwksUri, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IdentityOAuth2Exception) {
+                throw (IdentityOAuth2Exception) e.getCause();
+            }
+            throw new IdentityOAuth2Exception("Error while retrieving the JWKS from: " + jwksUri, e.getCause());
+        }
+    }
+
+    private KeySet load(String jwksUri) throws IdentityOAuth2Exception {
+
+        long now = System.currentTimeMillis();
+        KeySet cachedKeySet = keySets.get(jwksUri);
+        if (cachedKeySet != null) {
+            cachedKeySet.attemptedTime.set(now);
+        }
+        KeySet keySet;
+        try {
+            String content = resourceRetriever.retrieveResource(new URL(jwksUri)).getContent();
+            keySet = new KeySet(JWKSet.parse(content), now);
+        } catch (IOException | ParseException e) {
+            if (cachedKeySet != null && now - cachedKeySet.fetchedTime < maxAgeInMillis) {
+                log.warn("Error while retrieving the JWKS from: " + jwksUri + ". Using the cached JWKS.", e);
+                return cachedKeySet;
+            }
+            throw new IdentityOAuth2Exception("Error while retrieving the JWKS from: " + jwksUri, e);
+        }
+        // Make room by evicting the key sets fetched first, they are fetched again on the next request of their
+        // clients.
+        CacheUtil.makeRoom(keySets, capacity, jwksUri, cached -> cached.fetchedTime, Long.MIN_VALUE);
+        keySets.put(jwksUri, keySet);
+        scheduleRefresh(jwksUri, keySet);
+        if (log.isDebugEnabled()) {
+            log.debug("Cached " + keySet.keys.size() + " signing keys of the JWKS: " + jwksUri);
+        }
+        return keySet;
+    }
+
+    private static final class KeySet {
+
+        private final List<Key> keys;
+        private final Map<String, List<Key>> keysById;
+        private final Map<String, List<Key>> keysByThumbprint;
+        private final long fetchedTime;
+        private final AtomicLong attemptedTime;
+        private volatile boolean used;
+
+        private KeySet(JWKSet jwkSet, long fetchedTime) {
+
+            List<Key> keys = new ArrayList<>();
+            Map<String, List<Key>> keysById = new HashMap<>();
+            Map<String, List<Key>> keysByThumbprint = new HashMap<>();
+            for (JWK jwk : jwkSet.getKeys()) {
+                if (jwk.getKeyUse() != null && !KeyUse.SIGNATURE.equals(jwk.getKeyUse())) {
+                    continue;
+                }
+                Key key;
+                try {
+                    if (jwk instanceof RSAKey) {
+                        key = new Key(JWSAlgorithm.Family.RSA, jwk, new RSASSAVerifier((RSAKey) jwk));
+                    } else if (jwk instanceof ECKey) {
+                        key = new Key(JWSAlgorithm.Family.EC, jwk, new ECDSAVerifier((ECKey) jwk));
+                    } else {
+                        continue;
+                    }
+                } catch (JOSEException e) {
+                    log.warn("Skipping the invalid key: " + jwk.getKeyID() + " of the JWKS.", e);
+                    continue;
+                }
+                keys.add(key);
+                if (jwk.getKeyID() != null) {
+                    keysById.computeIfAbsent(jwk.getKeyID(), keyId -> new ArrayList<>(1)).add(key);
+                }
+                if (jwk.getX509CertSHA256Thumbprint() != null) {
+                    keysByThumbprint.computeIfAbsent(jwk.getX509CertSHA256Thumbprint().toString(),
+                            thumbprint -> new ArrayList<>(1)).add(key);
+                }
+            }
+            this.keys = keys;
+            this.keysById = keysById;
+            this.keysByThumbprint = keysByThumbprint;
+            this.fetchedTime = fetchedTime;
+            this.attemptedTime = new AtomicLong(fetchedTime);
+        }
+
+        private List<JWSVerifier> getVerifiers(String keyId, String x509CertSHA256Thumbprint, JWSAlgorithm algorithm) {
+
+            List<Key> candidates;
+            if (keyId != null) {
+                candidates = keysById.getOrDefault(keyId, Collections.emptyList());
+            } else if (x509CertSHA256Thumbprint != null) {
+                // Keys which do not publish their thumbprint are still candidates of an unknown thumbprint.
+                candidates = keysByThumbprint.getOrDefault(x509CertSHA256Thumbprint, keys);
+            } else {
+                candidates = keys;
+            }
+            if (candidates.size() == 1) {
+                // A key id or a thumbprint usually matches a single key, whose verifier is returned without copying.
+                Key key = candidates.get(0);
+                return key.matches(algorithm) ? key.verifiers : Collections.emptyList();
+            }
+            List<JWSVerifier> verifiers = new ArrayList<>(candidates.size());
+            for (Key key : candidates) {
+                if (key.matches(algorithm)) {
+                    verifiers.add(key.verifier);
+                }
+            }
+            return verifiers;
+        }
+    }
+
+    private static final class Key {
+
+        private final JWSAlgorithm.Family family;
+        private final JWK jwk;
+        private final JWSVerifier verifier;
+        private final List<JWSVerifier> verifiers;
+
+        private Key(JWSAlgorithm.Family family, JWK jwk, JWSVerifier verifier) {
+
+            this.family = family;
+            this.jwk = jwk;
+            this.verifier = verifier;
+            this.verifiers = Collections.singletonList(verifier);
+        }
+
+        private boolean matches(JWSAlgorithm algorithm) {
+
+            return family.contains(algorithm) && (jwk.getAlgorithm() == null || jwk.getAlgorithm().equals(algorithm));
+        }
+    }
+}
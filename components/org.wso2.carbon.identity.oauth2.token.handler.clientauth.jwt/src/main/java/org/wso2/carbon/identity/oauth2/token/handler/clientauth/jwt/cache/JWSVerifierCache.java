@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache;
+
+import com.nimbusds.jose.JWSVerifier;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache.ClientKeySourceCache.ClientKeySource;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.util.CacheUtil;
+
+import java.security.MessageDigest;
+import java.security.cert.CertificateEncodingException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache of the signature verifiers of the client certificates.
+ * A verifier is cached per client, tenant and algorithm family, along with the SHA-256 thumbprint of the certificate
+ * it was built from. A lookup with a certificate of another thumbprint misses, and the verifier built for the new
+ * certificate replaces the stale one, hence a certificate change of the application invalidates its verifier.
+ * The thumbprint is computed once per key source, hence once per client while its key source is cached.
+ * The verifiers are safe to be shared, as they hold nothing but the public key.
+ * The entries are invalidated on the application updates made on this node only, hence the cache is disabled unless
+ * it is enabled with EnableJWSVerifierCache.
+ */
+public class JWSVerifierCache {
+
+    public static final int DEFAULT_CAPACITY = 10000;
+
+    /**
+     * Signature algorithm families, each of which needs its own kind of verifier.
+     */
+    public enum AlgorithmFamily {
+
+        /**
+         * RS and PS algorithms, verified with an RSA public key.
+         */
+        RSA,
+
+        /**
+         * ES algorithms, verified with an EC public key.
+         */
+        EC;
+
+        /**
+         * @param algorithm Name of the signature algorithm.
+         * @return Family of the signature algorithm, or null if the algorithm is not supported.
+         */
+        public static AlgorithmFamily of(String algorithm) {
+
+            if (algorithm == null) {
+                return null;
+            }
+            if (algorithm.startsWith("RS") || algorithm.startsWith("PS")) {
+                return RSA;
+            }
+            if (algorithm.startsWith("ES")) {
+                return EC;
+            }
+            return null;
+        }
+    }
+
+    private final ConcurrentMap<String, Entry> verifiers = new ConcurrentHashMap<>();
+    private final AtomicLong putSequence = new AtomicLong();
+    private final int capacity;
+
+    public JWSVerifierCache() {
+
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity Maximum number of cached verifiers.
+     */
+    public JWSVerifierCache(int capacity) {
+
+        this.capacity = capacity;
+    }
+
+    /**
+     * Get the verifier built from the certificate of the given key source.
+     *
+     * @param clientId        Client id.
+     * @param tenantId        Tenant id.
+     * @param algorithmFamily Algorithm family of the assertion.
+     * @param keySource       Certificate based key source of the client.
+     * @return Cached verifier, or null if no verifier is cached for the certificate.
+     * @throws CertificateEncodingException If the certificate could not be encoded.
+     */
+    public JWSVerifier get(String clientId, int tenantId, AlgorithmFamily algorithmFamily,
+                           ClientKeySource keySource) throws CertificateEncodingException {
+
+        Entry entry = verifiers.get(getKey(clientId, tenantId, algorithmFamily));
+        if (entry == null || !MessageDigest.isEqual(entry.thumbprint, keySource.getCertificateThumbprint())) {
+            return null;
+        }
+        return entry.verifier;
+    }
+
+    /**
+     * Cache the verifier built from the certificate of the given key source, replacing the verifier of any previous
+     * certificate.
+     *
+     * @param clientId        Client id.
+     * @param tenantId        Tenant id.
+     * @param algorithmFamily Algorithm family of the assertion.
+     * @param keySource       Certificate based key source of the client.
+     * @param verifier        Verifier built from the certificate.
+     * @throws CertificateEncodingException If the certificate could not be encoded.
+     */
+    public void put(String clientId, int tenantId, AlgorithmFamily algorithmFamily, ClientKeySource keySource,
+                    JWSVerifier verifier) throws CertificateEncodingException {
+
+        String key = getKey(clientId, tenantId, algorithmFamily);
+        // Make room by evicting the verifiers cached first, they are rebuilt on the next request of their clients.
+        CacheUtil.makeRoom(verifiers, capacity, key, cached -> cached.sequence, Long.MIN_VALUE);
+        verifiers.put(key, new Entry(keySource.getCertificateThumbprint(), verifier, putSequence.incrementAndGet()));
+    }
+
+    /**
+     * Remove the verifiers of the client.
+     *
+     * @param clientId Client id.
+     * @param tenantId Tenant id.
+     */
+    public void invalidate(String clientId, int tenantId) {
+
+        for (AlgorithmFamily algorithmFamily : AlgorithmFamily.values()) {
+            verifiers.remove(getKey(clientId, tenantId, algorithmFamily));
+        }
+    }
+
+    /**
+     * Remove the verifiers of all the clients of the tenant.
+     *
+     * @param tenantId Tenant id.
+     */
+    public void invalidate(int tenantId) {
+
+        String prefix = tenantId + ":";
+        verifiers.keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    public void clear() {
+
+        verifiers.clear();
+    }
+
+    public int size() {
+
+        return verifiers.size();
+    }
+
+    private static String getKey(String clientId, int tenantId, AlgorithmFamily algorithmFamily) {
+
+        return tenantId + ":" + algorithmFamily.name() + ":" + clientId;
+    }
+
+    private static final class Entry {
+
+        private final byte[] thumbprint;
+        private final JWSVerifier verifier;
+        private final long sequence;
+
+        private Entry(byte[] thumbprint, JWSVerifier verifier, long sequence) {
+
+            this.thumbprint = thumbprint;
+            this.verifier = verifier;
+            this.sequence = sequence;
+        }
+    }
+}
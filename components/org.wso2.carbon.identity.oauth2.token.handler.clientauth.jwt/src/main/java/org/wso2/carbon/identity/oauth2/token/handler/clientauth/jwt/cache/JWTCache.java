@@ -23,7 +23,10 @@ import org.wso2.carbon.utils.CarbonUtils;
 
 /**
  * Implements a cache to store JWT references
+ *
+ * @deprecated The JTIs are cached in {@link JTIReplayCache}, which evicts them at the expiry of the assertion.
  */
+@Deprecated
 public class JWTCache extends AuthenticationBaseCache<JWTCacheKey, JWTCacheEntry> {
     public static final String PRIVATE_KEY_JWT_CACHE = "PrivateKeyJWT";
     private static volatile JWTCache instance;
@@ -23,23 +23,73 @@ import org.wso2.carbon.identity.core.cache.CacheEntry;
 import org.wso2.carbon.identity.core.util.IdentityUtil;
 
 import java.text.ParseException;
+import java.util.Date;
 
 /**
- * Cache Entry for JWT Cache
+ * Cache Entry for JWT Cache.
+ * Only the expiry time of the assertion is kept, so that the entry stays small regardless of the size of the
+ * assertion (e.g. x5c headers).
  */
 public class JWTCacheEntry extends CacheEntry {
+
+    private long expiryTime;
+    // Only set for the entries created with the deprecated constructor.
     private String encodedJWT;
 
+    public JWTCacheEntry(long expiryTime) {
+
+        this.expiryTime = expiryTime;
+    }
+
+    /**
+     * @param jwt Signed JWT.
+     * @deprecated Use {@link #JWTCacheEntry(long)} which does not keep the serialized JWT.
+     */
+    @Deprecated
     public JWTCacheEntry(SignedJWT jwt) {
+
         this.encodedJWT = jwt.serialize();
+        try {
+            Date expirationTime = jwt.getJWTClaimsSet().getExpirationTime();
+            if (expirationTime != null) {
+                this.expiryTime = expirationTime.getTime();
+            }
+        } catch (ParseException e) {
+            // The expiry time is left unset, as the claims of the JWT could not be parsed.
+            this.expiryTime = 0;
+        }
     }
 
+    /**
+     * @return Expiry time of the cached assertion in milliseconds, or 0 if it is not known.
+     */
+    public long getExpiryTime() {
+
+        return expiryTime;
+    }
+
+    /**
+     * @return Signed JWT, or null if the entry does not hold the serialized JWT.
+     * @throws ParseException If the serialized JWT could not be parsed.
+     * @deprecated Use {@link #getExpiryTime()}.
+     */
+    @Deprecated
     public SignedJWT getJwt() throws ParseException {
+
+        if (this.encodedJWT == null) {
+            return null;
+        }
         IdentityUtil.validateX5CLength(this.encodedJWT);
         return SignedJWT.parse(this.encodedJWT);
     }
 
+    /**
+     * @return Serialized JWT, or null if the entry does not hold the serialized JWT.
+     * @deprecated The serialized JWT is no longer cached.
+     */
+    @Deprecated
     public String getEncodedJWt() {
+
         return this.encodedJWT;
     }
 }
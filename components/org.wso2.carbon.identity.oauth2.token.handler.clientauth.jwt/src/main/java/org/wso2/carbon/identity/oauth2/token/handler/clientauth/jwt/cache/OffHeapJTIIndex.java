@@ -0,0 +1,359 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Node local replay index of JTIs, kept outside the heap.
+ * A JTI is recorded as a 128 bit hash of the tenant id and the JTI together with its eviction time, in open addressing
+ * tables allocated as direct buffers. The tables are striped by the hash, and slots are claimed with CAS, hence
+ * recording a JTI neither takes a lock nor leaves any object behind on the heap. Slots of evicted JTIs are reused in
+ * place, so the index never has to be resized or rebuilt.
+ * <p>
+ * Each slot is three longs: the two halves of the hash and a state word. The state word is 0 for a never used slot,
+ * -1 while a slot is being written, and otherwise holds the eviction time shifted left by one, with the lowest bit set
+ * once the insert is committed. An insert is published first as pending, and is committed only if no other live slot
+ * in the probe chain holds the same JTI. Concurrent inserts of the same JTI into different slots are resolved in favour
+ * of a committed slot, or else the slot closest to the start of the probe chain.
+ */
+public class OffHeapJTIIndex {
+
+    public static final int DEFAULT_MAX_PROBES = 128;
+    private static final int SEGMENT_BITS = 4;
+    private static final int SEGMENTS = 1 << SEGMENT_BITS;
+    private static final int MIN_SLOTS_PER_SEGMENT = 64;
+    // Keeps a segment within the 2GB limit of a direct buffer.
+    private static final int MAX_SLOTS_PER_SEGMENT = 1 << 26;
+    private static final int SLOT_SIZE = 3 * Long.BYTES;
+    private static final int LOW_HASH_OFFSET = Long.BYTES;
+    private static final int STATE_OFFSET = 2 * Long.BYTES;
+
+    private static final long EMPTY = 0;
+    private static final long BUSY = -1;
+    // Pending state with an eviction time in the past, used to release a slot.
+    private static final long RELEASED = 2;
+    private static final long COMMITTED = 1;
+
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class,
+            ByteOrder.nativeOrder());
+
+    /**
+     * Outcome of recording a JTI.
+     */
+    public enum Result {
+
+        /**
+         * The JTI was not recorded before, and is now recorded.
+         */
+        INSERTED,
+
+        /**
+         * The JTI is already recorded and not yet evicted.
+         */
+        REPLAYED,
+
+        /**
+         * The JTI could not be recorded as its probe chain is full. The caller has to fall back to the replay store.
+         */
+        FULL
+    }
+
+    private final ByteBuffer[] segments = new ByteBuffer[SEGMENTS];
+    private final int slotMask;
+    private final int maxProbes;
+
+    /**
+     * @param capacity Number of JTIs to be kept. Rounded up to a power of two.
+     */
+    public OffHeapJTIIndex(long capacity) {
+
+        this(capacity, DEFAULT_MAX_PROBES);
+    }
+
+    /**
+     * @param capacity  Number of JTIs to be kept. Rounded up to a power of two.
+     * @param maxProbes Maximum number of slots probed for a JTI.
+     */
+    public OffHeapJTIIndex(long capacity, int maxProbes) {
+
+        long slotsPerSegment = Math.max(MIN_SLOTS_PER_SEGMENT, (capacity + SEGMENTS - 1) / SEGMENTS);
+        int slots = (int) Math.min(MAX_SLOTS_PER_SEGMENT, Long.highestOneBit(slotsPerSegment - 1) << 1);
+        this.slotMask = slots - 1;
+        this.maxProbes = Math.min(maxProbes, slots);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = ByteBuffer.allocateDirect(slots * SLOT_SIZE).order(ByteOrder.nativeOrder());
+        }
+    }
+
+    /**
+     * Record the JTI, unless it is already recorded and not yet evicted.
+     *
+     * @param jti          JTI.
+     * @param tenantId     Tenant id.
+     * @param evictionTime Time in milliseconds after which the JTI can no longer be replayed.
+     * @param currentTime  Current time in milliseconds.
+     * @return Result of the insert.
+     */
+    public Result putIfAbsent(String jti, int tenantId, long evictionTime, long currentTime) {
+
+        long[] hash = hash(jti, tenantId);
+        ByteBuffer segment = segments[(int) (hash[0] >>> (Long.SIZE - SEGMENT_BITS))];
+        int home = (int) hash[1];
+        while (true) {
+            int reusable = -1;
+            long reusableState = EMPTY;
+            int target = -1;
+            for (int probe = 0; probe < maxProbes; probe++) {
+                int offset = offset(home, probe);
+                long state = awaitState(segment, offset);
+                if (state == EMPTY) {
+                    target = offset;
+                    break;
+                }
+                if (isLive(state, currentTime)) {
+                    if (matches(segment, offset, state, hash)) {
+                        return Result.REPLAYED;
+                    }
+                } else if (reusable < 0) {
+                    reusable = offset;
+                    reusableState = state;
+                }
+            }
+            long expected = EMPTY;
+            if (reusable >= 0) {
+                target = reusable;
+                expected = reusableState;
+            } else if (target < 0) {
+                return Result.FULL;
+            }
+            if (!LONGS.compareAndSet(segment, target + STATE_OFFSET, expected, BUSY)) {
+                // Another thread claimed the slot in the meantime.
+                continue;
+            }
+            LONGS.set(segment, target, hash[0]);
+            LONGS.set(segment, target + LOW_HASH_OFFSET, hash[1]);
+            long pending = evictionTime << 1;
+            LONGS.setVolatile(segment, target + STATE_OFFSET, pending);
+            if (hasConflictingInsert(segment, home, target, hash, currentTime)) {
+                LONGS.setVolatile(segment, target + STATE_OFFSET, RELEASED);
+                return Result.REPLAYED;
+            }
+            LONGS.setVolatile(segment, target + STATE_OFFSET, pending | COMMITTED);
+            return Result.INSERTED;
+        }
+    }
+
+    /**
+     * Check whether the JTI is recorded and not yet evicted.
+     *
+     * @param jti         JTI.
+     * @param tenantId    Tenant id.
+     * @param currentTime Current time in milliseconds.
+     * @return true if the JTI is recorded.
+     */
+    public boolean contains(String jti, int tenantId, long currentTime) {
+
+        return find(jti, tenantId, currentTime) >= 0;
+    }
+
+    /**
+     * Forget the JTI, e.g. when it could not be recorded in the replay store after all.
+     *
+     * @param jti         JTI.
+     * @param tenantId    Tenant id.
+     * @param currentTime Current time in milliseconds.
+     */
+    public void remove(String jti, int tenantId, long currentTime) {
+
+        long[] hash = hash(jti, tenantId);
+        ByteBuffer segment = segments[(int) (hash[0] >>> (Long.SIZE - SEGMENT_BITS))];
+        int home = (int) hash[1];
+        for (int probe = 0; probe < maxProbes; probe++) {
+            int offset = offset(home, probe);
+            long state = awaitState(segment, offset);
+            if (state == EMPTY) {
+                return;
+            }
+            if (isLive(state, currentTime) && matches(segment, offset, state, hash)) {
+                LONGS.compareAndSet(segment, offset + STATE_OFFSET, state, RELEASED);
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return Number of JTIs the index can hold.
+     */
+    public long getCapacity() {
+
+        return (long) SEGMENTS * (slotMask + 1);
+    }
+
+    private int find(String jti, int tenantId, long currentTime) {
+
+        long[] hash = hash(jti, tenantId);
+        ByteBuffer segment = segments[(int) (hash[0] >>> (Long.SIZE - SEGMENT_BITS))];
+        int home = (int) hash[1];
+        for (int probe = 0; probe < maxProbes; probe++) {
+            int offset = offset(home, probe);
+            long state = awaitState(segment, offset);
+            if (state == EMPTY) {
+                return -1;
+            }
+            if (isLive(state, currentTime) && matches(segment, offset, state, hash)) {
+                return offset;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Check the whole probe chain for another live slot of the same JTI, once the own slot is published as pending.
+     */
+    private boolean hasConflictingInsert(ByteBuffer segment, int home, int target, long[] hash, long currentTime) {
+
+        boolean beforeTarget = true;
+        for (int probe = 0; probe < maxProbes; probe++) {
+            int offset = offset(home, probe);
+            if (offset == target) {
+                beforeTarget = false;
+                continue;
+            }
+            long state = awaitState(segment, offset);
+            if (state == EMPTY) {
+                return false;
+            }
+            if (!isLive(state, currentTime) || !matches(segment, offset, state, hash)) {
+                continue;
+            }
+            if ((state & COMMITTED) != 0 || beforeTarget) {
+                return true;
+            }
+            // A pending insert later in the chain gives way to this one. Wait until it is released or committed.
+            while (state == (long) LONGS.getVolatile(segment, offset + STATE_OFFSET)) {
+                Thread.onSpinWait();
+            }
+            if ((long) LONGS.getVolatile(segment, offset + STATE_OFFSET) == (state | COMMITTED)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int offset(int home, int probe) {
+
+        return ((home + probe) & slotMask) * SLOT_SIZE;
+    }
+
+    private static long awaitState(ByteBuffer segment, int offset) {
+
+        long state = (long) LONGS.getVolatile(segment, offset + STATE_OFFSET);
+        while (state == BUSY) {
+            Thread.onSpinWait();
+            state = (long) LONGS.getVolatile(segment, offset + STATE_OFFSET);
+        }
+        return state;
+    }
+
+    private static boolean isLive(long state, long currentTime) {
+
+        return (state >>> 1) > currentTime;
+    }
+
+    /**
+     * Compare the hash of the slot. The state is read again, as the slot could have been reused while reading.
+     */
+    private static boolean matches(ByteBuffer segment, int offset, long state, long[] hash) {
+
+        return (long) LONGS.get(segment, offset) == hash[0]
+                && (long) LONGS.get(segment, offset + LOW_HASH_OFFSET) == hash[1]
+                && (long) LONGS.getVolatile(segment, offset + STATE_OFFSET) == state;
+    }
+
+    /**
+     * 128 bit MurmurHash3 (x64 variant) of the UTF-16 code units of the JTI, seeded with the tenant id.
+     */
+    static long[] hash(String jti, int tenantId) {
+
+        long h1 = tenantId & 0xffffffffL;
+        long h2 = h1;
+        int length = jti.length();
+        int index = 0;
+        for (; index + 8 <= length; index += 8) {
+            h1 ^= mixK1(pack(jti, index, 4));
+            h1 = Long.rotateLeft(h1, 27) + h2;
+            h1 = h1 * 5 + 0x52dce729;
+            h2 ^= mixK2(pack(jti, index + 4, 4));
+            h2 = Long.rotateLeft(h2, 31) + h1;
+            h2 = h2 * 5 + 0x38495ab5;
+        }
+        int remaining = length - index;
+        if (remaining > 4) {
+            h2 ^= mixK2(pack(jti, index + 4, remaining - 4));
+        }
+        if (remaining > 0) {
+            h1 ^= mixK1(pack(jti, index, Math.min(remaining, 4)));
+        }
+        h1 ^= length;
+        h2 ^= length;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix(h1);
+        h2 = fmix(h2);
+        h1 += h2;
+        h2 += h1;
+        return new long[]{h1, h2};
+    }
+
+    private static long pack(String value, int from, int count) {
+
+        long packed = 0;
+        for (int i = 0; i < count; i++) {
+            packed |= (long) value.charAt(from + i) << (Character.SIZE * i);
+        }
+        return packed;
+    }
+
+    private static long mixK1(long k1) {
+
+        return Long.rotateLeft(k1 * C1, 31) * C2;
+    }
+
+    private static long mixK2(long k2) {
+
+        return Long.rotateLeft(k2 * C2, 33) * C1;
+    }
+
+    private static long fmix(long k) {
+
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
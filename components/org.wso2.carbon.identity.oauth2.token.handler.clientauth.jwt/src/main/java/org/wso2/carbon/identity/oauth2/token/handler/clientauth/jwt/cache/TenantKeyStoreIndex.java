@@ -0,0 +1,217 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.core.util.KeyStoreManager;
+import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
+import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
+
+import java.security.KeyStore;
+import java.security.KeyStoreException;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.DASH_DELIMITER;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.FULLSTOP_DELIMITER;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.KEYSTORE_FILE_EXTENSION;
+
+/**
+ * In-memory index of the certificates of the tenant keystores, used to resolve the certificates of the clients
+ * which are imported to the tenant keystore under the client id alias.
+ * The index of a tenant is built on its first lookup and shared across threads. At most once per refresh interval
+ * the keystore is fetched from the {@link KeyStoreManager} again, and the index is rebuilt if the keystore has been
+ * reloaded since the index was built. Concurrent refreshes of the same tenant are coalesced into one, while the
+ * tenants are refreshed independently of each other.
+ */
+public class TenantKeyStoreIndex {
+
+    private static final Log log = LogFactory.getLog(TenantKeyStoreIndex.class);
+    public static final long DEFAULT_REFRESH_INTERVAL_IN_MILLIS = 60000;
+
+    private final ConcurrentMap<Integer, Index> indexes = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Integer, CompletableFuture<Index>> inFlightRefreshes = new ConcurrentHashMap<>();
+    private final long refreshIntervalInMillis;
+
+    public TenantKeyStoreIndex() {
+
+        this(DEFAULT_REFRESH_INTERVAL_IN_MILLIS);
+    }
+
+    /**
+     * @param refreshIntervalInMillis Minimum time between two checks of a tenant keystore for changes.
+     */
+    public TenantKeyStoreIndex(long refreshIntervalInMillis) {
+
+        this.refreshIntervalInMillis = refreshIntervalInMillis;
+    }
+
+    /**
+     * Get the certificate of the alias from the keystore of the tenant.
+     *
+     * @param tenantDomain Tenant domain.
+     * @param tenantId     Tenant id.
+     * @param alias        Certificate alias.
+     * @return Certificate of the alias, or null if the keystore has no certificate for the alias.
+     * @throws IdentityOAuth2Exception If the keystore of the tenant could not be loaded.
+     */
+    public X509Certificate getCertificate(String tenantDomain, int tenantId, String alias)
+            throws IdentityOAuth2Exception {
+
+        Index index = indexes.get(tenantId);
+        if (index == null || index.checkedTime + refreshIntervalInMillis <= System.currentTimeMillis()) {
+            index = refresh(tenantDomain, tenantId);
+        }
+        // Keystore aliases are case insensitive.
+        return index.certificates.get(alias.toLowerCase(Locale.ENGLISH));
+    }
+
+    /**
+     * Drop the index of the tenant, so that it is rebuilt on the next lookup.
+     *
+     * @param tenantId Tenant id.
+     */
+    public void invalidate(int tenantId) {
+
+        indexes.remove(tenantId);
+    }
+
+    public void clear() {
+
+        indexes.clear();
+    }
+
+    private Index refresh(String tenantDomain, int tenantId) throws IdentityOAuth2Exception {
+
+        CompletableFuture<Index> refreshResult = new CompletableFuture<>();
+        CompletableFuture<Index> inFlightRefresh = inFlightRefreshes.putIfAbsent(tenantId, refreshResult);
+        if (inFlightRefresh != null) {
+            return await(inFlightRefresh, tenantDomain);
+        }
+        try {
+            Index index = doRefresh(tenantDomain, tenantId);
+            refreshResult.complete(index);
+            return index;
+        } catch (IdentityOAuth2Exception | RuntimeException e) {
+            refreshResult.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightRefreshes.remove(tenantId, refreshResult);
+        }
+    }
+
+    private static Index await(CompletableFuture<Index> inFlightRefresh, String tenantDomain)
+            throws IdentityOAuth2Exception {
+
+        try {
+            return inFlightRefresh.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdentityOAuth2Exception("Interrupted while loading the keystore of tenant: " + tenantDomain, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IdentityOAuth2Exception) {
+                throw (IdentityOAuth2Exception) e.getCause();
+            }
+            throw new IdentityOAuth2Exception("Error while loading the keystore of tenant: " + tenantDomain,
+                    e.getCause());
+        }
+    }
+
+    private Index doRefresh(String tenantDomain, int tenantId) throws IdentityOAuth2Exception {
+
+        long now = System.currentTimeMillis();
+        Index index = indexes.get(tenantId);
+        if (index != null && index.checkedTime + refreshIntervalInMillis > now) {
+            // Refreshed by another thread before this refresh got in.
+            return index;
+        }
+        KeyStore keyStore = loadKeyStore(tenantDomain, tenantId);
+        if (index != null && index.keyStore == keyStore) {
+            index.checkedTime = now;
+            return index;
+        }
+        index = new Index(keyStore, buildIndex(keyStore), now);
+        indexes.put(tenantId, index);
+        if (log.isDebugEnabled()) {
+            log.debug("Indexed " + index.certificates.size() + " certificates of the keystore of tenant: " +
+                    tenantDomain);
+        }
+        return index;
+    }
+
+    private static KeyStore loadKeyStore(String tenantDomain, int tenantId) throws IdentityOAuth2Exception {
+
+        try {
+            KeyStoreManager keyStoreManager = KeyStoreManager.getInstance(tenantId);
+            if (tenantId == MultitenantConstants.SUPER_TENANT_ID) {
+                return keyStoreManager.getPrimaryKeyStore();
+            }
+            String keyStoreName = tenantDomain.trim().replace(FULLSTOP_DELIMITER, DASH_DELIMITER) +
+                    KEYSTORE_FILE_EXTENSION;
+            return keyStoreManager.getKeyStore(keyStoreName);
+        } catch (Exception e) {
+            throw new IdentityOAuth2Exception("Error while loading the keystore of tenant: " + tenantDomain, e);
+        }
+    }
+
+    private static Map<String, X509Certificate> buildIndex(KeyStore keyStore) throws IdentityOAuth2Exception {
+
+        if (keyStore == null) {
+            return Collections.emptyMap();
+        }
+        Map<String, X509Certificate> certificates = new HashMap<>();
+        try {
+            Enumeration<String> aliases = keyStore.aliases();
+            while (aliases.hasMoreElements()) {
+                String alias = aliases.nextElement();
+                Certificate certificate = keyStore.getCertificate(alias);
+                if (certificate instanceof X509Certificate) {
+                    certificates.put(alias.toLowerCase(Locale.ENGLISH), (X509Certificate) certificate);
+                }
+            }
+        } catch (KeyStoreException e) {
+            throw new IdentityOAuth2Exception("Error while reading the certificates of the keystore.", e);
+        }
+        return Collections.unmodifiableMap(certificates);
+    }
+
+    private static final class Index {
+
+        private final KeyStore keyStore;
+        private final Map<String, X509Certificate> certificates;
+        private volatile long checkedTime;
+
+        private Index(KeyStore keyStore, Map<String, X509Certificate> certificates, long checkedTime) {
+
+            this.keyStore = keyStore;
+            this.certificates = certificates;
+            this.checkedTime = checkedTime;
+        }
+    }
+}
@@ -0,0 +1,249 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache;
+
+import com.nimbusds.jose.util.Base64URL;
+import com.nimbusds.jwt.SignedJWT;
+import org.wso2.carbon.identity.oauth.common.OAuth2ErrorCodes;
+import org.wso2.carbon.identity.oauth2.client.authentication.OAuthClientAuthnException;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.util.CacheUtil;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Bounded cache of the assertions whose signature has been verified, for the clients which are allowed to reuse
+ * their assertions. An assertion is identified by the SHA-256 digest of its signing input and signature, along with
+ * the client and tenant, and is remembered until it expires. Concurrent verifications of the same assertion are
+ * coalesced into one. Only the signature verification is memoized, the claims and the client are validated on
+ * every request.
+ */
+public class VerifiedAssertionCache {
+
+    public static final int DEFAULT_CAPACITY = 10000;
+    // Digest buffers larger than this are not kept for the next assertion of the thread.
+    private static final int MAX_RETAINED_BUFFER_SIZE = 64 * 1024;
+    private static final int INITIAL_BUFFER_SIZE = 4096;
+    private static final Base64.Encoder KEY_ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final ThreadLocal<byte[]> BUFFERS = ThreadLocal.withInitial(() -> new byte[INITIAL_BUFFER_SIZE]);
+
+    /**
+     * Verification of the signature of an assertion.
+     */
+    @FunctionalInterface
+    public interface SignatureVerification {
+
+        /**
+         * @return true if the signature is valid.
+         * @throws OAuthClientAuthnException If the signature could not be verified.
+         */
+        boolean verify() throws OAuthClientAuthnException;
+    }
+
+    private final ConcurrentMap<String, Entry> verifiedAssertions = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, CompletableFuture<Boolean>> inFlightVerifications = new ConcurrentHashMap<>();
+    private final int capacity;
+
+    public VerifiedAssertionCache() {
+
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity Maximum number of cached assertions.
+     */
+    public VerifiedAssertionCache(int capacity) {
+
+        this.capacity = capacity;
+    }
+
+    /**
+     * Verify the signature of the assertion, unless the assertion has already been verified.
+     *
+     * @param signedJWT           Assertion.
+     * @param clientId            Client id.
+     * @param tenantId            Tenant id.
+     * @param expiryTime          Time until which the assertion can be accepted.
+     * @param currentTimeInMillis Current time.
+     * @param verification        Verification of the signature, run on a cache miss.
+     * @return true if the signature is valid.
+     * @throws OAuthClientAuthnException If the signature could not be verified.
+     */
+    public boolean verify(SignedJWT signedJWT, String clientId, int tenantId, long expiryTime,
+                          long currentTimeInMillis, SignatureVerification verification)
+            throws OAuthClientAuthnException {
+
+        String key = getKey(signedJWT, clientId, tenantId);
+        Entry entry = verifiedAssertions.get(key);
+        if (entry != null) {
+            if (entry.expiryTime > currentTimeInMillis) {
+                return true;
+            }
+            verifiedAssertions.remove(key, entry);
+        }
+
+        CompletableFuture<Boolean> verificationResult = new CompletableFuture<>();
+        CompletableFuture<Boolean> inFlightVerification = inFlightVerifications.putIfAbsent(key, verificationResult);
+        if (inFlightVerification != null) {
+            return await(inFlightVerification);
+        }
+        try {
+            boolean verified = verification.verify();
+            if (verified && expiryTime > currentTimeInMillis) {
+                put(key, new Entry(clientId, tenantId, expiryTime));
+            }
+            verificationResult.complete(verified);
+            return verified;
+        } catch (OAuthClientAuthnException | RuntimeException e) {
+            verificationResult.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightVerifications.remove(key, verificationResult);
+        }
+    }
+
+    /**
+     * Remove the verified assertions of the client.
+     *
+     * @param clientId Client id.
+     * @param tenantId Tenant id.
+     */
+    public void invalidate(String clientId, int tenantId) {
+
+        verifiedAssertions.values().removeIf(entry -> entry.tenantId == tenantId && entry.clientId.equals(clientId));
+    }
+
+    /**
+     * Remove the verified assertions of all the clients of the tenant.
+     *
+     * @param tenantId Tenant id.
+     */
+    public void invalidate(int tenantId) {
+
+        verifiedAssertions.values().removeIf(entry -> entry.tenantId == tenantId);
+    }
+
+    public void clear() {
+
+        verifiedAssertions.clear();
+    }
+
+    public int size() {
+
+        return verifiedAssertions.size();
+    }
+
+    private void put(String key, Entry entry) {
+
+        // Make room by evicting the expired assertions, else the ones expiring first. The signature of an evicted
+        // assertion is verified again on its next use.
+        CacheUtil.makeRoom(verifiedAssertions, capacity, key, cached -> cached.expiryTime,
+                System.currentTimeMillis());
+        verifiedAssertions.put(key, entry);
+    }
+
+    private static boolean await(CompletableFuture<Boolean> inFlightVerification) throws OAuthClientAuthnException {
+
+        try {
+            return inFlightVerification.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OAuthClientAuthnException("Interrupted while verifying the signature of the assertion.",
+                    OAuth2ErrorCodes.INVALID_REQUEST, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof OAuthClientAuthnException) {
+                throw (OAuthClientAuthnException) e.getCause();
+            }
+            throw new OAuthClientAuthnException("Error while verifying the signature of the assertion.",
+                    OAuth2ErrorCodes.INVALID_REQUEST, e.getCause());
+        }
+    }
+
+    private static String getKey(SignedJWT signedJWT, String clientId, int tenantId) {
+
+        MessageDigest messageDigest = CacheUtil.getSHA256Digest();
+        // The signing input of a parsed assertion is digested from its parts as they were received, without encoding
+        // the signing input again.
+        if (!updateParsedParts(messageDigest, signedJWT.getParsedParts())) {
+            messageDigest.reset();
+            messageDigest.update(signedJWT.getSigningInput());
+            messageDigest.update((byte) '.');
+            messageDigest.update(signedJWT.getSignature().toString().getBytes(StandardCharsets.US_ASCII));
+        }
+        return tenantId + ":" + clientId + ":" + KEY_ENCODER.encodeToString(messageDigest.digest());
+    }
+
+    /**
+     * Digest the parts of the compact serialization joined by dots, through a buffer of the thread.
+     *
+     * @return false if the assertion was not parsed or a part is not ASCII, in which case the digest is to be reset.
+     */
+    private static boolean updateParsedParts(MessageDigest messageDigest, Base64URL[] parts) {
+
+        if (parts == null || parts.length != 3) {
+            return false;
+        }
+        int length = parts.length - 1;
+        for (Base64URL part : parts) {
+            length += part.toString().length();
+        }
+        byte[] buffer = BUFFERS.get();
+        if (buffer.length < length) {
+            buffer = new byte[Math.max(length, buffer.length * 2)];
+            if (buffer.length <= MAX_RETAINED_BUFFER_SIZE) {
+                BUFFERS.set(buffer);
+            }
+        }
+        int offset = 0;
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0) {
+                buffer[offset++] = '.';
+            }
+            String part = parts[i].toString();
+            for (int j = 0; j < part.length(); j++) {
+                char c = part.charAt(j);
+                if (c > 0x7F) {
+                    return false;
+                }
+                buffer[offset++] = (byte) c;
+            }
+        }
+        messageDigest.update(buffer, 0, length);
+        return true;
+    }
+
+    private static final class Entry {
+
+        private final String clientId;
+        private final int tenantId;
+        private final long expiryTime;
+
+        private Entry(String clientId, int tenantId, long expiryTime) {
+
+            this.clientId = clientId;
+            this.tenantId = tenantId;
+            this.expiryTime = expiryTime;
+        }
+    }
+}
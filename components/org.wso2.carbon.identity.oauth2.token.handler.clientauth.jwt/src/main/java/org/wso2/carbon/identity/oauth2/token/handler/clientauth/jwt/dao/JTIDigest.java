@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao;
+
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.util.CacheUtil;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+/**
+ * Fixed width digest of a JTI, persisted in the JTI_DIGEST column of the IDN_OIDC_JTI_DIGEST table when the hashed
+ * JTI storage is enabled. The digest is the first 128 bits of the SHA-256 hash of the tenant id and the JTI, hence
+ * the same JTI of different tenants is kept apart, and the raw JTIs in the IDN_OIDC_JTI table are never mistaken for
+ * digests.
+ */
+public class JTIDigest {
+
+    public static final int LENGTH = 16;
+
+    private JTIDigest() {
+
+    }
+
+    /**
+     * @param tenantId Tenant id.
+     * @param jti      JTI.
+     * @return Digest of the JTI of the tenant.
+     */
+    public static byte[] digest(int tenantId, String jti) {
+
+        MessageDigest messageDigest = CacheUtil.getSHA256Digest();
+        messageDigest.update((byte) (tenantId >>> 24));
+        messageDigest.update((byte) (tenantId >>> 16));
+        messageDigest.update((byte) (tenantId >>> 8));
+        messageDigest.update((byte) tenantId);
+        return Arrays.copyOf(messageDigest.digest(jti.getBytes(StandardCharsets.UTF_8)), LENGTH);
+    }
+}
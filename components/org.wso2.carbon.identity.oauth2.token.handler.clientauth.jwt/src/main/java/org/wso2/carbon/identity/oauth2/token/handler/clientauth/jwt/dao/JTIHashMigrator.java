@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.oauth2.client.authentication.OAuthClientAuthnException;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.internal.JWTServiceDataHolder;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.JTI_HASH_MIGRATION_LEASE;
+
+/**
+ * Backfills the hashed JTI storage by moving the raw JTIs persisted in the IDN_OIDC_JTI table to the
+ * IDN_OIDC_JTI_DIGEST table. Only the JTIs which are not expired are migrated, the expired ones are left to the purge.
+ * The table is walked in keyset paginated chunks.
+ * Only the node holding the migration lease in the IDN_OIDC_JTI_LEASE table migrates at a time. The other nodes retry
+ * once the lease is released or expired, until each of them completes a pass. Until then, the raw JTIs are looked up
+ * along with the digests, so that the replay of a raw JTI is detected in the hashed storage mode.
+ */
+public class JTIHashMigrator {
+
+    private static final Log log = LogFactory.getLog(JTIHashMigrator.class);
+    private static final String MIGRATION_THREAD_NAME = "JTIHashMigrator";
+    private static final long LEASE_DURATION_IN_MILLIS = TimeUnit.MINUTES.toMillis(10);
+    private static final long RETRY_INTERVAL_IN_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    private final JWTStorageManager jwtStorageManager;
+    private final int chunkSize;
+    private final long clockSkewInMillis;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final AtomicLong migratedRowCount = new AtomicLong();
+    private volatile boolean completed;
+    private ScheduledExecutorService scheduler;
+
+    public JTIHashMigrator(JWTStorageManager jwtStorageManager, int chunkSize, long clockSkewInMillis) {
+
+        this.jwtStorageManager = jwtStorageManager;
+        this.chunkSize = chunkSize;
+        this.clockSkewInMillis = clockSkewInMillis;
+    }
+
+    /**
+     * Run the migration in the background, retrying until a pass is completed on this node.
+     */
+    public synchronized void start() {
+
+        if (scheduler != null || completed) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, MIGRATION_THREAD_NAME);
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::migrateUntilCompleted, 0, RETRY_INTERVAL_IN_MILLIS,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop the migration. A migration in progress stops after the current chunk.
+     */
+    public synchronized void shutdown() {
+
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdownNow();
+        scheduler = null;
+    }
+
+    private void migrateUntilCompleted() {
+
+        migrate();
+        if (completed) {
+            shutdown();
+        }
+    }
+
+    /**
+     * Move the raw JTIs which are not expired to the hashed JTI storage, if the migration lease could be acquired.
+     * Once a pass is completed, the raw JTIs are no longer looked up.
+     *
+     * @return Number of migrated JTIs.
+     */
+    public int migrate() {
+
+        long startTime = System.currentTimeMillis();
+        long activeAfter = startTime - clockSkewInMillis;
+        int migratedRows = 0;
+        boolean leaseAcquired = false;
+        try {
+            if (!jwtStorageManager.acquireLease(JTI_HASH_MIGRATION_LEASE, nodeId, startTime,
+                    startTime + LEASE_DURATION_IN_MILLIS)) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Deferring the JTI hash migration as it is handled by another node.");
+                }
+                return 0;
+            }
+            leaseAcquired = true;
+            JWTEntry lastEntry = null;
+            while (!Thread.currentThread().isInterrupted()) {
+                List<JWTEntry> activeEntries = jwtStorageManager.getActiveJWTIds(activeAfter, lastEntry, chunkSize);
+                if (activeEntries.isEmpty()) {
+                    markCompleted();
+                    break;
+                }
+                migratedRows += jwtStorageManager.hashJWTIds(activeEntries);
+                if (activeEntries.size() < chunkSize) {
+                    markCompleted();
+                    break;
+                }
+                lastEntry = activeEntries.get(activeEntries.size() - 1);
+                long currentTime = System.currentTimeMillis();
+                if (!jwtStorageManager.acquireLease(JTI_HASH_MIGRATION_LEASE, nodeId, currentTime,
+                        currentTime + LEASE_DURATION_IN_MILLIS)) {
+                    leaseAcquired = false;
+                    log.warn("JTI hash migration lease is lost to another node. Migration will be retried.");
+                    break;
+                }
+            }
+        } catch (OAuthClientAuthnException e) {
+            log.error("Error while migrating the JTIs to the hashed JTI storage.", e);
+        } finally {
+            if (leaseAcquired) {
+                releaseLease();
+            }
+        }
+        migratedRowCount.addAndGet(migratedRows);
+        if (leaseAcquired) {
+            log.info("Migrated " + migratedRows + " JTIs to the hashed JTI storage in " +
+                    (System.currentTimeMillis() - startTime) + "ms.");
+        }
+        return migratedRows;
+    }
+
+    private void markCompleted() {
+
+        completed = true;
+        JWTServiceDataHolder.getInstance().setRawJTILookup(false);
+    }
+
+    private void releaseLease() {
+
+        try {
+            jwtStorageManager.releaseLease(JTI_HASH_MIGRATION_LEASE, nodeId, System.currentTimeMillis());
+        } catch (OAuthClientAuthnException e) {
+            log.error("Error while releasing the JTI hash migration lease.", e);
+        }
+    }
+
+    /**
+     * @return Whether a migration pass is completed on this node.
+     */
+    public boolean isCompleted() {
+
+        return completed;
+    }
+
+    /**
+     * @return Total number of JTIs migrated by this node.
+     */
+    public long getMigratedRowCount() {
+
+        return migratedRowCount.get();
+    }
+}
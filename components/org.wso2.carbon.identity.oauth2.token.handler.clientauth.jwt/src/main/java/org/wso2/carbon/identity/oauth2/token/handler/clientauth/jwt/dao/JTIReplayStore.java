@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao;
+
+import org.wso2.carbon.identity.oauth2.client.authentication.OAuthClientAuthnException;
+
+/**
+ * Store used to detect replayed JTIs. Implementations can be registered as OSGi services and are selected by name
+ * with the JTIReplayStore authenticator property.
+ */
+public interface JTIReplayStore {
+
+    /**
+     * Get the name of the store used to select it in the configuration.
+     *
+     * @return Name of the store.
+     */
+    String getName();
+
+    /**
+     * Record the JTI if it is not already recorded. An implementation documents whether the check and the record are
+     * atomic. When they are not, concurrent requests presenting the same JTI can all be accepted.
+     *
+     * @param jti        JTI.
+     * @param tenantId   Tenant id.
+     * @param expiryTime Expiry time of the assertion.
+     * @param issuedTime Issued time of the assertion.
+     * @return true if the JTI was recorded, false if it is already recorded, i.e. replayed.
+     * @throws OAuthClientAuthnException When the store could not be accessed.
+     */
+    boolean putIfAbsent(String jti, int tenantId, long expiryTime, long issuedTime) throws OAuthClientAuthnException;
+
+    /**
+     * Record the JTI, replacing an existing record. Used when the token reuse is allowed.
+     *
+     * @param jti        JTI.
+     * @param tenantId   Tenant id.
+     * @param expiryTime Expiry time of the assertion.
+     * @param issuedTime Issued time of the assertion.
+     * @throws OAuthClientAuthnException When the store could not be accessed.
+     */
+    void put(String jti, int tenantId, long expiryTime, long issuedTime) throws OAuthClientAuthnException;
+
+    /**
+     * Get the recorded JTI.
+     *
+     * @param jti      JTI.
+     * @param tenantId Tenant id.
+     * @return Recorded JWT entry, or null if the JTI is not recorded.
+     * @throws OAuthClientAuthnException When the store could not be accessed.
+     */
+    JWTEntry get(String jti, int tenantId) throws OAuthClientAuthnException;
+}
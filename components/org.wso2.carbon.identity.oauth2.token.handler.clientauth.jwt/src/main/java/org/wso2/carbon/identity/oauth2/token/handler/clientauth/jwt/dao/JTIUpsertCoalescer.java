@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Coalesces the repeated upserts of a JTI when token reuse is allowed.
+ * A client reusing an assertion upserts the same JTI with the same expiry time on every request, hence once the JTI
+ * is written, further writes of it within the coalescing window are skipped.
+ */
+public class JTIUpsertCoalescer {
+
+    private static final int SWEEP_INTERVAL_IN_WRITES = 1024;
+
+    private final ConcurrentMap<String, long[]> writes = new ConcurrentHashMap<>();
+    private final AtomicInteger writeCount = new AtomicInteger();
+    private final long windowInMillis;
+
+    /**
+     * @param windowInMillis Time within which the repeated writes of a JTI are skipped.
+     */
+    public JTIUpsertCoalescer(long windowInMillis) {
+
+        this.windowInMillis = windowInMillis;
+    }
+
+    /**
+     * Check whether the same JTI was written with the same expiry time within the coalescing window.
+     *
+     * @param jti         JTI.
+     * @param tenantId    Tenant id.
+     * @param expiryTime  Expiry time of the JTI.
+     * @param currentTime Current time in milliseconds.
+     * @return true if the write can be skipped.
+     */
+    public boolean isCoalesced(String jti, int tenantId, long expiryTime, long currentTime) {
+
+        // Each write is kept as {expiry time, write time}.
+        long[] write = writes.get(getKey(jti, tenantId));
+        return write != null && write[0] == expiryTime && currentTime - write[1] < windowInMillis;
+    }
+
+    /**
+     * Record a successful write of the JTI.
+     *
+     * @param jti         JTI.
+     * @param tenantId    Tenant id.
+     * @param expiryTime  Expiry time of the JTI.
+     * @param currentTime Current time in milliseconds.
+     */
+    public void recordWrite(String jti, int tenantId, long expiryTime, long currentTime) {
+
+        writes.put(getKey(jti, tenantId), new long[]{expiryTime, currentTime});
+        // Sweep on every Nth write rather than in a separate thread.
+        if (writeCount.incrementAndGet() % SWEEP_INTERVAL_IN_WRITES == 0) {
+            writes.values().removeIf(write -> currentTime - write[1] >= windowInMillis);
+        }
+    }
+
+    /**
+     * @return Number of recorded writes, including the ones past the window which are not swept yet.
+     */
+    public int size() {
+
+        return writes.size();
+    }
+
+    private static String getKey(String jti, int tenantId) {
+
+        return tenantId + ":" + jti;
+    }
+}
@@ -23,6 +23,7 @@ package org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao;
  */
 public class JWTEntry {
 
+    private String jti;
     private long exp;
     private long createdTime;
 
@@ -41,6 +42,19 @@ public class JWTEntry {
         this.tenantId = tenantId;
     }
 
+    public JWTEntry(String jti, long exp, long createdTime, int tenantId) {
+
+        this.jti = jti;
+        this.exp = exp;
+        this.createdTime = createdTime;
+        this.tenantId = tenantId;
+    }
+
+    public String getJti() {
+
+        return jti;
+    }
+
     public long getExp() {
 
         return exp;
@@ -0,0 +1,222 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.oauth2.client.authentication.OAuthClientAuthnException;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.internal.JWTServiceDataHolder;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.JTI_PURGE_LEASE;
+
+/**
+ * Periodically deletes the expired JTIs from the IDN_OIDC_JTI table, and the expired JTI digests from the
+ * IDN_OIDC_JTI_DIGEST table when the hashed JTI storage is enabled.
+ * The expired JTIs are deleted in small keyset paginated chunks, throttled to a maximum number of rows per second.
+ * Only the node holding the purge lease in the IDN_OIDC_JTI_LEASE table purges in a given interval, and a purge run
+ * never outlives its lease. The number of purge runs, the deleted rows and the time spent on purging are counted on
+ * each node, and logged at the debug level after each run.
+ */
+public class JWTPurgeScheduler {
+
+    private static final Log log = LogFactory.getLog(JWTPurgeScheduler.class);
+    private static final String PURGE_THREAD_NAME = "JTIPurgeScheduler";
+
+    private final JWTStorageManager jwtStorageManager;
+    private final long purgeIntervalInMillis;
+    private final int chunkSize;
+    private final int maxRowsPerSecond;
+    private final long clockSkewInMillis;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final AtomicLong purgeRunCount = new AtomicLong();
+    private final AtomicLong deletedRowCount = new AtomicLong();
+    private final AtomicLong purgeTimeInMillis = new AtomicLong();
+    private ScheduledExecutorService scheduler;
+    private volatile boolean running;
+
+    public JWTPurgeScheduler(JWTStorageManager jwtStorageManager, long purgeIntervalInMillis, int chunkSize,
+                             int maxRowsPerSecond, long clockSkewInMillis) {
+
+        this.jwtStorageManager = jwtStorageManager;
+        this.purgeIntervalInMillis = purgeIntervalInMillis;
+        this.chunkSize = chunkSize;
+        this.maxRowsPerSecond = maxRowsPerSecond;
+        this.clockSkewInMillis = clockSkewInMillis;
+    }
+
+    /**
+     * Schedule the purge task.
+     */
+    public synchronized void start() {
+
+        if (running) {
+            return;
+        }
+        running = true;
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, PURGE_THREAD_NAME);
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::purge, purgeIntervalInMillis, purgeIntervalInMillis,
+                TimeUnit.MILLISECONDS);
+        if (log.isDebugEnabled()) {
+            log.debug("JTI purge scheduled with interval: " + purgeIntervalInMillis + "ms, chunk size: " +
+                    chunkSize + " and max rows per second: " + maxRowsPerSecond);
+        }
+    }
+
+    /**
+     * Stop the purge task. A purge in progress stops after the current chunk.
+     */
+    public synchronized void shutdown() {
+
+        if (!running) {
+            return;
+        }
+        running = false;
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Delete the expired JTIs, if the purge lease could be acquired.
+     *
+     * @return Number of deleted JTIs.
+     */
+    public int purge() {
+
+        long startTime = System.currentTimeMillis();
+        long leaseExpiry = startTime + purgeIntervalInMillis;
+        int deletedRows = 0;
+        try {
+            if (!jwtStorageManager.acquireLease(JTI_PURGE_LEASE, nodeId, startTime, leaseExpiry)) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Skipping the JTI purge as it is handled by another node.");
+                }
+                return 0;
+            }
+            long expiredBefore = startTime - clockSkewInMillis;
+            JWTEntry lastEntry = null;
+            while (!Thread.currentThread().isInterrupted() && System.currentTimeMillis() < leaseExpiry) {
+                long chunkStartTime = System.currentTimeMillis();
+                List<JWTEntry> expiredEntries = jwtStorageManager.getExpiredJWTIds(expiredBefore, lastEntry,
+                        chunkSize);
+                if (expiredEntries.isEmpty()) {
+                    break;
+                }
+                deletedRows += jwtStorageManager.deleteExpiredJWTIds(expiredEntries, expiredBefore);
+                if (expiredEntries.size() < chunkSize) {
+                    break;
+                }
+                lastEntry = expiredEntries.get(expiredEntries.size() - 1);
+                throttle(expiredEntries.size(), chunkStartTime);
+            }
+            if (JWTServiceDataHolder.getInstance().isHashedJTIStorage() ||
+                    JWTServiceDataHolder.getInstance().isDigestJTILookup()) {
+                deletedRows += purgeJTIDigests(expiredBefore, leaseExpiry);
+            }
+        } catch (OAuthClientAuthnException e) {
+            log.error("Error while purging the expired JTIs.", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            long timeSpent = System.currentTimeMillis() - startTime;
+            purgeRunCount.incrementAndGet();
+            deletedRowCount.addAndGet(deletedRows);
+            purgeTimeInMillis.addAndGet(timeSpent);
+            if (log.isDebugEnabled()) {
+                log.debug("Purged " + deletedRows + " expired JTIs in " + timeSpent + "ms. Purge runs: " +
+                        purgeRunCount.get() + ", deleted JTIs: " + deletedRowCount.get() + ", time spent: " +
+                        purgeTimeInMillis.get() + "ms.");
+            }
+        }
+        return deletedRows;
+    }
+
+    private int purgeJTIDigests(long expiredBefore, long leaseExpiry) throws OAuthClientAuthnException,
+            InterruptedException {
+
+        int deletedRows = 0;
+        byte[] lastDigest = null;
+        while (!Thread.currentThread().isInterrupted() && System.currentTimeMillis() < leaseExpiry) {
+            long chunkStartTime = System.currentTimeMillis();
+            List<byte[]> expiredDigests = jwtStorageManager.getExpiredJTIDigests(expiredBefore, lastDigest,
+                    chunkSize);
+            if (expiredDigests.isEmpty()) {
+                break;
+            }
+            deletedRows += jwtStorageManager.deleteExpiredJTIDigests(expiredDigests, expiredBefore);
+            if (expiredDigests.size() < chunkSize) {
+                break;
+            }
+            lastDigest = expiredDigests.get(expiredDigests.size() - 1);
+            throttle(expiredDigests.size(), chunkStartTime);
+        }
+        return deletedRows;
+    }
+
+    private void throttle(int deletedRows, long chunkStartTime) throws InterruptedException {
+
+        if (maxRowsPerSecond <= 0) {
+            return;
+        }
+        long minChunkTimeInMillis = deletedRows * 1000L / maxRowsPerSecond;
+        long remaining = minChunkTimeInMillis - (System.currentTimeMillis() - chunkStartTime);
+        if (remaining > 0) {
+            Thread.sleep(remaining);
+        }
+    }
+
+    public boolean isRunning() {
+
+        return running;
+    }
+
+    /**
+     * @return Number of purge runs, including the runs skipped as the lease was held by another node.
+     */
+    public long getPurgeRunCount() {
+
+        return purgeRunCount.get();
+    }
+
+    /**
+     * @return Total number of JTIs deleted by this node.
+     */
+    public long getDeletedRowCount() {
+
+        return deletedRowCount.get();
+    }
+
+    /**
+     * @return Total time spent on purging in milliseconds.
+     */
+    public long getPurgeTimeInMillis() {
+
+        return purgeTimeInMillis.get();
+    }
+}
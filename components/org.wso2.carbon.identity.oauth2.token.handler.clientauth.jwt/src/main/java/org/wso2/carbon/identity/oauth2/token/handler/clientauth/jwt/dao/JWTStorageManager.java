@@ -18,14 +18,15 @@
 
 package org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao;
 
+import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
-import org.wso2.carbon.database.utils.jdbc.exceptions.DataAccessException;
 import org.wso2.carbon.identity.core.util.IdentityDatabaseUtil;
 import org.wso2.carbon.identity.oauth.common.OAuth2ErrorCodes;
 import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
 import org.wso2.carbon.identity.oauth2.client.authentication.OAuthClientAuthnException;
 import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao.dialect.JTIDialect;
 import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.internal.JWTServiceDataHolder;
 import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.util.Util;
 
@@ -35,29 +36,29 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.TimeZone;
+import java.util.concurrent.atomic.AtomicBoolean;
 
-import static org.wso2.carbon.identity.core.util.JdbcUtils.isDB2DB;
-import static org.wso2.carbon.identity.core.util.JdbcUtils.isH2DB;
-import static org.wso2.carbon.identity.core.util.JdbcUtils.isMSSqlDB;
-import static org.wso2.carbon.identity.core.util.JdbcUtils.isMariaDB;
-import static org.wso2.carbon.identity.core.util.JdbcUtils.isMySQLDB;
-import static org.wso2.carbon.identity.core.util.JdbcUtils.isOracleDB;
-import static org.wso2.carbon.identity.core.util.JdbcUtils.isPostgreSQLDB;
 import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.DEFAULT_TENANT_ID;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.DELETE_EXPIRED_JWT_ID;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.DELETE_JWT_ID;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.GET_ACTIVE_JWT_IDS;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.GET_ACTIVE_JWT_IDS_AFTER;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.GET_EXPIRED_JWT_IDS;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.GET_EXPIRED_JWT_IDS_AFTER;
 import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.GET_JWT;
 import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.GET_JWT_DETAILS;
 import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.INSERT_JWD_ID;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.INTEGRITY_CONSTRAINT_VIOLATION_SQL_STATE_CLASS;
 import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.SQLQueries.EXP_TIME;
 import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.SQLQueries.TENANT_ID;
 import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.SQLQueries.TIME_CREATED;
-import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.UPSERT_H2;
-import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.UPSERT_MSSQL_DB2;
-import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.UPSERT_MYSQL;
-import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.UPSERT_ORACLE;
-import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.UPSERT_POSTGRESQL;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.UPDATE_JWT_EXPIRY;
 
 /**
  * JWT token persistence is managed by JWTStorageManager
@@ -66,6 +67,12 @@ import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Const
 public class JWTStorageManager {
 
     private static final Log log = LogFactory.getLog(JWTStorageManager.class);
+    // SQL states of a missing table, as reported by H2, MySQL, MSSQL, PostgreSQL and DB2.
+    private static final Set<String> UNDEFINED_TABLE_SQL_STATES = new HashSet<>(Arrays.asList("42S02", "S0002",
+            "42P01", "42704"));
+    // Oracle reports a missing table with the generic syntax error state, along with this error code.
+    private static final int ORACLE_UNDEFINED_TABLE_ERROR_CODE = 942;
+    private static final AtomicBoolean LEASE_TABLE_MISSING_LOGGED = new AtomicBoolean();
 
     /**
      * Check whether a JWT Entry with given jti exists in the DB.
@@ -85,15 +92,17 @@ public class JWTStorageManager {
                 log.warn("Checking JWT existence with JTI only, but tenant id also required to fetch unique data." +
                         "This method will be deprecated soon. Use getJwtsFromDB instead.");
             } else {
-                prepStmt = dbConnection.prepareStatement(Constants.SQLQueries.GET_JWT_ID);
-                prepStmt.setString(1, jti);
-                rs = prepStmt.executeQuery();
-                int count = 0;
-                if (rs.next()) {
-                    count = rs.getInt(1);
+                JWTServiceDataHolder dataHolder = JWTServiceDataHolder.getInstance();
+                if (dataHolder.isHashedJTIStorage() || dataHolder.isDigestJTILookup()) {
+                    List<JWTEntry> jwtEntries = new ArrayList<>(1);
+                    readJTIDigestFromDB(dbConnection, jti, DEFAULT_TENANT_ID, jwtEntries);
+                    isExists = !jwtEntries.isEmpty();
                 }
-                if (count > 0) {
-                    isExists = true;
+                if (!isExists && (!dataHolder.isHashedJTIStorage() || dataHolder.isRawJTILookup())) {
+                    prepStmt = dbConnection.prepareStatement(Constants.SQLQueries.GET_JWT_ID);
+                    prepStmt.setString(1, jti);
+                    rs = prepStmt.executeQuery();
+                    isExists = rs.next() && rs.getInt(1) > 0;
                 }
             }
         } catch (SQLException e) {
@@ -118,8 +127,33 @@ public class JWTStorageManager {
     public List<JWTEntry> getJwtsFromDB(String jti, int tenantId) throws OAuthClientAuthnException {
 
         List<JWTEntry> jwtEntries = new ArrayList<>();
-
         Connection dbConnection = IdentityDatabaseUtil.getDBConnection();
+        try {
+            JWTServiceDataHolder dataHolder = JWTServiceDataHolder.getInstance();
+            if (dataHolder.isHashedJTIStorage() || dataHolder.isDigestJTILookup()) {
+                // The digests persisted while the hashed JTI storage was enabled are still looked up once it is
+                // disabled, until the server restarts.
+                readJTIDigestFromDB(dbConnection, jti, tenantId, jwtEntries);
+            }
+            if (!dataHolder.isHashedJTIStorage() || dataHolder.isRawJTILookup()) {
+                // Until the raw JTIs are migrated to the hashed JTI storage, both the digest and the raw JTI.
+                readJwtsFromDB(dbConnection, jti, tenantId, jwtEntries);
+            }
+        } catch (SQLException e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Error when retrieving the JWT ID: " + jti + " tenant id: " + tenantId, e);
+            }
+            throw new OAuthClientAuthnException("Error occurred while validating the JTI: " + jti + " of the " +
+                    "assertion.", OAuth2ErrorCodes.INVALID_REQUEST);
+        } finally {
+            IdentityDatabaseUtil.closeConnection(dbConnection);
+        }
+        return jwtEntries;
+    }
+
+    private void readJwtsFromDB(Connection dbConnection, String jti, int tenantId, List<JWTEntry> jwtEntries)
+            throws SQLException {
+
         PreparedStatement prepStmt = null;
         ResultSet rs = null;
         try {
@@ -149,17 +183,36 @@ public class JWTStorageManager {
                     jwtEntries.add(new JWTEntry(exp, created));
                 }
             }
+        } finally {
+            IdentityDatabaseUtil.closeResultSet(rs);
+            IdentityDatabaseUtil.closeStatement(prepStmt);
+        }
+    }
 
-        } catch (SQLException e) {
-            if (log.isDebugEnabled()) {
-                log.debug("Error when retrieving the JWT ID: " + jti + " tenant id: " + tenantId, e);
+    private void readJTIDigestFromDB(Connection dbConnection, String jti, int tenantId, List<JWTEntry> jwtEntries)
+            throws SQLException {
+
+        PreparedStatement prepStmt = null;
+        ResultSet rs = null;
+        try {
+            prepStmt = dbConnection.prepareStatement(Constants.SQLQueries.GET_JTI_DIGEST);
+            prepStmt.setBytes(1, getDigest(jti, tenantId));
+            rs = prepStmt.executeQuery();
+            while (rs.next()) {
+                long exp = rs.getTimestamp(EXP_TIME,
+                        Calendar.getInstance(TimeZone.getTimeZone(Constants.UTC))).getTime();
+                long created = rs.getTimestamp(TIME_CREATED,
+                        Calendar.getInstance(TimeZone.getTimeZone(Constants.UTC))).getTime();
+                if (Util.isTenantIdColumnAvailableInIdnOidcAuth()) {
+                    jwtEntries.add(new JWTEntry(exp, created, tenantId));
+                } else {
+                    jwtEntries.add(new JWTEntry(exp, created));
+                }
             }
-            throw new OAuthClientAuthnException("Error occurred while validating the JTI: " + jti + " of the " +
-                    "assertion.", OAuth2ErrorCodes.INVALID_REQUEST);
         } finally {
-            IdentityDatabaseUtil.closeAllConnections(dbConnection, rs, prepStmt);
+            IdentityDatabaseUtil.closeResultSet(rs);
+            IdentityDatabaseUtil.closeStatement(prepStmt);
         }
-        return jwtEntries;
     }
 
     /**
@@ -195,79 +248,33 @@ public class JWTStorageManager {
         PreparedStatement preparedStatement = null;
         try {
             connection = IdentityDatabaseUtil.getDBConnection();
-            if (preventTokenReuse) {
-                preparedStatement = connection.prepareStatement(Util.getDBQuery(INSERT_JWD_ID));
-                preparedStatement.setString(1, jti);
-                if (Util.isTenantIdColumnAvailableInIdnOidcAuth()) {
-                    preparedStatement.setInt(2, tenantId);
-                    Timestamp timestamp = new Timestamp(timeCreated);
-                    Timestamp expTimestamp = new Timestamp(expTime);
-                    preparedStatement.setTimestamp(3, expTimestamp,
-                            Calendar.getInstance(TimeZone.getTimeZone(Constants.UTC)));
-                    preparedStatement.setTimestamp(4, timestamp,
-                            Calendar.getInstance(TimeZone.getTimeZone(Constants.UTC)));
+            if (JWTServiceDataHolder.getInstance().isHashedJTIStorage()) {
+                if (preventTokenReuse) {
+                    preparedStatement = prepareDigestInsert(connection, getDigest(jti, tenantId), expTime,
+                            timeCreated);
+                    preparedStatement.executeUpdate();
+                    connection.commit();
                 } else {
-                    Timestamp timestamp = new Timestamp(timeCreated);
-                    Timestamp expTimestamp = new Timestamp(expTime);
-                    preparedStatement.setTimestamp(2, expTimestamp,
-                            Calendar.getInstance(TimeZone.getTimeZone(Constants.UTC)));
-                    preparedStatement.setTimestamp(3, timestamp,
-                            Calendar.getInstance(TimeZone.getTimeZone(Constants.UTC)));
-                }
-            } else {
-                if (isH2DB()) {
-                    preparedStatement = connection.prepareStatement(Util.getDBQuery(UPSERT_H2));
-                } else if (isMySQLDB() || isMariaDB()) {
-                    preparedStatement = connection.prepareStatement(Util.getDBQuery(UPSERT_MYSQL));
-                } else if (isPostgreSQLDB()) {
-                    preparedStatement = connection.prepareStatement(Util.getDBQuery(UPSERT_POSTGRESQL));
-                } else if (isMSSqlDB() || isDB2DB()) {
-                    preparedStatement = connection.prepareStatement(Util.getDBQuery(UPSERT_MSSQL_DB2));
-                } else if (isOracleDB()) {
-                    preparedStatement = connection.prepareStatement(Util.getDBQuery(UPSERT_ORACLE));
-                }
-
-                if (preparedStatement != null) {
-                    preparedStatement.setString(1, jti);
-                    if (Util.isTenantIdColumnAvailableInIdnOidcAuth()) {
-                        preparedStatement.setInt(2, tenantId);
-                        Timestamp timestamp = new Timestamp(timeCreated);
-                        Timestamp expTimestamp = new Timestamp(expTime);
-                        preparedStatement.setTimestamp(3, expTimestamp,
-                                Calendar.getInstance(TimeZone.getTimeZone(Constants.UTC)));
-                        preparedStatement.setTimestamp(4, timestamp,
-                                Calendar.getInstance(TimeZone.getTimeZone(Constants.UTC)));
-                        if (isOracleDB()) {
-                            preparedStatement.setString(5, jti);
-                            preparedStatement.setInt(6, tenantId);
-                            preparedStatement.setTimestamp(7, expTimestamp,
-                                    Calendar.getInstance(TimeZone.getTimeZone(Constants.UTC)));
-                            preparedStatement.setTimestamp(8, timestamp,
-                                    Calendar.getInstance(TimeZone.getTimeZone(Constants.UTC)));
-                        }
-                    } else {
-                        Timestamp timestamp = new Timestamp(timeCreated);
-                        Timestamp expTimestamp = new Timestamp(expTime);
-                        preparedStatement.setTimestamp(2, expTimestamp,
-                                Calendar.getInstance(TimeZone.getTimeZone(Constants.UTC)));
-                        preparedStatement.setTimestamp(3, timestamp,
-                                Calendar.getInstance(TimeZone.getTimeZone(Constants.UTC)));
-                        if (isOracleDB()) {
-                            preparedStatement.setString(4, jti);
-                            preparedStatement.setTimestamp(5, expTimestamp,
-                                    Calendar.getInstance(TimeZone.getTimeZone(Constants.UTC)));
-                            preparedStatement.setTimestamp(6, timestamp,
-                                    Calendar.getInstance(TimeZone.getTimeZone(Constants.UTC)));
-                        }
-                    }
+                    upsertDigest(connection, getDigest(jti, tenantId), expTime, timeCreated);
                 }
+                return;
             }
-            if (preparedStatement != null) {
+            if (preventTokenReuse) {
+                preparedStatement = prepareInsert(connection, jti, tenantId, expTime, timeCreated);
                 preparedStatement.executeUpdate();
-                preparedStatement.close();
                 connection.commit();
+                return;
+            }
+            JTIDialect dialect = Util.getJTIDialect();
+            if (dialect == null) {
+                upsertWithoutDialect(connection, jti, tenantId, expTime, timeCreated);
+                return;
             }
-        } catch (SQLException | DataAccessException e) {
+            preparedStatement = dialect.prepareUpsert(connection);
+            dialect.bindUpsert(preparedStatement, jti, tenantId, expTime, timeCreated);
+            preparedStatement.executeUpdate();
+            connection.commit();
+        } catch (SQLException e) {
             String error = "Error when storing the JWT ID: " + jti + " with exp: " + expTime;
             if (log.isDebugEnabled()) {
                 log.debug(error, e);
@@ -278,4 +285,844 @@ public class JWTStorageManager {
             IdentityDatabaseUtil.closeAllConnections(connection, null, preparedStatement);
         }
     }
+
+    /**
+     * Update the expiry of the JTI, or insert it if it does not exist, with the generic queries of the table. Used
+     * when the database has no dialect specific upsert.
+     */
+    private void upsertWithoutDialect(Connection connection, String jti, int tenantId, long expTime,
+                                      long timeCreated) throws SQLException {
+
+        PreparedStatement preparedStatement = connection.prepareStatement(Util.getDBQuery(UPDATE_JWT_EXPIRY));
+        try {
+            preparedStatement.setTimestamp(1, new Timestamp(expTime),
+                    Calendar.getInstance(TimeZone.getTimeZone(Constants.UTC)));
+            preparedStatement.setTimestamp(2, new Timestamp(timeCreated),
+                    Calendar.getInstance(TimeZone.getTimeZone(Constants.UTC)));
+            preparedStatement.setString(3, jti);
+            if (Util.isTenantIdColumnAvailableInIdnOidcAuth()) {
+                preparedStatement.setInt(4, tenantId);
+            }
+            if (preparedStatement.executeUpdate() > 0) {
+                connection.commit();
+                return;
+            }
+            IdentityDatabaseUtil.closeStatement(preparedStatement);
+            preparedStatement = prepareInsert(connection, jti, tenantId, expTime, timeCreated);
+            preparedStatement.executeUpdate();
+            connection.commit();
+        } catch (SQLException e) {
+            IdentityDatabaseUtil.rollbackTransaction(connection);
+            // A concurrent request persisted the same JTI in between, which is as good as the upsert.
+            if (!StringUtils.startsWith(e.getSQLState(), INTEGRITY_CONSTRAINT_VIOLATION_SQL_STATE_CLASS)) {
+                throw e;
+            }
+        } finally {
+            IdentityDatabaseUtil.closeStatement(preparedStatement);
+        }
+    }
+
+    private PreparedStatement prepareInsert(Connection connection, String jti, int tenantId, long expTime,
+                                            long timeCreated) throws SQLException {
+
+        PreparedStatement preparedStatement = connection.prepareStatement(Util.getDBQuery(INSERT_JWD_ID));
+        int index = 1;
+        preparedStatement.setString(index++, jti);
+        if (Util.isTenantIdColumnAvailableInIdnOidcAuth()) {
+            preparedStatement.setInt(index++, tenantId);
+        }
+        preparedStatement.setTimestamp(index++, new Timestamp(expTime),
+                Calendar.getInstance(TimeZone.getTimeZone(Constants.UTC)));
+        preparedStatement.setTimestamp(index, new Timestamp(timeCreated),
+                Calendar.getInstance(TimeZone.getTimeZone(Constants.UTC)));
+        return preparedStatement;
+    }
+
+    /**
+     * Update the expiry of the JTI digest, or insert it if it does not exist. The hashed JTI storage needs no dialect
+     * specific upsert, as its primary key alone decides whether the digest exists.
+     */
+    private void upsertDigest(Connection connection, byte[] digest, long expTime, long timeCreated)
+            throws SQLException {
+
+        PreparedStatement preparedStatement = connection.prepareStatement(
+                Constants.SQLQueries.UPDATE_JTI_DIGEST_EXPIRY);
+        try {
+            bindDigestExpiry(preparedStatement, digest, expTime, timeCreated);
+            if (preparedStatement.executeUpdate() > 0) {
+                connection.commit();
+                return;
+            }
+            IdentityDatabaseUtil.closeStatement(preparedStatement);
+            preparedStatement = prepareDigestInsert(connection, digest, expTime, timeCreated);
+            preparedStatement.executeUpdate();
+            connection.commit();
+        } catch (SQLException e) {
+            IdentityDatabaseUtil.rollbackTransaction(connection);
+            // A concurrent request persisted the same JTI in between, which is as good as the upsert.
+            if (!StringUtils.startsWith(e.getSQLState(), INTEGRITY_CONSTRAINT_VIOLATION_SQL_STATE_CLASS)) {
+                throw e;
+            }
+        } finally {
+            IdentityDatabaseUtil.closeStatement(preparedStatement);
+        }
+    }
+
+    private PreparedStatement prepareDigestInsert(Connection connection, byte[] digest, long expTime,
+                                                  long timeCreated) throws SQLException {
+
+        PreparedStatement preparedStatement = connection.prepareStatement(Constants.SQLQueries.INSERT_JTI_DIGEST);
+        bindDigestInsert(preparedStatement, digest, expTime, timeCreated);
+        return preparedStatement;
+    }
+
+    private void bindDigestInsert(PreparedStatement preparedStatement, byte[] digest, long expTime, long timeCreated)
+            throws SQLException {
+
+        preparedStatement.setBytes(1, digest);
+        preparedStatement.setTimestamp(2, new Timestamp(expTime),
+                Calendar.getInstance(TimeZone.getTimeZone(Constants.UTC)));
+        preparedStatement.setTimestamp(3, new Timestamp(timeCreated),
+                Calendar.getInstance(TimeZone.getTimeZone(Constants.UTC)));
+    }
+
+    private void bindDigestExpiry(PreparedStatement preparedStatement, byte[] digest, long expTime, long timeCreated)
+            throws SQLException {
+
+        preparedStatement.setTimestamp(1, new Timestamp(expTime),
+                Calendar.getInstance(TimeZone.getTimeZone(Constants.UTC)));
+        preparedStatement.setTimestamp(2, new Timestamp(timeCreated),
+                Calendar.getInstance(TimeZone.getTimeZone(Constants.UTC)));
+        preparedStatement.setBytes(3, digest);
+    }
+
+    /**
+     * Persist the JTI only if it has not been persisted already, using a single conditional insert.
+     * Whether the JTI is new or replayed is decided by the affected row count of the insert, or by the primary key
+     * violation when a concurrent request inserted the same JTI in between.
+     *
+     * @param jti         JTI a unique id.
+     * @param tenantId    Tenant id.
+     * @param expTime     Expiration time.
+     * @param timeCreated JTI inserted time.
+     * @return true if the JTI was persisted, false if the JTI already exists.
+     * @throws OAuthClientAuthnException OAuthClientAuthnException thrown with Invalid Request error code.
+     */
+    public boolean persistJWTIdIfAbsent(String jti, int tenantId, long expTime, long timeCreated)
+            throws OAuthClientAuthnException {
+
+        Connection connection = null;
+        PreparedStatement preparedStatement = null;
+        try {
+            connection = IdentityDatabaseUtil.getDBConnection();
+            if (JWTServiceDataHolder.getInstance().isHashedJTIStorage() &&
+                    JWTServiceDataHolder.getInstance().isRawJTILookup()) {
+                // The raw JTI persisted before the hashed JTI storage was enabled is not migrated yet.
+                List<JWTEntry> rawEntries = new ArrayList<>(1);
+                readJwtsFromDB(connection, jti, tenantId, rawEntries);
+                if (!rawEntries.isEmpty()) {
+                    return false;
+                }
+            }
+            if (!JWTServiceDataHolder.getInstance().isHashedJTIStorage() &&
+                    JWTServiceDataHolder.getInstance().isDigestJTILookup()) {
+                // The digest persisted while the hashed JTI storage was enabled is not looked up by the insert.
+                List<JWTEntry> digestEntries = new ArrayList<>(1);
+                readJTIDigestFromDB(connection, jti, tenantId, digestEntries);
+                if (!digestEntries.isEmpty()) {
+                    return false;
+                }
+            }
+            JTIDialect dialect = Util.getJTIDialect();
+            if (JWTServiceDataHolder.getInstance().isHashedJTIStorage()) {
+                // The primary key of the digest decides whether the JTI is new.
+                preparedStatement = prepareDigestInsert(connection, getDigest(jti, tenantId), expTime, timeCreated);
+            } else if (dialect == null) {
+                // The primary key decides whether the JTI is new, hence the insert is still atomic.
+                preparedStatement = prepareInsert(connection, jti, tenantId, expTime, timeCreated);
+            } else {
+                preparedStatement = dialect.prepareInsertIfAbsent(connection);
+                dialect.bindInsertIfAbsent(preparedStatement, jti, tenantId, expTime, timeCreated);
+            }
+
+            int insertedRows = preparedStatement.executeUpdate();
+            connection.commit();
+            return insertedRows > 0;
+        } catch (SQLException e) {
+            IdentityDatabaseUtil.rollbackTransaction(connection);
+            if (StringUtils.startsWith(e.getSQLState(), INTEGRITY_CONSTRAINT_VIOLATION_SQL_STATE_CLASS)) {
+                if (log.isDebugEnabled()) {
+                    log.debug("JWT ID: " + jti + " of tenant id: " + tenantId + " is already persisted by a " +
+                            "concurrent request.");
+                }
+                return false;
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("Error when storing the JWT ID: " + jti + " with exp: " + expTime, e);
+            }
+            throw new OAuthClientAuthnException("Error occurred while validating the JTI: " + jti + " of the " +
+                    "assertion.", OAuth2ErrorCodes.INVALID_REQUEST, e);
+        } finally {
+            IdentityDatabaseUtil.closeAllConnections(connection, null, preparedStatement);
+        }
+    }
+
+    /**
+     * To persist a batch of JTIs of the clients which allow token reuse, with a single JDBC batch and commit. The
+     * dialect specific upsert statement is used for all the entries, as an existing entry may be replaced. If the
+     * database has no dialect, the entries are persisted one at a time. In the hashed JTI storage mode, the expiry of
+     * the existing digests is updated with a single batch, and the rest of the digests are inserted with another.
+     *
+     * @param jwtEntries JWT entries to be persisted.
+     * @throws OAuthClientAuthnException OAuthClientAuthnException thrown with Invalid Request error code.
+     */
+    public void persistJWTIdsInDB(List<JWTEntry> jwtEntries) throws OAuthClientAuthnException {
+
+        if (jwtEntries == null || jwtEntries.isEmpty()) {
+            return;
+        }
+        if (JWTServiceDataHolder.getInstance().isHashedJTIStorage()) {
+            persistJTIDigestsInDB(jwtEntries);
+            return;
+        }
+        JTIDialect dialect = Util.getJTIDialect();
+        if (dialect == null) {
+            // Without a dialect specific upsert, the JTIs are persisted one by one with the generic queries.
+            for (JWTEntry jwtEntry : jwtEntries) {
+                persistJWTIdInDB(jwtEntry.getJti(), jwtEntry.getTenantId(), jwtEntry.getExp(),
+                        jwtEntry.getCreatedTime(), false);
+            }
+            return;
+        }
+        Connection connection = null;
+        PreparedStatement preparedStatement = null;
+        try {
+            connection = IdentityDatabaseUtil.getDBConnection();
+            preparedStatement = dialect.prepareUpsert(connection);
+            for (JWTEntry jwtEntry : jwtEntries) {
+                dialect.bindUpsert(preparedStatement, jwtEntry.getJti(), jwtEntry.getTenantId(),
+                        jwtEntry.getExp(), jwtEntry.getCreatedTime());
+                preparedStatement.addBatch();
+            }
+            preparedStatement.executeBatch();
+            connection.commit();
+        } catch (SQLException e) {
+            IdentityDatabaseUtil.rollbackTransaction(connection);
+            if (log.isDebugEnabled()) {
+                log.debug("Error when storing a batch of " + jwtEntries.size() + " JWT IDs.", e);
+            }
+            throw new OAuthClientAuthnException("Error occurred while persisting the JTIs of the assertions.",
+                    OAuth2ErrorCodes.INVALID_REQUEST, e);
+        } finally {
+            IdentityDatabaseUtil.closeAllConnections(connection, null, preparedStatement);
+        }
+    }
+
+    private void persistJTIDigestsInDB(List<JWTEntry> jwtEntries) throws OAuthClientAuthnException {
+
+        Connection connection = null;
+        PreparedStatement preparedStatement = null;
+        try {
+            connection = IdentityDatabaseUtil.getDBConnection();
+            preparedStatement = connection.prepareStatement(Constants.SQLQueries.UPDATE_JTI_DIGEST_EXPIRY);
+            List<byte[]> digests = new ArrayList<>(jwtEntries.size());
+            for (JWTEntry jwtEntry : jwtEntries) {
+                byte[] digest = getDigest(jwtEntry.getJti(), jwtEntry.getTenantId());
+                digests.add(digest);
+                bindDigestExpiry(preparedStatement, digest, jwtEntry.getExp(), jwtEntry.getCreatedTime());
+                preparedStatement.addBatch();
+            }
+            int[] updatedRows = preparedStatement.executeBatch();
+            IdentityDatabaseUtil.closeStatement(preparedStatement);
+            preparedStatement = connection.prepareStatement(Constants.SQLQueries.INSERT_JTI_DIGEST);
+            boolean hasNewDigests = false;
+            for (int i = 0; i < updatedRows.length; i++) {
+                if (updatedRows[i] == 0) {
+                    JWTEntry jwtEntry = jwtEntries.get(i);
+                    bindDigestInsert(preparedStatement, digests.get(i), jwtEntry.getExp(), jwtEntry.getCreatedTime());
+                    preparedStatement.addBatch();
+                    hasNewDigests = true;
+                }
+            }
+            if (hasNewDigests) {
+                preparedStatement.executeBatch();
+            }
+            connection.commit();
+            return;
+        } catch (SQLException e) {
+            IdentityDatabaseUtil.rollbackTransaction(connection);
+            if (!StringUtils.startsWith(e.getSQLState(), INTEGRITY_CONSTRAINT_VIOLATION_SQL_STATE_CLASS)) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Error when storing a batch of " + jwtEntries.size() + " JWT ID digests.", e);
+                }
+                throw new OAuthClientAuthnException("Error occurred while persisting the JTIs of the assertions.",
+                        OAuth2ErrorCodes.INVALID_REQUEST, e);
+            }
+        } finally {
+            IdentityDatabaseUtil.closeAllConnections(connection, null, preparedStatement);
+        }
+        // A concurrent request persisted one of the JTIs in between. The upsert of each JTI tolerates it.
+        for (JWTEntry jwtEntry : jwtEntries) {
+            persistJWTIdInDB(jwtEntry.getJti(), jwtEntry.getTenantId(), jwtEntry.getExp(), jwtEntry.getCreatedTime(),
+                    false);
+        }
+    }
+
+    /**
+     * To persist a batch of JTIs of the clients which do not allow token reuse, with a single JDBC batch and commit.
+     * Each entry is persisted with the conditional insert, so that an entry persisted by another node in the meantime
+     * is not replaced, and is returned as replayed. If the database has no dialect, or the raw JTIs are still looked
+     * up, the entries are persisted one at a time with {@link #persistJWTIdIfAbsent(String, int, long, long)}, as
+     * they are when one of the entries is inserted by a concurrent request in between and fails the batch.
+     *
+     * @param jwtEntries JWT entries to be persisted.
+     * @return JWT entries which were already persisted, i.e. replayed.
+     * @throws OAuthClientAuthnException OAuthClientAuthnException thrown with Invalid Request error code.
+     */
+    public List<JWTEntry> persistJWTIdsIfAbsentInDB(List<JWTEntry> jwtEntries) throws OAuthClientAuthnException {
+
+        List<JWTEntry> replayedEntries = new ArrayList<>();
+        if (jwtEntries == null || jwtEntries.isEmpty()) {
+            return replayedEntries;
+        }
+        JWTServiceDataHolder dataHolder = JWTServiceDataHolder.getInstance();
+        JTIDialect dialect = Util.getJTIDialect();
+        if (dataHolder.isHashedJTIStorage() ? dataHolder.isRawJTILookup() :
+                dialect == null || dataHolder.isDigestJTILookup()) {
+            return persistJWTIdsIfAbsent(jwtEntries);
+        }
+        Connection connection = null;
+        PreparedStatement preparedStatement = null;
+        try {
+            connection = IdentityDatabaseUtil.getDBConnection();
+            if (dataHolder.isHashedJTIStorage()) {
+                // The primary key of the digests decides whether the JTIs are new.
+                preparedStatement = connection.prepareStatement(Constants.SQLQueries.INSERT_JTI_DIGEST);
+                for (JWTEntry jwtEntry : jwtEntries) {
+                    bindDigestInsert(preparedStatement, getDigest(jwtEntry.getJti(), jwtEntry.getTenantId()),
+                            jwtEntry.getExp(), jwtEntry.getCreatedTime());
+                    preparedStatement.addBatch();
+                }
+            } else {
+                preparedStatement = dialect.prepareInsertIfAbsent(connection);
+                for (JWTEntry jwtEntry : jwtEntries) {
+                    dialect.bindInsertIfAbsent(preparedStatement, jwtEntry.getJti(), jwtEntry.getTenantId(),
+                            jwtEntry.getExp(), jwtEntry.getCreatedTime());
+                    preparedStatement.addBatch();
+                }
+            }
+            int[] insertedRows = preparedStatement.executeBatch();
+            connection.commit();
+            for (int i = 0; i < insertedRows.length; i++) {
+                // A driver which does not report the row count of a batch entry gives no sign of a replay.
+                if (insertedRows[i] == 0) {
+                    replayedEntries.add(jwtEntries.get(i));
+                }
+            }
+            return replayedEntries;
+        } catch (SQLException e) {
+            IdentityDatabaseUtil.rollbackTransaction(connection);
+            if (!StringUtils.startsWith(e.getSQLState(), INTEGRITY_CONSTRAINT_VIOLATION_SQL_STATE_CLASS)) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Error when storing a batch of " + jwtEntries.size() + " JWT IDs.", e);
+                }
+                throw new OAuthClientAuthnException("Error occurred while persisting the JTIs of the assertions.",
+                        OAuth2ErrorCodes.INVALID_REQUEST, e);
+            }
+        } finally {
+            IdentityDatabaseUtil.closeAllConnections(connection, null, preparedStatement);
+        }
+        // A concurrent insert of one of the JTIs failed the whole batch, hence the JTIs are persisted one by one.
+        return persistJWTIdsIfAbsent(jwtEntries);
+    }
+
+    private List<JWTEntry> persistJWTIdsIfAbsent(List<JWTEntry> jwtEntries) throws OAuthClientAuthnException {
+
+        List<JWTEntry> replayedEntries = new ArrayList<>();
+        for (JWTEntry jwtEntry : jwtEntries) {
+            if (!persistJWTIdIfAbsent(jwtEntry.getJti(), jwtEntry.getTenantId(), jwtEntry.getExp(),
+                    jwtEntry.getCreatedTime())) {
+                replayedEntries.add(jwtEntry);
+            }
+        }
+        return replayedEntries;
+    }
+
+    /**
+     * Get a page of expired JTIs, ordered by the primary key. The next page is fetched by passing the last entry of
+     * the previous page, so that each page is resolved from the primary key index without an offset scan.
+     *
+     * @param expiredBefore Entries expired before this time are returned.
+     * @param lastEntry     Last entry of the previous page, or null to fetch the first page.
+     * @param limit         Maximum number of entries to return.
+     * @return List of expired JWT entries with only the JTI and the tenant id.
+     * @throws OAuthClientAuthnException OAuthClientAuthnException thrown with Invalid Request error code.
+     */
+    public List<JWTEntry> getExpiredJWTIds(long expiredBefore, JWTEntry lastEntry, int limit)
+            throws OAuthClientAuthnException {
+
+        List<JWTEntry> jwtEntries = new ArrayList<>();
+        Connection connection = IdentityDatabaseUtil.getDBConnection();
+        PreparedStatement preparedStatement = null;
+        ResultSet rs = null;
+        try {
+            boolean isTenanted = Util.isTenantIdColumnAvailableInIdnOidcAuth();
+            String query = Util.getDBQuery(lastEntry == null ? GET_EXPIRED_JWT_IDS : GET_EXPIRED_JWT_IDS_AFTER) +
+                    getLimitClause();
+            preparedStatement = connection.prepareStatement(query);
+            int index = 1;
+            preparedStatement.setTimestamp(index++, new Timestamp(expiredBefore),
+                    Calendar.getInstance(TimeZone.getTimeZone(Constants.UTC)));
+            if (lastEntry != null) {
+                preparedStatement.setString(index++, lastEntry.getJti());
+                if (isTenanted) {
+                    preparedStatement.setString(index++, lastEntry.getJti());
+                    preparedStatement.setInt(index++, lastEntry.getTenantId());
+                }
+            }
+            preparedStatement.setInt(index, limit);
+            rs = preparedStatement.executeQuery();
+            while (rs.next()) {
+                String jti = rs.getString(1);
+                int tenantId = isTenanted ? rs.getInt(2) : DEFAULT_TENANT_ID;
+                jwtEntries.add(new JWTEntry(jti, expiredBefore, expiredBefore, tenantId));
+            }
+        } catch (SQLException e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Error when retrieving the expired JWT IDs.", e);
+            }
+            throw new OAuthClientAuthnException("Error occurred while retrieving the expired JTIs.",
+                    OAuth2ErrorCodes.INVALID_REQUEST, e);
+        } finally {
+            IdentityDatabaseUtil.closeAllConnections(connection, rs, preparedStatement);
+        }
+        return jwtEntries;
+    }
+
+    /**
+     * Delete the given JTIs in a single batch, if they are still expired.
+     *
+     * @param jwtEntries    JWT entries to be deleted.
+     * @param expiredBefore Entries expired before this time are deleted.
+     * @return Number of deleted entries.
+     * @throws OAuthClientAuthnException OAuthClientAuthnException thrown with Invalid Request error code.
+     */
+    public int deleteExpiredJWTIds(List<JWTEntry> jwtEntries, long expiredBefore) throws OAuthClientAuthnException {
+
+        if (jwtEntries == null || jwtEntries.isEmpty()) {
+            return 0;
+        }
+        Connection connection = null;
+        PreparedStatement preparedStatement = null;
+        try {
+            connection = IdentityDatabaseUtil.getDBConnection();
+            preparedStatement = connection.prepareStatement(Util.getDBQuery(DELETE_EXPIRED_JWT_ID));
+            Timestamp expiredBeforeTimestamp = new Timestamp(expiredBefore);
+            for (JWTEntry jwtEntry : jwtEntries) {
+                int index = 1;
+                preparedStatement.setString(index++, jwtEntry.getJti());
+                if (Util.isTenantIdColumnAvailableInIdnOidcAuth()) {
+                    preparedStatement.setInt(index++, jwtEntry.getTenantId());
+                }
+                preparedStatement.setTimestamp(index, expiredBeforeTimestamp,
+                        Calendar.getInstance(TimeZone.getTimeZone(Constants.UTC)));
+                preparedStatement.addBatch();
+            }
+            int deletedRows = 0;
+            for (int count : preparedStatement.executeBatch()) {
+                // Some drivers report SUCCESS_NO_INFO instead of the affected row count.
+                deletedRows += count == PreparedStatement.SUCCESS_NO_INFO ? 1 : Math.max(count, 0);
+            }
+            connection.commit();
+            return deletedRows;
+        } catch (SQLException e) {
+            IdentityDatabaseUtil.rollbackTransaction(connection);
+            if (log.isDebugEnabled()) {
+                log.debug("Error when deleting a batch of " + jwtEntries.size() + " expired JWT IDs.", e);
+            }
+            throw new OAuthClientAuthnException("Error occurred while deleting the expired JTIs.",
+                    OAuth2ErrorCodes.INVALID_REQUEST, e);
+        } finally {
+            IdentityDatabaseUtil.closeAllConnections(connection, null, preparedStatement);
+        }
+    }
+
+    /**
+     * Try to acquire a cluster wide lease from the IDN_OIDC_JTI_LEASE table. A lease is taken over by another node
+     * only after it has expired, hence only one node in the cluster holds it at a time. The holder can renew the
+     * lease before it expires. If the IDN_OIDC_JTI_LEASE table does not exist, the lease is always acquired with an
+     * error log, hence each node runs the leased task on its own, which is safe as the purge and the JTI hash
+     * migration tolerate concurrent runs.
+     *
+     * @param leaseName   Name of the lease.
+     * @param nodeId      Id of the node acquiring the lease.
+     * @param currentTime Current time.
+     * @param leaseExpiry Time until which the lease should be held.
+     * @return true if the lease was acquired.
+     * @throws OAuthClientAuthnException OAuthClientAuthnException thrown with Invalid Request error code.
+     */
+    public boolean acquireLease(String leaseName, String nodeId, long currentTime, long leaseExpiry)
+            throws OAuthClientAuthnException {
+
+        Connection connection = null;
+        PreparedStatement preparedStatement = null;
+        try {
+            connection = IdentityDatabaseUtil.getDBConnection();
+            Timestamp leaseExpiryTimestamp = new Timestamp(leaseExpiry);
+            preparedStatement = connection.prepareStatement(Constants.SQLQueries.ACQUIRE_JTI_LEASE);
+            preparedStatement.setString(1, nodeId);
+            preparedStatement.setTimestamp(2, leaseExpiryTimestamp,
+                    Calendar.getInstance(TimeZone.getTimeZone(Constants.UTC)));
+            preparedStatement.setString(3, leaseName);
+            preparedStatement.setTimestamp(4, new Timestamp(currentTime),
+                    Calendar.getInstance(TimeZone.getTimeZone(Constants.UTC)));
+            preparedStatement.setString(5, nodeId);
+            if (preparedStatement.executeUpdate() > 0) {
+                connection.commit();
+                return true;
+            }
+            preparedStatement.close();
+
+            // The lease row does not exist yet, or is held by another node. Only one node can insert it.
+            preparedStatement = connection.prepareStatement(Constants.SQLQueries.INSERT_JTI_LEASE);
+            preparedStatement.setString(1, leaseName);
+            preparedStatement.setString(2, nodeId);
+            preparedStatement.setTimestamp(3, leaseExpiryTimestamp,
+                    Calendar.getInstance(TimeZone.getTimeZone(Constants.UTC)));
+            preparedStatement.executeUpdate();
+            connection.commit();
+            return true;
+        } catch (SQLException e) {
+            IdentityDatabaseUtil.rollbackTransaction(connection);
+            if (StringUtils.startsWith(e.getSQLState(), INTEGRITY_CONSTRAINT_VIOLATION_SQL_STATE_CLASS)) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Lease: " + leaseName + " is held by another node.");
+                }
+                return false;
+            }
+            if (isUndefinedTable(e)) {
+                logMissingLeaseTable(leaseName, e);
+                return true;
+            }
+            throw new OAuthClientAuthnException("Error occurred while acquiring the lease: " + leaseName,
+                    OAuth2ErrorCodes.INVALID_REQUEST, e);
+        } finally {
+            IdentityDatabaseUtil.closeAllConnections(connection, null, preparedStatement);
+        }
+    }
+
+    /**
+     * Release a cluster wide lease held by the given node, so that another node can acquire it right away.
+     *
+     * @param leaseName   Name of the lease.
+     * @param nodeId      Id of the node holding the lease.
+     * @param currentTime Current time, which the lease expires at.
+     * @throws OAuthClientAuthnException OAuthClientAuthnException thrown with Invalid Request error code.
+     */
+    public void releaseLease(String leaseName, String nodeId, long currentTime) throws OAuthClientAuthnException {
+
+        Connection connection = null;
+        PreparedStatement preparedStatement = null;
+        try {
+            connection = IdentityDatabaseUtil.getDBConnection();
+            preparedStatement = connection.prepareStatement(Constants.SQLQueries.RELEASE_JTI_LEASE);
+            preparedStatement.setTimestamp(1, new Timestamp(currentTime),
+                    Calendar.getInstance(TimeZone.getTimeZone(Constants.UTC)));
+            preparedStatement.setString(2, leaseName);
+            preparedStatement.setString(3, nodeId);
+            preparedStatement.executeUpdate();
+            connection.commit();
+        } catch (SQLException e) {
+            IdentityDatabaseUtil.rollbackTransaction(connection);
+            if (isUndefinedTable(e)) {
+                // The lease was never held, as reported when it was acquired.
+                return;
+            }
+            throw new OAuthClientAuthnException("Error occurred while releasing the lease: " + leaseName,
+                    OAuth2ErrorCodes.INVALID_REQUEST, e);
+        } finally {
+            IdentityDatabaseUtil.closeAllConnections(connection, null, preparedStatement);
+        }
+    }
+
+    private static boolean isUndefinedTable(SQLException e) {
+
+        return UNDEFINED_TABLE_SQL_STATES.contains(e.getSQLState()) ||
+                e.getErrorCode() == ORACLE_UNDEFINED_TABLE_ERROR_CODE;
+    }
+
+    private static void logMissingLeaseTable(String leaseName, SQLException e) {
+
+        if (LEASE_TABLE_MISSING_LOGGED.compareAndSet(false, true)) {
+            log.error("IDN_OIDC_JTI_LEASE table is not found in the identity database. Create it with the dbscripts " +
+                    "of the private key JWT client authenticator. Until then, the cluster wide leases are not " +
+                    "coordinated, and each node runs the leased tasks on its own.", e);
+        } else if (log.isDebugEnabled()) {
+            log.debug("Acquiring the lease: " + leaseName + " without the IDN_OIDC_JTI_LEASE table.");
+        }
+    }
+
+    /**
+     * Retrieve a chunk of the raw JTIs which are not expired, ordered by the JTI and the tenant id.
+     *
+     * @param activeAfter Entries expiring at or after this time are retrieved.
+     * @param lastEntry   Last entry of the previous chunk, or null for the first chunk.
+     * @param limit       Maximum number of entries to retrieve.
+     * @return Active JWT entries.
+     * @throws OAuthClientAuthnException OAuthClientAuthnException thrown with Invalid Request error code.
+     */
+    public List<JWTEntry> getActiveJWTIds(long activeAfter, JWTEntry lastEntry, int limit)
+            throws OAuthClientAuthnException {
+
+        List<JWTEntry> jwtEntries = new ArrayList<>();
+        Connection connection = IdentityDatabaseUtil.getDBConnection();
+        PreparedStatement preparedStatement = null;
+        ResultSet rs = null;
+        try {
+            boolean isTenanted = Util.isTenantIdColumnAvailableInIdnOidcAuth();
+            String query = Util.getDBQuery(lastEntry == null ? GET_ACTIVE_JWT_IDS : GET_ACTIVE_JWT_IDS_AFTER) +
+                    getLimitClause();
+            preparedStatement = connection.prepareStatement(query);
+            int index = 1;
+            preparedStatement.setTimestamp(index++, new Timestamp(activeAfter),
+                    Calendar.getInstance(TimeZone.getTimeZone(Constants.UTC)));
+            if (lastEntry != null) {
+                preparedStatement.setString(index++, lastEntry.getJti());
+                if (isTenanted) {
+                    preparedStatement.setString(index++, lastEntry.getJti());
+                    preparedStatement.setInt(index++, lastEntry.getTenantId());
+                }
+            }
+            preparedStatement.setInt(index, limit);
+            rs = preparedStatement.executeQuery();
+            while (rs.next()) {
+                String jti = rs.getString(1);
+                int tenantId = isTenanted ? rs.getInt(TENANT_ID) : DEFAULT_TENANT_ID;
+                long exp = rs.getTimestamp(EXP_TIME,
+                        Calendar.getInstance(TimeZone.getTimeZone(Constants.UTC))).getTime();
+                long created = rs.getTimestamp(TIME_CREATED,
+                        Calendar.getInstance(TimeZone.getTimeZone(Constants.UTC))).getTime();
+                jwtEntries.add(new JWTEntry(jti, exp, created, tenantId));
+            }
+        } catch (SQLException e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Error when retrieving the active JWT IDs.", e);
+            }
+            throw new OAuthClientAuthnException("Error occurred while retrieving the active JTIs.",
+                    OAuth2ErrorCodes.INVALID_REQUEST, e);
+        } finally {
+            IdentityDatabaseUtil.closeAllConnections(connection, rs, preparedStatement);
+        }
+        return jwtEntries;
+    }
+
+    /**
+     * Move the given raw JTIs to the hashed JTI storage, by persisting their digests and deleting the raw JTIs in a
+     * single transaction. A JTI whose digest is already persisted, by a request served in the hashed storage mode, is
+     * only deleted.
+     *
+     * @param jwtEntries JWT entries persisted with the raw JTI.
+     * @return Number of persisted digests.
+     * @throws OAuthClientAuthnException OAuthClientAuthnException thrown with Invalid Request error code.
+     */
+    public int hashJWTIds(List<JWTEntry> jwtEntries) throws OAuthClientAuthnException {
+
+        if (jwtEntries == null || jwtEntries.isEmpty()) {
+            return 0;
+        }
+        Connection connection = null;
+        PreparedStatement preparedStatement = null;
+        try {
+            connection = IdentityDatabaseUtil.getDBConnection();
+            preparedStatement = connection.prepareStatement(Constants.SQLQueries.INSERT_JTI_DIGEST);
+            for (JWTEntry jwtEntry : jwtEntries) {
+                bindDigestInsert(preparedStatement, getDigest(jwtEntry.getJti(), jwtEntry.getTenantId()),
+                        jwtEntry.getExp(), jwtEntry.getCreatedTime());
+                preparedStatement.addBatch();
+            }
+            int hashedRows = 0;
+            for (int count : preparedStatement.executeBatch()) {
+                hashedRows += count == PreparedStatement.SUCCESS_NO_INFO ? 1 : Math.max(count, 0);
+            }
+            IdentityDatabaseUtil.closeStatement(preparedStatement);
+            preparedStatement = connection.prepareStatement(Util.getDBQuery(DELETE_JWT_ID));
+            for (JWTEntry jwtEntry : jwtEntries) {
+                bindDeleteJWTIdParameters(preparedStatement, jwtEntry);
+                preparedStatement.addBatch();
+            }
+            preparedStatement.executeBatch();
+            connection.commit();
+            return hashedRows;
+        } catch (SQLException e) {
+            IdentityDatabaseUtil.rollbackTransaction(connection);
+            if (!StringUtils.startsWith(e.getSQLState(), INTEGRITY_CONSTRAINT_VIOLATION_SQL_STATE_CLASS)) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Error when hashing a batch of " + jwtEntries.size() + " JWT IDs.", e);
+                }
+                throw new OAuthClientAuthnException("Error occurred while hashing the persisted JTIs.",
+                        OAuth2ErrorCodes.INVALID_REQUEST, e);
+            }
+        } finally {
+            IdentityDatabaseUtil.closeAllConnections(connection, null, preparedStatement);
+        }
+        // Some digests of the batch are already persisted. Retry one by one, skipping those.
+        int hashedRows = 0;
+        for (JWTEntry jwtEntry : jwtEntries) {
+            hashedRows += hashJWTId(jwtEntry);
+        }
+        return hashedRows;
+    }
+
+    private int hashJWTId(JWTEntry jwtEntry) throws OAuthClientAuthnException {
+
+        Connection connection = null;
+        PreparedStatement preparedStatement = null;
+        int hashedRows = 0;
+        try {
+            connection = IdentityDatabaseUtil.getDBConnection();
+            preparedStatement = prepareDigestInsert(connection, getDigest(jwtEntry.getJti(), jwtEntry.getTenantId()),
+                    jwtEntry.getExp(), jwtEntry.getCreatedTime());
+            try {
+                hashedRows = preparedStatement.executeUpdate();
+            } catch (SQLException e) {
+                if (!StringUtils.startsWith(e.getSQLState(), INTEGRITY_CONSTRAINT_VIOLATION_SQL_STATE_CLASS)) {
+                    throw e;
+                }
+                // The failed insert is rolled back, as some databases abort the whole transaction on an error.
+                IdentityDatabaseUtil.rollbackTransaction(connection);
+                if (log.isDebugEnabled()) {
+                    log.debug("Digest of the JWT ID: " + jwtEntry.getJti() + " of tenant id: " +
+                            jwtEntry.getTenantId() + " is already persisted.");
+                }
+            }
+            IdentityDatabaseUtil.closeStatement(preparedStatement);
+            preparedStatement = connection.prepareStatement(Util.getDBQuery(DELETE_JWT_ID));
+            bindDeleteJWTIdParameters(preparedStatement, jwtEntry);
+            preparedStatement.executeUpdate();
+            connection.commit();
+            return hashedRows;
+        } catch (SQLException e) {
+            IdentityDatabaseUtil.rollbackTransaction(connection);
+            throw new OAuthClientAuthnException("Error occurred while hashing the JTI: " + jwtEntry.getJti(),
+                    OAuth2ErrorCodes.INVALID_REQUEST, e);
+        } finally {
+            IdentityDatabaseUtil.closeAllConnections(connection, null, preparedStatement);
+        }
+    }
+
+    private void bindDeleteJWTIdParameters(PreparedStatement preparedStatement, JWTEntry jwtEntry)
+            throws SQLException {
+
+        preparedStatement.setString(1, jwtEntry.getJti());
+        if (Util.isTenantIdColumnAvailableInIdnOidcAuth()) {
+            preparedStatement.setInt(2, jwtEntry.getTenantId());
+        }
+    }
+
+    /**
+     * Get a page of the expired JTI digests of the hashed JTI storage, ordered by the digest. The next page is fetched
+     * by passing the last digest of the previous page.
+     *
+     * @param expiredBefore Digests expired before this time are returned.
+     * @param lastDigest    Last digest of the previous page, or null to fetch the first page.
+     * @param limit         Maximum number of digests to return.
+     * @return List of expired JTI digests.
+     * @throws OAuthClientAuthnException OAuthClientAuthnException thrown with Invalid Request error code.
+     */
+    public List<byte[]> getExpiredJTIDigests(long expiredBefore, byte[] lastDigest, int limit)
+            throws OAuthClientAuthnException {
+
+        List<byte[]> digests = new ArrayList<>();
+        Connection connection = IdentityDatabaseUtil.getDBConnection();
+        PreparedStatement preparedStatement = null;
+        ResultSet rs = null;
+        try {
+            String query = (lastDigest == null ? Constants.SQLQueries.GET_EXPIRED_JTI_DIGESTS :
+                    Constants.SQLQueries.GET_EXPIRED_JTI_DIGESTS_AFTER) + getLimitClause();
+            preparedStatement = connection.prepareStatement(query);
+            int index = 1;
+            preparedStatement.setTimestamp(index++, new Timestamp(expiredBefore),
+                    Calendar.getInstance(TimeZone.getTimeZone(Constants.UTC)));
+            if (lastDigest != null) {
+                preparedStatement.setBytes(index++, lastDigest);
+            }
+            preparedStatement.setInt(index, limit);
+            rs = preparedStatement.executeQuery();
+            while (rs.next()) {
+                digests.add(rs.getBytes(1));
+            }
+        } catch (SQLException e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Error when retrieving the expired JWT ID digests.", e);
+            }
+            throw new OAuthClientAuthnException("Error occurred while retrieving the expired JTIs.",
+                    OAuth2ErrorCodes.INVALID_REQUEST, e);
+        } finally {
+            IdentityDatabaseUtil.closeAllConnections(connection, rs, preparedStatement);
+        }
+        return digests;
+    }
+
+    /**
+     * Delete the given JTI digests in a single batch, if they are still expired.
+     *
+     * @param digests       JTI digests to be deleted.
+     * @param expiredBefore Digests expired before this time are deleted.
+     * @return Number of deleted digests.
+     * @throws OAuthClientAuthnException OAuthClientAuthnException thrown with Invalid Request error code.
+     */
+    public int deleteExpiredJTIDigests(List<byte[]> digests, long expiredBefore) throws OAuthClientAuthnException {
+
+        if (digests == null || digests.isEmpty()) {
+            return 0;
+        }
+        Connection connection = null;
+        PreparedStatement preparedStatement = null;
+        try {
+            connection = IdentityDatabaseUtil.getDBConnection();
+            preparedStatement = connection.prepareStatement(Constants.SQLQueries.DELETE_EXPIRED_JTI_DIGEST);
+            Timestamp expiredBeforeTimestamp = new Timestamp(expiredBefore);
+            for (byte[] digest : digests) {
+                preparedStatement.setBytes(1, digest);
+                preparedStatement.setTimestamp(2, expiredBeforeTimestamp,
+                        Calendar.getInstance(TimeZone.getTimeZone(Constants.UTC)));
+                preparedStatement.addBatch();
+            }
+            int deletedRows = 0;
+            for (int count : preparedStatement.executeBatch()) {
+                deletedRows += count == PreparedStatement.SUCCESS_NO_INFO ? 1 : Math.max(count, 0);
+            }
+            connection.commit();
+            return deletedRows;
+        } catch (SQLException e) {
+            IdentityDatabaseUtil.rollbackTransaction(connection);
+            if (log.isDebugEnabled()) {
+                log.debug("Error when deleting a batch of " + digests.size() + " expired JWT ID digests.", e);
+            }
+            throw new OAuthClientAuthnException("Error occurred while deleting the expired JTIs.",
+                    OAuth2ErrorCodes.INVALID_REQUEST, e);
+        } finally {
+            IdentityDatabaseUtil.closeAllConnections(connection, null, preparedStatement);
+        }
+    }
+
+    /**
+     * @param jti      JTI of the assertion.
+     * @param tenantId Tenant id of the assertion.
+     * @return Digest of the JTI in the hashed JTI storage. Without the TENANT_ID column in the IDN_OIDC_JTI table, the
+     * JTIs are unique across the tenants, hence are digested along with the default tenant id.
+     */
+    private static byte[] getDigest(String jti, int tenantId) {
+
+        return JTIDigest.digest(Util.isTenantIdColumnAvailableInIdnOidcAuth() ? tenantId : DEFAULT_TENANT_ID, jti);
+    }
+
+    private String getLimitClause() {
+
+        JTIDialect dialect = Util.getJTIDialect();
+        if (dialect == null) {
+            return Constants.SQLQueries.LIMIT_CLAUSE_MYSQL_H2_OR_POSTGRESQL;
+        }
+        return dialect.getLimitClause();
+    }
 }
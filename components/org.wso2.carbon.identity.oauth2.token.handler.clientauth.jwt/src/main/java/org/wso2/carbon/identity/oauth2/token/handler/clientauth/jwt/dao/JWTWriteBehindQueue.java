@@ -0,0 +1,407 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.oauth.common.OAuth2ErrorCodes;
+import org.wso2.carbon.identity.oauth2.client.authentication.OAuthClientAuthnException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind stage for JTI persistence.
+ * Accepted JTIs are reserved in memory, so replays within this node are detected immediately, and are persisted
+ * asynchronously in JDBC batches by a single flusher thread. The JTIs of the clients which do not allow token reuse
+ * are flushed with the conditional insert, so that a JTI persisted by another node in the meantime is kept and the
+ * replay is reported. A reservation is released once the JTI is persisted, from then on the replay is detected from
+ * the database. A JTI which could not be persisted is queued again and keeps
+ * its reservation until it is persisted or expires, so that its replay is still detected on this node. A reservation
+ * expires along with its assertion, allowing for the clock skew, and the expired reservations are swept by the
+ * flusher thread.
+ */
+public class JWTWriteBehindQueue {
+
+    private static final Log log = LogFactory.getLog(JWTWriteBehindQueue.class);
+    private static final String FLUSHER_THREAD_NAME = "JTIWriteBehindFlusher";
+    private static final long SHUTDOWN_TIMEOUT_IN_MILLIS = 10000;
+    // Upper bound of a single wait of the flusher, so that it notices the shutdown.
+    private static final long MAX_WAIT_IN_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long RESERVATION_SWEEP_INTERVAL_IN_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    /**
+     * Behaviour when the queue is full.
+     */
+    public enum OverflowPolicy {
+
+        /**
+         * Block the request thread until there is space in the queue.
+         */
+        BLOCK,
+
+        /**
+         * Persist the JTI synchronously in the request thread.
+         */
+        SYNC
+    }
+
+    private final JWTStorageManager jwtStorageManager;
+    private final int batchSize;
+    private final long flushIntervalInMillis;
+    private final OverflowPolicy overflowPolicy;
+    private final long timeStampSkewInMillis;
+    private final BlockingQueue<QueuedJTI> queue;
+    // Reserved JTIs, along with the time until which they are reserved.
+    private final ConcurrentMap<String, Long> reservedJTIs = new ConcurrentHashMap<>();
+    private ExecutorService flusher;
+    private volatile boolean running;
+
+    /**
+     * @param jwtStorageManager     Storage manager persisting the JTIs.
+     * @param batchSize             Maximum number of JTIs persisted in a single batch.
+     * @param flushIntervalInMillis Time to wait for a batch to fill up.
+     * @param queueSize             Maximum number of JTIs waiting to be persisted.
+     * @param overflowPolicy        Behaviour when the queue is full.
+     * @param timeStampSkewInMillis Clock skew allowed after the expiry of an assertion, until which its JTI is kept
+     *                              reserved.
+     */
+    public JWTWriteBehindQueue(JWTStorageManager jwtStorageManager, int batchSize, long flushIntervalInMillis,
+                               int queueSize, OverflowPolicy overflowPolicy, long timeStampSkewInMillis) {
+
+        this.jwtStorageManager = jwtStorageManager;
+        this.batchSize = batchSize;
+        this.flushIntervalInMillis = flushIntervalInMillis;
+        this.overflowPolicy = overflowPolicy;
+        this.timeStampSkewInMillis = timeStampSkewInMillis;
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+    }
+
+    /**
+     * Start the flusher thread.
+     */
+    public synchronized void start() {
+
+        if (running) {
+            return;
+        }
+        running = true;
+        flusher = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, FLUSHER_THREAD_NAME);
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.execute(this::flushLoop);
+        if (log.isDebugEnabled()) {
+            log.debug("JTI write-behind queue started with batch size: " + batchSize + ", flush interval: " +
+                    flushIntervalInMillis + "ms and overflow policy: " + overflowPolicy);
+        }
+    }
+
+    /**
+     * Stop accepting JTIs and drain the pending JTIs to the database.
+     */
+    public synchronized void shutdown() {
+
+        if (!running) {
+            return;
+        }
+        running = false;
+        flusher.shutdown();
+        try {
+            if (!flusher.awaitTermination(SHUTDOWN_TIMEOUT_IN_MILLIS, TimeUnit.MILLISECONDS)) {
+                log.warn("JTI write-behind flusher did not terminate within " + SHUTDOWN_TIMEOUT_IN_MILLIS + "ms.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Drain whatever is left in the caller thread. The JTIs which still fail are not queued again.
+        List<QueuedJTI> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            flush(batch, false);
+            batch.clear();
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("JTI write-behind queue is drained and stopped.");
+        }
+    }
+
+    public boolean isRunning() {
+
+        return running;
+    }
+
+    /**
+     * Reserve the JTI until it is persisted, or its assertion expires.
+     *
+     * @param jti      JTI.
+     * @param tenantId Tenant id.
+     * @param expTime  Expiration time of the JTI.
+     * @return false if the JTI is already reserved.
+     */
+    public boolean reserve(String jti, int tenantId, long expTime) {
+
+        String reservationKey = getReservationKey(jti, tenantId);
+        long reservedUntil = expTime + timeStampSkewInMillis;
+        Long existingReservation = reservedJTIs.putIfAbsent(reservationKey, reservedUntil);
+        if (existingReservation == null) {
+            return true;
+        }
+        // An expired reservation which is not swept yet does not hold the JTI.
+        return existingReservation <= System.currentTimeMillis() &&
+                reservedJTIs.replace(reservationKey, existingReservation, reservedUntil);
+    }
+
+    /**
+     * Check whether the JTI is accepted but not yet persisted.
+     *
+     * @param jti      JTI.
+     * @param tenantId Tenant id.
+     * @return true if the JTI is reserved.
+     */
+    public boolean isReserved(String jti, int tenantId) {
+
+        Long reservedUntil = reservedJTIs.get(getReservationKey(jti, tenantId));
+        return reservedUntil != null && reservedUntil > System.currentTimeMillis();
+    }
+
+    /**
+     * @return Number of reserved JTIs, including the expired ones which are not swept yet.
+     */
+    public int getReservationCount() {
+
+        return reservedJTIs.size();
+    }
+
+    /**
+     * Queue the JTI of a client which allows token reuse to be persisted.
+     *
+     * @param jwtEntry JWT entry to be persisted.
+     * @throws OAuthClientAuthnException When the JTI could not be queued or persisted.
+     */
+    public void enqueue(JWTEntry jwtEntry) throws OAuthClientAuthnException {
+
+        enqueue(jwtEntry, false);
+    }
+
+    /**
+     * Queue the JTI to be persisted. When the queue is full the configured {@link OverflowPolicy} is applied.
+     *
+     * @param jwtEntry          JWT entry to be persisted.
+     * @param preventTokenReuse Whether the JTI must be persisted with the conditional insert, as the client does not
+     *                          allow token reuse.
+     * @return false if the JTI was persisted synchronously and turned out to be persisted already by another node.
+     * @throws OAuthClientAuthnException When the JTI could not be queued or persisted.
+     */
+    public boolean enqueue(JWTEntry jwtEntry, boolean preventTokenReuse) throws OAuthClientAuthnException {
+
+        QueuedJTI queuedJTI = new QueuedJTI(jwtEntry, preventTokenReuse);
+        if (running && queue.offer(queuedJTI)) {
+            return true;
+        }
+        if (running && overflowPolicy == OverflowPolicy.BLOCK) {
+            try {
+                queue.put(queuedJTI);
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                release(jwtEntry);
+                throw new OAuthClientAuthnException("Interrupted while queueing the JTI: " + jwtEntry.getJti(),
+                        OAuth2ErrorCodes.INVALID_REQUEST, e);
+            }
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("JTI write-behind queue is full or stopped. Persisting the JTI: " + jwtEntry.getJti() +
+                    " synchronously.");
+        }
+        try {
+            return persist(queuedJTI);
+        } finally {
+            // The JTI is either persisted, or the request fails and the client may retry it.
+            release(jwtEntry);
+        }
+    }
+
+    private void flushLoop() {
+
+        List<QueuedJTI> batch = new ArrayList<>(batchSize);
+        long nextSweepTime = System.currentTimeMillis() + RESERVATION_SWEEP_INTERVAL_IN_MILLIS;
+        while (running) {
+            long currentTime = System.currentTimeMillis();
+            if (currentTime >= nextSweepTime) {
+                sweepExpiredReservations(currentTime);
+                nextSweepTime = currentTime + RESERVATION_SWEEP_INTERVAL_IN_MILLIS;
+            }
+            try {
+                QueuedJTI first = queue.poll(Math.min(TimeUnit.MILLISECONDS.toNanos(flushIntervalInMillis),
+                        MAX_WAIT_IN_NANOS), TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // Group the JTIs arriving within the flush interval into a single batch.
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalInMillis);
+                while (batch.size() < batchSize && running) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    QueuedJTI next = queue.poll(Math.min(remaining, MAX_WAIT_IN_NANOS), TimeUnit.NANOSECONDS);
+                    if (next != null) {
+                        batch.add(next);
+                    }
+                }
+                flush(batch, true);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                flush(batch, false);
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<QueuedJTI> batch, boolean requeueFailures) {
+
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<JWTEntry> reusableEntries = new ArrayList<>(batch.size());
+        List<JWTEntry> singleUseEntries = new ArrayList<>(batch.size());
+        for (QueuedJTI queuedJTI : batch) {
+            if (queuedJTI.preventTokenReuse) {
+                singleUseEntries.add(queuedJTI.jwtEntry);
+            } else {
+                reusableEntries.add(queuedJTI.jwtEntry);
+            }
+        }
+        try {
+            if (!reusableEntries.isEmpty()) {
+                jwtStorageManager.persistJWTIdsInDB(reusableEntries);
+            }
+            if (!singleUseEntries.isEmpty()) {
+                // The JTIs of the clients which do not allow token reuse must not replace the ones persisted by
+                // another node in the meantime.
+                for (JWTEntry replayedEntry : jwtStorageManager.persistJWTIdsIfAbsentInDB(singleUseEntries)) {
+                    logReplayAcrossNodes(replayedEntry);
+                }
+            }
+            for (QueuedJTI queuedJTI : batch) {
+                release(queuedJTI.jwtEntry);
+            }
+            return;
+        } catch (OAuthClientAuthnException e) {
+            log.error("Error while persisting a batch of " + batch.size() + " JTIs. Retrying individually.", e);
+        }
+        long currentTime = System.currentTimeMillis();
+        for (QueuedJTI queuedJTI : batch) {
+            JWTEntry jwtEntry = queuedJTI.jwtEntry;
+            try {
+                if (!persist(queuedJTI)) {
+                    logReplayAcrossNodes(jwtEntry);
+                }
+                release(jwtEntry);
+            } catch (OAuthClientAuthnException e) {
+                if (jwtEntry.getExp() <= currentTime) {
+                    // The assertion can no longer be accepted, hence neither can its replay.
+                    release(jwtEntry);
+                } else if (requeueFailures && queue.offer(queuedJTI)) {
+                    log.error("Error while persisting the JTI: " + jwtEntry.getJti() + ". It is queued again.", e);
+                } else {
+                    // The reservation still rejects the replays on this node until the JTI expires.
+                    log.error("Error while persisting the JTI: " + jwtEntry.getJti() + ". Its replay is only " +
+                            "detected on this node until it expires.", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * The assertion was accepted on this node while another node accepted the same JTI, before either was flushed.
+     * The request can no longer be rejected, hence the replay is reported.
+     */
+    private static void logReplayAcrossNodes(JWTEntry jwtEntry) {
+
+        log.warn("The JTI: " + jwtEntry.getJti() + " of tenant id: " + jwtEntry.getTenantId() + " was already " +
+                "persisted by another node when it was flushed from the write-behind queue. Its replay across the " +
+                "nodes was accepted.");
+    }
+
+    /**
+     * Persist a single JTI, with the conditional insert if the client does not allow token reuse.
+     *
+     * @return false if the JTI of a client which does not allow token reuse is already persisted.
+     */
+    private boolean persist(QueuedJTI queuedJTI) throws OAuthClientAuthnException {
+
+        JWTEntry jwtEntry = queuedJTI.jwtEntry;
+        if (queuedJTI.preventTokenReuse) {
+            return jwtStorageManager.persistJWTIdIfAbsent(jwtEntry.getJti(), jwtEntry.getTenantId(),
+                    jwtEntry.getExp(), jwtEntry.getCreatedTime());
+        }
+        jwtStorageManager.persistJWTIdInDB(jwtEntry.getJti(), jwtEntry.getTenantId(), jwtEntry.getExp(),
+                jwtEntry.getCreatedTime(), false);
+        return true;
+    }
+
+    /**
+     * Drop the reservations of the JTIs whose assertions expired, such as the ones which could not be persisted and
+     * were not queued again.
+     *
+     * @param currentTime Current time in milliseconds.
+     */
+    public void sweepExpiredReservations(long currentTime) {
+
+        reservedJTIs.values().removeIf(reservedUntil -> reservedUntil <= currentTime);
+    }
+
+    private void release(JWTEntry jwtEntry) {
+
+        reservedJTIs.remove(getReservationKey(jwtEntry.getJti(), jwtEntry.getTenantId()));
+    }
+
+    private static String getReservationKey(String jti, int tenantId) {
+
+        return tenantId + ":" + jti;
+    }
+
+    /**
+     * JTI waiting to be persisted, along with the token reuse setting of its client.
+     */
+    private static final class QueuedJTI {
+
+        private final JWTEntry jwtEntry;
+        private final boolean preventTokenReuse;
+
+        private QueuedJTI(JWTEntry jwtEntry, boolean preventTokenReuse) {
+
+            this.jwtEntry = jwtEntry;
+            this.preventTokenReuse = preventTokenReuse;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao.dialect;
+
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.SQLQueries;
+
+/**
+ * JTI dialect of DB2. Shares the MERGE statements of MS SQL Server.
+ */
+public class DB2JTIDialect extends MSSQLJTIDialect {
+
+    public DB2JTIDialect(boolean tenanted) {
+
+        super(tenanted);
+    }
+
+    @Override
+    public String getName() {
+
+        return "DB2";
+    }
+
+    @Override
+    public String getLimitClause() {
+
+        return SQLQueries.LIMIT_CLAUSE_ORACLE_OR_DB2;
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao.dialect;
+
+import org.wso2.carbon.database.utils.jdbc.exceptions.DataAccessException;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Calendar;
+import java.util.TimeZone;
+
+import static org.wso2.carbon.identity.core.util.JdbcUtils.isDB2DB;
+import static org.wso2.carbon.identity.core.util.JdbcUtils.isH2DB;
+import static org.wso2.carbon.identity.core.util.JdbcUtils.isMSSqlDB;
+import static org.wso2.carbon.identity.core.util.JdbcUtils.isMariaDB;
+import static org.wso2.carbon.identity.core.util.JdbcUtils.isMySQLDB;
+import static org.wso2.carbon.identity.core.util.JdbcUtils.isOracleDB;
+import static org.wso2.carbon.identity.core.util.JdbcUtils.isPostgreSQLDB;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.DEFAULT_TENANT_ID;
+
+/**
+ * Database specific SQL of the IDN_OIDC_JTI table, together with the parameter binding of each statement.
+ * The dialect is resolved once for the identity database and the table layout, so that persisting a JTI does not
+ * probe the database type on each request.
+ */
+public abstract class JTIDialect {
+
+    private final boolean tenanted;
+    private final String upsertQuery;
+    private final String insertIfAbsentQuery;
+
+    protected JTIDialect(boolean tenanted, String upsertQuery, String insertIfAbsentQuery) {
+
+        this.tenanted = tenanted;
+        this.upsertQuery = upsertQuery;
+        this.insertIfAbsentQuery = insertIfAbsentQuery;
+    }
+
+    /**
+     * Resolve the dialect of the identity database.
+     *
+     * @param tenanted Whether the IDN_OIDC_JTI table has the TENANT_ID column.
+     * @return Dialect of the database, or null if the database is not supported.
+     * @throws DataAccessException If the database type could not be resolved.
+     */
+    public static JTIDialect resolve(boolean tenanted) throws DataAccessException {
+
+        if (isH2DB()) {
+            return new H2JTIDialect(tenanted);
+        } else if (isMySQLDB() || isMariaDB()) {
+            return new MySQLJTIDialect(tenanted);
+        } else if (isPostgreSQLDB()) {
+            return new PostgreSQLJTIDialect(tenanted);
+        } else if (isMSSqlDB()) {
+            return new MSSQLJTIDialect(tenanted);
+        } else if (isDB2DB()) {
+            return new DB2JTIDialect(tenanted);
+        } else if (isOracleDB()) {
+            return new OracleJTIDialect(tenanted);
+        }
+        return null;
+    }
+
+    /**
+     * @return Name of the dialect.
+     */
+    public abstract String getName();
+
+    public boolean isTenanted() {
+
+        return tenanted;
+    }
+
+    /**
+     * @return Clause appended to a query to limit the number of returned rows to a single parameter.
+     */
+    public String getLimitClause() {
+
+        return Constants.SQLQueries.LIMIT_CLAUSE_MYSQL_H2_OR_POSTGRESQL;
+    }
+
+    /**
+     * Prepare the statement which inserts a JTI, or updates it if it already exists.
+     *
+     * @param connection Database connection.
+     * @return Prepared statement.
+     * @throws SQLException If the statement could not be prepared.
+     */
+    public PreparedStatement prepareUpsert(Connection connection) throws SQLException {
+
+        return connection.prepareStatement(upsertQuery);
+    }
+
+    /**
+     * Bind the parameters of the upsert statement.
+     *
+     * @param preparedStatement Upsert statement.
+     * @param jti               JTI.
+     * @param tenantId          Tenant id.
+     * @param expTime           Expiration time.
+     * @param timeCreated       JTI inserted time.
+     * @throws SQLException If the parameters could not be bound.
+     */
+    public void bindUpsert(PreparedStatement preparedStatement, String jti, int tenantId, long expTime,
+                           long timeCreated) throws SQLException {
+
+        bindEntry(preparedStatement, 1, jti, tenantId, expTime, timeCreated);
+    }
+
+    /**
+     * Prepare the statement which inserts a JTI only if it does not exist.
+     *
+     * @param connection Database connection.
+     * @return Prepared statement.
+     * @throws SQLException If the statement could not be prepared.
+     */
+    public PreparedStatement prepareInsertIfAbsent(Connection connection) throws SQLException {
+
+        return connection.prepareStatement(insertIfAbsentQuery);
+    }
+
+    /**
+     * Bind the parameters of the conditional insert statement.
+     *
+     * @param preparedStatement Conditional insert statement.
+     * @param jti               JTI.
+     * @param tenantId          Tenant id.
+     * @param expTime           Expiration time.
+     * @param timeCreated       JTI inserted time.
+     * @throws SQLException If the parameters could not be bound.
+     */
+    public void bindInsertIfAbsent(PreparedStatement preparedStatement, String jti, int tenantId, long expTime,
+                                   long timeCreated) throws SQLException {
+
+        int index = bindEntry(preparedStatement, 1, jti, tenantId, expTime, timeCreated);
+        // Parameters of the NOT EXISTS sub query.
+        preparedStatement.setString(index++, jti);
+        if (tenanted) {
+            preparedStatement.setInt(index++, tenantId);
+            preparedStatement.setInt(index, DEFAULT_TENANT_ID);
+        }
+    }
+
+    /**
+     * Bind the columns of a JTI entry in the order of the table, starting from the given index.
+     *
+     * @return Index of the next parameter.
+     */
+    protected int bindEntry(PreparedStatement preparedStatement, int index, String jti, int tenantId, long expTime,
+                            long timeCreated) throws SQLException {
+
+        preparedStatement.setString(index++, jti);
+        if (tenanted) {
+            preparedStatement.setInt(index++, tenantId);
+        }
+        preparedStatement.setTimestamp(index++, new Timestamp(expTime),
+                Calendar.getInstance(TimeZone.getTimeZone(Constants.UTC)));
+        preparedStatement.setTimestamp(index++, new Timestamp(timeCreated),
+                Calendar.getInstance(TimeZone.getTimeZone(Constants.UTC)));
+        return index;
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao.dialect;
+
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.SQLQueries;
+
+/**
+ * JTI dialect of MySQL and MariaDB.
+ */
+public class MySQLJTIDialect extends JTIDialect {
+
+    public MySQLJTIDialect(boolean tenanted) {
+
+        super(tenanted,
+                tenanted ? SQLQueries.INSERT_OR_UPDATE_TENANTED_JWT_ID_MYSQL :
+                        SQLQueries.INSERT_OR_UPDATE_JWT_ID_MYSQL,
+                tenanted ? SQLQueries.INSERT_TENANTED_JWT_ID_IF_ABSENT_H2_OR_MYSQL :
+                        SQLQueries.INSERT_JWT_ID_IF_ABSENT_H2_OR_MYSQL);
+    }
+
+    @Override
+    public String getName() {
+
+        return "MySQL";
+    }
+}
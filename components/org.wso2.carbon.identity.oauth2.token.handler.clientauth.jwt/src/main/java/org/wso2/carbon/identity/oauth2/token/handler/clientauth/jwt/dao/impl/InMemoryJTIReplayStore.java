@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao.impl;
+
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao.JTIReplayStore;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao.JWTEntry;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * JTI replay store kept in the heap of the node. Only suitable for single node deployments, as the recorded JTIs
+ * are neither shared with other nodes nor kept across restarts. {@link #putIfAbsent} is atomic within the node.
+ */
+public class InMemoryJTIReplayStore implements JTIReplayStore {
+
+    public static final String NAME = "inmemory";
+    private static final int SWEEP_INTERVAL_IN_WRITES = 1024;
+
+    private final ConcurrentMap<String, JWTEntry> jtis = new ConcurrentHashMap<>();
+    private final AtomicInteger writeCount = new AtomicInteger();
+    private final long clockSkewInMillis;
+
+    /**
+     * @param clockSkewInMillis Time a JTI is kept after its expiry, as the assertion is accepted until then.
+     */
+    public InMemoryJTIReplayStore(long clockSkewInMillis) {
+
+        this.clockSkewInMillis = clockSkewInMillis;
+    }
+
+    @Override
+    public String getName() {
+
+        return NAME;
+    }
+
+    @Override
+    public boolean putIfAbsent(String jti, int tenantId, long expiryTime, long issuedTime) {
+
+        sweepIfRequired();
+        JWTEntry newEntry = new JWTEntry(jti, expiryTime, issuedTime, tenantId);
+        long currentTime = System.currentTimeMillis();
+        JWTEntry recordedEntry = jtis.compute(getKey(jti, tenantId), (key, existingEntry) ->
+                existingEntry == null || isExpired(existingEntry, currentTime) ? newEntry : existingEntry);
+        return recordedEntry == newEntry;
+    }
+
+    @Override
+    public void put(String jti, int tenantId, long expiryTime, long issuedTime) {
+
+        sweepIfRequired();
+        jtis.put(getKey(jti, tenantId), new JWTEntry(jti, expiryTime, issuedTime, tenantId));
+    }
+
+    @Override
+    public JWTEntry get(String jti, int tenantId) {
+
+        JWTEntry jwtEntry = jtis.get(getKey(jti, tenantId));
+        if (jwtEntry == null || isExpired(jwtEntry, System.currentTimeMillis())) {
+            return null;
+        }
+        return jwtEntry;
+    }
+
+    /**
+     * @return Number of recorded JTIs, including the expired ones which are not swept yet.
+     */
+    public int size() {
+
+        return jtis.size();
+    }
+
+    /**
+     * Remove the expired JTIs.
+     */
+    public void sweep() {
+
+        long currentTime = System.currentTimeMillis();
+        jtis.values().removeIf(jwtEntry -> isExpired(jwtEntry, currentTime));
+    }
+
+    private void sweepIfRequired() {
+
+        // Sweep on every Nth write rather than in a separate thread.
+        if (writeCount.incrementAndGet() % SWEEP_INTERVAL_IN_WRITES == 0) {
+            sweep();
+        }
+    }
+
+    private boolean isExpired(JWTEntry jwtEntry, long currentTime) {
+
+        return jwtEntry.getExp() + clockSkewInMillis < currentTime;
+    }
+
+    private static String getKey(String jti, int tenantId) {
+
+        return tenantId + ":" + jti;
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao.impl;
+
+import org.wso2.carbon.identity.oauth2.client.authentication.OAuthClientAuthnException;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao.JTIReplayStore;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao.JWTEntry;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao.JWTStorageManager;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao.JWTWriteBehindQueue;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.internal.JWTServiceDataHolder;
+
+import java.util.List;
+
+/**
+ * JTI replay store backed by the IDN_OIDC_JTI table.
+ * {@link #putIfAbsent} is atomic across the nodes only when the atomic JTI validation is enabled, as the JTI is then
+ * recorded with a single conditional insert. Otherwise the JTI is looked up before it is recorded, and the concurrent
+ * requests presenting the same JTI on different nodes can all be accepted. With the write-behind queue, the JTIs
+ * which are not yet flushed are reserved on the node which accepted them only.
+ */
+public class JDBCJTIReplayStore implements JTIReplayStore {
+
+    public static final String NAME = "jdbc";
+
+    private final JWTStorageManager jwtStorageManager;
+
+    public JDBCJTIReplayStore(JWTStorageManager jwtStorageManager) {
+
+        this.jwtStorageManager = jwtStorageManager;
+    }
+
+    @Override
+    public String getName() {
+
+        return NAME;
+    }
+
+    @Override
+    public boolean putIfAbsent(String jti, int tenantId, long expiryTime, long issuedTime)
+            throws OAuthClientAuthnException {
+
+        if (JWTServiceDataHolder.getInstance().isAtomicJTIValidation()) {
+            // A single conditional insert decides whether the JTI is new or replayed.
+            return jwtStorageManager.persistJWTIdIfAbsent(jti, tenantId, expiryTime, issuedTime);
+        }
+        JWTWriteBehindQueue jtiWriteBehindQueue = getRunningWriteBehindQueue();
+        if (jtiWriteBehindQueue != null && jtiWriteBehindQueue.isReserved(jti, tenantId)) {
+            // Accepted earlier on this node but not yet flushed to the DB.
+            return false;
+        }
+        if (get(jti, tenantId) != null) {
+            return false;
+        }
+        if (jtiWriteBehindQueue == null) {
+            jwtStorageManager.persistJWTIdInDB(jti, tenantId, expiryTime, issuedTime, true);
+            return true;
+        }
+        if (!jtiWriteBehindQueue.reserve(jti, tenantId, expiryTime)) {
+            // A concurrent request with the same JTI got through the DB check first.
+            return false;
+        }
+        return jtiWriteBehindQueue.enqueue(new JWTEntry(jti, expiryTime, issuedTime, tenantId), true);
+    }
+
+    @Override
+    public void put(String jti, int tenantId, long expiryTime, long issuedTime) throws OAuthClientAuthnException {
+
+        JWTWriteBehindQueue jtiWriteBehindQueue = getRunningWriteBehindQueue();
+        if (jtiWriteBehindQueue == null) {
+            jwtStorageManager.persistJWTIdInDB(jti, tenantId, expiryTime, issuedTime, false);
+            return;
+        }
+        jtiWriteBehindQueue.enqueue(new JWTEntry(jti, expiryTime, issuedTime, tenantId));
+    }
+
+    /**
+     * For the migration purposes (preserve existing behaviour), the JTI is searched for the current tenant and the
+     * default tenant.
+     */
+    @Override
+    public JWTEntry get(String jti, int tenantId) throws OAuthClientAuthnException {
+
+        List<JWTEntry> jwtEntries = jwtStorageManager.getJwtsFromDB(jti, tenantId);
+        if (jwtEntries.isEmpty()) {
+            return null;
+        }
+        // If there is only one entry return it.
+        if (jwtEntries.size() == 1) {
+            return jwtEntries.get(0);
+        }
+        return jwtEntries.stream().filter(e -> e.getTenantId() == tenantId).findFirst().orElse(null);
+    }
+
+    private JWTWriteBehindQueue getRunningWriteBehindQueue() {
+
+        JWTWriteBehindQueue jtiWriteBehindQueue = JWTServiceDataHolder.getInstance().getJTIWriteBehindQueue();
+        if (jtiWriteBehindQueue == null || !jtiWriteBehindQueue.isRunning()) {
+            return null;
+        }
+        return jtiWriteBehindQueue;
+    }
+}
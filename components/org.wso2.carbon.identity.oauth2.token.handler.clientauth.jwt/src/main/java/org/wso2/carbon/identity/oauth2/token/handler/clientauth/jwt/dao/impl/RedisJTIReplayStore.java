@@ -0,0 +1,367 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao.impl;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.oauth.common.OAuth2ErrorCodes;
+import org.wso2.carbon.identity.oauth2.client.authentication.OAuthClientAuthnException;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao.JTIReplayStore;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao.JWTEntry;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+
+/**
+ * JTI replay store backed by a server speaking the Redis protocol (RESP). A JTI is recorded with
+ * "SET key value NX PX ttl", so that the replay check and the insert are a single atomic operation and the
+ * recorded JTIs expire on the server once the assertion can no longer be accepted.
+ * The number of open connections is bounded, and a request waits up to the timeout for a free connection.
+ * Connections can be secured with TLS, verifying the server certificate against the default trust store.
+ */
+public class RedisJTIReplayStore implements JTIReplayStore, Closeable {
+
+    public static final String NAME = "redis";
+    private static final Log log = LogFactory.getLog(RedisJTIReplayStore.class);
+    private static final String OK = "OK";
+    private static final String VALUE_SEPARATOR = ":";
+
+    private final String host;
+    private final int port;
+    private final String password;
+    private final int timeoutInMillis;
+    private final String keyPrefix;
+    private final long clockSkewInMillis;
+    private final int maxIdleConnections;
+    private final boolean sslEnabled;
+    private final Semaphore connectionPermits;
+    private final Queue<RedisConnection> idleConnections = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger idleConnectionCount = new AtomicInteger();
+
+    public RedisJTIReplayStore(String host, int port, String password, int timeoutInMillis, String keyPrefix,
+                               int maxIdleConnections, int maxConnections, boolean sslEnabled,
+                               long clockSkewInMillis) {
+
+        this.host = host;
+        this.port = port;
+        this.password = password;
+        this.timeoutInMillis = timeoutInMillis;
+        this.keyPrefix = keyPrefix;
+        this.maxIdleConnections = Math.min(maxIdleConnections, maxConnections);
+        this.sslEnabled = sslEnabled;
+        this.connectionPermits = new Semaphore(maxConnections, true);
+        this.clockSkewInMillis = clockSkewInMillis;
+    }
+
+    @Override
+    public String getName() {
+
+        return NAME;
+    }
+
+    @Override
+    public boolean putIfAbsent(String jti, int tenantId, long expiryTime, long issuedTime)
+            throws OAuthClientAuthnException {
+
+        Object reply = execute(jti, "SET", getKey(jti, tenantId), getValue(expiryTime, issuedTime), "NX", "PX",
+                getTimeToLive(expiryTime));
+        // A nil reply means the key already exists.
+        return OK.equals(reply);
+    }
+
+    @Override
+    public void put(String jti, int tenantId, long expiryTime, long issuedTime) throws OAuthClientAuthnException {
+
+        execute(jti, "SET", getKey(jti, tenantId), getValue(expiryTime, issuedTime), "PX",
+                getTimeToLive(expiryTime));
+    }
+
+    @Override
+    public JWTEntry get(String jti, int tenantId) throws OAuthClientAuthnException {
+
+        Object reply = execute(jti, "GET", getKey(jti, tenantId));
+        if (!(reply instanceof String)) {
+            return null;
+        }
+        String[] value = StringUtils.split((String) reply, VALUE_SEPARATOR);
+        try {
+            return new JWTEntry(jti, Long.parseLong(value[0]), value.length > 1 ? Long.parseLong(value[1]) : 0,
+                    tenantId);
+        } catch (NumberFormatException e) {
+            throw new OAuthClientAuthnException("Invalid value found in the JTI replay store for the JTI: " + jti,
+                    OAuth2ErrorCodes.INVALID_REQUEST, e);
+        }
+    }
+
+    /**
+     * Close the idle connections.
+     */
+    @Override
+    public void close() {
+
+        RedisConnection connection;
+        while ((connection = idleConnections.poll()) != null) {
+            idleConnectionCount.decrementAndGet();
+            connection.close();
+        }
+    }
+
+    private Object execute(String jti, String... command) throws OAuthClientAuthnException {
+
+        try {
+            if (!connectionPermits.tryAcquire(timeoutInMillis, TimeUnit.MILLISECONDS)) {
+                throw new OAuthClientAuthnException("No connection to the JTI replay store is available to " +
+                        "validate the JTI: " + jti + " of the assertion.", OAuth2ErrorCodes.INVALID_REQUEST);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OAuthClientAuthnException("Interrupted while validating the JTI: " + jti + " of the " +
+                    "assertion.", OAuth2ErrorCodes.INVALID_REQUEST, e);
+        }
+        RedisConnection connection = null;
+        try {
+            connection = borrowConnection();
+            Object reply = connection.execute(command);
+            releaseConnection(connection);
+            return reply;
+        } catch (IOException e) {
+            if (connection != null) {
+                connection.close();
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("Error when executing " + command[0] + " for the JWT ID: " + jti + " in the JTI replay " +
+                        "store at " + host + ":" + port, e);
+            }
+            throw new OAuthClientAuthnException("Error occurred while validating the JTI: " + jti + " of the " +
+                    "assertion.", OAuth2ErrorCodes.INVALID_REQUEST, e);
+        } finally {
+            connectionPermits.release();
+        }
+    }
+
+    private RedisConnection borrowConnection() throws IOException {
+
+        RedisConnection connection = idleConnections.poll();
+        if (connection != null) {
+            idleConnectionCount.decrementAndGet();
+            return connection;
+        }
+        connection = new RedisConnection(host, port, timeoutInMillis, sslEnabled);
+        if (StringUtils.isNotEmpty(password)) {
+            try {
+                connection.execute("AUTH", password);
+            } catch (IOException e) {
+                connection.close();
+                throw e;
+            }
+        }
+        return connection;
+    }
+
+    private void releaseConnection(RedisConnection connection) {
+
+        if (idleConnectionCount.incrementAndGet() > maxIdleConnections) {
+            idleConnectionCount.decrementAndGet();
+            connection.close();
+            return;
+        }
+        idleConnections.offer(connection);
+    }
+
+    private String getKey(String jti, int tenantId) {
+
+        return keyPrefix + tenantId + VALUE_SEPARATOR + jti;
+    }
+
+    private static String getValue(long expiryTime, long issuedTime) {
+
+        return expiryTime + VALUE_SEPARATOR + issuedTime;
+    }
+
+    private String getTimeToLive(long expiryTime) {
+
+        // The assertion is accepted until its expiry time plus the clock skew.
+        return String.valueOf(Math.max(expiryTime + clockSkewInMillis - System.currentTimeMillis(), 1));
+    }
+
+    /**
+     * A single connection to the server. A connection is used by one thread at a time.
+     */
+    private static class RedisConnection {
+
+        private final Socket socket;
+        private final InputStream inputStream;
+        private final OutputStream outputStream;
+
+        RedisConnection(String host, int port, int timeoutInMillis, boolean sslEnabled) throws IOException {
+
+            Socket plainSocket = new Socket();
+            Socket connectedSocket = plainSocket;
+            try {
+                plainSocket.connect(new InetSocketAddress(host, port), timeoutInMillis);
+                plainSocket.setSoTimeout(timeoutInMillis);
+                plainSocket.setTcpNoDelay(true);
+                if (sslEnabled) {
+                    connectedSocket = startTLS(plainSocket, host, port);
+                }
+                inputStream = new BufferedInputStream(connectedSocket.getInputStream());
+                outputStream = new BufferedOutputStream(connectedSocket.getOutputStream());
+            } catch (IOException e) {
+                connectedSocket.close();
+                plainSocket.close();
+                throw e;
+            }
+            socket = connectedSocket;
+        }
+
+        private static Socket startTLS(Socket plainSocket, String host, int port) throws IOException {
+
+            SSLSocket sslSocket = (SSLSocket) ((SSLSocketFactory) SSLSocketFactory.getDefault()).createSocket(
+                    plainSocket, host, port, true);
+            // Verify that the server certificate is issued for the configured host.
+            SSLParameters sslParameters = sslSocket.getSSLParameters();
+            sslParameters.setEndpointIdentificationAlgorithm("HTTPS");
+            sslSocket.setSSLParameters(sslParameters);
+            sslSocket.startHandshake();
+            return sslSocket;
+        }
+
+        Object execute(String... command) throws IOException {
+
+            // Commands are sent as an array of bulk strings.
+            outputStream.write(('*' + String.valueOf(command.length) + "\r\n").getBytes(StandardCharsets.UTF_8));
+            for (String argument : command) {
+                byte[] bytes = argument.getBytes(StandardCharsets.UTF_8);
+                outputStream.write(('$' + String.valueOf(bytes.length) + "\r\n").getBytes(StandardCharsets.UTF_8));
+                outputStream.write(bytes);
+                outputStream.write('\r');
+                outputStream.write('\n');
+            }
+            outputStream.flush();
+            return readReply();
+        }
+
+        private Object readReply() throws IOException {
+
+            int type = inputStream.read();
+            String line = readLine();
+            switch (type) {
+                case '+':
+                    return line;
+                case '-':
+                    throw new IOException("Error reply received: " + line);
+                case ':':
+                    return parseLong(line);
+                case '$':
+                    int length = parseInt(line);
+                    if (length < 0) {
+                        return null;
+                    }
+                    byte[] bytes = new byte[length];
+                    int offset = 0;
+                    while (offset < length) {
+                        int read = inputStream.read(bytes, offset, length - offset);
+                        if (read < 0) {
+                            throw new EOFException("Connection closed while reading the reply.");
+                        }
+                        offset += read;
+                    }
+                    // Skip the trailing CRLF.
+                    readLine();
+                    return new String(bytes, StandardCharsets.UTF_8);
+                case -1:
+                    throw new EOFException("Connection closed while reading the reply.");
+                default:
+                    throw new IOException("Unsupported reply type: " + (char) type);
+            }
+        }
+
+        /**
+         * Parse the integer of a reply. A malformed integer fails the command, so that the connection, which can no
+         * longer be read in sync with its replies, is discarded.
+         */
+        private static long parseLong(String line) throws IOException {
+
+            try {
+                return Long.parseLong(line);
+            } catch (NumberFormatException e) {
+                throw new IOException("Malformed integer received in the reply: " + line, e);
+            }
+        }
+
+        private static int parseInt(String line) throws IOException {
+
+            try {
+                return Integer.parseInt(line);
+            } catch (NumberFormatException e) {
+                throw new IOException("Malformed length received in the reply: " + line, e);
+            }
+        }
+
+        private String readLine() throws IOException {
+
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            int current;
+            while ((current = inputStream.read()) != -1) {
+                if (current == '\r') {
+                    int next = inputStream.read();
+                    if (next == '\n') {
+                        return new String(line.toByteArray(), StandardCharsets.UTF_8);
+                    }
+                    line.write(current);
+                    if (next == -1) {
+                        break;
+                    }
+                    line.write(next);
+                } else {
+                    line.write(current);
+                }
+            }
+            throw new EOFException("Connection closed while reading the reply.");
+        }
+
+        void close() {
+
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Nothing to do as the connection is discarded.
+            }
+        }
+    }
+}
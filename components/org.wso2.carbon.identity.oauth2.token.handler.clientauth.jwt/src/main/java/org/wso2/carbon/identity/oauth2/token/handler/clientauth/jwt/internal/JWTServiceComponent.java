@@ -24,18 +24,31 @@ import org.osgi.framework.BundleContext;
 import org.osgi.service.component.ComponentContext;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Modified;
 import org.osgi.service.component.annotations.Reference;
 import org.osgi.service.component.annotations.ReferenceCardinality;
 import org.osgi.service.component.annotations.ReferencePolicy;
+import org.wso2.carbon.identity.application.mgt.listener.ApplicationMgtListener;
 import org.wso2.carbon.identity.configuration.mgt.core.ConfigurationManager;
 import org.wso2.carbon.identity.core.util.IdentityCoreInitializedEvent;
 import org.wso2.carbon.identity.oauth2.client.authentication.OAuthClientAuthenticator;
 import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.PrivateKeyJWTClientAuthenticator;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache.JWKSCache;
 import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.core.JWTClientAuthenticatorMgtService;
 import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.core.JWTClientAuthenticatorMgtServiceImpl;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao.JTIHashMigrator;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao.JTIReplayStore;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao.JWTPurgeScheduler;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao.JWTWriteBehindQueue;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.listener.JWTApplicationMgtListener;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.listener.JWTIdentityProviderMgtListener;
 import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.util.Util;
+import org.wso2.carbon.idp.mgt.listener.IdentityProviderMgtListener;
 import org.wso2.carbon.user.core.service.RealmService;
 
+import java.io.Closeable;
+import java.io.IOException;
+
 /**
  * JwtService osgi Component.*
  */
@@ -47,6 +60,7 @@ public class JWTServiceComponent {
 
     private static final Log log = LogFactory.getLog(JWTServiceComponent.class);
     private BundleContext bundleContext;
+    private PrivateKeyJWTClientAuthenticator privateKeyJWTClientAuthenticator;
 
     public static RealmService getRealmService() {
 
@@ -72,13 +86,30 @@ public class JWTServiceComponent {
     protected void activate(ComponentContext ctxt) {
 
         try {
-            PrivateKeyJWTClientAuthenticator privateKeyJWTClientAuthenticator = new PrivateKeyJWTClientAuthenticator();
+            privateKeyJWTClientAuthenticator = new PrivateKeyJWTClientAuthenticator();
             Util.checkIfTenantIdColumnIsAvailableInIdnOidcAuthTable();
+            Util.resolveJTIDialect();
+            JWTWriteBehindQueue jtiWriteBehindQueue = JWTServiceDataHolder.getInstance().getJTIWriteBehindQueue();
+            if (jtiWriteBehindQueue != null) {
+                jtiWriteBehindQueue.start();
+            }
+            JWTPurgeScheduler jtiPurgeScheduler = JWTServiceDataHolder.getInstance().getJTIPurgeScheduler();
+            if (jtiPurgeScheduler != null) {
+                jtiPurgeScheduler.start();
+            }
+            JTIHashMigrator jtiHashMigrator = JWTServiceDataHolder.getInstance().getJTIHashMigrator();
+            if (jtiHashMigrator != null) {
+                jtiHashMigrator.start();
+            }
             bundleContext = ctxt.getBundleContext();
             bundleContext.registerService(OAuthClientAuthenticator.class.getName(), privateKeyJWTClientAuthenticator,
                     null);
             bundleContext.registerService(JWTClientAuthenticatorMgtService.class.getName(),
                     new JWTClientAuthenticatorMgtServiceImpl(), null);
+            bundleContext.registerService(ApplicationMgtListener.class.getName(), new JWTApplicationMgtListener(),
+                    null);
+            bundleContext.registerService(IdentityProviderMgtListener.class.getName(),
+                    new JWTIdentityProviderMgtListener(), null);
             if (log.isDebugEnabled()) {
                 log.debug("Private Key JWT client handler is activated");
             }
@@ -87,8 +118,55 @@ public class JWTServiceComponent {
         }
     }
 
+    /**
+     * Apply the changed configuration of the component. The configuration of the authenticator is read again, and
+     * the components of the authenticator are built again from it.
+     */
+    @Modified
+    protected void modified(ComponentContext ctxt) {
+
+        if (privateKeyJWTClientAuthenticator != null) {
+            privateKeyJWTClientAuthenticator.reloadServerConfig();
+            if (log.isDebugEnabled()) {
+                log.debug("Private Key JWT client handler configuration is reloaded.");
+            }
+        }
+    }
+
     protected void deactivate(ComponentContext ctxt) {
 
+        JTIHashMigrator jtiHashMigrator = JWTServiceDataHolder.getInstance().getJTIHashMigrator();
+        if (jtiHashMigrator != null) {
+            jtiHashMigrator.shutdown();
+        }
+        JWTPurgeScheduler jtiPurgeScheduler = JWTServiceDataHolder.getInstance().getJTIPurgeScheduler();
+        if (jtiPurgeScheduler != null) {
+            jtiPurgeScheduler.shutdown();
+        }
+        JWTWriteBehindQueue jtiWriteBehindQueue = JWTServiceDataHolder.getInstance().getJTIWriteBehindQueue();
+        if (jtiWriteBehindQueue != null) {
+            // Flush the JTIs accepted so far before the bundle goes away.
+            jtiWriteBehindQueue.shutdown();
+        }
+        JTIReplayStore jtiReplayStore = JWTServiceDataHolder.getInstance().getJTIReplayStore();
+        if (jtiReplayStore instanceof Closeable) {
+            try {
+                ((Closeable) jtiReplayStore).close();
+            } catch (IOException e) {
+                log.error("Error while closing the JTI replay store: " + jtiReplayStore.getName(), e);
+            }
+        }
+        JWKSCache jwksCache = JWTServiceDataHolder.getInstance().getJWKSCache();
+        if (jwksCache != null) {
+            jwksCache.shutdown();
+            // A stopped cache is not left behind for a reactivation, which builds its own from the configuration.
+            JWTServiceDataHolder.getInstance().setJWKSCache(null);
+        }
+        // Release the off-heap memory of the JTI index.
+        JWTServiceDataHolder.getInstance().setOffHeapJTIIndex(null);
+        // A reactivation builds all the components again from the configuration.
+        JWTServiceDataHolder.getInstance().setAuthenticatorConfig(null);
+        privateKeyJWTClientAuthenticator = null;
         if (log.isDebugEnabled()) {
             log.debug("Private Key JWT client handler is deactivated.");
         }
@@ -158,4 +236,37 @@ public class JWTServiceComponent {
         }
         JWTServiceDataHolder.getInstance().setConfigurationManager(null);
     }
+
+    /**
+     * Add a JTI replay store. The store is used when its name is configured as the JTIReplayStore.
+     *
+     * @param jtiReplayStore The {@code JTIReplayStore} instance.
+     */
+    @Reference(
+            name = "jti.replay.store",
+            service = JTIReplayStore.class,
+            cardinality = ReferenceCardinality.MULTIPLE,
+            policy = ReferencePolicy.DYNAMIC,
+            unbind = "removeJTIReplayStore"
+    )
+    protected void addJTIReplayStore(JTIReplayStore jtiReplayStore) {
+
+        if (log.isDebugEnabled()) {
+            log.debug("Adding the JTI replay store: " + jtiReplayStore.getName());
+        }
+        JWTServiceDataHolder.getInstance().addJTIReplayStore(jtiReplayStore);
+    }
+
+    /**
+     * Remove a JTI replay store.
+     *
+     * @param jtiReplayStore The {@code JTIReplayStore} instance.
+     */
+    protected void removeJTIReplayStore(JTIReplayStore jtiReplayStore) {
+
+        if (log.isDebugEnabled()) {
+            log.debug("Removing the JTI replay store: " + jtiReplayStore.getName());
+        }
+        JWTServiceDataHolder.getInstance().removeJTIReplayStore(jtiReplayStore);
+    }
 }
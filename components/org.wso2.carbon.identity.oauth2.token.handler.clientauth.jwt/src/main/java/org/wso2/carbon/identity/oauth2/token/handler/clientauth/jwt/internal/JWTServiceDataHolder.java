@@ -19,11 +19,35 @@
 package org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.internal;
 
 import org.wso2.carbon.identity.configuration.mgt.core.ConfigurationManager;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache.AudienceCache;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache.ClientAssertionPolicyCache;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache.ClientKeySourceCache;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache.JTIReplayCache;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache.JWKSCache;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache.JWSVerifierCache;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache.OffHeapJTIIndex;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache.TenantKeyStoreIndex;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache.VerifiedAssertionCache;
 import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.core.dao.JWTAuthenticationConfigurationDAO;
 import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.core.dao.impl.CacheBackedJWTConfigurationDAOImpl;
 import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.core.dao.impl.JWTAuthenticationConfigurationDAOImpl;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao.JTIHashMigrator;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao.JTIReplayStore;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao.JTIUpsertCoalescer;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao.JWTPurgeScheduler;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao.JWTStorageManager;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao.JWTWriteBehindQueue;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao.impl.JDBCJTIReplayStore;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.util.JWTAuthenticatorConfig;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.util.ServerConfigSnapshot;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.validator.ClientAssertionGuard;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.validator.ValidationStage;
 import org.wso2.carbon.user.core.service.RealmService;
 
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * JWTServiceDataHolder data holder Class.
  */
@@ -33,7 +57,32 @@ public class JWTServiceDataHolder {
     public static JWTServiceDataHolder instance = new JWTServiceDataHolder();
 
     public boolean preventTokenReuse = true;
+    private boolean atomicJTIValidation = false;
+    private boolean lazyClaimExtraction = false;
+    private JWTWriteBehindQueue jtiWriteBehindQueue;
+    private JWTPurgeScheduler jtiPurgeScheduler;
+    private final JTIReplayStore defaultJTIReplayStore = new JDBCJTIReplayStore(new JWTStorageManager());
+    private final Map<String, JTIReplayStore> jtiReplayStores = new ConcurrentHashMap<>();
+    private String jtiReplayStoreName = JDBCJTIReplayStore.NAME;
+    private final JTIReplayCache jtiReplayCache = new JTIReplayCache();
+    private volatile OffHeapJTIIndex offHeapJTIIndex;
+    private volatile JWSVerifierCache jwsVerifierCache;
+    private volatile ClientKeySourceCache clientKeySourceCache;
+    private volatile ClientAssertionPolicyCache clientAssertionPolicyCache;
+    private volatile AudienceCache audienceCache = new AudienceCache();
+    private volatile TenantKeyStoreIndex tenantKeyStoreIndex = new TenantKeyStoreIndex();
+    private volatile JWKSCache jwksCache;
+    private volatile VerifiedAssertionCache verifiedAssertionCache;
+    private volatile ClientAssertionGuard clientAssertionGuard;
+    private volatile List<ValidationStage> validationStageOrder;
+    private volatile ServerConfigSnapshot serverConfigSnapshot;
+    private JTIUpsertCoalescer jtiUpsertCoalescer;
+    private volatile boolean hashedJTIStorage = false;
+    private volatile boolean rawJTILookup = false;
+    private volatile boolean digestJTILookup = false;
+    private JTIHashMigrator jtiHashMigrator;
     private ConfigurationManager configurationManager;
+    private volatile JWTAuthenticatorConfig authenticatorConfig;
 
     private JWTAuthenticationConfigurationDAO jwtAuthenticationConfigurationDAO =
             new CacheBackedJWTConfigurationDAOImpl(new JWTAuthenticationConfigurationDAOImpl());
@@ -58,6 +107,315 @@ public class JWTServiceDataHolder {
         this.preventTokenReuse = preventTokenReuse;
     }
 
+    public boolean isAtomicJTIValidation() {
+
+        return atomicJTIValidation;
+    }
+
+    public void setAtomicJTIValidation(boolean atomicJTIValidation) {
+
+        this.atomicJTIValidation = atomicJTIValidation;
+    }
+
+    /**
+     * @return true if the validator reads only the claims it needs from the client assertions.
+     */
+    public boolean isLazyClaimExtraction() {
+
+        return lazyClaimExtraction;
+    }
+
+    public void setLazyClaimExtraction(boolean lazyClaimExtraction) {
+
+        this.lazyClaimExtraction = lazyClaimExtraction;
+    }
+
+    public JWTWriteBehindQueue getJTIWriteBehindQueue() {
+
+        return jtiWriteBehindQueue;
+    }
+
+    public void setJTIWriteBehindQueue(JWTWriteBehindQueue jtiWriteBehindQueue) {
+
+        this.jtiWriteBehindQueue = jtiWriteBehindQueue;
+    }
+
+    public JWTPurgeScheduler getJTIPurgeScheduler() {
+
+        return jtiPurgeScheduler;
+    }
+
+    public void setJTIPurgeScheduler(JWTPurgeScheduler jtiPurgeScheduler) {
+
+        this.jtiPurgeScheduler = jtiPurgeScheduler;
+    }
+
+    /**
+     * Get the configured JTI replay store. The JDBC store is used if the configured store is not available.
+     *
+     * @return JTI replay store.
+     */
+    public JTIReplayStore getJTIReplayStore() {
+
+        JTIReplayStore jtiReplayStore = jtiReplayStores.get(jtiReplayStoreName);
+        return jtiReplayStore != null ? jtiReplayStore : defaultJTIReplayStore;
+    }
+
+    public void addJTIReplayStore(JTIReplayStore jtiReplayStore) {
+
+        jtiReplayStores.put(jtiReplayStore.getName(), jtiReplayStore);
+    }
+
+    public void removeJTIReplayStore(JTIReplayStore jtiReplayStore) {
+
+        jtiReplayStores.remove(jtiReplayStore.getName(), jtiReplayStore);
+    }
+
+    public String getJTIReplayStoreName() {
+
+        return jtiReplayStoreName;
+    }
+
+    public void setJTIReplayStoreName(String jtiReplayStoreName) {
+
+        this.jtiReplayStoreName = jtiReplayStoreName;
+    }
+
+    public JTIReplayCache getJTIReplayCache() {
+
+        return jtiReplayCache;
+    }
+
+    public OffHeapJTIIndex getOffHeapJTIIndex() {
+
+        return offHeapJTIIndex;
+    }
+
+    public void setOffHeapJTIIndex(OffHeapJTIIndex offHeapJTIIndex) {
+
+        this.offHeapJTIIndex = offHeapJTIIndex;
+    }
+
+    /**
+     * @return Cache of the signature verifiers, or null if the verifiers are not cached.
+     */
+    public JWSVerifierCache getJWSVerifierCache() {
+
+        return jwsVerifierCache;
+    }
+
+    public void setJWSVerifierCache(JWSVerifierCache jwsVerifierCache) {
+
+        this.jwsVerifierCache = jwsVerifierCache;
+    }
+
+    /**
+     * @return Cache of the client key sources, or null if the key sources are not cached.
+     */
+    public ClientKeySourceCache getClientKeySourceCache() {
+
+        return clientKeySourceCache;
+    }
+
+    public void setClientKeySourceCache(ClientKeySourceCache clientKeySourceCache) {
+
+        this.clientKeySourceCache = clientKeySourceCache;
+    }
+
+    /**
+     * @return Cache of the client assertion policies, or null if the policies are not cached.
+     */
+    public ClientAssertionPolicyCache getClientAssertionPolicyCache() {
+
+        return clientAssertionPolicyCache;
+    }
+
+    public void setClientAssertionPolicyCache(ClientAssertionPolicyCache clientAssertionPolicyCache) {
+
+        this.clientAssertionPolicyCache = clientAssertionPolicyCache;
+    }
+
+    /**
+     * @return Cache of the accepted audiences of the tenants, or null if the audiences are not cached.
+     */
+    public AudienceCache getAudienceCache() {
+
+        return audienceCache;
+    }
+
+    public void setAudienceCache(AudienceCache audienceCache) {
+
+        this.audienceCache = audienceCache;
+    }
+
+    /**
+     * @return Index of the tenant keystore certificates, or null if the certificates are not indexed.
+     */
+    public TenantKeyStoreIndex getTenantKeyStoreIndex() {
+
+        return tenantKeyStoreIndex;
+    }
+
+    public void setTenantKeyStoreIndex(TenantKeyStoreIndex tenantKeyStoreIndex) {
+
+        this.tenantKeyStoreIndex = tenantKeyStoreIndex;
+    }
+
+    /**
+     * @return Cache of the JWKS keys of the clients, or null if the JWKS keys are not cached.
+     */
+    public JWKSCache getJWKSCache() {
+
+        return jwksCache;
+    }
+
+    public void setJWKSCache(JWKSCache jwksCache) {
+
+        this.jwksCache = jwksCache;
+    }
+
+    /**
+     * @return Cache of the verified assertions, or null if the verified assertions are not cached.
+     */
+    public VerifiedAssertionCache getVerifiedAssertionCache() {
+
+        return verifiedAssertionCache;
+    }
+
+    public void setVerifiedAssertionCache(VerifiedAssertionCache verifiedAssertionCache) {
+
+        this.verifiedAssertionCache = verifiedAssertionCache;
+    }
+
+    /**
+     * @return Guard of the raw client assertions, or null if the client assertions are not checked before parsing.
+     */
+    public ClientAssertionGuard getClientAssertionGuard() {
+
+        return clientAssertionGuard;
+    }
+
+    public void setClientAssertionGuard(ClientAssertionGuard clientAssertionGuard) {
+
+        this.clientAssertionGuard = clientAssertionGuard;
+    }
+
+    /**
+     * @return Configured order of the assertion validation stages, or null if the default order is used.
+     */
+    public List<ValidationStage> getValidationStageOrder() {
+
+        return validationStageOrder;
+    }
+
+    public void setValidationStageOrder(List<ValidationStage> validationStageOrder) {
+
+        this.validationStageOrder = validationStageOrder;
+    }
+
+    /**
+     * @return Snapshot of the server configuration used by the validator. The snapshot is loaded on first use.
+     */
+    public ServerConfigSnapshot getServerConfigSnapshot() {
+
+        ServerConfigSnapshot snapshot = serverConfigSnapshot;
+        if (snapshot == null) {
+            snapshot = ServerConfigSnapshot.load();
+            serverConfigSnapshot = snapshot;
+        }
+        return snapshot;
+    }
+
+    public void setServerConfigSnapshot(ServerConfigSnapshot serverConfigSnapshot) {
+
+        this.serverConfigSnapshot = serverConfigSnapshot;
+    }
+
+    /**
+     * Read the server configuration again and replace the snapshot. The requests in flight keep using the snapshot
+     * they have already read. The cached audiences are derived from the token and PAR endpoints and the mTLS hostname
+     * of the snapshot, hence they are cleared to be derived again from the new snapshot.
+     */
+    public void reloadServerConfigSnapshot() {
+
+        this.serverConfigSnapshot = ServerConfigSnapshot.load();
+        AudienceCache audienceCache = this.audienceCache;
+        if (audienceCache != null) {
+            audienceCache.clear();
+        }
+    }
+
+    public JTIUpsertCoalescer getJTIUpsertCoalescer() {
+
+        return jtiUpsertCoalescer;
+    }
+
+    public void setJTIUpsertCoalescer(JTIUpsertCoalescer jtiUpsertCoalescer) {
+
+        this.jtiUpsertCoalescer = jtiUpsertCoalescer;
+    }
+
+    public boolean isHashedJTIStorage() {
+
+        return hashedJTIStorage;
+    }
+
+    public void setHashedJTIStorage(boolean hashedJTIStorage) {
+
+        this.hashedJTIStorage = hashedJTIStorage;
+    }
+
+    /**
+     * @return Whether the raw JTIs persisted before the hashed JTI storage was enabled should still be looked up, as
+     * they are not migrated yet.
+     */
+    public boolean isRawJTILookup() {
+
+        return rawJTILookup;
+    }
+
+    public void setRawJTILookup(boolean rawJTILookup) {
+
+        this.rawJTILookup = rawJTILookup;
+    }
+
+    /**
+     * @return Whether the digests persisted while the hashed JTI storage was enabled should still be looked up, as
+     * the hashed JTI storage is disabled while the server is running.
+     */
+    public boolean isDigestJTILookup() {
+
+        return digestJTILookup;
+    }
+
+    public void setDigestJTILookup(boolean digestJTILookup) {
+
+        this.digestJTILookup = digestJTILookup;
+    }
+
+    public JTIHashMigrator getJTIHashMigrator() {
+
+        return jtiHashMigrator;
+    }
+
+    public void setJTIHashMigrator(JTIHashMigrator jtiHashMigrator) {
+
+        this.jtiHashMigrator = jtiHashMigrator;
+    }
+
+    /**
+     * @return Configuration of the authenticator applied last, or null if no configuration is applied yet.
+     */
+    public JWTAuthenticatorConfig getAuthenticatorConfig() {
+
+        return authenticatorConfig;
+    }
+
+    public void setAuthenticatorConfig(JWTAuthenticatorConfig authenticatorConfig) {
+
+        this.authenticatorConfig = authenticatorConfig;
+    }
+
     public static JWTServiceDataHolder getInstance() {
 
         return instance;
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.listener;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.application.common.IdentityApplicationManagementException;
+import org.wso2.carbon.identity.application.common.model.InboundAuthenticationConfig;
+import org.wso2.carbon.identity.application.common.model.InboundAuthenticationRequestConfig;
+import org.wso2.carbon.identity.application.common.model.ServiceProvider;
+import org.wso2.carbon.identity.application.common.util.IdentityApplicationConstants;
+import org.wso2.carbon.identity.application.mgt.listener.AbstractApplicationMgtListener;
+import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache.ClientAssertionPolicyCache;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache.ClientKeySourceCache;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache.JWSVerifierCache;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache.VerifiedAssertionCache;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.internal.JWTServiceDataHolder;
+
+/**
+ * Application management listener which invalidates the cached key material and client assertion policies of the
+ * clients of updated and deleted applications, so that a certificate, JWKS URI or policy change takes effect on the
+ * next request of the client.
+ */
+public class JWTApplicationMgtListener extends AbstractApplicationMgtListener {
+
+    private static final Log log = LogFactory.getLog(JWTApplicationMgtListener.class);
+    private static final int DEFAULT_ORDER_ID = 902;
+
+    @Override
+    public int getDefaultOrderId() {
+
+        return DEFAULT_ORDER_ID;
+    }
+
+    @Override
+    public boolean doPostUpdateApplication(ServiceProvider serviceProvider, String tenantDomain, String userName)
+            throws IdentityApplicationManagementException {
+
+        InboundAuthenticationConfig inboundAuthenticationConfig = serviceProvider.getInboundAuthenticationConfig();
+        if (inboundAuthenticationConfig == null ||
+                inboundAuthenticationConfig.getInboundAuthenticationRequestConfigs() == null) {
+            return true;
+        }
+        int tenantId = IdentityTenantUtil.getTenantId(tenantDomain);
+        for (InboundAuthenticationRequestConfig requestConfig :
+                inboundAuthenticationConfig.getInboundAuthenticationRequestConfigs()) {
+            if (IdentityApplicationConstants.OAuth2.NAME.equals(requestConfig.getInboundAuthType())) {
+                invalidate(requestConfig.getInboundAuthKey(), tenantId);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean doPreDeleteApplication(String applicationName, String tenantDomain, String userName)
+            throws IdentityApplicationManagementException {
+
+        // The client id of the application is not known here, hence the cached state of the tenant is invalidated.
+        int tenantId = IdentityTenantUtil.getTenantId(tenantDomain);
+        ClientKeySourceCache clientKeySourceCache = JWTServiceDataHolder.getInstance().getClientKeySourceCache();
+        if (clientKeySourceCache != null) {
+            clientKeySourceCache.invalidate(tenantId);
+        }
+        ClientAssertionPolicyCache clientAssertionPolicyCache =
+                JWTServiceDataHolder.getInstance().getClientAssertionPolicyCache();
+        if (clientAssertionPolicyCache != null) {
+            clientAssertionPolicyCache.invalidate(tenantId);
+        }
+        JWSVerifierCache jwsVerifierCache = JWTServiceDataHolder.getInstance().getJWSVerifierCache();
+        if (jwsVerifierCache != null) {
+            jwsVerifierCache.invalidate(tenantId);
+        }
+        VerifiedAssertionCache verifiedAssertionCache =
+                JWTServiceDataHolder.getInstance().getVerifiedAssertionCache();
+        if (verifiedAssertionCache != null) {
+            verifiedAssertionCache.invalidate(tenantId);
+        }
+        return true;
+    }
+
+    private static void invalidate(String clientId, int tenantId) {
+
+        if (clientId == null) {
+            return;
+        }
+        ClientKeySourceCache clientKeySourceCache = JWTServiceDataHolder.getInstance().getClientKeySourceCache();
+        if (clientKeySourceCache != null) {
+            clientKeySourceCache.invalidate(clientId, tenantId);
+        }
+        ClientAssertionPolicyCache clientAssertionPolicyCache =
+                JWTServiceDataHolder.getInstance().getClientAssertionPolicyCache();
+        if (clientAssertionPolicyCache != null) {
+            clientAssertionPolicyCache.invalidate(clientId, tenantId);
+        }
+        JWSVerifierCache jwsVerifierCache = JWTServiceDataHolder.getInstance().getJWSVerifierCache();
+        if (jwsVerifierCache != null) {
+            jwsVerifierCache.invalidate(clientId, tenantId);
+        }
+        VerifiedAssertionCache verifiedAssertionCache =
+                JWTServiceDataHolder.getInstance().getVerifiedAssertionCache();
+        if (verifiedAssertionCache != null) {
+            verifiedAssertionCache.invalidate(clientId, tenantId);
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Invalidated the cached key material of the client: " + clientId + " in tenant: " + tenantId);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.util;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.ToLongFunction;
+
+/**
+ * Utilities shared by the in memory caches of the JWT client authenticator.
+ */
+public class CacheUtil {
+
+    private static final String SHA_256 = "SHA-256";
+    // Share of the capacity evicted at once, so that the eviction cost is amortized over the following puts.
+    private static final int EVICTION_BATCH_DIVISOR = 16;
+
+    private static final ThreadLocal<MessageDigest> SHA_256_DIGEST = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance(SHA_256);
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256.
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private CacheUtil() {
+
+    }
+
+    /**
+     * @return SHA-256 message digest of the current thread. It is reset on every digest, hence should not be
+     * shared across the calls of another user of the digest.
+     */
+    public static MessageDigest getSHA256Digest() {
+
+        MessageDigest messageDigest = SHA_256_DIGEST.get();
+        messageDigest.reset();
+        return messageDigest;
+    }
+
+    /**
+     * @param input Input to be digested.
+     * @return SHA-256 digest of the input.
+     */
+    public static byte[] sha256(byte[] input) {
+
+        return getSHA256Digest().digest(input);
+    }
+
+    /**
+     * Make room for a new key in a bounded cache. The entries ranked below the given rank are evicted first, such as
+     * the expired ones. If the cache is still full, the lowest ranked share of the entries is evicted, such as the
+     * ones expiring or created first.
+     *
+     * @param entries     Cached entries.
+     * @param capacity    Maximum number of cached entries.
+     * @param key         Key to be put.
+     * @param rank        Rank of an entry, the lower ranked entries are evicted first.
+     * @param evictBelow  Entries ranked below this are evicted regardless of the capacity.
+     * @param <K>         Type of the keys.
+     * @param <V>         Type of the entries.
+     */
+    public static <K, V> void makeRoom(ConcurrentMap<K, V> entries, int capacity, K key, ToLongFunction<V> rank,
+                                       long evictBelow) {
+
+        if (entries.size() < capacity || entries.containsKey(key)) {
+            return;
+        }
+        // Only one thread evicts at a time, the others find the room made once they get in.
+        synchronized (entries) {
+            if (entries.size() < capacity) {
+                return;
+            }
+            entries.values().removeIf(entry -> rank.applyAsLong(entry) < evictBelow);
+            if (entries.size() < capacity) {
+                return;
+            }
+            long[] ranks = new long[entries.size()];
+            int count = 0;
+            for (Map.Entry<K, V> entry : entries.entrySet()) {
+                if (count == ranks.length) {
+                    break;
+                }
+                ranks[count++] = rank.applyAsLong(entry.getValue());
+            }
+            if (count == 0) {
+                return;
+            }
+            Arrays.sort(ranks, 0, count);
+            int batchSize = Math.max(1, Math.min(count, capacity / EVICTION_BATCH_DIVISOR));
+            long evictUpTo = ranks[batchSize - 1];
+            // Entries ranked the same as the last one of the batch are evicted only up to the batch size.
+            int evicted = 0;
+            Iterator<V> iterator = entries.values().iterator();
+            while (evicted < batchSize && iterator.hasNext()) {
+                if (rank.applyAsLong(iterator.next()) <= evictUpTo) {
+                    iterator.remove();
+                    evicted++;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,763 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.util;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.identity.oauth.config.OAuthServerConfiguration;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache.AudienceCache;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache.ClientAssertionPolicyCache;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache.ClientKeySourceCache;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache.JWKSCache;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache.JWSVerifierCache;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache.OffHeapJTIIndex;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache.TenantKeyStoreIndex;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache.VerifiedAssertionCache;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao.JTIHashMigrator;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao.JTIReplayStore;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao.JTIUpsertCoalescer;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao.JWTPurgeScheduler;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao.JWTStorageManager;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao.JWTWriteBehindQueue;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao.impl.InMemoryJTIReplayStore;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao.impl.JDBCJTIReplayStore;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao.impl.RedisJTIReplayStore;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.validator.ClientAssertionGuard;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.validator.ValidationStage;
+import org.wso2.securevault.SecretResolver;
+import org.wso2.securevault.SecretResolverFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.apache.commons.lang.StringUtils.isEmpty;
+import static org.wso2.carbon.identity.oauth.common.OAuthConstants.OIDCConfigProperties.DEFAULT_VALUE_FOR_PREVENT_TOKEN_REUSE;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.ATOMIC_JTI_VALIDATION;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.AUDIENCE_CACHE_SIZE;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.AUDIENCE_CACHE_TIMEOUT_IN_SECONDS;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.CLIENT_ASSERTION_ALLOWED_ALGORITHMS;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.CLIENT_ASSERTION_MAX_HEADER_SIZE;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.CLIENT_ASSERTION_MAX_LENGTH;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.CLIENT_ASSERTION_MAX_PAYLOAD_SIZE;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.CLIENT_ASSERTION_POLICY_CACHE_SIZE;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.CLIENT_ASSERTION_POLICY_CACHE_TIMEOUT_IN_SECONDS;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.CLIENT_KEY_SOURCE_CACHE_SIZE;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.CLIENT_KEY_SOURCE_CACHE_TIMEOUT_IN_SECONDS;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.DEFAULT_AUDIENCE;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.DEFAULT_HASHED_JTI_MIGRATION_CHUNK_SIZE;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.DEFAULT_JTI_PURGE_CHUNK_SIZE;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.DEFAULT_JTI_PURGE_INTERVAL_IN_MINUTES;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.DEFAULT_JTI_PURGE_MAX_ROWS_PER_SECOND;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.DEFAULT_JTI_REPLAY_STORE_REDIS_HOST;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.DEFAULT_JTI_REPLAY_STORE_REDIS_KEY_PREFIX;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.DEFAULT_JTI_REPLAY_STORE_REDIS_MAX_CONNECTIONS;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.DEFAULT_JTI_REPLAY_STORE_REDIS_MAX_IDLE_CONNECTIONS;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.DEFAULT_JTI_REPLAY_STORE_REDIS_PORT;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.DEFAULT_JTI_REPLAY_STORE_REDIS_TIMEOUT_IN_MILLIS;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.DEFAULT_JTI_WRITE_BEHIND_BATCH_SIZE;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.DEFAULT_JTI_WRITE_BEHIND_FLUSH_INTERVAL_IN_MILLIS;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.DEFAULT_JTI_WRITE_BEHIND_QUEUE_SIZE;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.DEFAULT_OFF_HEAP_JTI_INDEX_CAPACITY;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.DEFAULT_VALIDITY_PERIOD_IN_MINUTES;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.ENABLE_CLIENT_ASSERTION_GUARD;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.ENABLE_CLIENT_ASSERTION_POLICY_CACHE;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.ENABLE_CLIENT_KEY_SOURCE_CACHE;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.ENABLE_HASHED_JTI_MIGRATION;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.ENABLE_HASHED_JTI_STORAGE;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.ENABLE_JTI_PURGE;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.ENABLE_JTI_WRITE_BEHIND;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.ENABLE_JWKS_CACHE;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.ENABLE_JWS_VERIFIER_CACHE;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.ENABLE_LAZY_CLAIM_EXTRACTION;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.ENABLE_OFF_HEAP_JTI_INDEX;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.ENABLE_VERIFIED_ASSERTION_CACHE;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.HASHED_JTI_MIGRATION_CHUNK_SIZE;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.JTI_PURGE_CHUNK_SIZE;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.JTI_PURGE_INTERVAL_IN_MINUTES;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.JTI_PURGE_MAX_ROWS_PER_SECOND;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.JTI_REPLAY_STORE;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.JTI_REPLAY_STORE_REDIS_HOST;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.JTI_REPLAY_STORE_REDIS_KEY_PREFIX;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.JTI_REPLAY_STORE_REDIS_MAX_CONNECTIONS;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.JTI_REPLAY_STORE_REDIS_MAX_IDLE_CONNECTIONS;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.JTI_REPLAY_STORE_REDIS_PASSWORD;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.JTI_REPLAY_STORE_REDIS_PORT;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.JTI_REPLAY_STORE_REDIS_SSL_ENABLED;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.JTI_REPLAY_STORE_REDIS_TIMEOUT_IN_MILLIS;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.JTI_UPSERT_COALESCING_WINDOW_IN_MILLIS;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.JTI_WRITE_BEHIND_BATCH_SIZE;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.JTI_WRITE_BEHIND_FLUSH_INTERVAL_IN_MILLIS;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.JTI_WRITE_BEHIND_OVERFLOW_POLICY;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.JTI_WRITE_BEHIND_QUEUE_SIZE;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.JWKS_CACHE_MAX_AGE_IN_SECONDS;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.JWKS_CACHE_MIN_REFETCH_INTERVAL_IN_SECONDS;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.JWKS_CACHE_REFRESH_INTERVAL_IN_SECONDS;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.JWKS_ENDPOINT_HTTP_CONNECTION_TIMEOUT;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.JWKS_ENDPOINT_HTTP_READ_TIMEOUT;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.JWKS_ENDPOINT_HTTP_SIZE_LIMIT;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.JWS_VERIFIER_CACHE_SIZE;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.OFF_HEAP_JTI_INDEX_CAPACITY;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.PREVENT_TOKEN_REUSE;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.REJECT_BEFORE_IN_MINUTES;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.TENANT_KEYSTORE_INDEX_REFRESH_INTERVAL_IN_SECONDS;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.TOKEN_ENDPOINT_ALIAS;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.VALIDATION_STAGE_ORDER;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.VERIFIED_ASSERTION_CACHE_SIZE;
+
+/**
+ * Immutable configuration of the private key JWT client authenticator.
+ * All the properties of the authenticator are parsed once when the configuration is loaded, with the same rules for
+ * every property: a missing property takes its default value, and an invalid one is logged and takes its default
+ * value as well. The components built from the configuration are created by this class, so that applying a
+ * configuration, whether on the activation or on a reload, always builds them the same way.
+ */
+public final class JWTAuthenticatorConfig {
+
+    private static final Log log = LogFactory.getLog(JWTAuthenticatorConfig.class);
+
+    private final String tokenEndpointAlias;
+    private final boolean preventTokenReuse;
+    private final int rejectBeforeInMinutes;
+    private final boolean atomicJTIValidation;
+    private final boolean lazyClaimExtraction;
+    private final long clockSkewInMillis;
+
+    private final boolean jtiWriteBehindEnabled;
+    private final int jtiWriteBehindBatchSize;
+    private final long jtiWriteBehindFlushIntervalInMillis;
+    private final int jtiWriteBehindQueueSize;
+    private final JWTWriteBehindQueue.OverflowPolicy jtiWriteBehindOverflowPolicy;
+
+    private final boolean jtiPurgeEnabled;
+    private final long jtiPurgeIntervalInMinutes;
+    private final int jtiPurgeChunkSize;
+    private final int jtiPurgeMaxRowsPerSecond;
+
+    private final String jtiReplayStoreName;
+    private final String redisHost;
+    private final int redisPort;
+    private final String redisPassword;
+    private final int redisTimeoutInMillis;
+    private final String redisKeyPrefix;
+    private final int redisMaxIdleConnections;
+    private final int redisMaxConnections;
+    private final boolean redisSSLEnabled;
+
+    private final boolean offHeapJTIIndexEnabled;
+    private final long offHeapJTIIndexCapacity;
+    private final long jtiUpsertCoalescingWindowInMillis;
+
+    private final boolean hashedJTIStorage;
+    private final boolean hashedJTIMigration;
+    private final int hashedJTIMigrationChunkSize;
+
+    private final boolean jwsVerifierCacheEnabled;
+    private final int jwsVerifierCacheSize;
+    private final boolean clientKeySourceCacheEnabled;
+    private final int clientKeySourceCacheSize;
+    private final long clientKeySourceCacheTimeoutInMillis;
+    private final boolean clientAssertionPolicyCacheEnabled;
+    private final int clientAssertionPolicyCacheSize;
+    private final long clientAssertionPolicyCacheTimeoutInMillis;
+    private final int audienceCacheSize;
+    private final long audienceCacheTimeoutInMillis;
+    private final long tenantKeyStoreIndexRefreshIntervalInMillis;
+
+    private final boolean jwksCacheEnabled;
+    private final long jwksCacheRefreshIntervalInMillis;
+    private final long jwksCacheMaxAgeInMillis;
+    private final long jwksCacheMinRefetchIntervalInMillis;
+    private final int jwksConnectTimeoutInMillis;
+    private final int jwksReadTimeoutInMillis;
+    private final int jwksSizeLimitInBytes;
+
+    private final boolean verifiedAssertionCacheEnabled;
+    private final int verifiedAssertionCacheSize;
+
+    private final boolean clientAssertionGuardEnabled;
+    private final int clientAssertionMaxLength;
+    private final int clientAssertionMaxHeaderSize;
+    private final int clientAssertionMaxPayloadSize;
+    private final Set<String> clientAssertionAllowedAlgorithms;
+
+    private final List<ValidationStage> validationStageOrder;
+
+    private JWTAuthenticatorConfig(Properties properties, long clockSkewInMillis) {
+
+        this.clockSkewInMillis = clockSkewInMillis;
+        tokenEndpointAlias = StringUtils.defaultIfEmpty(properties.getProperty(TOKEN_ENDPOINT_ALIAS),
+                DEFAULT_AUDIENCE);
+        preventTokenReuse = readBoolean(properties, PREVENT_TOKEN_REUSE, DEFAULT_VALUE_FOR_PREVENT_TOKEN_REUSE);
+        rejectBeforeInMinutes = readInt(properties, REJECT_BEFORE_IN_MINUTES, DEFAULT_VALIDITY_PERIOD_IN_MINUTES);
+        atomicJTIValidation = readBoolean(properties, ATOMIC_JTI_VALIDATION, false);
+        lazyClaimExtraction = readBoolean(properties, ENABLE_LAZY_CLAIM_EXTRACTION, false);
+
+        jtiWriteBehindEnabled = readBoolean(properties, ENABLE_JTI_WRITE_BEHIND, false);
+        jtiWriteBehindBatchSize = readPositiveInt(properties, JTI_WRITE_BEHIND_BATCH_SIZE,
+                DEFAULT_JTI_WRITE_BEHIND_BATCH_SIZE);
+        jtiWriteBehindFlushIntervalInMillis = readPositiveLong(properties, JTI_WRITE_BEHIND_FLUSH_INTERVAL_IN_MILLIS,
+                DEFAULT_JTI_WRITE_BEHIND_FLUSH_INTERVAL_IN_MILLIS);
+        jtiWriteBehindQueueSize = readPositiveInt(properties, JTI_WRITE_BEHIND_QUEUE_SIZE,
+                DEFAULT_JTI_WRITE_BEHIND_QUEUE_SIZE);
+        jtiWriteBehindOverflowPolicy = readOverflowPolicy(properties);
+
+        jtiPurgeEnabled = readBoolean(properties, ENABLE_JTI_PURGE, false);
+        jtiPurgeIntervalInMinutes = readPositiveLong(properties, JTI_PURGE_INTERVAL_IN_MINUTES,
+                DEFAULT_JTI_PURGE_INTERVAL_IN_MINUTES);
+        jtiPurgeChunkSize = readPositiveInt(properties, JTI_PURGE_CHUNK_SIZE, DEFAULT_JTI_PURGE_CHUNK_SIZE);
+        // A non positive rate does not throttle the purge.
+        jtiPurgeMaxRowsPerSecond = readInt(properties, JTI_PURGE_MAX_ROWS_PER_SECOND,
+                DEFAULT_JTI_PURGE_MAX_ROWS_PER_SECOND);
+
+        jtiReplayStoreName = StringUtils.defaultIfEmpty(StringUtils.trim(properties.getProperty(JTI_REPLAY_STORE)),
+                JDBCJTIReplayStore.NAME);
+        redisHost = StringUtils.defaultIfEmpty(properties.getProperty(JTI_REPLAY_STORE_REDIS_HOST),
+                DEFAULT_JTI_REPLAY_STORE_REDIS_HOST);
+        redisPort = readInt(properties, JTI_REPLAY_STORE_REDIS_PORT, DEFAULT_JTI_REPLAY_STORE_REDIS_PORT);
+        redisPassword = RedisJTIReplayStore.NAME.equals(jtiReplayStoreName) ?
+                resolveSecret(properties, JTI_REPLAY_STORE_REDIS_PASSWORD) : null;
+        redisTimeoutInMillis = readInt(properties, JTI_REPLAY_STORE_REDIS_TIMEOUT_IN_MILLIS,
+                DEFAULT_JTI_REPLAY_STORE_REDIS_TIMEOUT_IN_MILLIS);
+        redisKeyPrefix = StringUtils.defaultIfEmpty(properties.getProperty(JTI_REPLAY_STORE_REDIS_KEY_PREFIX),
+                DEFAULT_JTI_REPLAY_STORE_REDIS_KEY_PREFIX);
+        redisMaxIdleConnections = readInt(properties, JTI_REPLAY_STORE_REDIS_MAX_IDLE_CONNECTIONS,
+                DEFAULT_JTI_REPLAY_STORE_REDIS_MAX_IDLE_CONNECTIONS);
+        redisMaxConnections = readPositiveInt(properties, JTI_REPLAY_STORE_REDIS_MAX_CONNECTIONS,
+                DEFAULT_JTI_REPLAY_STORE_REDIS_MAX_CONNECTIONS);
+        redisSSLEnabled = readBoolean(properties, JTI_REPLAY_STORE_REDIS_SSL_ENABLED, false);
+
+        offHeapJTIIndexEnabled = readBoolean(properties, ENABLE_OFF_HEAP_JTI_INDEX, false);
+        offHeapJTIIndexCapacity = readPositiveLong(properties, OFF_HEAP_JTI_INDEX_CAPACITY,
+                DEFAULT_OFF_HEAP_JTI_INDEX_CAPACITY);
+        // A non positive window does not coalesce the JTI upserts.
+        jtiUpsertCoalescingWindowInMillis = readLong(properties, JTI_UPSERT_COALESCING_WINDOW_IN_MILLIS, 0);
+
+        hashedJTIStorage = readBoolean(properties, ENABLE_HASHED_JTI_STORAGE, false);
+        hashedJTIMigration = readBoolean(properties, ENABLE_HASHED_JTI_MIGRATION, false);
+        hashedJTIMigrationChunkSize = readPositiveInt(properties, HASHED_JTI_MIGRATION_CHUNK_SIZE,
+                DEFAULT_HASHED_JTI_MIGRATION_CHUNK_SIZE);
+
+        // A non positive size or timeout of a cache disables the cache.
+        jwsVerifierCacheEnabled = readBoolean(properties, ENABLE_JWS_VERIFIER_CACHE, false);
+        jwsVerifierCacheSize = readInt(properties, JWS_VERIFIER_CACHE_SIZE, JWSVerifierCache.DEFAULT_CAPACITY);
+        clientKeySourceCacheEnabled = readBoolean(properties, ENABLE_CLIENT_KEY_SOURCE_CACHE, false);
+        clientKeySourceCacheSize = readInt(properties, CLIENT_KEY_SOURCE_CACHE_SIZE,
+                ClientKeySourceCache.DEFAULT_CAPACITY);
+        clientKeySourceCacheTimeoutInMillis = readSecondsInMillis(properties,
+                CLIENT_KEY_SOURCE_CACHE_TIMEOUT_IN_SECONDS, ClientKeySourceCache.DEFAULT_TIMEOUT_IN_MILLIS);
+        clientAssertionPolicyCacheEnabled = readBoolean(properties, ENABLE_CLIENT_ASSERTION_POLICY_CACHE, false);
+        clientAssertionPolicyCacheSize = readInt(properties, CLIENT_ASSERTION_POLICY_CACHE_SIZE,
+                ClientAssertionPolicyCache.DEFAULT_CAPACITY);
+        clientAssertionPolicyCacheTimeoutInMillis = readSecondsInMillis(properties,
+                CLIENT_ASSERTION_POLICY_CACHE_TIMEOUT_IN_SECONDS, ClientAssertionPolicyCache.DEFAULT_TIMEOUT_IN_MILLIS);
+        audienceCacheSize = readInt(properties, AUDIENCE_CACHE_SIZE, AudienceCache.DEFAULT_CAPACITY);
+        audienceCacheTimeoutInMillis = readSecondsInMillis(properties, AUDIENCE_CACHE_TIMEOUT_IN_SECONDS,
+                AudienceCache.DEFAULT_TIMEOUT_IN_MILLIS);
+        // A non positive refresh interval disables the index, the certificates are read from the keystore.
+        tenantKeyStoreIndexRefreshIntervalInMillis = readSecondsInMillis(properties,
+                TENANT_KEYSTORE_INDEX_REFRESH_INTERVAL_IN_SECONDS,
+                TenantKeyStoreIndex.DEFAULT_REFRESH_INTERVAL_IN_MILLIS);
+
+        jwksCacheEnabled = readBoolean(properties, ENABLE_JWKS_CACHE, false);
+        jwksCacheRefreshIntervalInMillis = readSecondsInMillis(properties, JWKS_CACHE_REFRESH_INTERVAL_IN_SECONDS,
+                JWKSCache.DEFAULT_REFRESH_INTERVAL_IN_MILLIS);
+        long maxAgeInMillis = readSecondsInMillis(properties, JWKS_CACHE_MAX_AGE_IN_SECONDS,
+                JWKSCache.DEFAULT_MAX_AGE_IN_MILLIS);
+        if (jwksCacheEnabled && maxAgeInMillis < jwksCacheRefreshIntervalInMillis) {
+            log.warn("JWKS cache max age is less than the refresh interval. Using the refresh interval as the " +
+                    "max age.");
+            maxAgeInMillis = jwksCacheRefreshIntervalInMillis;
+        }
+        jwksCacheMaxAgeInMillis = maxAgeInMillis;
+        jwksCacheMinRefetchIntervalInMillis = readSecondsInMillis(properties,
+                JWKS_CACHE_MIN_REFETCH_INTERVAL_IN_SECONDS, JWKSCache.DEFAULT_MIN_REFETCH_INTERVAL_IN_MILLIS);
+        // The JWKS are fetched with the same limits as the JWKS based JWT validator of the server.
+        jwksConnectTimeoutInMillis = readServerInt(JWKS_ENDPOINT_HTTP_CONNECTION_TIMEOUT,
+                JWKSCache.DEFAULT_CONNECT_TIMEOUT_IN_MILLIS);
+        jwksReadTimeoutInMillis = readServerInt(JWKS_ENDPOINT_HTTP_READ_TIMEOUT,
+                JWKSCache.DEFAULT_READ_TIMEOUT_IN_MILLIS);
+        jwksSizeLimitInBytes = readServerInt(JWKS_ENDPOINT_HTTP_SIZE_LIMIT, JWKSCache.DEFAULT_SIZE_LIMIT_IN_BYTES);
+
+        verifiedAssertionCacheEnabled = readBoolean(properties, ENABLE_VERIFIED_ASSERTION_CACHE, false);
+        verifiedAssertionCacheSize = readInt(properties, VERIFIED_ASSERTION_CACHE_SIZE,
+                VerifiedAssertionCache.DEFAULT_CAPACITY);
+
+        clientAssertionGuardEnabled = readBoolean(properties, ENABLE_CLIENT_ASSERTION_GUARD, false);
+        clientAssertionMaxLength = readPositiveInt(properties, CLIENT_ASSERTION_MAX_LENGTH,
+                ClientAssertionGuard.DEFAULT_MAX_LENGTH);
+        clientAssertionMaxHeaderSize = readPositiveInt(properties, CLIENT_ASSERTION_MAX_HEADER_SIZE,
+                ClientAssertionGuard.DEFAULT_MAX_HEADER_SIZE);
+        clientAssertionMaxPayloadSize = readPositiveInt(properties, CLIENT_ASSERTION_MAX_PAYLOAD_SIZE,
+                ClientAssertionGuard.DEFAULT_MAX_PAYLOAD_SIZE);
+        clientAssertionAllowedAlgorithms = readAllowedAlgorithms(properties);
+
+        validationStageOrder = readValidationStageOrder(properties);
+    }
+
+    /**
+     * Read the configuration from the properties of the authenticator and the server configuration.
+     *
+     * @param properties Properties of the authenticator.
+     * @return Configuration of the authenticator.
+     */
+    public static JWTAuthenticatorConfig load(Properties properties) {
+
+        return new JWTAuthenticatorConfig(properties,
+                OAuthServerConfiguration.getInstance().getTimeStampSkewInSeconds() * 1000);
+    }
+
+    public String getTokenEndpointAlias() {
+
+        return tokenEndpointAlias;
+    }
+
+    public boolean isPreventTokenReuse() {
+
+        return preventTokenReuse;
+    }
+
+    public int getRejectBeforeInMinutes() {
+
+        return rejectBeforeInMinutes;
+    }
+
+    public boolean isAtomicJTIValidation() {
+
+        return atomicJTIValidation;
+    }
+
+    public boolean isLazyClaimExtraction() {
+
+        return lazyClaimExtraction;
+    }
+
+    public String getJTIReplayStoreName() {
+
+        return jtiReplayStoreName;
+    }
+
+    public boolean isHashedJTIStorage() {
+
+        return hashedJTIStorage;
+    }
+
+    public boolean isHashedJTIMigration() {
+
+        return hashedJTIMigration;
+    }
+
+    /**
+     * @return Order of the validation stages, or null if the default order is used.
+     */
+    public List<ValidationStage> getValidationStageOrder() {
+
+        return validationStageOrder;
+    }
+
+    /**
+     * @param previous Configuration applied before, or null.
+     * @return true if the JTI write-behind queue has to be built again.
+     */
+    public boolean isJTIWriteBehindChanged(JWTAuthenticatorConfig previous) {
+
+        return previous == null || !getJTIWriteBehindSettings().equals(previous.getJTIWriteBehindSettings());
+    }
+
+    /**
+     * @param previous Configuration applied before, or null.
+     * @return true if the JTI purge scheduler has to be built again.
+     */
+    public boolean isJTIPurgeChanged(JWTAuthenticatorConfig previous) {
+
+        return previous == null || !getJTIPurgeSettings().equals(previous.getJTIPurgeSettings());
+    }
+
+    /**
+     * @param previous Configuration applied before, or null.
+     * @return true if the JTI replay store has to be built again. The JTIs recorded by an in memory store are lost
+     * when it is built again, hence it is kept as long as its configuration is not changed.
+     */
+    public boolean isJTIReplayStoreChanged(JWTAuthenticatorConfig previous) {
+
+        return previous == null || !getJTIReplayStoreSettings().equals(previous.getJTIReplayStoreSettings());
+    }
+
+    /**
+     * @param previous Configuration applied before, or null.
+     * @return true if the off-heap JTI index has to be built again.
+     */
+    public boolean isOffHeapJTIIndexChanged(JWTAuthenticatorConfig previous) {
+
+        return previous == null || offHeapJTIIndexEnabled != previous.offHeapJTIIndexEnabled ||
+                offHeapJTIIndexCapacity != previous.offHeapJTIIndexCapacity;
+    }
+
+    /**
+     * @param previous Configuration applied before, or null.
+     * @return true if the hashed JTI storage or its migration is changed.
+     */
+    public boolean isHashedJTIStorageChanged(JWTAuthenticatorConfig previous) {
+
+        return previous == null || !getHashedJTIStorageSettings().equals(previous.getHashedJTIStorageSettings());
+    }
+
+    /**
+     * @param previous Configuration applied before, or null.
+     * @return true if the JWKS cache has to be built again.
+     */
+    public boolean isJWKSCacheChanged(JWTAuthenticatorConfig previous) {
+
+        return previous == null || !getJWKSCacheSettings().equals(previous.getJWKSCacheSettings());
+    }
+
+    /**
+     * @param previous Configuration applied before, or null.
+     * @return true if the client assertion guard has to be built again. The guard is kept as long as its
+     * configuration is not changed, so that its rejection counts are not reset.
+     */
+    public boolean isClientAssertionGuardChanged(JWTAuthenticatorConfig previous) {
+
+        return previous == null || !getClientAssertionGuardSettings().equals(
+                previous.getClientAssertionGuardSettings());
+    }
+
+    /**
+     * @return JTI write-behind queue, or null if the JTIs are persisted synchronously.
+     */
+    public JWTWriteBehindQueue createJTIWriteBehindQueue() {
+
+        if (!jtiWriteBehindEnabled) {
+            return null;
+        }
+        return new JWTWriteBehindQueue(new JWTStorageManager(), jtiWriteBehindBatchSize,
+                jtiWriteBehindFlushIntervalInMillis, jtiWriteBehindQueueSize, jtiWriteBehindOverflowPolicy,
+                clockSkewInMillis);
+    }
+
+    /**
+     * @return JTI purge scheduler, or null if the expired JTIs are not purged.
+     */
+    public JWTPurgeScheduler createJTIPurgeScheduler() {
+
+        if (!jtiPurgeEnabled) {
+            return null;
+        }
+        return new JWTPurgeScheduler(new JWTStorageManager(), TimeUnit.MINUTES.toMillis(jtiPurgeIntervalInMinutes),
+                jtiPurgeChunkSize, jtiPurgeMaxRowsPerSecond, clockSkewInMillis);
+    }
+
+    /**
+     * @return Built in JTI replay store of the configured name, or null if the JDBC store or a store registered as an
+     * OSGi service is configured.
+     */
+    public JTIReplayStore createJTIReplayStore() {
+
+        if (InMemoryJTIReplayStore.NAME.equals(jtiReplayStoreName)) {
+            return new InMemoryJTIReplayStore(clockSkewInMillis);
+        }
+        if (RedisJTIReplayStore.NAME.equals(jtiReplayStoreName)) {
+            return new RedisJTIReplayStore(redisHost, redisPort, redisPassword, redisTimeoutInMillis, redisKeyPrefix,
+                    redisMaxIdleConnections, redisMaxConnections, redisSSLEnabled, clockSkewInMillis);
+        }
+        return null;
+    }
+
+    /**
+     * @return Off-heap JTI index, or null if it is not enabled.
+     */
+    public OffHeapJTIIndex createOffHeapJTIIndex() {
+
+        return offHeapJTIIndexEnabled ? new OffHeapJTIIndex(offHeapJTIIndexCapacity) : null;
+    }
+
+    /**
+     * @return JTI upsert coalescer, or null if the JTI upserts are not coalesced.
+     */
+    public JTIUpsertCoalescer createJTIUpsertCoalescer() {
+
+        return jtiUpsertCoalescingWindowInMillis > 0 ? new JTIUpsertCoalescer(jtiUpsertCoalescingWindowInMillis) :
+                null;
+    }
+
+    /**
+     * @return Hashed JTI migrator, or null if the hashed JTI storage or its migration is not enabled.
+     */
+    public JTIHashMigrator createJTIHashMigrator() {
+
+        if (!hashedJTIStorage || !hashedJTIMigration) {
+            return null;
+        }
+        return new JTIHashMigrator(new JWTStorageManager(), hashedJTIMigrationChunkSize, clockSkewInMillis);
+    }
+
+    public JWSVerifierCache createJWSVerifierCache() {
+
+        return jwsVerifierCacheEnabled && jwsVerifierCacheSize > 0 ? new JWSVerifierCache(jwsVerifierCacheSize) :
+                null;
+    }
+
+    public ClientKeySourceCache createClientKeySourceCache() {
+
+        if (!clientKeySourceCacheEnabled || clientKeySourceCacheSize <= 0 ||
+                clientKeySourceCacheTimeoutInMillis <= 0) {
+            return null;
+        }
+        return new ClientKeySourceCache(clientKeySourceCacheSize, clientKeySourceCacheTimeoutInMillis);
+    }
+
+    public ClientAssertionPolicyCache createClientAssertionPolicyCache() {
+
+        if (!clientAssertionPolicyCacheEnabled || clientAssertionPolicyCacheSize <= 0 ||
+                clientAssertionPolicyCacheTimeoutInMillis <= 0) {
+            return null;
+        }
+        return new ClientAssertionPolicyCache(clientAssertionPolicyCacheSize,
+                clientAssertionPolicyCacheTimeoutInMillis);
+    }
+
+    public AudienceCache createAudienceCache() {
+
+        if (audienceCacheSize <= 0 || audienceCacheTimeoutInMillis <= 0) {
+            return null;
+        }
+        return new AudienceCache(audienceCacheSize, audienceCacheTimeoutInMillis);
+    }
+
+    public TenantKeyStoreIndex createTenantKeyStoreIndex() {
+
+        return tenantKeyStoreIndexRefreshIntervalInMillis > 0 ?
+                new TenantKeyStoreIndex(tenantKeyStoreIndexRefreshIntervalInMillis) : null;
+    }
+
+    public JWKSCache createJWKSCache() {
+
+        if (!jwksCacheEnabled) {
+            return null;
+        }
+        return new JWKSCache(JWKSCache.DEFAULT_CAPACITY, jwksCacheRefreshIntervalInMillis, jwksCacheMaxAgeInMillis,
+                jwksCacheMinRefetchIntervalInMillis, jwksConnectTimeoutInMillis, jwksReadTimeoutInMillis,
+                jwksSizeLimitInBytes);
+    }
+
+    public VerifiedAssertionCache createVerifiedAssertionCache() {
+
+        return verifiedAssertionCacheEnabled ? new VerifiedAssertionCache(verifiedAssertionCacheSize) : null;
+    }
+
+    public ClientAssertionGuard createClientAssertionGuard() {
+
+        if (!clientAssertionGuardEnabled) {
+            return null;
+        }
+        return new ClientAssertionGuard(clientAssertionMaxLength, clientAssertionMaxHeaderSize,
+                clientAssertionMaxPayloadSize, clientAssertionAllowedAlgorithms);
+    }
+
+    private List<Object> getJTIWriteBehindSettings() {
+
+        return Arrays.asList(jtiWriteBehindEnabled, jtiWriteBehindBatchSize, jtiWriteBehindFlushIntervalInMillis,
+                jtiWriteBehindQueueSize, jtiWriteBehindOverflowPolicy, clockSkewInMillis);
+    }
+
+    private List<Object> getJTIPurgeSettings() {
+
+        return Arrays.asList(jtiPurgeEnabled, jtiPurgeIntervalInMinutes, jtiPurgeChunkSize, jtiPurgeMaxRowsPerSecond,
+                clockSkewInMillis);
+    }
+
+    private List<Object> getJTIReplayStoreSettings() {
+
+        return Arrays.asList(jtiReplayStoreName, redisHost, redisPort, redisPassword, redisTimeoutInMillis,
+                redisKeyPrefix, redisMaxIdleConnections, redisMaxConnections, redisSSLEnabled, clockSkewInMillis);
+    }
+
+    private List<Object> getHashedJTIStorageSettings() {
+
+        return Arrays.asList(hashedJTIStorage, hashedJTIMigration, hashedJTIMigrationChunkSize, clockSkewInMillis);
+    }
+
+    private List<Object> getJWKSCacheSettings() {
+
+        return Arrays.asList(jwksCacheEnabled, jwksCacheRefreshIntervalInMillis, jwksCacheMaxAgeInMillis,
+                jwksCacheMinRefetchIntervalInMillis, jwksConnectTimeoutInMillis, jwksReadTimeoutInMillis,
+                jwksSizeLimitInBytes);
+    }
+
+    private List<Object> getClientAssertionGuardSettings() {
+
+        return Arrays.asList(clientAssertionGuardEnabled, clientAssertionMaxLength, clientAssertionMaxHeaderSize,
+                clientAssertionMaxPayloadSize, clientAssertionAllowedAlgorithms);
+    }
+
+    private static boolean readBoolean(Properties properties, String propertyName, boolean defaultValue) {
+
+        String value = StringUtils.trim(properties.getProperty(propertyName));
+        return isEmpty(value) ? defaultValue : Boolean.parseBoolean(value);
+    }
+
+    private static int readInt(Properties properties, String propertyName, int defaultValue) {
+
+        String value = StringUtils.trim(properties.getProperty(propertyName));
+        if (isEmpty(value)) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            log.warn("Invalid value found for " + propertyName + ". Using default value: " + defaultValue, e);
+            return defaultValue;
+        }
+    }
+
+    private static long readLong(Properties properties, String propertyName, long defaultValue) {
+
+        String value = StringUtils.trim(properties.getProperty(propertyName));
+        if (isEmpty(value)) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            log.warn("Invalid value found for " + propertyName + ". Using default value: " + defaultValue, e);
+            return defaultValue;
+        }
+    }
+
+    private static int readPositiveInt(Properties properties, String propertyName, int defaultValue) {
+
+        int value = readInt(properties, propertyName, defaultValue);
+        if (value <= 0) {
+            log.warn(propertyName + " should be positive. Using default value: " + defaultValue);
+            return defaultValue;
+        }
+        return value;
+    }
+
+    private static long readPositiveLong(Properties properties, String propertyName, long defaultValue) {
+
+        long value = readLong(properties, propertyName, defaultValue);
+        if (value <= 0) {
+            log.warn(propertyName + " should be positive. Using default value: " + defaultValue);
+            return defaultValue;
+        }
+        return value;
+    }
+
+    private static long readSecondsInMillis(Properties properties, String propertyName, long defaultValueInMillis) {
+
+        String value = StringUtils.trim(properties.getProperty(propertyName));
+        if (isEmpty(value)) {
+            return defaultValueInMillis;
+        }
+        try {
+            return TimeUnit.SECONDS.toMillis(Long.parseLong(value));
+        } catch (NumberFormatException e) {
+            log.warn("Invalid value found for " + propertyName + ". Using default value: " +
+                    TimeUnit.MILLISECONDS.toSeconds(defaultValueInMillis) + "s", e);
+            return defaultValueInMillis;
+        }
+    }
+
+    private static int readServerInt(String propertyName, int defaultValue) {
+
+        String value = StringUtils.trim(IdentityUtil.getProperty(propertyName));
+        if (isEmpty(value)) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            log.warn("Invalid value found for " + propertyName + ". Using default value: " + defaultValue, e);
+            return defaultValue;
+        }
+    }
+
+    private static JWTWriteBehindQueue.OverflowPolicy readOverflowPolicy(Properties properties) {
+
+        String value = StringUtils.trim(properties.getProperty(JTI_WRITE_BEHIND_OVERFLOW_POLICY));
+        if (isEmpty(value)) {
+            return JWTWriteBehindQueue.OverflowPolicy.SYNC;
+        }
+        try {
+            return JWTWriteBehindQueue.OverflowPolicy.valueOf(value.toUpperCase(Locale.ENGLISH));
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid value found for " + JTI_WRITE_BEHIND_OVERFLOW_POLICY + ". Using default value: " +
+                    JWTWriteBehindQueue.OverflowPolicy.SYNC, e);
+            return JWTWriteBehindQueue.OverflowPolicy.SYNC;
+        }
+    }
+
+    private static Set<String> readAllowedAlgorithms(Properties properties) {
+
+        Set<String> allowedAlgorithms = new HashSet<>();
+        String algorithms = properties.getProperty(CLIENT_ASSERTION_ALLOWED_ALGORITHMS);
+        if (StringUtils.isNotEmpty(algorithms)) {
+            for (String algorithm : algorithms.split(",")) {
+                if (StringUtils.isNotEmpty(algorithm.trim())) {
+                    allowedAlgorithms.add(algorithm.trim());
+                }
+            }
+        }
+        return Collections.unmodifiableSet(allowedAlgorithms);
+    }
+
+    private static List<ValidationStage> readValidationStageOrder(Properties properties) {
+
+        String validationStageOrder = StringUtils.trim(properties.getProperty(VALIDATION_STAGE_ORDER));
+        if (isEmpty(validationStageOrder)) {
+            return null;
+        }
+        List<ValidationStage> stages = new ArrayList<>();
+        for (String stageName : validationStageOrder.split(",")) {
+            try {
+                stages.add(ValidationStage.valueOf(stageName.trim().toUpperCase(Locale.ENGLISH)));
+            } catch (IllegalArgumentException e) {
+                log.warn("Invalid validation stage: " + stageName + " found in the configuration. Supported " +
+                        "stages are: " + Arrays.toString(ValidationStage.values()));
+            }
+        }
+        return Collections.unmodifiableList(stages);
+    }
+
+    /**
+     * Resolve a secret property through the secure vault, if the property is protected.
+     *
+     * @param properties   Properties of the authenticator.
+     * @param propertyName Name of the property.
+     * @return Resolved value of the property.
+     */
+    private static String resolveSecret(Properties properties, String propertyName) {
+
+        SecretResolver secretResolver = SecretResolverFactory.create(properties);
+        if (secretResolver != null && secretResolver.isInitialized() &&
+                secretResolver.isTokenProtected(propertyName)) {
+            return secretResolver.resolve(propertyName);
+        }
+        return properties.getProperty(propertyName);
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.util;
+
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.identity.oauth.config.OAuthServerConfiguration;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Immutable snapshot of the server configuration read while validating the client assertions.
+ * The configuration is parsed once when the snapshot is loaded, so that the request threads only read final fields.
+ * A reload replaces the whole snapshot, hence a request never observes a partially updated configuration.
+ */
+public final class ServerConfigSnapshot {
+
+    private static final String PROP_ID_TOKEN_ISSUER_ID = "OAuth.OpenIDConnect.IDTokenIssuerID";
+    private static final String FAPI_SIGNATURE_ALG_CONFIGURATION = "OAuth.OpenIDConnect.FAPI." +
+            "AllowedSignatureAlgorithms.AllowedSignatureAlgorithm";
+    private static final String MTLS_ALIASES_ENABLED = "OAuth.MutualTLSAliases.Enabled";
+    private static final String MTLS_ALIASES_HOSTNAME = "OAuth.MutualTLSAliases.Hostname";
+
+    private final Set<String> fapiAllowedSigningAlgorithms;
+    private final String mtlsAliasHostname;
+    private final String idTokenIssuerId;
+    private final String parEndpoint;
+    private final long timeStampSkewInMillis;
+
+    public ServerConfigSnapshot(Collection<String> fapiAllowedSigningAlgorithms, String mtlsAliasHostname,
+                                String idTokenIssuerId, String parEndpoint, long timeStampSkewInMillis) {
+
+        this.fapiAllowedSigningAlgorithms = Collections.unmodifiableSet(new HashSet<>(fapiAllowedSigningAlgorithms));
+        this.mtlsAliasHostname = mtlsAliasHostname;
+        this.idTokenIssuerId = idTokenIssuerId;
+        this.parEndpoint = parEndpoint;
+        this.timeStampSkewInMillis = timeStampSkewInMillis;
+    }
+
+    /**
+     * Read the current server configuration.
+     *
+     * @return Snapshot of the server configuration.
+     */
+    public static ServerConfigSnapshot load() {
+
+        String mtlsAliasHostname = Boolean.parseBoolean(IdentityUtil.getProperty(MTLS_ALIASES_ENABLED)) ?
+                IdentityUtil.getProperty(MTLS_ALIASES_HOSTNAME) : null;
+        return new ServerConfigSnapshot(IdentityUtil.getPropertyAsList(FAPI_SIGNATURE_ALG_CONFIGURATION),
+                mtlsAliasHostname,
+                IdentityUtil.getProperty(PROP_ID_TOKEN_ISSUER_ID),
+                IdentityUtil.getProperty(Constants.OAUTH2_PAR_URL_CONFIG),
+                OAuthServerConfiguration.getInstance().getTimeStampSkewInSeconds() * 1000);
+    }
+
+    /**
+     * @return Signing algorithms allowed for the FAPI conformant applications.
+     */
+    public Set<String> getFapiAllowedSigningAlgorithms() {
+
+        return fapiAllowedSigningAlgorithms;
+    }
+
+    /**
+     * @return Hostname of the mTLS gateway, or null if the mTLS aliases are disabled.
+     */
+    public String getMtlsAliasHostname() {
+
+        return mtlsAliasHostname;
+    }
+
+    /**
+     * Check whether the request is received through the mTLS gateway.
+     *
+     * @param requestUrl The request URL.
+     * @return true if the request URL is on the mTLS alias hostname.
+     */
+    public boolean isMtlsRequest(String requestUrl) {
+
+        return requestUrl != null && mtlsAliasHostname != null && requestUrl.contains(mtlsAliasHostname);
+    }
+
+    /**
+     * @return Configured issuer of the ID tokens, used when the resident IdP has no token endpoint.
+     */
+    public String getIdTokenIssuerId() {
+
+        return idTokenIssuerId;
+    }
+
+    /**
+     * @return Configured PAR endpoint, used when the resident IdP has no PAR endpoint.
+     */
+    public String getParEndpoint() {
+
+        return parEndpoint;
+    }
+
+    public long getTimeStampSkewInMillis() {
+
+        return timeStampSkewInMillis;
+    }
+}
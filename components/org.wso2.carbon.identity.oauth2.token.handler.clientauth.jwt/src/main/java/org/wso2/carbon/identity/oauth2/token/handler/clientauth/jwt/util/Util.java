@@ -18,21 +18,27 @@
 
 package org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.util;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.database.utils.jdbc.exceptions.DataAccessException;
 import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.SQLQueries;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao.dialect.JTIDialect;
 
 import java.util.HashMap;
 import java.util.Map;
 
 import static org.wso2.carbon.identity.application.authentication.framework.util.FrameworkUtils.isTableColumnExists;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.DELETE_EXPIRED_JWT_ID;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.DELETE_JWT_ID;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.GET_ACTIVE_JWT_IDS;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.GET_ACTIVE_JWT_IDS_AFTER;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.GET_EXPIRED_JWT_IDS;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.GET_EXPIRED_JWT_IDS_AFTER;
 import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.GET_JWT;
 import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.GET_JWT_DETAILS;
 import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.GET_JWT_ID;
 import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.INSERT_JWD_ID;
-import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.UPSERT_H2;
-import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.UPSERT_MSSQL_DB2;
-import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.UPSERT_MYSQL;
-import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.UPSERT_ORACLE;
-import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.UPSERT_POSTGRESQL;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.UPDATE_JWT_EXPIRY;
 
 
 /**
@@ -40,8 +46,12 @@ import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Const
  */
 public class Util {
 
+    private static final Log log = LogFactory.getLog(Util.class);
     private static boolean isTenantIdColumnIsAvailableInIdnOidcAuthTable = false;
     private static Map<String, String> queries = new HashMap<>();
+    private static volatile JTIDialect jtiDialect;
+    // Whether the dialect was resolved, so that an unsupported database is not probed again on each request.
+    private static volatile boolean isJTIDialectResolved;
 
     public static boolean isTenantIdColumnAvailableInIdnOidcAuth() {
 
@@ -61,6 +71,44 @@ public class Util {
         isTenantIdColumnIsAvailableInIdnOidcAuthTable = isTableColumnExists(SQLQueries.IDN_OIDC_JTI,
                 SQLQueries.TENANT_ID);
         buildQueryMapping();
+        jtiDialect = null;
+        isJTIDialectResolved = false;
+    }
+
+    /**
+     * Resolve the SQL dialect of the IDN_OIDC_JTI table for the identity database. This should be called once the
+     * table layout is known, so that the database type is not probed while persisting the JTIs.
+     */
+    public static void resolveJTIDialect() {
+
+        try {
+            jtiDialect = JTIDialect.resolve(isTenantIdColumnIsAvailableInIdnOidcAuthTable);
+            isJTIDialectResolved = true;
+            if (jtiDialect == null) {
+                log.warn("Unsupported database for the dialect specific JTI persistence. JTIs will be persisted " +
+                        "with the generic insert and update queries.");
+            } else if (log.isDebugEnabled()) {
+                log.debug("Resolved the JTI SQL dialect: " + jtiDialect.getName());
+            }
+        } catch (DataAccessException e) {
+            log.error("Error while resolving the database type of the JTI persistence.", e);
+        }
+    }
+
+    /**
+     * Get the SQL dialect of the IDN_OIDC_JTI table. The dialect is resolved on the first call, if it was not
+     * resolved at the activation. An unsupported database is resolved only once.
+     *
+     * @return JTI dialect, or null if the database is not supported.
+     */
+    public static JTIDialect getJTIDialect() {
+
+        JTIDialect dialect = jtiDialect;
+        if (dialect == null && !isJTIDialectResolved) {
+            resolveJTIDialect();
+            dialect = jtiDialect;
+        }
+        return dialect;
     }
 
     private static void buildQueryMapping() {
@@ -70,20 +118,24 @@ public class Util {
             queries.put(GET_JWT, SQLQueries.GET_TENANTED_JWT);
             queries.put(GET_JWT_DETAILS, SQLQueries.GET_JWT_DETAIL);
             queries.put(INSERT_JWD_ID, SQLQueries.INSERT_TENANTED_JWD_ID);
-            queries.put(UPSERT_MSSQL_DB2, SQLQueries.INSERT_OR_UPDATE_TENANTED_JWT_ID_MSSQL_OR_DB2);
-            queries.put(UPSERT_MYSQL, SQLQueries.INSERT_OR_UPDATE_TENANTED_JWT_ID_MYSQL);
-            queries.put(UPSERT_H2, SQLQueries.INSERT_OR_UPDATE_TENANTED_JWT_ID_H2);
-            queries.put(UPSERT_POSTGRESQL, SQLQueries.INSERT_OR_UPDATE_TENANTED_JWT_ID_POSTGRESQL);
-            queries.put(UPSERT_ORACLE, SQLQueries.INSERT_OR_UPDATE_TENANTED_JWT_ID_ORACLE);
+            queries.put(GET_EXPIRED_JWT_IDS, SQLQueries.GET_EXPIRED_TENANTED_JWT_IDS);
+            queries.put(GET_EXPIRED_JWT_IDS_AFTER, SQLQueries.GET_EXPIRED_TENANTED_JWT_IDS_AFTER);
+            queries.put(DELETE_EXPIRED_JWT_ID, SQLQueries.DELETE_EXPIRED_TENANTED_JWT_ID);
+            queries.put(GET_ACTIVE_JWT_IDS, SQLQueries.GET_ACTIVE_TENANTED_JWT_IDS);
+            queries.put(GET_ACTIVE_JWT_IDS_AFTER, SQLQueries.GET_ACTIVE_TENANTED_JWT_IDS_AFTER);
+            queries.put(DELETE_JWT_ID, SQLQueries.DELETE_TENANTED_JWT_ID);
+            queries.put(UPDATE_JWT_EXPIRY, SQLQueries.UPDATE_TENANTED_JWT_EXPIRY);
         } else {
             queries.put(GET_JWT_ID, SQLQueries.GET_JWT_ID);
             queries.put(GET_JWT, SQLQueries.GET_JWT);
             queries.put(INSERT_JWD_ID, SQLQueries.INSERT_JWD_ID);
-            queries.put(UPSERT_MSSQL_DB2, SQLQueries.INSERT_OR_UPDATE_JWT_ID_MSSQL_OR_DB2);
-            queries.put(UPSERT_MYSQL, SQLQueries.INSERT_OR_UPDATE_JWT_ID_MYSQL);
-            queries.put(UPSERT_H2, SQLQueries.INSERT_OR_UPDATE_JWT_ID_H2);
-            queries.put(UPSERT_POSTGRESQL, SQLQueries.INSERT_OR_UPDATE_JWT_ID_POSTGRESQL);
-            queries.put(UPSERT_ORACLE, SQLQueries.INSERT_OR_UPDATE_JWT_ID_ORACLE);
+            queries.put(GET_EXPIRED_JWT_IDS, SQLQueries.GET_EXPIRED_JWT_IDS);
+            queries.put(GET_EXPIRED_JWT_IDS_AFTER, SQLQueries.GET_EXPIRED_JWT_IDS_AFTER);
+            queries.put(DELETE_EXPIRED_JWT_ID, SQLQueries.DELETE_EXPIRED_JWT_ID);
+            queries.put(GET_ACTIVE_JWT_IDS, SQLQueries.GET_ACTIVE_JWT_IDS);
+            queries.put(GET_ACTIVE_JWT_IDS_AFTER, SQLQueries.GET_ACTIVE_JWT_IDS_AFTER);
+            queries.put(DELETE_JWT_ID, SQLQueries.DELETE_JWT_ID);
+            queries.put(UPDATE_JWT_EXPIRY, SQLQueries.UPDATE_JWT_EXPIRY);
         }
     }
 }
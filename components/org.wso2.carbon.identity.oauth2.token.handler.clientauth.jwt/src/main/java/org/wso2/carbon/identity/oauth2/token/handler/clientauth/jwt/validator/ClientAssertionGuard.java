@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.validator;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.oauth.common.OAuth2ErrorCodes;
+import org.wso2.carbon.identity.oauth2.client.authentication.OAuthClientAuthnException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cheap checks of the raw client assertion, done before the assertion is parsed.
+ * Oversized or malformed assertions, and assertions signed with an algorithm which is not allowed, are rejected
+ * without decoding the payload. Only the header is decoded, to read its algorithm. The rejected assertions are
+ * counted by the reason on each node, and the running totals are logged at the debug level on each rejection.
+ */
+public class ClientAssertionGuard {
+
+    private static final Log log = LogFactory.getLog(ClientAssertionGuard.class);
+    public static final int DEFAULT_MAX_LENGTH = 32768;
+    public static final int DEFAULT_MAX_HEADER_SIZE = 16384;
+    public static final int DEFAULT_MAX_PAYLOAD_SIZE = 8192;
+    private static final byte[] ALGORITHM = "alg".getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * Reason to reject a client assertion.
+     */
+    public enum Rejection {
+
+        /**
+         * The assertion is longer than the maximum length.
+         */
+        LENGTH,
+
+        /**
+         * The assertion does not have the three segments of a signed JWT.
+         */
+        SEGMENT_COUNT,
+
+        /**
+         * The decoded header is larger than the maximum header size.
+         */
+        HEADER_SIZE,
+
+        /**
+         * The decoded payload is larger than the maximum payload size.
+         */
+        PAYLOAD_SIZE,
+
+        /**
+         * The header is not a valid base64url encoded JSON object with an algorithm.
+         */
+        MALFORMED,
+
+        /**
+         * The header has an algorithm which is not allowed.
+         */
+        ALGORITHM
+    }
+
+    private final int maxLength;
+    private final int maxHeaderSize;
+    private final int maxPayloadSize;
+    private final Set<String> allowedAlgorithms;
+    private final Map<Rejection, AtomicLong> rejectionCounts = new EnumMap<>(Rejection.class);
+
+    /**
+     * @param maxLength         Maximum length of the assertion.
+     * @param maxHeaderSize     Maximum size of the decoded header in bytes.
+     * @param maxPayloadSize    Maximum size of the decoded payload in bytes.
+     * @param allowedAlgorithms Allowed signature algorithms. Any algorithm is allowed if empty.
+     */
+    public ClientAssertionGuard(int maxLength, int maxHeaderSize, int maxPayloadSize, Set<String> allowedAlgorithms) {
+
+        this.maxLength = maxLength;
+        this.maxHeaderSize = maxHeaderSize;
+        this.maxPayloadSize = maxPayloadSize;
+        this.allowedAlgorithms = Collections.unmodifiableSet(new HashSet<>(allowedAlgorithms));
+        for (Rejection rejection : Rejection.values()) {
+            rejectionCounts.put(rejection, new AtomicLong());
+        }
+    }
+
+    /**
+     * Check the raw client assertion.
+     *
+     * @param assertion Client assertion in its compact serialization.
+     * @throws OAuthClientAuthnException If the assertion is rejected.
+     */
+    public void check(String assertion) throws OAuthClientAuthnException {
+
+        if (assertion.length() > maxLength) {
+            reject(Rejection.LENGTH, "Client assertion exceeds the maximum length of " + maxLength + " characters.");
+        }
+        int firstDot = assertion.indexOf('.');
+        int secondDot = firstDot < 0 ? -1 : assertion.indexOf('.', firstDot + 1);
+        if (secondDot < 0 || assertion.indexOf('.', secondDot + 1) >= 0) {
+            reject(Rejection.SEGMENT_COUNT, "Client assertion is not a signed JWT.");
+        }
+        int headerSize = JsonScanner.decodedLength(firstDot);
+        int payloadSize = JsonScanner.decodedLength(secondDot - firstDot - 1);
+        if (headerSize > maxHeaderSize) {
+            reject(Rejection.HEADER_SIZE, "Client assertion header exceeds the maximum size of " + maxHeaderSize +
+                    " bytes.");
+        }
+        if (payloadSize > maxPayloadSize) {
+            reject(Rejection.PAYLOAD_SIZE, "Client assertion payload exceeds the maximum size of " +
+                    maxPayloadSize + " bytes.");
+        }
+        if (headerSize <= 0 || payloadSize < 0) {
+            reject(Rejection.MALFORMED, "Client assertion is malformed.");
+        }
+        if (allowedAlgorithms.isEmpty()) {
+            return;
+        }
+        HeaderScanner headerScanner = new HeaderScanner();
+        if (!headerScanner.decode(assertion, 0, firstDot, new byte[headerSize]) || !headerScanner.readObject() ||
+                headerScanner.algorithm == null) {
+            reject(Rejection.MALFORMED, "Client assertion header is malformed.");
+        }
+        if (!allowedAlgorithms.contains(headerScanner.algorithm)) {
+            reject(Rejection.ALGORITHM, "Signature algorithm " + headerScanner.algorithm + " of the client " +
+                    "assertion is not allowed.");
+        }
+    }
+
+    /**
+     * @param rejection Reason of the rejection.
+     * @return Number of client assertions rejected for the reason.
+     */
+    public long getRejectionCount(Rejection rejection) {
+
+        return rejectionCounts.get(rejection).get();
+    }
+
+    /**
+     * @return Number of client assertions rejected for any reason.
+     */
+    public long getTotalRejectionCount() {
+
+        long totalRejectionCount = 0;
+        for (AtomicLong rejectionCount : rejectionCounts.values()) {
+            totalRejectionCount += rejectionCount.get();
+        }
+        return totalRejectionCount;
+    }
+
+    private void reject(Rejection rejection, String message) throws OAuthClientAuthnException {
+
+        rejectionCounts.get(rejection).incrementAndGet();
+        if (log.isDebugEnabled()) {
+            StringBuilder rejectionCountsMessage = new StringBuilder();
+            for (Map.Entry<Rejection, AtomicLong> rejectionCount : rejectionCounts.entrySet()) {
+                rejectionCountsMessage.append(", ").append(rejectionCount.getKey().name().toLowerCase(Locale.ENGLISH))
+                        .append(": ").append(rejectionCount.getValue().get());
+            }
+            log.debug(message + " Rejected client assertions: " + getTotalRejectionCount() + rejectionCountsMessage +
+                    ".");
+        }
+        throw new OAuthClientAuthnException(message, OAuth2ErrorCodes.INVALID_REQUEST);
+    }
+
+    /**
+     * Reads the algorithm of the header.
+     */
+    private static final class HeaderScanner extends JsonScanner {
+
+        private String algorithm;
+
+        @Override
+        boolean readMember(int nameStart, int nameEnd) {
+
+            if (!equals(nameStart, nameEnd, ALGORITHM)) {
+                return skipValue(0);
+            }
+            if (algorithm != null) {
+                return false;
+            }
+            algorithm = readString();
+            return algorithm != null;
+        }
+    }
+}
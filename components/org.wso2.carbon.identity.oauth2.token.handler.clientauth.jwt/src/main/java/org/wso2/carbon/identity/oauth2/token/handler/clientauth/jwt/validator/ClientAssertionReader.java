@@ -0,0 +1,226 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.validator;
+
+import com.nimbusds.jose.util.Base64URL;
+import com.nimbusds.jwt.SignedJWT;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reads the claims needed by the validator from the payload of a client assertion, without building the JSON object
+ * of all the claims. The payload is base64url decoded into a buffer reused by the request thread, the registered
+ * claims and the presence of the mandatory claims are read, and the values of the other claims are only skipped.
+ * Payloads which are not read, such as escaped strings or fractional times in the read claims and duplicated claims,
+ * are left to the full parsing of the claims set.
+ */
+final class ClientAssertionReader {
+
+    // Decode buffers larger than this are not kept for the next request of the thread.
+    private static final int MAX_RETAINED_BUFFER_SIZE = 64 * 1024;
+    private static final int INITIAL_BUFFER_SIZE = 2048;
+    // Number of digits of a time claim which surely fits in a long once converted to milliseconds.
+    private static final int MAX_TIME_DIGITS = 15;
+
+    private static final int ISSUER = 0;
+    private static final int SUBJECT = 1;
+    private static final int AUDIENCE = 2;
+    private static final int EXPIRATION_TIME = 3;
+    private static final int NOT_BEFORE_TIME = 4;
+    private static final int ISSUE_TIME = 5;
+    private static final int JWT_ID = 6;
+    private static final byte[][] REGISTERED_CLAIMS = {
+            bytes("iss"), bytes("sub"), bytes("aud"), bytes("exp"), bytes("nbf"), bytes("iat"), bytes("jti")};
+
+    private final List<String> mandatoryClaims;
+    private final byte[][] mandatoryClaimNames;
+    private final ThreadLocal<byte[]> buffers = ThreadLocal.withInitial(() -> new byte[INITIAL_BUFFER_SIZE]);
+
+    ClientAssertionReader(List<String> mandatoryClaims) {
+
+        this.mandatoryClaims = new ArrayList<>(mandatoryClaims);
+        this.mandatoryClaimNames = new byte[this.mandatoryClaims.size()][];
+        for (int i = 0; i < mandatoryClaimNames.length; i++) {
+            mandatoryClaimNames[i] = bytes(this.mandatoryClaims.get(i));
+        }
+    }
+
+    /**
+     * Read the claims of the client assertion.
+     *
+     * @param signedJWT Client assertion, parsed from its compact serialization.
+     * @return Parsed client assertion, or null if the claims set should be parsed fully.
+     */
+    ParsedClientAssertion read(SignedJWT signedJWT) {
+
+        Base64URL[] parts = signedJWT.getParsedParts();
+        if (parts == null || parts.length != 3) {
+            return null;
+        }
+        String encodedPayload = parts[1].toString();
+        int decodedLength = JsonScanner.decodedLength(encodedPayload.length());
+        if (decodedLength < 0) {
+            return null;
+        }
+        byte[] buffer = buffers.get();
+        if (buffer.length < decodedLength) {
+            buffer = new byte[Math.max(decodedLength, buffer.length * 2)];
+            if (buffer.length <= MAX_RETAINED_BUFFER_SIZE) {
+                buffers.set(buffer);
+            }
+        }
+        PayloadReader reader = new PayloadReader();
+        if (!reader.decode(encodedPayload, 0, encodedPayload.length(), buffer)) {
+            return null;
+        }
+        return reader.read(signedJWT);
+    }
+
+    private static byte[] bytes(String value) {
+
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads a single payload. The read methods return false, null or 0 when the payload should be parsed fully.
+     */
+    private final class PayloadReader extends JsonScanner {
+
+        private final boolean[] readClaims = new boolean[REGISTERED_CLAIMS.length];
+        private final boolean[] presentMandatoryClaims = new boolean[mandatoryClaimNames.length];
+        private String issuer;
+        private String subject;
+        private List<String> audience;
+        private long expirationTime;
+        private long notBeforeTime;
+        private long issueTime;
+        private String jwtId;
+
+        private ParsedClientAssertion read(SignedJWT signedJWT) {
+
+            if (!readObject()) {
+                return null;
+            }
+            String missingMandatoryClaim = null;
+            for (int i = 0; i < presentMandatoryClaims.length; i++) {
+                if (!presentMandatoryClaims[i]) {
+                    missingMandatoryClaim = mandatoryClaims.get(i);
+                    break;
+                }
+            }
+            return new ParsedClientAssertion(signedJWT, issuer, subject, audience, expirationTime, notBeforeTime,
+                    issueTime, jwtId, missingMandatoryClaim);
+        }
+
+        @Override
+        boolean readMember(int nameStart, int nameEnd) {
+
+            boolean isNull = startsWith("null");
+            for (int i = 0; i < mandatoryClaimNames.length; i++) {
+                if (equals(nameStart, nameEnd, mandatoryClaimNames[i])) {
+                    presentMandatoryClaims[i] = !isNull;
+                }
+            }
+            for (int claim = 0; claim < REGISTERED_CLAIMS.length; claim++) {
+                if (equals(nameStart, nameEnd, REGISTERED_CLAIMS[claim])) {
+                    if (readClaims[claim]) {
+                        return false;
+                    }
+                    readClaims[claim] = true;
+                    return isNull ? skipValue(0) : readRegisteredClaim(claim);
+                }
+            }
+            return skipValue(0);
+        }
+
+        private boolean readRegisteredClaim(int claim) {
+
+            switch (claim) {
+                case ISSUER:
+                    issuer = readString();
+                    return issuer != null;
+                case SUBJECT:
+                    subject = readString();
+                    return subject != null;
+                case JWT_ID:
+                    jwtId = readString();
+                    return jwtId != null;
+                case AUDIENCE:
+                    audience = readAudience();
+                    return audience != null;
+                case EXPIRATION_TIME:
+                    expirationTime = readTime();
+                    return expirationTime > 0;
+                case NOT_BEFORE_TIME:
+                    notBeforeTime = readTime();
+                    return notBeforeTime > 0;
+                default:
+                    issueTime = readTime();
+                    return issueTime > 0;
+            }
+        }
+
+        private List<String> readAudience() {
+
+            if (position < end && buffer[position] == '"') {
+                String value = readString();
+                return value != null ? Collections.singletonList(value) : null;
+            }
+            if (!consume('[')) {
+                return null;
+            }
+            List<String> values = new ArrayList<>();
+            if (consume(']')) {
+                return values;
+            }
+            do {
+                skipWhitespace();
+                String value = readString();
+                if (value == null) {
+                    return null;
+                }
+                values.add(value);
+            } while (consume(','));
+            return consume(']') ? values : null;
+        }
+
+        /**
+         * Read a positive integral time in seconds.
+         *
+         * @return Time in milliseconds, or 0 if the time could not be read.
+         */
+        private long readTime() {
+
+            long seconds = 0;
+            int start = position;
+            while (position < end && isDigit(buffer[position])) {
+                seconds = seconds * 10 + (buffer[position++] - '0');
+            }
+            int digits = position - start;
+            if (digits == 0 || digits > MAX_TIME_DIGITS || (position < end &&
+                    isNumberPart(buffer[position]))) {
+                return 0;
+            }
+            return seconds * 1000;
+        }
+    }
+}
@@ -32,6 +32,7 @@ import org.wso2.carbon.context.PrivilegedCarbonContext;
 import org.wso2.carbon.identity.application.common.model.FederatedAuthenticatorConfig;
 import org.wso2.carbon.identity.application.common.model.IdentityProvider;
 import org.wso2.carbon.identity.application.common.model.Property;
+import org.wso2.carbon.identity.application.common.model.ServiceProvider;
 import org.wso2.carbon.identity.application.common.model.ServiceProviderProperty;
 import org.wso2.carbon.identity.application.common.util.IdentityApplicationConstants;
 import org.wso2.carbon.identity.application.common.util.IdentityApplicationManagementUtil;
@@ -42,21 +43,34 @@ import org.wso2.carbon.identity.core.util.IdentityUtil;
 import org.wso2.carbon.identity.discovery.DiscoveryUtil;
 import org.wso2.carbon.identity.oauth.common.OAuth2ErrorCodes;
 import org.wso2.carbon.identity.oauth.common.exception.InvalidOAuthClientException;
-import org.wso2.carbon.identity.oauth.config.OAuthServerConfiguration;
 import org.wso2.carbon.identity.oauth.dao.OAuthAppDO;
 import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
 import org.wso2.carbon.identity.oauth2.client.authentication.OAuthClientAuthnException;
 import org.wso2.carbon.identity.oauth2.fapi.models.FapiProfileEnum;
 import org.wso2.carbon.identity.oauth2.fapi.utils.FapiUtil;
 import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants;
-import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache.JWTCache;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache.AudienceCache;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache.AudienceCache.Audiences;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache.ClientAssertionPolicyCache;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache.ClientAssertionPolicyCache.ClientAssertionPolicy;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache.ClientKeySourceCache;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache.ClientKeySourceCache.ClientKeySource;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache.JTIReplayCache;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache.JWKSCache;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache.JWSVerifierCache;
 import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache.JWTCacheEntry;
 import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache.JWTCacheKey;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache.OffHeapJTIIndex;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache.TenantKeyStoreIndex;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache.VerifiedAssertionCache;
 import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.core.exception.JWTClientAuthenticatorServiceServerException;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.core.model.JWTClientAuthenticatorConfig;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao.JTIReplayStore;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao.JTIUpsertCoalescer;
 import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao.JWTEntry;
-import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao.JWTStorageManager;
 import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.internal.JWTServiceComponent;
 import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.internal.JWTServiceDataHolder;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.util.ServerConfigSnapshot;
 import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.util.Util;
 import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
 import org.wso2.carbon.identity.oauth2.validators.jwt.JWKSBasedJWTValidator;
@@ -65,6 +79,7 @@ import org.wso2.carbon.idp.mgt.IdentityProviderManager;
 import org.wso2.carbon.user.api.UserStoreException;
 
 import java.security.PublicKey;
+import java.security.cert.CertificateEncodingException;
 import java.security.cert.X509Certificate;
 import java.security.interfaces.ECPublicKey;
 import java.security.interfaces.RSAPublicKey;
@@ -73,9 +88,12 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static org.apache.commons.lang.StringUtils.isEmpty;
 import static org.wso2.carbon.identity.oauth.common.OAuthConstants.OAuth20Endpoints.OAUTH2_PAR_EP_URL;
@@ -87,28 +105,24 @@ import static org.wso2.carbon.identity.oauth.common.OAuthConstants.OAuth20Endpoi
 public class JWTValidator {
 
     private static final Log log = LogFactory.getLog(JWTValidator.class);
-    public static final String FULLSTOP_DELIMITER = ".";
-    public static final String DASH_DELIMITER = "-";
-    public static final String KEYSTORE_FILE_EXTENSION = ".jks";
+    public static final String FULLSTOP_DELIMITER = Constants.FULLSTOP_DELIMITER;
+    public static final String DASH_DELIMITER = Constants.DASH_DELIMITER;
+    public static final String KEYSTORE_FILE_EXTENSION = Constants.KEYSTORE_FILE_EXTENSION;
     public static final String RS = "RS";
     public static final String PS = "PS";
     public static final String ES = "ES";
     private static final String IDP_ENTITY_ID = "IdPEntityId";
     private static final String PROP_TOKEN_EP = "OAuth2TokenEPUrl";
-    private static final String PROP_ID_TOKEN_ISSUER_ID = "OAuth.OpenIDConnect.IDTokenIssuerID";
-    private static final String FAPI_SIGNATURE_ALG_CONFIGURATION = "OAuth.OpenIDConnect.FAPI." +
-            "AllowedSignatureAlgorithms.AllowedSignatureAlgorithm";
-    private static final String MTLS_ALIASES_ENABLED = "OAuth.MutualTLSAliases.Enabled";
-    private static final String MTLS_ALIASES_HOSTNAME = "OAuth.MutualTLSAliases.Hostname";
-    private boolean preventTokenReuse;
-    private String validAudience;
-    private String validIssuer;
-    private int rejectBeforeInMinutes;
-    List<String> mandatoryClaims;
-    private JWTCache jwtCache;
-    private boolean enableJTICache;
-
-    private JWTStorageManager jwtStorageManager;
+    private final boolean preventTokenReuse;
+    private final String validAudience;
+    private final String validIssuer;
+    private final int rejectBeforeInMinutes;
+    final List<String> mandatoryClaims;
+    private final JTIReplayCache jtiReplayCache;
+    private final boolean enableJTICache;
+    private final ValidationPipeline<ValidationContext> validationPipeline;
+    private final ClientAssertionReader assertionReader;
+    private final boolean claimsSetSubjectResolver;
 
     public JWTValidator(boolean preventTokenReuse, String validAudience, int rejectBefore, String validIssuer,
                         List<String> mandatoryClaims, boolean enableJTICache) {
@@ -116,11 +130,14 @@ public class JWTValidator {
         this.preventTokenReuse = preventTokenReuse;
         this.validAudience = validAudience;
         this.validIssuer = validIssuer;
-        this.jwtStorageManager = new JWTStorageManager();
         this.mandatoryClaims = mandatoryClaims;
         this.rejectBeforeInMinutes = rejectBefore;
         this.enableJTICache = enableJTICache;
-        this.jwtCache = JWTCache.getInstance();
+        this.jtiReplayCache = JWTServiceDataHolder.getInstance().getJTIReplayCache();
+        this.validationPipeline = createValidationPipeline();
+        this.assertionReader = JWTServiceDataHolder.getInstance().isLazyClaimExtraction() ?
+                new ClientAssertionReader(mandatoryClaims) : null;
+        this.claimsSetSubjectResolver = isClaimsSetSubjectResolverOverridden();
     }
 
     /**
@@ -140,112 +157,250 @@ public class JWTValidator {
             return logAndThrowException(errorMessage);
         }
         try {
-            JWTClaimsSet claimsSet = getClaimSet(signedJWT);
+            return isValidAssertion(parseClientAssertion(signedJWT), requestUrl);
+        } catch (IdentityOAuth2Exception e) {
+            return logAndThrowException(e.getMessage(), e.getErrorCode());
+        }
+    }
 
-            if (claimsSet == null) {
-                errorMessage = "Claim set is missing in the JWT assertion";
-                throw new OAuthClientAuthnException(errorMessage, OAuth2ErrorCodes.INVALID_REQUEST);
-            }
+    /**
+     * To validate the client assertion, which is already parsed.
+     *
+     * @param assertion  Parsed client assertion.
+     * @param requestUrl The request URL.
+     * @return true if the jwt is valid.
+     * @throws OAuthClientAuthnException OAuthClientAuthnException thrown with Invalid Request error code.
+     */
+    public boolean isValidAssertion(ParsedClientAssertion assertion, String requestUrl)
+            throws OAuthClientAuthnException {
 
-            String jwtIssuer = claimsSet.getIssuer();
-            String jwtSubject = resolveSubject(claimsSet);
-            List<String> audience = claimsSet.getAudience();
-            Date expirationTime = claimsSet.getExpirationTime();
-            String jti = claimsSet.getJWTID();
-            Date nbf = claimsSet.getNotBeforeTime();
-            Date issuedAtTime = claimsSet.getIssueTime();
+        if (assertion == null) {
+            return logAndThrowException("No valid JWT assertion found for " +
+                    Constants.OAUTH_JWT_BEARER_GRANT_TYPE);
+        }
+        try {
             long currentTimeInMillis = System.currentTimeMillis();
-            long timeStampSkewMillis = OAuthServerConfiguration.getInstance().getTimeStampSkewInSeconds() * 1000;
-            OAuthAppDO oAuthAppDO = getOAuthAppDO(jwtSubject);
-            String consumerKey = oAuthAppDO.getOauthConsumerKey();
-            String tenantDomain = oAuthAppDO.getUser().getTenantDomain();
-            int tenantId = JWTServiceComponent.getRealmService().getTenantManager().getTenantId(tenantDomain);
-            if (!validateMandatoryFeilds(mandatoryClaims, claimsSet)) {
-                return false;
-            }
+            ServerConfigSnapshot serverConfig = JWTServiceDataHolder.getInstance().getServerConfigSnapshot();
+            return validationPipeline.validate(new ValidationContext(assertion, requestUrl, currentTimeInMillis,
+                    serverConfig));
+        } catch (IdentityOAuth2Exception e) {
+            return logAndThrowException(e.getMessage(), e.getErrorCode());
+        }
+    }
 
-            //Validate issuer and subject.
-            if (!validateIssuer(jwtIssuer, consumerKey) || !validateSubject(jwtSubject, consumerKey)) {
-                return false;
-            }
+    private ValidationPipeline<ValidationContext> createValidationPipeline() {
+
+        Map<ValidationStage, ValidationPipeline.Validation<ValidationContext>> stageValidations =
+                new EnumMap<>(ValidationStage.class);
+        stageValidations.put(ValidationStage.HEADER, this::validateHeader);
+        stageValidations.put(ValidationStage.STRUCTURAL, this::validateStructure);
+        stageValidations.put(ValidationStage.TEMPORAL, this::validateTime);
+        stageValidations.put(ValidationStage.CLIENT, this::validateClient);
+        stageValidations.put(ValidationStage.AUDIENCE, this::validateAudience);
+        stageValidations.put(ValidationStage.SIGNATURE, this::validateSignature);
+        stageValidations.put(ValidationStage.REPLAY, this::validateReplay);
+        ValidationPipeline<ValidationContext> pipeline = new ValidationPipeline<>(stageValidations,
+                JWTServiceDataHolder.getInstance().getValidationStageOrder());
+        if (log.isDebugEnabled()) {
+            log.debug("Client assertion validation stage order: " + pipeline.getOrder());
+        }
+        return pipeline;
+    }
 
-            List<String> acceptedAudienceList;
-            try {
-                if (FapiUtil.isFapiConformantApp(consumerKey, FapiProfileEnum.FAPI2_SECURITY)) {
-                    acceptedAudienceList = Collections.singletonList(this.getIdTokenIssuer(tenantDomain));
-                } else {
-                /* A list of valid audiences (issuer identifier, token endpoint URL or pushed authorization request
-                endpoint URL) should be supported for PAR and not just a single valid audience.
-                https://datatracker.ietf.org/doc/html/rfc9126 */
-                    acceptedAudienceList = getValidAudiences(tenantDomain, requestUrl);
-                }
-            } catch (InvalidOAuthClientException e) {
-                throw new OAuthClientAuthnException("Error occurred while retrieving client information.",
-                        OAuth2ErrorCodes.INVALID_CLIENT);
-            }
+    /**
+     * Route the assertion on its JOSE header alone, before its claims are validated or its client is resolved.
+     */
+    private boolean validateHeader(ValidationContext context) throws OAuthClientAuthnException {
 
-            long expTime = 0;
-            long issuedTime = 0;
-            if (expirationTime != null) {
-                expTime = expirationTime.getTime();
-            }
-            if (issuedAtTime != null) {
-                issuedTime = issuedAtTime.getTime();
-            }
+        ParsedClientAssertion assertion = context.assertion;
+        if (assertion.getAlgorithmFamily() == null) {
+            throw new OAuthClientAuthnException("Signature Algorithm not supported : " + assertion.getAlgorithm(),
+                    OAuth2ErrorCodes.INVALID_REQUEST);
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Signature Algorithm found in the JWT Header: " + assertion.getAlgorithm() + ", key id: " +
+                    assertion.getKeyId() + ", x5t#S256: " + assertion.getX509CertSHA256Thumbprint());
+        }
+        return true;
+    }
+
+    private boolean validateStructure(ValidationContext context) throws OAuthClientAuthnException {
+
+        return validateMandatoryFeilds(mandatoryClaims, context.assertion);
+    }
+
+    private boolean validateTime(ValidationContext context) throws OAuthClientAuthnException {
 
-            //   Obtain the signing algorithm used to sign the JWT in the request.
-            String requestSigningAlgorithm = signedJWT.getHeader().getAlgorithm().getName();
-            if (!isValidSignatureAlgorithm(requestSigningAlgorithm, consumerKey)) {
-                throw new OAuthClientAuthnException("Signature algorithm used in the request is invalid.",
-                        OAuth2ErrorCodes.INVALID_CLIENT);
+        ParsedClientAssertion assertion = context.assertion;
+        return validateJWTWithExpTime(assertion.getExpirationTime(), context.currentTimeInMillis,
+                context.timeStampSkewMillis)
+                && validateNotBeforeClaim(context.currentTimeInMillis, context.timeStampSkewMillis,
+                assertion.getNotBeforeTime())
+                && validateAgeOfTheToken(assertion.getIssueTime(), context.currentTimeInMillis,
+                context.timeStampSkewMillis);
+    }
+
+    private boolean validateClient(ValidationContext context) throws IdentityOAuth2Exception {
+
+        ResolvedClient client = resolveClient(context);
+        String consumerKey = client.consumerKey;
+        //Validate issuer and subject.
+        if (!validateIssuer(context.assertion.getIssuer(), consumerKey) ||
+                !validateSubject(client.jwtSubject, consumerKey)) {
+            return false;
+        }
+
+        //   Obtain the signing algorithm used to sign the JWT in the request.
+        String requestSigningAlgorithm = context.assertion.getAlgorithm();
+        if (!isValidSignatureAlgorithm(requestSigningAlgorithm, client.policy)) {
+            throw new OAuthClientAuthnException("Signature algorithm used in the request is invalid.",
+                    OAuth2ErrorCodes.INVALID_CLIENT);
+        }
+
+        /* Check whether the request signing algorithm is an allowed algorithm as per the FAPI specification.
+           https://openid.net/specs/openid-financial-api-part-2-1_0.html#algorithm-considerations */
+        if (client.policy.isFapiConformant()) {
+            //   Mandating FAPI specified JWT signing algorithms.
+            if (!context.serverConfig.getFapiAllowedSigningAlgorithms().contains(requestSigningAlgorithm)) {
+                throw new OAuthClientAuthnException("FAPI unsupported signing algorithm " +
+                        requestSigningAlgorithm + " is used to sign the JWT.", OAuth2ErrorCodes.INVALID_CLIENT);
             }
+        }
+        return true;
+    }
 
-            /* Check whether the request signing algorithm is an allowed algorithm as per the FAPI specification.
-               https://openid.net/specs/openid-financial-api-part-2-1_0.html#algorithm-considerations */
-            try {
-                if (FapiUtil.isFapiConformantApp(consumerKey)) {
-                    //   Mandating FAPI specified JWT signing algorithms.
-                    List<String> fapiAllowedSigningAlgorithms = IdentityUtil
-                            .getPropertyAsList(FAPI_SIGNATURE_ALG_CONFIGURATION);
-                    if (!fapiAllowedSigningAlgorithms.contains(requestSigningAlgorithm)) {
-                        throw new OAuthClientAuthnException("FAPI unsupported signing algorithm " +
-                                requestSigningAlgorithm + " is used to sign the JWT.", OAuth2ErrorCodes.INVALID_CLIENT);
-                    }
-                }
-            } catch (InvalidOAuthClientException e) {
-                throw new OAuthClientAuthnException("Could not find an existing app for clientId: " + consumerKey,
-                        OAuth2ErrorCodes.INVALID_CLIENT);
+    private boolean validateAudience(ValidationContext context) throws IdentityOAuth2Exception {
+
+        ResolvedClient client = resolveClient(context);
+        Set<String> acceptedAudienceList;
+        try {
+            if (client.policy.isFapi2Security()) {
+                acceptedAudienceList = Collections.singleton(this.getIdTokenIssuer(client.tenantDomain));
+            } else {
+            /* A list of valid audiences (issuer identifier, token endpoint URL or pushed authorization request
+            endpoint URL) should be supported for PAR and not just a single valid audience.
+            https://datatracker.ietf.org/doc/html/rfc9126 */
+                acceptedAudienceList = getValidAudiences(client.tenantDomain, context.requestUrl);
             }
+        } catch (InvalidOAuthClientException e) {
+            throw new OAuthClientAuthnException("Error occurred while retrieving client information.",
+                    OAuth2ErrorCodes.INVALID_CLIENT);
+        }
+        List<String> audience = context.assertion.getAudience();
+        return validateAudienceFormat(audience, client.policy) &&
+                validateAudience(acceptedAudienceList, audience);
+    }
+
+    private boolean validateSignature(ValidationContext context) throws IdentityOAuth2Exception {
+
+        ResolvedClient client = resolveClient(context);
+        return isValidSignature(client.consumerKey, context.assertion.getSignedJWT(), client.tenantDomain,
+                client.jwtSubject, client.tenantId, context.assertion.getExpirationTime(), context.currentTimeInMillis,
+                context.timeStampSkewMillis, client.preventTokenReuse);
+    }
+
+    private boolean validateReplay(ValidationContext context) throws IdentityOAuth2Exception {
+
+        ResolvedClient client = resolveClient(context);
+        ParsedClientAssertion assertion = context.assertion;
+        return validateJTI(assertion.getJWTID(), context.currentTimeInMillis, context.timeStampSkewMillis,
+                assertion.getExpirationTime(), assertion.getIssueTime(), client.tenantId, client.preventTokenReuse);
+    }
+
+    /**
+     * Resolve the application of the client, on the first stage which needs it.
+     */
+    private ResolvedClient resolveClient(ValidationContext context) throws IdentityOAuth2Exception {
 
-            if (oAuthAppDO.isTokenEndpointAllowReusePvtKeyJwt() != null) {
+        if (context.client != null) {
+            return context.client;
+        }
+        try {
+            String jwtSubject = resolveSubject(context.assertion);
+            ClientAssertionPolicy policy = getClientAssertionPolicy(jwtSubject);
+
+            boolean preventTokenReuse;
+            if (policy.isTokenReuseAllowed() != null) {
                 // Private ket JWT is selected as the token endpoint authentication method.
-                preventTokenReuse = !oAuthAppDO.isTokenEndpointAllowReusePvtKeyJwt();
+                preventTokenReuse = !policy.isTokenReuseAllowed();
             } else {
                 // No client authentication method is selected. -> All methods are allowed.
-                preventTokenReuse = !JWTServiceDataHolder.getInstance()
+                JWTClientAuthenticatorConfig tenantConfig = JWTServiceDataHolder.getInstance()
                         .getPrivateKeyJWTAuthenticationConfigurationDAO()
-                        .getPrivateKeyJWTClientAuthenticationConfigurationByTenantDomain(tenantDomain)
-                        .isEnableTokenReuse();
+                        .getPrivateKeyJWTClientAuthenticationConfigurationByTenantDomain(policy.getTenantDomain());
+                preventTokenReuse = tenantConfig != null ? !tenantConfig.isEnableTokenReuse() :
+                        this.preventTokenReuse;
             }
-
-            //Validate signature validation, audience, nbf,exp time, jti.
-            if (!validateAudienceFormat(audience, consumerKey) || !validateAudience(acceptedAudienceList, audience)
-                    || !validateJWTWithExpTime(expirationTime, currentTimeInMillis, timeStampSkewMillis)
-                    || !validateNotBeforeClaim(currentTimeInMillis, timeStampSkewMillis, nbf)
-                    || !validateAgeOfTheToken(issuedAtTime, currentTimeInMillis, timeStampSkewMillis)
-                    || !isValidSignature(consumerKey, signedJWT, tenantDomain, jwtSubject, tenantId)
-                    || !validateJTI(signedJWT, jti, currentTimeInMillis, timeStampSkewMillis, expTime,
-                    issuedTime, tenantId)) {
-                return false;
+            context.client = new ResolvedClient(jwtSubject, policy, preventTokenReuse);
+            return context.client;
+        } catch (UserStoreException | JWTClientAuthenticatorServiceServerException e) {
+            if (log.isDebugEnabled()) {
+                log.debug(e.getMessage());
             }
+            throw new OAuthClientAuthnException(e.getMessage(), OAuth2ErrorCodes.INVALID_REQUEST, e);
+        }
+    }
 
-            return true;
+    private ClientAssertionPolicy getClientAssertionPolicy(String jwtSubject) throws IdentityOAuth2Exception,
+            UserStoreException {
+
+        ClientAssertionPolicyCache policyCache = JWTServiceDataHolder.getInstance().getClientAssertionPolicyCache();
+        ClientAssertionPolicy policy = null;
+        String requestTenantDomain = null;
+        String accessingOrgId = null;
+        if (policyCache != null) {
+            // The same client id can be registered in more than one tenant, hence the application is cached per
+            // tenant domain of the request.
+            requestTenantDomain = IdentityTenantUtil.resolveTenantDomain();
+            accessingOrgId = StringUtils.defaultIfEmpty(PrivilegedCarbonContext.getThreadLocalCarbonContext()
+                    .getAccessingOrganizationId(), null);
+            policy = policyCache.get(jwtSubject, requestTenantDomain, accessingOrgId);
+        }
+        if (policy == null) {
+            policy = compileClientAssertionPolicy(jwtSubject);
+            if (policyCache != null) {
+                policyCache.put(jwtSubject, requestTenantDomain, accessingOrgId, policy);
+            }
+        }
+        return policy;
+    }
 
-        } catch (IdentityOAuth2Exception e) {
-            return logAndThrowException(e.getMessage(), e.getErrorCode());
-        } catch (UserStoreException | JWTClientAuthenticatorServiceServerException e) {
-            return logAndThrowException(e.getMessage());
+    /**
+     * Derive the facts of the application which the client assertions of the client are validated against.
+     */
+    private ClientAssertionPolicy compileClientAssertionPolicy(String jwtSubject) throws IdentityOAuth2Exception,
+            UserStoreException {
+
+        OAuthAppDO oAuthAppDO = getOAuthAppDO(jwtSubject);
+        String consumerKey = oAuthAppDO.getOauthConsumerKey();
+        String tenantDomain = oAuthAppDO.getUser().getTenantDomain();
+        int tenantId = JWTServiceComponent.getRealmService().getTenantManager().getTenantId(tenantDomain);
+
+        /* The algorithm configured for the application can be stored either as a JWS algorithm name (e.g. PS256) or
+           as a Java signature algorithm name (e.g. SHA256withRSA), hence both are allowed. */
+        Set<String> allowedAlgorithms = new HashSet<>();
+        for (String configuredSigningAlgorithm : getConfiguredSigningAlgorithm(consumerKey)) {
+            allowedAlgorithms.add(configuredSigningAlgorithm);
+            String jwsAlgorithmName = mapToJWSAlgorithmName(configuredSigningAlgorithm);
+            if (jwsAlgorithmName != null) {
+                allowedAlgorithms.add(jwsAlgorithmName);
+            }
         }
+        boolean fapiConformant;
+        boolean fapi2Security;
+        try {
+            fapiConformant = FapiUtil.isFapiConformantApp(consumerKey);
+            fapi2Security = FapiUtil.isFapiConformantApp(consumerKey, FapiProfileEnum.FAPI2_SECURITY);
+        } catch (InvalidOAuthClientException e) {
+            throw new OAuthClientAuthnException("Could not find an existing app for clientId: " + consumerKey,
+                    OAuth2ErrorCodes.INVALID_CLIENT);
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Compiled the client assertion policy of the client: " + consumerKey + " in tenant: " +
+                    tenantDomain);
+        }
+        return new ClientAssertionPolicy(consumerKey, tenantDomain, tenantId, allowedAlgorithms, fapiConformant,
+                fapi2Security, oAuthAppDO.isTokenEndpointAllowReusePvtKeyJwt());
     }
 
     /**
@@ -260,14 +415,13 @@ public class JWTValidator {
         return isValidAssertion(signedJWT, null);
     }
 
-    private boolean validateMandatoryFeilds(List<String> mandatoryClaims, JWTClaimsSet claimsSet)
+    private boolean validateMandatoryFeilds(List<String> mandatoryClaims, ParsedClientAssertion assertion)
             throws OAuthClientAuthnException {
 
-        for (String mandatoryClaim : mandatoryClaims) {
-            if (claimsSet.getClaim(mandatoryClaim) == null) {
-                String errorMessage = "Mandatory field :" + mandatoryClaim + " is missing in the JWT assertion.";
-                return logAndThrowException(errorMessage);
-            }
+        String missingClaim = assertion.findMissingClaim(mandatoryClaims);
+        if (missingClaim != null) {
+            String errorMessage = "Mandatory field :" + missingClaim + " is missing in the JWT assertion.";
+            return logAndThrowException(errorMessage);
         }
         return true;
     }
@@ -275,11 +429,11 @@ public class JWTValidator {
     // "REQUIRED. sub. This MUST contain the client_id of the OAuth Client."
     public boolean validateSubject(String jwtSubject, String consumerKey) throws OAuthClientAuthnException {
 
-        String errorMessage = String.format("Invalid Subject '%s' is found in the JWT. It should be equal to the '%s'",
-                jwtSubject, consumerKey);
+        // The messages are built only on failure, as nearly every assertion passes this check.
         if (!jwtSubject.trim().equals(consumerKey)) {
             if (log.isDebugEnabled()) {
-                log.debug(errorMessage);
+                log.debug("Invalid Subject '" + jwtSubject + "' is found in the JWT. It should be equal to the '" +
+                        consumerKey + "'");
             }
             throw new OAuthClientAuthnException("Invalid Subject: " + jwtSubject + " is found in the JWT",
                     OAuth2ErrorCodes.INVALID_REQUEST);
@@ -291,30 +445,21 @@ public class JWTValidator {
     // in the jwtValidator.
     private boolean validateIssuer(String issuer, String consumerKey) throws OAuthClientAuthnException {
 
-        String errorMessage = String.format("Invalid issuer '%s' is found in the JWT. It should be equal to the '%s'"
-                , issuer, consumerKey);
-        String error = String.format("Invalid issuer '%s' is found in the JWT. ", issuer);
         //check whether the issuer is client_id
-        if (isEmpty(validIssuer)) {
-            if (!issuer.trim().equals(consumerKey)) {
-                if (log.isDebugEnabled()) {
-                    log.debug(errorMessage);
-                }
-                throw new OAuthClientAuthnException(error, OAuth2ErrorCodes.INVALID_REQUEST);
-            }
+        if (isEmpty(validIssuer) ? issuer.trim().equals(consumerKey) : validIssuer.equals(issuer)) {
             return true;
-        } else if (!validIssuer.equals(issuer)) {
-            if (log.isDebugEnabled()) {
-                log.debug(errorMessage);
-            }
-            throw new OAuthClientAuthnException(error, OAuth2ErrorCodes.INVALID_REQUEST);
         }
-        return true;
+        if (log.isDebugEnabled()) {
+            log.debug("Invalid issuer '" + issuer + "' is found in the JWT. It should be equal to the '" +
+                    consumerKey + "'");
+        }
+        throw new OAuthClientAuthnException("Invalid issuer '" + issuer + "' is found in the JWT. ",
+                OAuth2ErrorCodes.INVALID_REQUEST);
     }
 
     // The valid audience value should either be the issuer identifier or the token endpoint URL
     // or the pushed authorization request endpoint URL
-    private boolean validateAudience(List<String> expectedAudiences, List<String> audience)
+    private boolean validateAudience(Set<String> expectedAudiences, List<String> audience)
             throws OAuthClientAuthnException {
 
         for (String aud : audience) {
@@ -333,26 +478,20 @@ public class JWTValidator {
      * Validate 'aud' claim format. Multiple audiences are not allowed in FAPI 2.0 compliant applications.
      *
      * @param audience - List of audience values in the 'aud' claim of the JWT.
-     * @param consumerKey - OAuth client id of the application.
+     * @param policy - Client assertion policy of the application.
      * @return true if the audience format is valid.
      *
      * @throws OAuthClientAuthnException Throw OAuthClientAuthnException if the audience format is invalid.
      */
-    private boolean validateAudienceFormat(List<String> audience, String consumerKey) throws OAuthClientAuthnException {
+    private boolean validateAudienceFormat(List<String> audience, ClientAssertionPolicy policy)
+            throws OAuthClientAuthnException {
 
-        try {
-            if (FapiUtil.isFapiConformantApp(consumerKey, FapiProfileEnum.FAPI2_SECURITY)) {
-                if (audience.size() > 1) {
-                    if (log.isDebugEnabled()) {
-                        log.debug("Invalid FAPI 2.0 client assertion: multiple audiences. clientID: " + consumerKey);
-                    }
-                    throw new OAuthClientAuthnException("Client assertion contains multiple audience values.",
-                            OAuth2ErrorCodes.INVALID_REQUEST);
-                }
+        if (policy.isFapi2Security() && audience.size() > 1) {
+            if (log.isDebugEnabled()) {
+                log.debug("Invalid FAPI 2.0 client assertion: multiple audiences. clientID: " + policy.getClientId());
             }
-        } catch (InvalidOAuthClientException | IdentityOAuth2Exception e) {
-            throw new OAuthClientAuthnException("Error occurred while retrieving client information.",
-                    OAuth2ErrorCodes.INVALID_CLIENT);
+            throw new OAuthClientAuthnException("Client assertion contains multiple audience values.",
+                    OAuth2ErrorCodes.INVALID_REQUEST);
         }
         return true;
     }
@@ -360,90 +499,75 @@ public class JWTValidator {
     // "REQUIRED. JWT ID. A unique identifier for the token, which can be used to prevent reuse of the token.
     // These tokens MUST only be used once, unless conditions for reuse were negotiated between the parties;
     // any such negotiation is beyond the scope of this specification."
-    private boolean validateJTI(SignedJWT signedJWT, String jti, long currentTimeInMillis,
-                                long timeStampSkewMillis, long expTime, long issuedTime, int tenantId)
+    private boolean validateJTI(String jti, long currentTimeInMillis, long timeStampSkewMillis, long expTime,
+                                long issuedTime, int tenantId, boolean preventTokenReuse)
             throws OAuthClientAuthnException {
 
-        if (enableJTICache) {
-            JWTCacheKey jwtCacheKey;
-            if (Util.isTenantIdColumnAvailableInIdnOidcAuth()) {
-                jwtCacheKey = new JWTCacheKey(jti, tenantId);
-            } else {
-                jwtCacheKey = new JWTCacheKey(jti);
-            }
-            JWTCacheEntry entry = jwtCache.getValueFromCache(jwtCacheKey);
-            if (!validateJTIInCache(jti, signedJWT, entry, currentTimeInMillis, timeStampSkewMillis, this.jwtCache,
-                    tenantId)) {
-                return false;
-            }
-        }
-        // Check JWT ID in DB
-        if (!validateJWTInDataBase(jti, currentTimeInMillis, timeStampSkewMillis, tenantId)) {
+        if (enableJTICache && !validateJTIInCache(jti, expTime, currentTimeInMillis, timeStampSkewMillis,
+                tenantId, preventTokenReuse)) {
             return false;
         }
-        persistJWTID(jti, expTime, issuedTime, tenantId);
-        return true;
+        return validateJTIInReplayStore(jti, currentTimeInMillis, timeStampSkewMillis, expTime, issuedTime,
+                tenantId, preventTokenReuse);
     }
 
-    private boolean validateJWTInDataBase(String jti, long currentTimeInMillis,
-                                          long timeStampSkewMillis, int tenantId) throws OAuthClientAuthnException {
+    private boolean validateJTIInReplayStore(String jti, long currentTimeInMillis, long timeStampSkewMillis,
+                                             long expTime, long issuedTime, int tenantId, boolean preventTokenReuse)
+            throws OAuthClientAuthnException {
 
-        JWTEntry jwtEntry = getJTIfromDB(jti, tenantId);
-        if (jwtEntry == null) {
+        JTIReplayStore jtiReplayStore = JWTServiceDataHolder.getInstance().getJTIReplayStore();
+        if (preventTokenReuse) {
+            OffHeapJTIIndex offHeapJTIIndex = JWTServiceDataHolder.getInstance().getOffHeapJTIIndex();
+            OffHeapJTIIndex.Result indexResult = null;
+            if (offHeapJTIIndex != null) {
+                // Replays within this node are rejected without reaching the replay store.
+                indexResult = offHeapJTIIndex.putIfAbsent(jti, tenantId, expTime + timeStampSkewMillis,
+                        currentTimeInMillis);
+                if (indexResult == OffHeapJTIIndex.Result.REPLAYED) {
+                    return logAndThrowException("JWT Token with JTI: " + jti + " has been replayed.");
+                }
+            }
+            boolean persisted;
+            try {
+                persisted = jtiReplayStore.putIfAbsent(jti, tenantId, expTime, issuedTime);
+            } catch (OAuthClientAuthnException e) {
+                if (indexResult == OffHeapJTIIndex.Result.INSERTED) {
+                    // Let the client retry the assertion, as it was not recorded.
+                    offHeapJTIIndex.remove(jti, tenantId, currentTimeInMillis);
+                }
+                throw e;
+            }
+            if (!persisted) {
+                String message = "JWT Token with JTI: " + jti + " has been replayed.";
+                return logAndThrowException(message);
+            }
             if (log.isDebugEnabled()) {
                 log.debug("JWT id: " + jti + " not found in the Storage the JWT has been validated successfully.");
             }
             return true;
-        } else if (preventTokenReuse) {
-            String message = "JWT Token with JTI: " + jti + " has been replayed.";
-            return logAndThrowException(message);
         }
-        // Token reuse is allowed. Here we are logging whether the token is reused within the allowed expiry time.
-        if (currentTimeInMillis + timeStampSkewMillis < jwtEntry.getExp()) {
-            if (log.isDebugEnabled()) {
+        // Token reuse is allowed. The stored JTI is only looked up to log whether the token is reused within the
+        // allowed expiry time, hence the lookup is skipped unless debug logs are enabled.
+        if (log.isDebugEnabled()) {
+            JWTEntry jwtEntry = jtiReplayStore.get(jti, tenantId);
+            if (jwtEntry != null && currentTimeInMillis + timeStampSkewMillis < jwtEntry.getExp()) {
                 log.debug("JWT Token with jti: " + jti + "has been reused with in the allowed expiry time: " +
                         jwtEntry.getExp());
             }
         }
-        return true;
-    }
-
-    /**
-     * This method is to get JTI from the DB.
-     * For the migration purposes (preserve existing behaviour),
-     * We are searching for the current tenant and default tenant.
-     *
-     * @param jti      JTI.
-     * @param tenantId Tenant id.
-     * @return JWT entry if exists.
-     * @throws OAuthClientAuthnException OAuthClientAuthnException.
-     */
-    private JWTEntry getJTIfromDB(String jti, final int tenantId) throws OAuthClientAuthnException {
-
-        List<JWTEntry> jwtEntries = jwtStorageManager.getJwtsFromDB(jti, tenantId);
-
-        if (jwtEntries.isEmpty()) {
-            return null;
-        }
-        // If there is only one entry return it.
-        if (jwtEntries.size() == 1) {
-            return jwtEntries.get(0);
+        JTIUpsertCoalescer jtiUpsertCoalescer = JWTServiceDataHolder.getInstance().getJTIUpsertCoalescer();
+        if (jtiUpsertCoalescer == null) {
+            jtiReplayStore.put(jti, tenantId, expTime, issuedTime);
+        } else if (!jtiUpsertCoalescer.isCoalesced(jti, tenantId, expTime, currentTimeInMillis)) {
+            jtiReplayStore.put(jti, tenantId, expTime, issuedTime);
+            jtiUpsertCoalescer.recordWrite(jti, tenantId, expTime, currentTimeInMillis);
         }
-        return jwtEntries.stream().filter(e -> e.getTenantId() == tenantId).findFirst().orElse(null);
-    }
-
-    private void persistJWTID(final String jti, long expiryTime, long issuedTime, int tenantId)
-            throws OAuthClientAuthnException {
-
-        jwtStorageManager.persistJWTIdInDB(jti, tenantId, expiryTime, issuedTime, this.preventTokenReuse);
+        return true;
     }
 
     private OAuthAppDO getOAuthAppDO(String jwtSubject) throws OAuthClientAuthnException {
 
         OAuthAppDO oAuthAppDO = null;
-        String message = String.format("Error while retrieving OAuth application with provided JWT information with " +
-                "subject '%s' ", jwtSubject);
-
         String accessingOrgId = PrivilegedCarbonContext.getThreadLocalCarbonContext()
                 .getAccessingOrganizationId();
         try {
@@ -457,14 +581,20 @@ public class JWTValidator {
                 oAuthAppDO = OAuth2Util.getAppInformationByClientId(jwtSubject);
             }
             if (oAuthAppDO == null) {
-                logAndThrowException(message);
+                logAndThrowException(getAppRetrievalErrorMessage(jwtSubject));
             }
         } catch (InvalidOAuthClientException | IdentityOAuth2Exception e) {
-            logAndThrowException(message);
+            logAndThrowException(getAppRetrievalErrorMessage(jwtSubject));
         }
         return oAuthAppDO;
     }
 
+    private static String getAppRetrievalErrorMessage(String jwtSubject) {
+
+        return "Error while retrieving OAuth application with provided JWT information with subject '" + jwtSubject +
+                "' ";
+    }
+
     private boolean logAndThrowException(String detailedMessage) throws OAuthClientAuthnException {
 
         return logAndThrowException(detailedMessage, OAuth2ErrorCodes.INVALID_REQUEST);
@@ -478,12 +608,11 @@ public class JWTValidator {
         throw new OAuthClientAuthnException(detailedMessage, errorCode);
     }
 
-    private boolean validateJWTWithExpTime(Date expTime, long currentTimeInMillis, long timeStampSkewMillis)
+    private boolean validateJWTWithExpTime(long expirationTime, long currentTimeInMillis, long timeStampSkewMillis)
             throws OAuthClientAuthnException {
 
-        long expirationTime = expTime.getTime();
         if (currentTimeInMillis + timeStampSkewMillis > expirationTime) {
-            String errorMessage = "JWT Token is expired. Expired Time: " + expTime;
+            String errorMessage = "JWT Token is expired. Expired Time: " + new Date(expirationTime);
             if (log.isDebugEnabled()) {
                 log.debug(errorMessage);
             }
@@ -496,12 +625,12 @@ public class JWTValidator {
     // "The JWT MAY contain an "nbf" (not before) claim that identifies
     // the time before which the token MUST NOT be accepted for
     // processing."
-    private boolean validateNotBeforeClaim(long currentTimeInMillis, long timeStampSkewMillis, Date nbf)
+    private boolean validateNotBeforeClaim(long currentTimeInMillis, long timeStampSkewMillis, long nbf)
             throws OAuthClientAuthnException {
 
-        if (nbf != null) {
+        if (nbf != 0) {
 
-            if (currentTimeInMillis + timeStampSkewMillis - nbf.getTime() <= 0) {
+            if (currentTimeInMillis + timeStampSkewMillis - nbf <= 0) {
                 String message = "The token is used before the nbf claim value.";
                 if (log.isDebugEnabled()) {
                     log.debug(message);
@@ -512,66 +641,181 @@ public class JWTValidator {
         return true;
     }
 
+    private boolean isValidSignature(String clientId, SignedJWT signedJWT, String tenantDomain, String alias,
+                                     int tenantId, long expTime, long currentTimeInMillis, long timeStampSkewMillis,
+                                     boolean preventTokenReuse) throws OAuthClientAuthnException {
+
+        VerifiedAssertionCache verifiedAssertionCache =
+                JWTServiceDataHolder.getInstance().getVerifiedAssertionCache();
+        if (preventTokenReuse || verifiedAssertionCache == null) {
+            return isValidSignature(clientId, signedJWT, tenantDomain, alias, tenantId);
+        }
+        // The signature of a reused assertion is verified once, until the assertion expires.
+        return verifiedAssertionCache.verify(signedJWT, clientId, tenantId, expTime + timeStampSkewMillis,
+                currentTimeInMillis, () -> isValidSignature(clientId, signedJWT, tenantDomain, alias, tenantId));
+    }
+
     private boolean isValidSignature(String clientId, SignedJWT signedJWT, String tenantDomain,
                                      String alias, int tenantId) throws OAuthClientAuthnException {
 
-        X509Certificate cert = null;
-        String jwksUri = "";
-        boolean isValidSignature = false;
+        ClientKeySource keySource;
         try {
-            cert = (X509Certificate) OAuth2Util.getX509CertOfOAuthApp(clientId, tenantDomain);
+            keySource = getClientKeySource(clientId, tenantDomain, alias, tenantId);
         } catch (IdentityOAuth2Exception e) {
-            if (log.isDebugEnabled()) {
-                String message = "Unable to retrieve the certificate for the service provider";
-                log.debug(message, e);
-            }
+            String errorMessage = "Error occurred while resolving the signing key of the client: " + clientId;
+            log.error(errorMessage, e);
+            return false;
         }
-        // If cert is null check whether a jwks endpoint is configured for the service provider.
-        if (cert == null) {
-            try {
-                ServiceProviderProperty[] spProperties = OAuth2Util.getServiceProvider(clientId).getSpProperties();
-                for (ServiceProviderProperty spProperty : spProperties) {
-                    if (Constants.JWKS_URI.equals(spProperty.getName())) {
-                        jwksUri = spProperty.getValue();
-                        break;
-                    }
-                }
+        switch (keySource.getType()) {
+            case JWKS_URI:
                 // Validate the signature of the assertion using the jwks end point.
-                if (StringUtils.isNotBlank(jwksUri)) {
-                    if (log.isDebugEnabled()) {
-                        String message = "Found jwks end point for service provider " + jwksUri;
-                        log.debug(message);
+                if (log.isDebugEnabled()) {
+                    String message = "Found jwks end point for service provider " + keySource.getJWKSURI();
+                    log.debug(message);
+                }
+                try {
+                    JWKSCache jwksCache = JWTServiceDataHolder.getInstance().getJWKSCache();
+                    if (jwksCache != null) {
+                        return validateSignature(signedJWT, jwksCache, keySource.getJWKSURI());
                     }
                     String jwtString = signedJWT.getParsedString();
                     String alg = signedJWT.getHeader().getAlgorithm().getName();
                     Map<String, Object> options = new HashMap<String, Object>();
-                    isValidSignature = new JWKSBasedJWTValidator().validateSignature(jwtString, jwksUri, alg, options);
+                    return new JWKSBasedJWTValidator().validateSignature(jwtString, keySource.getJWKSURI(), alg,
+                            options);
+                } catch (IdentityOAuth2Exception e) {
+                    String errorMessage = "Error occurred while validating signature using jwks ";
+                    log.error(errorMessage, e);
+                    return false;
+                } catch (JOSEException e) {
+                    String message = "Error while validating the signature";
+                    throw new OAuthClientAuthnException(message, OAuth2ErrorCodes.INVALID_REQUEST, e);
                 }
-            } catch (IdentityOAuth2Exception e) {
-                String errorMessage = "Error occurred while validating signature using jwks ";
-                log.error(errorMessage, e);
-                return false;
+            case CERTIFICATE:
+            case KEYSTORE:
+                try {
+                    return validateSignature(signedJWT, keySource, clientId, tenantId);
+                } catch (JOSEException e) {
+                    String message = "Error while validating the signature";
+                    throw new OAuthClientAuthnException(message, OAuth2ErrorCodes.INVALID_REQUEST, e);
+                }
+            default:
+                String errorMsg = "Error instantiating an X509Certificate object for the certificate alias: " +
+                        alias + " in tenant:" + tenantDomain;
+                if (log.isDebugEnabled()) {
+                    log.debug(errorMsg);
+                }
+                throw new OAuthClientAuthnException(errorMsg, OAuth2ErrorCodes.INVALID_REQUEST);
+        }
+    }
+
+    private ClientKeySource getClientKeySource(String clientId, String tenantDomain, String alias, int tenantId)
+            throws IdentityOAuth2Exception, OAuthClientAuthnException {
+
+        ClientKeySourceCache clientKeySourceCache = JWTServiceDataHolder.getInstance().getClientKeySourceCache();
+        ClientKeySource keySource = null;
+        if (clientKeySourceCache != null) {
+            keySource = clientKeySourceCache.get(clientId, tenantId);
+        }
+        if (keySource == null) {
+            keySource = resolveClientKeySource(clientId, tenantDomain, alias, tenantId);
+            if (clientKeySourceCache != null) {
+                clientKeySourceCache.put(clientId, tenantId, keySource);
+            }
+        }
+        return keySource;
+    }
+
+    /**
+     * Resolve the key source of the client. A failed lookup is propagated rather than falling through to the next
+     * key source, so that the key source resolved in a failure is never cached.
+     */
+    private static ClientKeySource resolveClientKeySource(String clientId, String tenantDomain, String alias,
+                                                          int tenantId)
+            throws IdentityOAuth2Exception, OAuthClientAuthnException {
+
+        ServiceProvider serviceProvider = null;
+        try {
+            X509Certificate cert = (X509Certificate) OAuth2Util.getX509CertOfOAuthApp(clientId, tenantDomain);
+            if (cert != null) {
+                return ClientKeySource.fromCertificate(cert);
+            }
+        } catch (IdentityOAuth2Exception e) {
+            // The lookup fails for the service providers without a certificate as well, which fall through to the
+            // next key source.
+            serviceProvider = OAuth2Util.getServiceProvider(clientId);
+            if (StringUtils.isNotBlank(serviceProvider.getCertificateContent())) {
+                throw e;
+            }
+            if (log.isDebugEnabled()) {
+                String message = "Unable to retrieve the certificate for the service provider";
+                log.debug(message, e);
+            }
+        }
+        // If cert is null check whether a jwks endpoint is configured for the service provider.
+        if (serviceProvider == null) {
+            serviceProvider = OAuth2Util.getServiceProvider(clientId);
+        }
+        ServiceProviderProperty[] spProperties = serviceProvider.getSpProperties();
+        for (ServiceProviderProperty spProperty : spProperties) {
+            if (Constants.JWKS_URI.equals(spProperty.getName())) {
+                if (StringUtils.isNotBlank(spProperty.getValue())) {
+                    return ClientKeySource.fromJWKSURI(spProperty.getValue());
+                }
+                break;
             }
         }
         // If certificate is not configured in service provider, it will throw an error.
         // For the existing clients need to handle that error and get from truststore.
-        if (StringUtils.isBlank(jwksUri) && cert == null) {
-            cert = getCertificate(tenantDomain, alias);
+        try {
+            TenantKeyStoreIndex tenantKeyStoreIndex = JWTServiceDataHolder.getInstance().getTenantKeyStoreIndex();
+            X509Certificate cert = tenantKeyStoreIndex != null ?
+                    tenantKeyStoreIndex.getCertificate(tenantDomain, tenantId, alias) :
+                    (X509Certificate) OAuth2Util.getCertificate(tenantDomain, alias);
+            if (cert != null) {
+                return ClientKeySource.fromKeyStore(cert);
+            }
+        } catch (IdentityOAuth2Exception e) {
+            String errorMsg = "Error instantiating an X509Certificate object for the certificate alias: " + alias +
+                    " in tenant:" + tenantDomain;
+            if (log.isDebugEnabled()) {
+                log.debug(errorMsg, e);
+            }
+            throw new OAuthClientAuthnException(errorMsg, OAuth2ErrorCodes.INVALID_REQUEST, e);
         }
-        if (StringUtils.isBlank(jwksUri) && cert != null) {
-            try {
-                isValidSignature = validateSignature(signedJWT, cert);
-            } catch (JOSEException e) {
-                String message = "Error while validating the signature";
-                throw new OAuthClientAuthnException(message, OAuth2ErrorCodes.INVALID_REQUEST, e);
+        return ClientKeySource.NONE;
+    }
+
+    private Set<String> getValidAudiences(String tenantDomain, String requestUrl) throws OAuthClientAuthnException {
+
+        ServerConfigSnapshot serverConfig = JWTServiceDataHolder.getInstance().getServerConfigSnapshot();
+        boolean mtls = serverConfig.isMtlsRequest(requestUrl);
+        String accessingOrgId = StringUtils.defaultIfBlank(PrivilegedCarbonContext.getThreadLocalCarbonContext()
+                .getAccessingOrganizationId(), null);
+        AudienceCache audienceCache = JWTServiceDataHolder.getInstance().getAudienceCache();
+        Audiences audiences = null;
+        if (audienceCache != null) {
+            audiences = audienceCache.get(tenantDomain, accessingOrgId, mtls);
+        }
+        if (audiences == null) {
+            audiences = deriveAudiences(tenantDomain, accessingOrgId, mtls, serverConfig);
+            // The audiences of the PAR requests are derived again until the issuer of the tenant can be loaded.
+            if (audienceCache != null && audiences.getAudiences(audiences.getParEndpoint()) != null) {
+                audienceCache.put(tenantDomain, accessingOrgId, mtls, audiences);
             }
         }
-        return isValidSignature;
+        Set<String> validAudiences = audiences.getAudiences(requestUrl);
+        if (validAudiences == null) {
+            throw new OAuthClientAuthnException("Error while loading the issuer URL for tenant: " + tenantDomain,
+                    OAuth2ErrorCodes.INVALID_REQUEST);
+        }
+        return validAudiences;
     }
 
-    private List<String> getValidAudiences(String tenantDomain, String requestUrl) throws OAuthClientAuthnException {
+    private Audiences deriveAudiences(String tenantDomain, String accessingOrgId, boolean mtls,
+                                      ServerConfigSnapshot serverConfig) throws OAuthClientAuthnException {
 
-        List<String> validAudiences = new ArrayList<>();
+        Set<String> validAudiences = new HashSet<>();
         String tokenEndpoint = null;
         String parEndpoint = null;
         IdentityProvider residentIdP;
@@ -602,14 +846,12 @@ public class JWTValidator {
 
         /* If the request is from the mTLS gateway, then the token and PAR endpoints should be set to the mTLS
         endpoints.*/
-        if (requestUrl != null && Boolean.parseBoolean(IdentityUtil.getProperty(MTLS_ALIASES_ENABLED)) &&
-                requestUrl.contains(IdentityUtil.getProperty(MTLS_ALIASES_HOSTNAME))) {
-            String mtlsHostname = IdentityUtil.getProperty(MTLS_ALIASES_HOSTNAME);
+        if (mtls) {
             try {
-                tokenEndpoint = ServiceURLBuilder.create().addPath(OAUTH2_TOKEN_EP_URL).build(mtlsHostname)
-                        .getAbsolutePublicURL();
-                parEndpoint = ServiceURLBuilder.create().addPath(OAUTH2_PAR_EP_URL).build(mtlsHostname)
-                        .getAbsolutePublicURL();
+                tokenEndpoint = ServiceURLBuilder.create().addPath(OAUTH2_TOKEN_EP_URL)
+                        .build(serverConfig.getMtlsAliasHostname()).getAbsolutePublicURL();
+                parEndpoint = ServiceURLBuilder.create().addPath(OAUTH2_PAR_EP_URL)
+                        .build(serverConfig.getMtlsAliasHostname()).getAbsolutePublicURL();
             } catch (URLBuilderException e) {
                 String errorMsg = String.format("Error while building the absolute url of the context: '%s',  for the" +
                         " tenant domain: '%s'", OAUTH2_TOKEN_EP_URL, tenantDomain);
@@ -618,10 +860,28 @@ public class JWTValidator {
         }
 
         if (StringUtils.isEmpty(tokenEndpoint)) {
-            tokenEndpoint = IdentityUtil.getProperty(PROP_ID_TOKEN_ISSUER_ID);
+            tokenEndpoint = serverConfig.getIdTokenIssuerId();
         }
         if (StringUtils.isEmpty(parEndpoint)) {
-            parEndpoint = IdentityUtil.getProperty(Constants.OAUTH2_PAR_URL_CONFIG);
+            parEndpoint = serverConfig.getParEndpoint();
+        }
+
+        if (StringUtils.isNotEmpty(validAudience)) {
+            validAudiences.add(validAudience);
+        }
+        validAudiences.add(tokenEndpoint);
+        validAudiences.add(parEndpoint);
+
+        if (accessingOrgId != null) {
+            try {
+                // Format of https://<host>/t/<root-tenant-domain>/o/<accessing-org-id>/oauth2/token
+                validAudiences.add(ServiceURLBuilder.create().addPath(OAUTH2_TOKEN_EP_URL).build()
+                        .getAbsolutePublicURL());
+                validAudiences.add(ServiceURLBuilder.create().addPath(OAUTH2_PAR_EP_URL).build()
+                        .getAbsolutePublicURL());
+            } catch (URLBuilderException e) {
+                throw new OAuthClientAuthnException(e.getMessage(), OAuth2ErrorCodes.INVALID_REQUEST, e);
+            }
         }
 
         /*
@@ -634,36 +894,16 @@ public class JWTValidator {
          * As per the specification, when the incoming request is a PAR request, the server's issuer identifier
          * is added to the list of acceptable audience values.
          */
+        Set<String> validParAudiences = new HashSet<>(validAudiences);
         try {
-            if (StringUtils.equals(requestUrl, parEndpoint)) {
-                validAudiences.add(this.getIdTokenIssuer(tenantDomain));
-            }
+            validParAudiences.add(this.getIdTokenIssuer(tenantDomain));
         } catch (InvalidOAuthClientException e) {
-            throw new OAuthClientAuthnException("Error while loading the issuer URL for tenant: " + tenantDomain,
-                    OAuth2ErrorCodes.INVALID_REQUEST);
-        }
-
-        if (StringUtils.isNotEmpty(validAudience)) {
-            validAudiences.add(validAudience);
-        }
-        validAudiences.add(tokenEndpoint);
-        validAudiences.add(parEndpoint);
-
-        String accessingOrgId = PrivilegedCarbonContext.getThreadLocalCarbonContext()
-                .getAccessingOrganizationId();
-        if (!StringUtils.isBlank(accessingOrgId)) {
-            try {
-                // Format of https://<host>/t/<root-tenant-domain>/o/<accessing-org-id>/oauth2/token
-                tokenEndpoint = ServiceURLBuilder.create().addPath(OAUTH2_TOKEN_EP_URL).build().getAbsolutePublicURL();
-                validAudiences.add(tokenEndpoint);
-                parEndpoint = ServiceURLBuilder.create().addPath(OAUTH2_PAR_EP_URL).build().getAbsolutePublicURL();
-                validAudiences.add(parEndpoint);
-            } catch (URLBuilderException e) {
-                throw new OAuthClientAuthnException(e.getMessage(), OAuth2ErrorCodes.INVALID_REQUEST, e);
+            validParAudiences = null;
+            if (log.isDebugEnabled()) {
+                log.debug("Error while loading the issuer URL for tenant: " + tenantDomain, e);
             }
         }
-
-        return validAudiences;
+        return new Audiences(validAudiences, parEndpoint, validParAudiences);
     }
 
     /**
@@ -675,6 +915,19 @@ public class JWTValidator {
      */
     public JWTClaimsSet getClaimSet(SignedJWT signedJWT) throws OAuthClientAuthnException {
 
+        return parseClientAssertion(signedJWT).getClaimsSet();
+    }
+
+    /**
+     * Validate the JSON depth of the client assertion and parse its claims set. The result is meant to be reused by
+     * every later step of the request, so that the assertion is serialized and parsed only once.
+     *
+     * @param signedJWT signedJWT
+     * @return Parsed client assertion.
+     * @throws OAuthClientAuthnException OAuthClientAuthnException thrown with Invalid Request error code.
+     */
+    public ParsedClientAssertion parseClientAssertion(SignedJWT signedJWT) throws OAuthClientAuthnException {
+
         JWTClaimsSet claimsSet;
         String errorMessage;
         if (signedJWT == null) {
@@ -683,6 +936,12 @@ public class JWTValidator {
         }
         try {
             IdentityUtil.validateJWTDepth(signedJWT.serialize());
+            if (assertionReader != null) {
+                ParsedClientAssertion assertion = assertionReader.read(signedJWT);
+                if (assertion != null) {
+                    return assertion;
+                }
+            }
             claimsSet = signedJWT.getJWTClaimsSet();
             if (claimsSet == null) {
                 errorMessage = "Claim values are empty in the given JSON Web Token.";
@@ -695,7 +954,7 @@ public class JWTValidator {
             }
             throw new OAuthClientAuthnException(errorMsg, OAuth2ErrorCodes.INVALID_REQUEST);
         }
-        return claimsSet;
+        return new ParsedClientAssertion(signedJWT, claimsSet);
     }
 
     /**
@@ -709,26 +968,57 @@ public class JWTValidator {
         return claimsSet.getSubject();
     }
 
-    private static X509Certificate getCertificate(String tenantDomain, String alias)
-            throws OAuthClientAuthnException {
+    /**
+     * Resolve the subject of the parsed assertion through {@link #resolveSubject(JWTClaimsSet)}. The claims of an
+     * assertion read by the {@link ClientAssertionReader} are only parsed if a subclass overrides
+     * {@link #resolveSubject(JWTClaimsSet)}, else the subject is taken from the 'sub' attribute.
+     *
+     * @param assertion Parsed client assertion.
+     * @return The subject, to be used
+     * @throws OAuthClientAuthnException If the claims of the assertion could not be parsed.
+     */
+    public String resolveSubject(ParsedClientAssertion assertion) throws OAuthClientAuthnException {
+
+        if (claimsSetSubjectResolver || assertion.isFullyParsed()) {
+            return resolveSubject(assertion.getClaimsSet());
+        }
+        return assertion.getSubject();
+    }
+
+    private boolean isClaimsSetSubjectResolverOverridden() {
 
         try {
-            return (X509Certificate) OAuth2Util.getCertificate(tenantDomain, alias);
-        } catch (IdentityOAuth2Exception e) {
-            String errorMsg = "Error instantiating an X509Certificate object for the certificate alias: " + alias +
-                    " in tenant:" + tenantDomain;
-            if (log.isDebugEnabled()) {
-                log.debug(errorMsg);
+            return getClass().getMethod("resolveSubject", JWTClaimsSet.class).getDeclaringClass() !=
+                    JWTValidator.class;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private boolean validateSignature(SignedJWT signedJWT, JWKSCache jwksCache, String jwksUri)
+            throws IdentityOAuth2Exception, JOSEException {
+
+        JWSHeader header = signedJWT.getHeader();
+        String x509CertSHA256Thumbprint = header.getX509CertSHA256Thumbprint() != null ?
+                header.getX509CertSHA256Thumbprint().toString() : null;
+        for (JWSVerifier verifier : jwksCache.getVerifiers(jwksUri, header.getKeyID(), x509CertSHA256Thumbprint,
+                header.getAlgorithm())) {
+            if (signedJWT.verify(verifier)) {
+                return true;
             }
-            throw new OAuthClientAuthnException(errorMsg, OAuth2ErrorCodes.INVALID_REQUEST);
         }
+        if (log.isDebugEnabled()) {
+            log.debug("Signature validation failed with the keys of the JWKS: " + jwksUri + " for the key id: " +
+                    header.getKeyID());
+        }
+        return false;
     }
 
-    private boolean validateSignature(SignedJWT signedJWT, X509Certificate x509Certificate)
-            throws JOSEException, OAuthClientAuthnException {
+    private boolean validateSignature(SignedJWT signedJWT, ClientKeySource keySource, String clientId,
+                                      int tenantId) throws JOSEException, OAuthClientAuthnException {
 
-        JWSVerifier verifier;
         JWSHeader header = signedJWT.getHeader();
+        X509Certificate x509Certificate = keySource.getCertificate();
         if (x509Certificate == null) {
             throw new OAuthClientAuthnException("Unable to locate certificate for JWT " + header.toString(),
                     OAuth2ErrorCodes.INVALID_REQUEST);
@@ -738,51 +1028,71 @@ public class JWTValidator {
         if (isEmpty(alg)) {
             throw new OAuthClientAuthnException("Signature validation failed. No algorithm is found in the JWT header.",
                     OAuth2ErrorCodes.INVALID_REQUEST);
-        } else {
-            if (log.isDebugEnabled()) {
-                log.debug("Signature Algorithm found in the JWT Header: " + alg);
-            }
-            if (alg.indexOf(RS) == 0 || alg.indexOf(PS) == 0) {
-                // At this point 'x509Certificate' will never be null.
-                PublicKey publicKey = x509Certificate.getPublicKey();
-                if (publicKey instanceof RSAPublicKey) {
-                    verifier = new RSASSAVerifier((RSAPublicKey) publicKey);
-                } else {
-                    throw new OAuthClientAuthnException("Signature validation failed. Public key is not an RSA " +
-                            "public key.", OAuth2ErrorCodes.INVALID_REQUEST);
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Signature Algorithm found in the JWT Header: " + alg);
+        }
+        // RS and PS algorithms are verified with an RSA key, ES256, ES384 and ES512 with an EC key.
+        JWSVerifierCache.AlgorithmFamily algorithmFamily = JWSVerifierCache.AlgorithmFamily.of(alg);
+        if (algorithmFamily == null) {
+            throw new OAuthClientAuthnException("Signature Algorithm not supported : " + alg,
+                    OAuth2ErrorCodes.INVALID_REQUEST);
+        }
+
+        JWSVerifierCache jwsVerifierCache = JWTServiceDataHolder.getInstance().getJWSVerifierCache();
+        JWSVerifier verifier = null;
+        try {
+            if (jwsVerifierCache != null) {
+                verifier = jwsVerifierCache.get(clientId, tenantId, algorithmFamily, keySource);
+            }
+            if (verifier == null) {
+                verifier = createVerifier(x509Certificate, algorithmFamily, alg);
+                if (verifier == null) {
+                    return false;
                 }
-            } else if (alg.indexOf(ES) == 0) {
-                // Support for ES256, ES384, ES512 (Elliptic Curve Digital Signature Algorithm).
-                PublicKey publicKey = x509Certificate.getPublicKey();
-                if (publicKey instanceof ECPublicKey) {
-                    try {
-                        verifier = new ECDSAVerifier((ECPublicKey) publicKey);
-                    } catch (JOSEException e) {
-                        log.error("Error creating ECDSAVerifier for algorithm " + alg + ": " + e.getMessage());
-                        return false;
-                    }
-                } else {
-                    throw new OAuthClientAuthnException(
-                            "Signature validation failed. Public key is not an EC public key.",
-                            OAuth2ErrorCodes.INVALID_REQUEST);
+                if (jwsVerifierCache != null) {
+                    jwsVerifierCache.put(clientId, tenantId, algorithmFamily, keySource, verifier);
                 }
-            } else {
-                throw new OAuthClientAuthnException("Signature Algorithm not supported : " + alg,
-                        OAuth2ErrorCodes.INVALID_REQUEST);
             }
+        } catch (CertificateEncodingException e) {
+            throw new OAuthClientAuthnException("Signature validation failed. Unable to encode the certificate of " +
+                    "the client: " + clientId, OAuth2ErrorCodes.INVALID_REQUEST, e);
         }
-        // At this point 'verifier' will never be null.
         return signedJWT.verify(verifier);
     }
 
-    private boolean validateAgeOfTheToken(Date issuedAtTime, long currentTimeInMillis, long timeStampSkewMillis) throws
-            OAuthClientAuthnException {
+    private JWSVerifier createVerifier(X509Certificate x509Certificate,
+                                       JWSVerifierCache.AlgorithmFamily algorithmFamily, String alg)
+            throws OAuthClientAuthnException {
 
-        if (issuedAtTime == null) {
+        PublicKey publicKey = x509Certificate.getPublicKey();
+        if (algorithmFamily == JWSVerifierCache.AlgorithmFamily.RSA) {
+            if (publicKey instanceof RSAPublicKey) {
+                return new RSASSAVerifier((RSAPublicKey) publicKey);
+            }
+            throw new OAuthClientAuthnException("Signature validation failed. Public key is not an RSA " +
+                    "public key.", OAuth2ErrorCodes.INVALID_REQUEST);
+        }
+        if (publicKey instanceof ECPublicKey) {
+            try {
+                return new ECDSAVerifier((ECPublicKey) publicKey);
+            } catch (JOSEException e) {
+                log.error("Error creating ECDSAVerifier for algorithm " + alg + ": " + e.getMessage());
+                return null;
+            }
+        }
+        throw new OAuthClientAuthnException(
+                "Signature validation failed. Public key is not an EC public key.",
+                OAuth2ErrorCodes.INVALID_REQUEST);
+    }
+
+    private boolean validateAgeOfTheToken(long issuedAtTimeMillis, long currentTimeInMillis, long timeStampSkewMillis)
+            throws OAuthClientAuthnException {
+
+        if (issuedAtTimeMillis == 0) {
             return true;
         }
         if (rejectBeforeInMinutes > 0) {
-            long issuedAtTimeMillis = issuedAtTime.getTime();
             long rejectBeforeMillis = 1000L * 60 * rejectBeforeInMinutes;
             if (currentTimeInMillis + timeStampSkewMillis - issuedAtTimeMillis >
                     rejectBeforeMillis) {
@@ -814,48 +1124,33 @@ public class JWTValidator {
         return tmp.toString();
     }
 
-    private boolean validateJTIInCache(String jti, SignedJWT signedJWT, JWTCacheEntry entry, long currentTimeInMillis,
-                                       long timeStampSkewMillis, JWTCache jwtCache, int tenantId)
-            throws OAuthClientAuthnException {
+    private boolean validateJTIInCache(String jti, long expTime, long currentTimeInMillis, long timeStampSkewMillis,
+                                       int tenantId, boolean preventTokenReuse) throws OAuthClientAuthnException {
 
-        if (entry == null) {
-            // Update the cache with the new JWT for the same JTI.
-            JWTCacheKey jwtCacheKey;
-            if (Util.isTenantIdColumnAvailableInIdnOidcAuth()) {
-                jwtCacheKey = new JWTCacheKey(jti, tenantId);
-            } else {
-                jwtCacheKey = new JWTCacheKey(jti);
+        JWTCacheKey jwtCacheKey;
+        if (Util.isTenantIdColumnAvailableInIdnOidcAuth()) {
+            jwtCacheKey = new JWTCacheKey(jti, tenantId);
+        } else {
+            jwtCacheKey = new JWTCacheKey(jti);
+        }
+        // The JTI has to be remembered as long as the assertion can be accepted.
+        long evictionTime = expTime + timeStampSkewMillis;
+        if (preventTokenReuse) {
+            if (jtiReplayCache.putIfAbsent(jwtCacheKey, new JWTCacheEntry(expTime), evictionTime,
+                    currentTimeInMillis) != null) {
+                throw new OAuthClientAuthnException("JWT Token with jti: " + jti + " has been replayed",
+                        OAuth2ErrorCodes.INVALID_REQUEST);
             }
-            jwtCache.addToCache(jwtCacheKey, new JWTCacheEntry(signedJWT));
-        } else if (preventTokenReuse) {
-            throw new OAuthClientAuthnException("JWT Token with jti: " + jti + " has been replayed",
-                    OAuth2ErrorCodes.INVALID_REQUEST);
         } else {
-            try {
-                SignedJWT cachedJWT = entry.getJwt();
-                long cachedJWTExpiryTimeMillis = cachedJWT.getJWTClaimsSet().getExpirationTime().getTime();
-                // Token reuse is allowed. Here we are logging whether the token is reused within the
-                // allowed expiry time.
-                if (currentTimeInMillis + timeStampSkewMillis < cachedJWTExpiryTimeMillis) {
-                    if (log.isDebugEnabled()) {
-                        log.debug("JWT Token with jti: " + jti + "has been reused with in the allowed " +
-                                "expiry time: " + cachedJWTExpiryTimeMillis);
-                    }
-                }
-                // Update the cache with the new JWT for the same JTI.
-                JWTCacheKey jwtCacheKey;
-                if (Util.isTenantIdColumnAvailableInIdnOidcAuth()) {
-                    jwtCacheKey = new JWTCacheKey(jti, tenantId);
-                } else {
-                    jwtCacheKey = new JWTCacheKey(jti);
-                }
-                jwtCache.addToCache(jwtCacheKey, new JWTCacheEntry(signedJWT));
-            } catch (ParseException e) {
-                if (log.isDebugEnabled()) {
-                    log.debug("Unable to parse the cached jwt assertion : " + entry.getEncodedJWt());
-                }
-                throw new OAuthClientAuthnException("JTI validation failed.", OAuth2ErrorCodes.INVALID_REQUEST);
+            JWTCacheEntry entry = jtiReplayCache.get(jwtCacheKey, currentTimeInMillis);
+            // Token reuse is allowed. Here we are logging whether the token is reused within the
+            // allowed expiry time.
+            if (entry != null && log.isDebugEnabled()) {
+                log.debug("JWT Token with jti: " + jti + "has been reused with in the allowed " +
+                        "expiry time: " + entry.getExpiryTime());
             }
+            // Update the cache with the new JWT for the same JTI.
+            jtiReplayCache.put(jwtCacheKey, new JWTCacheEntry(expTime), evictionTime, currentTimeInMillis);
         }
         if (log.isDebugEnabled()) {
             log.debug("JWT id: " + jti + " for tenant id: " + tenantId + " not found in the cache " +
@@ -873,29 +1168,18 @@ public class JWTValidator {
      * equivalent JWS algorithm name.
      *
      * @param requestSigningAlgorithm     The request signed algorithm.
-     * @param clientId                    Client ID of the application.
+     * @param policy                      Client assertion policy of the application.
      * @return whether the request signing algorithm is configured for the application.
-     * @throws OAuthClientAuthnException OAuth Client Authentication Exception.
      */
-    private boolean isValidSignatureAlgorithm(String requestSigningAlgorithm, String clientId)
-            throws OAuthClientAuthnException {
+    private boolean isValidSignatureAlgorithm(String requestSigningAlgorithm, ClientAssertionPolicy policy) {
 
-        //   Obtain the signing algorithm configured for the application.
-        List<String> configuredSigningAlgorithms = getConfiguredSigningAlgorithm(clientId);
         //  Validate whether the JWT signing algorithm is configured for the application.
-        if (configuredSigningAlgorithms.isEmpty()) {
+        if (policy.isAllowedAlgorithm(requestSigningAlgorithm)) {
             return true;
         }
-        for (String configuredSigningAlgorithm : configuredSigningAlgorithms) {
-            if (StringUtils.equals(configuredSigningAlgorithm, requestSigningAlgorithm)
-                    || StringUtils.equals(mapToJWSAlgorithmName(configuredSigningAlgorithm),
-                    requestSigningAlgorithm)) {
-                return true;
-            }
-        }
         if (log.isDebugEnabled()) {
             log.debug("JWT signed algorithm: " + requestSigningAlgorithm + " does not match with the " +
-                    "configured algorithms: " + configuredSigningAlgorithms);
+                    "configured algorithms: " + policy.getAllowedAlgorithms());
         }
         return false;
     }
@@ -966,4 +1250,51 @@ public class JWTValidator {
             return OAuth2Util.getIDTokenIssuer();
         }
     }
+
+    /**
+     * State of the validation of a client assertion, shared by the validation stages of a single request.
+     */
+    private static final class ValidationContext {
+
+        private final ParsedClientAssertion assertion;
+        private final String requestUrl;
+        private final long currentTimeInMillis;
+        private final long timeStampSkewMillis;
+        private final ServerConfigSnapshot serverConfig;
+        private ResolvedClient client;
+
+        private ValidationContext(ParsedClientAssertion assertion, String requestUrl, long currentTimeInMillis,
+                                  ServerConfigSnapshot serverConfig) {
+
+            this.assertion = assertion;
+            this.requestUrl = requestUrl;
+            this.currentTimeInMillis = currentTimeInMillis;
+            this.timeStampSkewMillis = serverConfig.getTimeStampSkewInMillis();
+            this.serverConfig = serverConfig;
+        }
+    }
+
+    /**
+     * Client and tenant state resolved for a request. The validator itself holds no per request state, so that a
+     * single instance can be shared by all the request threads.
+     */
+    private static final class ResolvedClient {
+
+        private final String jwtSubject;
+        private final ClientAssertionPolicy policy;
+        private final String consumerKey;
+        private final String tenantDomain;
+        private final int tenantId;
+        private final boolean preventTokenReuse;
+
+        private ResolvedClient(String jwtSubject, ClientAssertionPolicy policy, boolean preventTokenReuse) {
+
+            this.jwtSubject = jwtSubject;
+            this.policy = policy;
+            this.consumerKey = policy.getClientId();
+            this.tenantDomain = policy.getTenantDomain();
+            this.tenantId = policy.getTenantId();
+            this.preventTokenReuse = preventTokenReuse;
+        }
+    }
 }
@@ -0,0 +1,290 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.validator;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Scans a base64url decoded JSON object of a client assertion, without building its JSON object graph. The members
+ * of the object are handed to {@link #readMember(int, int)} and the values which are not read are only skipped.
+ * The scan methods return false, or null, when the JSON is not scanned, in which case the caller should fall back
+ * to the full parsing.
+ */
+abstract class JsonScanner {
+
+    private static final int MAX_NESTING_DEPTH = 64;
+    private static final int[] BASE64URL_VALUES = new int[128];
+
+    static {
+        Arrays.fill(BASE64URL_VALUES, -1);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        for (int i = 0; i < alphabet.length(); i++) {
+            BASE64URL_VALUES[alphabet.charAt(i)] = i;
+        }
+    }
+
+    byte[] buffer;
+    int end;
+    int position;
+
+    /**
+     * @param encodedLength Length of a base64url encoded value without padding.
+     * @return Length of the decoded value, or -1 if the encoded length is not valid.
+     */
+    static int decodedLength(int encodedLength) {
+
+        if (encodedLength % 4 == 1) {
+            return -1;
+        }
+        return encodedLength / 4 * 3 + Math.max(encodedLength % 4 - 1, 0);
+    }
+
+    /**
+     * Base64url decode a segment of the encoded value into the buffer, and scan the buffer from its start.
+     *
+     * @param encoded Encoded value.
+     * @param from    Start of the segment.
+     * @param to      End of the segment.
+     * @param target  Buffer, which should hold at least the decoded length of the segment.
+     * @return false if the segment is not valid base64url.
+     */
+    boolean decode(String encoded, int from, int to, byte[] target) {
+
+        int decodedLength = decodedLength(to - from);
+        if (decodedLength < 0) {
+            return false;
+        }
+        int bits = 0;
+        int bitCount = 0;
+        int written = 0;
+        for (int i = from; i < to; i++) {
+            char c = encoded.charAt(i);
+            int value = c < BASE64URL_VALUES.length ? BASE64URL_VALUES[c] : -1;
+            if (value < 0) {
+                return false;
+            }
+            bits = (bits << 6) | value;
+            bitCount += 6;
+            if (bitCount >= 8) {
+                bitCount -= 8;
+                target[written++] = (byte) (bits >> bitCount);
+            }
+        }
+        this.buffer = target;
+        this.end = decodedLength;
+        this.position = 0;
+        return true;
+    }
+
+    /**
+     * Scan the whole buffer as a single JSON object.
+     *
+     * @return false if the buffer is not scanned.
+     */
+    boolean readObject() {
+
+        if (!consume('{')) {
+            return false;
+        }
+        if (!consume('}')) {
+            do {
+                skipWhitespace();
+                int nameStart = position + 1;
+                if (!skipString(false)) {
+                    return false;
+                }
+                int nameEnd = position - 1;
+                if (!consume(':')) {
+                    return false;
+                }
+                skipWhitespace();
+                if (!readMember(nameStart, nameEnd)) {
+                    return false;
+                }
+            } while (consume(','));
+            if (!consume('}')) {
+                return false;
+            }
+        }
+        skipWhitespace();
+        return position == end;
+    }
+
+    /**
+     * Read or skip the value of a member of the object. Names with escape sequences are not scanned.
+     *
+     * @param nameStart Start of the member name in the buffer.
+     * @param nameEnd   End of the member name in the buffer.
+     * @return false if the value is not scanned.
+     */
+    abstract boolean readMember(int nameStart, int nameEnd);
+
+    /**
+     * Read a string without escape sequences.
+     */
+    String readString() {
+
+        int start = position + 1;
+        if (!skipString(false)) {
+            return null;
+        }
+        return new String(buffer, start, position - 1 - start, StandardCharsets.UTF_8);
+    }
+
+    boolean skipValue(int depth) {
+
+        if (depth > MAX_NESTING_DEPTH || position >= end) {
+            return false;
+        }
+        switch (buffer[position]) {
+            case '"':
+                return skipString(true);
+            case '{':
+                position++;
+                if (consume('}')) {
+                    return true;
+                }
+                do {
+                    skipWhitespace();
+                    if (!skipString(true) || !consume(':')) {
+                        return false;
+                    }
+                    skipWhitespace();
+                    if (!skipValue(depth + 1)) {
+                        return false;
+                    }
+                } while (consume(','));
+                return consume('}');
+            case '[':
+                position++;
+                if (consume(']')) {
+                    return true;
+                }
+                do {
+                    skipWhitespace();
+                    if (!skipValue(depth + 1)) {
+                        return false;
+                    }
+                } while (consume(','));
+                return consume(']');
+            case 't':
+                return skipLiteral("true");
+            case 'f':
+                return skipLiteral("false");
+            case 'n':
+                return skipLiteral("null");
+            default:
+                int start = position;
+                while (position < end && isNumberPart(buffer[position])) {
+                    position++;
+                }
+                return position > start;
+        }
+    }
+
+    private boolean skipString(boolean allowEscapes) {
+
+        if (position >= end || buffer[position] != '"') {
+            return false;
+        }
+        position++;
+        while (position < end) {
+            byte b = buffer[position++];
+            if (b == '"') {
+                return true;
+            }
+            if (b == '\\') {
+                if (!allowEscapes) {
+                    return false;
+                }
+                position++;
+            } else if (b >= 0 && b < 0x20) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private boolean skipLiteral(String literal) {
+
+        if (!startsWith(literal)) {
+            return false;
+        }
+        position += literal.length();
+        return true;
+    }
+
+    boolean startsWith(String literal) {
+
+        if (end - position < literal.length()) {
+            return false;
+        }
+        for (int i = 0; i < literal.length(); i++) {
+            if (buffer[position + i] != literal.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    boolean consume(char expected) {
+
+        skipWhitespace();
+        if (position < end && buffer[position] == expected) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    void skipWhitespace() {
+
+        while (position < end) {
+            byte b = buffer[position];
+            if (b != ' ' && b != '\t' && b != '\n' && b != '\r') {
+                return;
+            }
+            position++;
+        }
+    }
+
+    boolean equals(int start, int end, byte[] name) {
+
+        if (end - start != name.length) {
+            return false;
+        }
+        for (int i = 0; i < name.length; i++) {
+            if (buffer[start + i] != name[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static boolean isDigit(byte b) {
+
+        return b >= '0' && b <= '9';
+    }
+
+    static boolean isNumberPart(byte b) {
+
+        return isDigit(b) || b == '-' || b == '+' || b == '.' || b == 'e' || b == 'E';
+    }
+}
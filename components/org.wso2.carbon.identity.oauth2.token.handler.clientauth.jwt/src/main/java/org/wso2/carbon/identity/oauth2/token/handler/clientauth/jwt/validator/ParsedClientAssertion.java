@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.validator;
+
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.util.Base64URL;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.wso2.carbon.identity.oauth.common.OAuth2ErrorCodes;
+import org.wso2.carbon.identity.oauth2.client.authentication.OAuthClientAuthnException;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache.JWSVerifierCache.AlgorithmFamily;
+
+import java.text.ParseException;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Client assertion parsed once per request. An instance is created only after the JSON depth of the assertion is
+ * validated and its claims set is parsed, so that resolving the client id and validating the assertion share the
+ * same header and claims without parsing the assertion again.
+ * The claims may be read by the {@link ClientAssertionReader}, in which case the full claims set is parsed only if it
+ * is asked for. Absent time claims are represented by 0.
+ * The signature algorithm, its verifier family and the key identifiers are taken from the JOSE header alone, so that
+ * the header stage can route the assertion before any of its claims or its client are looked at.
+ */
+public final class ParsedClientAssertion {
+
+    private final SignedJWT signedJWT;
+    private final JWSHeader header;
+    private final String algorithm;
+    private final AlgorithmFamily algorithmFamily;
+    private final String keyId;
+    private final String x509CertSHA256Thumbprint;
+    private final boolean fullyParsed;
+    private final String missingMandatoryClaim;
+    private JWTClaimsSet claimsSet;
+    private final String issuer;
+    private final String subject;
+    private final List<String> audience;
+    private final long expirationTime;
+    private final long notBeforeTime;
+    private final long issueTime;
+    private final String jwtId;
+
+    ParsedClientAssertion(SignedJWT signedJWT, JWTClaimsSet claimsSet) {
+
+        this.signedJWT = signedJWT;
+        this.header = signedJWT.getHeader();
+        this.algorithm = header.getAlgorithm().getName();
+        this.algorithmFamily = AlgorithmFamily.of(algorithm);
+        this.keyId = header.getKeyID();
+        this.x509CertSHA256Thumbprint = toString(header.getX509CertSHA256Thumbprint());
+        this.claimsSet = claimsSet;
+        this.fullyParsed = true;
+        this.missingMandatoryClaim = null;
+        this.issuer = claimsSet.getIssuer();
+        this.subject = claimsSet.getSubject();
+        this.audience = claimsSet.getAudience();
+        this.expirationTime = toMillis(claimsSet.getExpirationTime());
+        this.notBeforeTime = toMillis(claimsSet.getNotBeforeTime());
+        this.issueTime = toMillis(claimsSet.getIssueTime());
+        this.jwtId = claimsSet.getJWTID();
+    }
+
+    ParsedClientAssertion(SignedJWT signedJWT, String issuer, String subject, List<String> audience,
+                          long expirationTime, long notBeforeTime, long issueTime, String jwtId,
+                          String missingMandatoryClaim) {
+
+        this.signedJWT = signedJWT;
+        this.header = signedJWT.getHeader();
+        this.algorithm = header.getAlgorithm().getName();
+        this.algorithmFamily = AlgorithmFamily.of(algorithm);
+        this.keyId = header.getKeyID();
+        this.x509CertSHA256Thumbprint = toString(header.getX509CertSHA256Thumbprint());
+        this.fullyParsed = false;
+        this.missingMandatoryClaim = missingMandatoryClaim;
+        this.issuer = issuer;
+        this.subject = subject;
+        this.audience = audience;
+        this.expirationTime = expirationTime;
+        this.notBeforeTime = notBeforeTime;
+        this.issueTime = issueTime;
+        this.jwtId = jwtId;
+    }
+
+    private static long toMillis(Date date) {
+
+        return date != null ? date.getTime() : 0;
+    }
+
+    private static String toString(Base64URL value) {
+
+        return value != null ? value.toString() : null;
+    }
+
+    public SignedJWT getSignedJWT() {
+
+        return signedJWT;
+    }
+
+    public JWSHeader getHeader() {
+
+        return header;
+    }
+
+    /**
+     * @return Name of the algorithm used to sign the assertion.
+     */
+    public String getAlgorithm() {
+
+        return algorithm;
+    }
+
+    /**
+     * @return Family of the verifiers of the signature algorithm, or null if the algorithm is not supported.
+     */
+    public AlgorithmFamily getAlgorithmFamily() {
+
+        return algorithmFamily;
+    }
+
+    /**
+     * @return Key id of the header, or null if the header has none.
+     */
+    public String getKeyId() {
+
+        return keyId;
+    }
+
+    /**
+     * @return Base64url encoded X.509 certificate SHA-256 thumbprint of the header, or null if the header has none.
+     */
+    public String getX509CertSHA256Thumbprint() {
+
+        return x509CertSHA256Thumbprint;
+    }
+
+    /**
+     * @return All the claims of the assertion. The claims set is parsed on first use, if the claims are read by the
+     * {@link ClientAssertionReader}.
+     * @throws OAuthClientAuthnException If the claims set could not be parsed.
+     */
+    public JWTClaimsSet getClaimsSet() throws OAuthClientAuthnException {
+
+        if (claimsSet == null) {
+            try {
+                claimsSet = signedJWT.getJWTClaimsSet();
+            } catch (ParseException e) {
+                throw new OAuthClientAuthnException("Error when trying to retrieve claimsSet from the JWT.",
+                        OAuth2ErrorCodes.INVALID_REQUEST);
+            }
+        }
+        return claimsSet;
+    }
+
+    /**
+     * @return true if all the claims of the assertion were parsed upfront, rather than read by the
+     * {@link ClientAssertionReader}.
+     */
+    boolean isFullyParsed() {
+
+        return fullyParsed;
+    }
+
+    /**
+     * Find the first of the mandatory claims of the validator which is missing in the assertion.
+     *
+     * @param mandatoryClaims Mandatory claims of the validator.
+     * @return Name of the missing claim, or null if all the mandatory claims are present.
+     */
+    String findMissingClaim(List<String> mandatoryClaims) {
+
+        if (!fullyParsed) {
+            // The reader has already checked the mandatory claims of the validator.
+            return missingMandatoryClaim;
+        }
+        for (String mandatoryClaim : mandatoryClaims) {
+            if (claimsSet.getClaim(mandatoryClaim) == null) {
+                return mandatoryClaim;
+            }
+        }
+        return null;
+    }
+
+    public String getIssuer() {
+
+        return issuer;
+    }
+
+    public String getSubject() {
+
+        return subject;
+    }
+
+    public List<String> getAudience() {
+
+        return audience;
+    }
+
+    public long getExpirationTime() {
+
+        return expirationTime;
+    }
+
+    public long getNotBeforeTime() {
+
+        return notBeforeTime;
+    }
+
+    public long getIssueTime() {
+
+        return issueTime;
+    }
+
+    public String getJWTID() {
+
+        return jwtId;
+    }
+}
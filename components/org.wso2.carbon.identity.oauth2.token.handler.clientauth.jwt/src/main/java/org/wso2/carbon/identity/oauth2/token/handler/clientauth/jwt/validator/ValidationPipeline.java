@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.validator;
+
+import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ordered stages of the client assertion validation. The validation stops at the first stage which rejects the
+ * assertion.
+ *
+ * @param <C> Type of the per request validation context.
+ */
+public class ValidationPipeline<C> {
+
+    /**
+     * Validation performed by a stage.
+     *
+     * @param <C> Type of the per request validation context.
+     */
+    @FunctionalInterface
+    public interface Validation<C> {
+
+        /**
+         * @param context Validation context.
+         * @return true if the assertion passes the stage.
+         * @throws IdentityOAuth2Exception If the assertion is rejected or could not be validated.
+         */
+        boolean validate(C context) throws IdentityOAuth2Exception;
+    }
+
+    private final List<ValidationStage> order;
+    private final List<Validation<C>> validations;
+
+    /**
+     * @param stageValidations Validation of each stage.
+     * @param configuredOrder  Configured order of the reorderable stages, or null to order the stages by cost. The
+     *                         reorderable stages which are not configured run after the configured ones.
+     */
+    public ValidationPipeline(Map<ValidationStage, Validation<C>> stageValidations,
+                              List<ValidationStage> configuredOrder) {
+
+        this.order = Collections.unmodifiableList(resolveOrder(stageValidations, configuredOrder));
+        this.validations = new ArrayList<>(order.size());
+        for (ValidationStage stage : order) {
+            validations.add(stageValidations.get(stage));
+        }
+    }
+
+    /**
+     * Run the stages in order.
+     *
+     * @param context Validation context.
+     * @return true if the assertion passes all the stages.
+     * @throws IdentityOAuth2Exception If the assertion is rejected or could not be validated.
+     */
+    public boolean validate(C context) throws IdentityOAuth2Exception {
+
+        for (Validation<C> validation : validations) {
+            if (!validation.validate(context)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return Stages in the order they run.
+     */
+    public List<ValidationStage> getOrder() {
+
+        return order;
+    }
+
+    private static <C> List<ValidationStage> resolveOrder(Map<ValidationStage, Validation<C>> stageValidations,
+                                                          List<ValidationStage> configuredOrder) {
+
+        Map<ValidationStage, Integer> ranks = new EnumMap<>(ValidationStage.class);
+        if (configuredOrder != null) {
+            for (ValidationStage stage : configuredOrder) {
+                if (stage.isReorderable()) {
+                    ranks.putIfAbsent(stage, ranks.size() + 1);
+                }
+            }
+        }
+        int unconfiguredRank = ranks.size() + 1;
+        ranks.putIfAbsent(ValidationStage.HEADER, -1);
+        ranks.putIfAbsent(ValidationStage.STRUCTURAL, 0);
+        ranks.putIfAbsent(ValidationStage.REPLAY, Integer.MAX_VALUE);
+        List<ValidationStage> order = new ArrayList<>(stageValidations.keySet());
+        // The header and structural stages, the configured stages in the configured order, the other stages by cost
+        // and then the replay stage.
+        order.sort(Comparator.<ValidationStage>comparingInt(stage -> ranks.getOrDefault(stage, unconfiguredRank))
+                .thenComparingInt(ValidationStage::getCost));
+        return order;
+    }
+}
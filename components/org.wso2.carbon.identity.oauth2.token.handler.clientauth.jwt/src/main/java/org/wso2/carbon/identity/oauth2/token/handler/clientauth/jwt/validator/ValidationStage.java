@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.validator;
+
+/**
+ * Stages of the client assertion validation, along with their relative cost.
+ * The header stage always runs first as it needs only the JOSE header, followed by the structural stage as the other
+ * stages rely on the mandatory claims, and the replay stage always runs last as it records the assertion. The other
+ * stages run in the configured order, or else in the order of their cost so that the cheap local rejections run
+ * before the lookups and the cryptography.
+ */
+public enum ValidationStage {
+
+    /**
+     * Signature algorithm and verifier family of the JOSE header.
+     */
+    HEADER(-1),
+
+    /**
+     * Presence of the mandatory claims.
+     */
+    STRUCTURAL(0),
+
+    /**
+     * Expiry, not before and issued at times of the assertion.
+     */
+    TEMPORAL(1),
+
+    /**
+     * Application of the client, issuer, subject and signature algorithm.
+     */
+    CLIENT(10),
+
+    /**
+     * Audience of the assertion.
+     */
+    AUDIENCE(20),
+
+    /**
+     * Signature of the assertion.
+     */
+    SIGNATURE(30),
+
+    /**
+     * Replay of the JTI of the assertion.
+     */
+    REPLAY(40);
+
+    private final int cost;
+
+    ValidationStage(int cost) {
+
+        this.cost = cost;
+    }
+
+    public int getCost() {
+
+        return cost;
+    }
+
+    /**
+     * @return true if the position of the stage in the pipeline can be configured.
+     */
+    public boolean isReorderable() {
+
+        return this != HEADER && this != STRUCTURAL && this != REPLAY;
+    }
+}
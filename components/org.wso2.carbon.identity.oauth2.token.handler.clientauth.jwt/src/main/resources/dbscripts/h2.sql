@@ -0,0 +1,15 @@
+CREATE TABLE IF NOT EXISTS IDN_OIDC_JTI_DIGEST (
+            JTI_DIGEST BINARY(16) NOT NULL,
+            EXP_TIME TIMESTAMP NOT NULL,
+            TIME_CREATED TIMESTAMP NOT NULL,
+            PRIMARY KEY (JTI_DIGEST)
+);
+
+CREATE INDEX IF NOT EXISTS IDX_JTI_DIGEST_EXP_TIME ON IDN_OIDC_JTI_DIGEST (EXP_TIME);
+
+CREATE TABLE IF NOT EXISTS IDN_OIDC_JTI_LEASE (
+            LEASE_NAME VARCHAR(100) NOT NULL,
+            NODE_ID VARCHAR(255) NOT NULL,
+            EXPIRY_TIME TIMESTAMP NOT NULL,
+            PRIMARY KEY (LEASE_NAME)
+);
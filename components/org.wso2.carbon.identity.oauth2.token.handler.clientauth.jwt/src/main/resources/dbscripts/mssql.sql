@@ -0,0 +1,17 @@
+IF NOT EXISTS (SELECT * FROM SYS.OBJECTS WHERE OBJECT_ID = OBJECT_ID(N'[DBO].[IDN_OIDC_JTI_DIGEST]') AND TYPE IN (N'U'))
+CREATE TABLE IDN_OIDC_JTI_DIGEST (
+            JTI_DIGEST BINARY(16) NOT NULL,
+            EXP_TIME DATETIME NOT NULL,
+            TIME_CREATED DATETIME NOT NULL,
+            PRIMARY KEY (JTI_DIGEST)
+);
+
+CREATE INDEX IDX_JTI_DIGEST_EXP_TIME ON IDN_OIDC_JTI_DIGEST (EXP_TIME);
+
+IF NOT EXISTS (SELECT * FROM SYS.OBJECTS WHERE OBJECT_ID = OBJECT_ID(N'[DBO].[IDN_OIDC_JTI_LEASE]') AND TYPE IN (N'U'))
+CREATE TABLE IDN_OIDC_JTI_LEASE (
+            LEASE_NAME VARCHAR(100) NOT NULL,
+            NODE_ID VARCHAR(255) NOT NULL,
+            EXPIRY_TIME DATETIME NOT NULL,
+            PRIMARY KEY (LEASE_NAME)
+);
@@ -0,0 +1,14 @@
+CREATE TABLE IDN_OIDC_JTI_DIGEST (
+            JTI_DIGEST RAW(16) NOT NULL,
+            EXP_TIME TIMESTAMP NOT NULL,
+            TIME_CREATED TIMESTAMP NOT NULL,
+            PRIMARY KEY (JTI_DIGEST))
+/
+CREATE INDEX IDX_JTI_DIGEST_EXP_TIME ON IDN_OIDC_JTI_DIGEST (EXP_TIME)
+/
+CREATE TABLE IDN_OIDC_JTI_LEASE (
+            LEASE_NAME VARCHAR2(100) NOT NULL,
+            NODE_ID VARCHAR2(255) NOT NULL,
+            EXPIRY_TIME TIMESTAMP NOT NULL,
+            PRIMARY KEY (LEASE_NAME))
+/
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache;
+
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache.AudienceCache.Audiences;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+public class AudienceCacheTest {
+
+    private static final String TENANT_DOMAIN = "carbon.super";
+    private static final String ORG_ID = "10084a8d-113f-4211-a0d5-efe36b082211";
+    private static final String TOKEN_EP = "https://localhost:9443/oauth2/token";
+    private static final String PAR_EP = "https://localhost:9443/oauth2/par";
+    private static final String ISSUER = "https://localhost:9443/issuer";
+
+    @Test
+    public void testGetAndPut() {
+
+        AudienceCache audienceCache = new AudienceCache();
+        assertNull(audienceCache.get(TENANT_DOMAIN, null, false));
+
+        Audiences audiences = audiences(TOKEN_EP);
+        audienceCache.put(TENANT_DOMAIN, null, false, audiences);
+        assertSame(audienceCache.get(TENANT_DOMAIN, null, false), audiences);
+        // Organization qualified and mTLS requests accept other endpoints.
+        assertNull(audienceCache.get(TENANT_DOMAIN, ORG_ID, false));
+        assertNull(audienceCache.get(TENANT_DOMAIN, null, true));
+
+        Audiences orgAudiences = audiences("https://localhost:9443/o/" + ORG_ID + "/oauth2/token");
+        audienceCache.put(TENANT_DOMAIN, ORG_ID, false, orgAudiences);
+        assertSame(audienceCache.get(TENANT_DOMAIN, ORG_ID, false), orgAudiences);
+        assertSame(audienceCache.get(TENANT_DOMAIN, null, false), audiences);
+    }
+
+    @Test
+    public void testParAudiences() {
+
+        Set<String> parAudiences = new HashSet<>(Arrays.asList(TOKEN_EP, PAR_EP, ISSUER));
+        Audiences audiences = new Audiences(new HashSet<>(Arrays.asList(TOKEN_EP, PAR_EP)), PAR_EP, parAudiences);
+        assertFalse(audiences.getAudiences(TOKEN_EP).contains(ISSUER));
+        assertFalse(audiences.getAudiences(null).contains(ISSUER));
+        assertTrue(audiences.getAudiences(PAR_EP).contains(ISSUER));
+        assertTrue(audiences.getAudiences(PAR_EP).contains(TOKEN_EP));
+
+        Audiences withoutIssuer = new Audiences(Collections.singleton(TOKEN_EP), PAR_EP, null);
+        assertNull(withoutIssuer.getAudiences(PAR_EP));
+        assertEquals(withoutIssuer.getAudiences(TOKEN_EP), Collections.singleton(TOKEN_EP));
+    }
+
+    @Test
+    public void testInvalidation() {
+
+        AudienceCache audienceCache = new AudienceCache();
+        audienceCache.put(TENANT_DOMAIN, null, false, audiences(TOKEN_EP));
+        audienceCache.put(TENANT_DOMAIN, ORG_ID, false, audiences(TOKEN_EP));
+        audienceCache.put(TENANT_DOMAIN, null, true, audiences(TOKEN_EP));
+        audienceCache.put("wso2.com", null, false, audiences(TOKEN_EP));
+
+        audienceCache.invalidate(TENANT_DOMAIN);
+        assertNull(audienceCache.get(TENANT_DOMAIN, null, false));
+        assertNull(audienceCache.get(TENANT_DOMAIN, ORG_ID, false));
+        assertNull(audienceCache.get(TENANT_DOMAIN, null, true));
+        assertEquals(audienceCache.size(), 1);
+    }
+
+    @Test
+    public void testExpiry() throws Exception {
+
+        AudienceCache audienceCache = new AudienceCache(10, 50);
+        audienceCache.put(TENANT_DOMAIN, null, false, audiences(TOKEN_EP));
+        assertEquals(audienceCache.size(), 1);
+
+        Thread.sleep(100);
+        assertNull(audienceCache.get(TENANT_DOMAIN, null, false));
+        assertEquals(audienceCache.size(), 0);
+    }
+
+    @Test
+    public void testCapacity() {
+
+        AudienceCache audienceCache = new AudienceCache(2, 60000);
+        for (int i = 0; i < 5; i++) {
+            audienceCache.put(TENANT_DOMAIN + i, null, false, audiences(TOKEN_EP));
+        }
+        assertEquals(audienceCache.size(), 2);
+        assertEquals(audienceCache.get(TENANT_DOMAIN + 4, null, false).getParEndpoint(), PAR_EP);
+    }
+
+    private static Audiences audiences(String tokenEndpoint) {
+
+        Set<String> audiences = new HashSet<>(Arrays.asList(tokenEndpoint, PAR_EP));
+        Set<String> parAudiences = new HashSet<>(audiences);
+        parAudiences.add(ISSUER);
+        return new Audiences(audiences, PAR_EP, parAudiences);
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache;
+
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache.ClientAssertionPolicyCache.ClientAssertionPolicy;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+public class ClientAssertionPolicyCacheTest {
+
+    private static final String CLIENT_ID = "client-id";
+    private static final String TENANT_DOMAIN = "carbon.super";
+    private static final String OTHER_TENANT_DOMAIN = "wso2.com";
+    private static final int TENANT_ID = -1234;
+    private static final String ORG_ID = "10084a8d-113f-4211-a0d5-efe36b082211";
+
+    @Test
+    public void testGetAndPut() {
+
+        ClientAssertionPolicyCache policyCache = new ClientAssertionPolicyCache();
+        assertNull(policyCache.get(CLIENT_ID, TENANT_DOMAIN, null));
+
+        ClientAssertionPolicy policy = policy(CLIENT_ID, TENANT_ID);
+        policyCache.put(CLIENT_ID, TENANT_DOMAIN, null, policy);
+        assertSame(policyCache.get(CLIENT_ID, TENANT_DOMAIN, null), policy);
+        // The application of an organization qualified request is resolved separately.
+        assertNull(policyCache.get(CLIENT_ID, TENANT_DOMAIN, ORG_ID));
+
+        ClientAssertionPolicy orgPolicy = policy(CLIENT_ID, 1);
+        policyCache.put(CLIENT_ID, TENANT_DOMAIN, ORG_ID, orgPolicy);
+        assertSame(policyCache.get(CLIENT_ID, TENANT_DOMAIN, ORG_ID), orgPolicy);
+        assertSame(policyCache.get(CLIENT_ID, TENANT_DOMAIN, null), policy);
+    }
+
+    @Test
+    public void testTenantIsolation() {
+
+        // The same client id registered in another tenant resolves to another application.
+        ClientAssertionPolicyCache policyCache = new ClientAssertionPolicyCache();
+        ClientAssertionPolicy policy = policy(CLIENT_ID, TENANT_ID);
+        policyCache.put(CLIENT_ID, TENANT_DOMAIN, null, policy);
+        assertNull(policyCache.get(CLIENT_ID, OTHER_TENANT_DOMAIN, null));
+        assertNull(policyCache.get(CLIENT_ID, OTHER_TENANT_DOMAIN, ORG_ID));
+
+        ClientAssertionPolicy otherTenantPolicy = policy(CLIENT_ID, 1);
+        policyCache.put(CLIENT_ID, OTHER_TENANT_DOMAIN, null, otherTenantPolicy);
+        assertSame(policyCache.get(CLIENT_ID, OTHER_TENANT_DOMAIN, null), otherTenantPolicy);
+        assertSame(policyCache.get(CLIENT_ID, TENANT_DOMAIN, null), policy);
+
+        // Invalidating the application of a tenant leaves the application of the other tenant cached.
+        policyCache.invalidate(CLIENT_ID, 1);
+        assertNull(policyCache.get(CLIENT_ID, OTHER_TENANT_DOMAIN, null));
+        assertSame(policyCache.get(CLIENT_ID, TENANT_DOMAIN, null), policy);
+    }
+
+    @Test
+    public void testInvalidation() {
+
+        ClientAssertionPolicyCache policyCache = new ClientAssertionPolicyCache();
+        policyCache.put(CLIENT_ID, TENANT_DOMAIN, null, policy(CLIENT_ID, TENANT_ID));
+        policyCache.put(CLIENT_ID, TENANT_DOMAIN, ORG_ID, policy(CLIENT_ID, TENANT_ID));
+        policyCache.put(CLIENT_ID + 1, TENANT_DOMAIN, null, policy(CLIENT_ID + 1, TENANT_ID));
+        policyCache.put(CLIENT_ID + 2, TENANT_DOMAIN, null, policy(CLIENT_ID + 2, 1));
+
+        // The policies of the client are invalidated for all the accessing organizations.
+        policyCache.invalidate(CLIENT_ID, TENANT_ID);
+        assertNull(policyCache.get(CLIENT_ID, TENANT_DOMAIN, null));
+        assertNull(policyCache.get(CLIENT_ID, TENANT_DOMAIN, ORG_ID));
+        assertEquals(policyCache.size(), 2);
+
+        policyCache.invalidate(TENANT_ID);
+        assertNull(policyCache.get(CLIENT_ID + 1, TENANT_DOMAIN, null));
+        assertEquals(policyCache.get(CLIENT_ID + 2, TENANT_DOMAIN, null).getClientId(), CLIENT_ID + 2);
+    }
+
+    @Test
+    public void testExpiry() throws Exception {
+
+        ClientAssertionPolicyCache policyCache = new ClientAssertionPolicyCache(10, 50);
+        policyCache.put(CLIENT_ID, TENANT_DOMAIN, null, policy(CLIENT_ID, TENANT_ID));
+        assertEquals(policyCache.size(), 1);
+
+        Thread.sleep(100);
+        assertNull(policyCache.get(CLIENT_ID, TENANT_DOMAIN, null));
+        assertEquals(policyCache.size(), 0);
+    }
+
+    @Test
+    public void testCapacity() {
+
+        ClientAssertionPolicyCache policyCache = new ClientAssertionPolicyCache(2, 60000);
+        for (int i = 0; i < 5; i++) {
+            policyCache.put(CLIENT_ID + i, TENANT_DOMAIN, null, policy(CLIENT_ID + i, TENANT_ID));
+        }
+        assertEquals(policyCache.size(), 2);
+        assertEquals(policyCache.get(CLIENT_ID + 4, TENANT_DOMAIN, null).getClientId(), CLIENT_ID + 4);
+    }
+
+    @Test
+    public void testAllowedAlgorithms() {
+
+        ClientAssertionPolicy anyAlgorithm = policy(CLIENT_ID, TENANT_ID);
+        assertTrue(anyAlgorithm.isAllowedAlgorithm("RS256"));
+        assertTrue(anyAlgorithm.isAllowedAlgorithm("PS256"));
+
+        ClientAssertionPolicy policy = new ClientAssertionPolicy(CLIENT_ID, TENANT_DOMAIN, TENANT_ID,
+                new HashSet<>(Arrays.asList("SHA256withRSA", "RS256")), true, false, Boolean.FALSE);
+        assertTrue(policy.isAllowedAlgorithm("RS256"));
+        assertFalse(policy.isAllowedAlgorithm("PS256"));
+        assertTrue(policy.isFapiConformant());
+        assertFalse(policy.isFapi2Security());
+        assertEquals(policy.isTokenReuseAllowed(), Boolean.FALSE);
+    }
+
+    private static ClientAssertionPolicy policy(String clientId, int tenantId) {
+
+        return new ClientAssertionPolicy(clientId, TENANT_DOMAIN, tenantId, Collections.emptySet(), false, false,
+                null);
+    }
+}
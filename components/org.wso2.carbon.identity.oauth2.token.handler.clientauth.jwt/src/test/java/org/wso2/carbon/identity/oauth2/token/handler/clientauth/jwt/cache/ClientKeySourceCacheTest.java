@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache;
+
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.carbon.base.CarbonBaseConstants;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache.ClientKeySourceCache.ClientKeySource;
+
+import java.security.cert.X509Certificate;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.util.JWTTestUtil.getKeyStoreFromFile;
+
+public class ClientKeySourceCacheTest {
+
+    private static final String CLIENT_ID = "client-id";
+    private static final int TENANT_ID = -1234;
+
+    private X509Certificate certificate;
+
+    @BeforeClass
+    public void setUp() throws Exception {
+
+        certificate = (X509Certificate) getKeyStoreFromFile("testkeystore.jks", "wso2carbon",
+                System.getProperty(CarbonBaseConstants.CARBON_HOME)).getCertificate("wso2carbon");
+    }
+
+    @Test
+    public void testGetAndPut() {
+
+        ClientKeySourceCache clientKeySourceCache = new ClientKeySourceCache();
+        assertNull(clientKeySourceCache.get(CLIENT_ID, TENANT_ID));
+
+        clientKeySourceCache.put(CLIENT_ID, TENANT_ID, ClientKeySource.fromCertificate(certificate));
+        ClientKeySource keySource = clientKeySourceCache.get(CLIENT_ID, TENANT_ID);
+        assertEquals(keySource.getType(), ClientKeySource.Type.CERTIFICATE);
+        assertSame(keySource.getCertificate(), certificate);
+        assertNull(clientKeySourceCache.get(CLIENT_ID, 1));
+
+        clientKeySourceCache.put(CLIENT_ID, 1, ClientKeySource.fromJWKSURI("https://localhost/jwks"));
+        assertEquals(clientKeySourceCache.get(CLIENT_ID, 1).getType(), ClientKeySource.Type.JWKS_URI);
+        assertEquals(clientKeySourceCache.get(CLIENT_ID, 1).getJWKSURI(), "https://localhost/jwks");
+
+        clientKeySourceCache.invalidate(CLIENT_ID, TENANT_ID);
+        assertNull(clientKeySourceCache.get(CLIENT_ID, TENANT_ID));
+        assertEquals(clientKeySourceCache.get(CLIENT_ID, 1).getType(), ClientKeySource.Type.JWKS_URI);
+    }
+
+    @Test
+    public void testNegativeEntry() {
+
+        ClientKeySourceCache clientKeySourceCache = new ClientKeySourceCache();
+        clientKeySourceCache.put(CLIENT_ID, TENANT_ID, ClientKeySource.NONE);
+        assertSame(clientKeySourceCache.get(CLIENT_ID, TENANT_ID), ClientKeySource.NONE);
+        assertNull(ClientKeySource.NONE.getCertificate());
+        assertNull(ClientKeySource.NONE.getJWKSURI());
+    }
+
+    @Test
+    public void testTenantInvalidation() {
+
+        ClientKeySourceCache clientKeySourceCache = new ClientKeySourceCache();
+        clientKeySourceCache.put(CLIENT_ID, TENANT_ID, ClientKeySource.fromKeyStore(certificate));
+        clientKeySourceCache.put(CLIENT_ID + 1, TENANT_ID, ClientKeySource.NONE);
+        clientKeySourceCache.put(CLIENT_ID, 1, ClientKeySource.NONE);
+
+        clientKeySourceCache.invalidate(TENANT_ID);
+        assertNull(clientKeySourceCache.get(CLIENT_ID, TENANT_ID));
+        assertNull(clientKeySourceCache.get(CLIENT_ID + 1, TENANT_ID));
+        assertSame(clientKeySourceCache.get(CLIENT_ID, 1), ClientKeySource.NONE);
+    }
+
+    @Test
+    public void testExpiry() throws Exception {
+
+        ClientKeySourceCache clientKeySourceCache = new ClientKeySourceCache(10, 50);
+        clientKeySourceCache.put(CLIENT_ID, TENANT_ID, ClientKeySource.NONE);
+        assertSame(clientKeySourceCache.get(CLIENT_ID, TENANT_ID), ClientKeySource.NONE);
+
+        Thread.sleep(100);
+        assertNull(clientKeySourceCache.get(CLIENT_ID, TENANT_ID));
+        assertEquals(clientKeySourceCache.size(), 0);
+    }
+
+    @Test
+    public void testCapacity() {
+
+        ClientKeySourceCache clientKeySourceCache = new ClientKeySourceCache(2, 60000);
+        for (int i = 0; i < 5; i++) {
+            clientKeySourceCache.put(CLIENT_ID + i, TENANT_ID, ClientKeySource.NONE);
+        }
+        assertEquals(clientKeySourceCache.size(), 2);
+        assertSame(clientKeySourceCache.get(CLIENT_ID + 4, TENANT_ID), ClientKeySource.NONE);
+    }
+}
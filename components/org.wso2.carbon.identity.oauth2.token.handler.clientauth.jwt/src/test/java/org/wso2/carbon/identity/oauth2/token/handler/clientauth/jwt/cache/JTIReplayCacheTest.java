@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache;
+
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+
+public class JTIReplayCacheTest {
+
+    private static final long TICK_IN_MILLIS = 1000;
+    private static final long START_TIME = 1700000000000L;
+
+    @Test
+    public void testPutIfAbsent() {
+
+        JTIReplayCache jtiReplayCache = new JTIReplayCache(TICK_IN_MILLIS);
+        JWTCacheKey jwtCacheKey = new JWTCacheKey("jti-1", -1234);
+        JWTCacheEntry jwtCacheEntry = new JWTCacheEntry(START_TIME + 5000);
+
+        assertNull(jtiReplayCache.putIfAbsent(jwtCacheKey, jwtCacheEntry, START_TIME + 5000, START_TIME));
+        assertEquals(jtiReplayCache.putIfAbsent(jwtCacheKey, new JWTCacheEntry(START_TIME + 5000),
+                START_TIME + 5000, START_TIME + 1000), jwtCacheEntry);
+        assertNull(jtiReplayCache.putIfAbsent(new JWTCacheKey("jti-1", 1), jwtCacheEntry, START_TIME + 5000,
+                START_TIME + 1000));
+    }
+
+    @Test
+    public void testEvictionAtEvictionTime() {
+
+        JTIReplayCache jtiReplayCache = new JTIReplayCache(TICK_IN_MILLIS);
+        JWTCacheKey jwtCacheKey = new JWTCacheKey("jti-2", -1234);
+        jtiReplayCache.put(jwtCacheKey, new JWTCacheEntry(START_TIME + 2000), START_TIME + 2500, START_TIME);
+
+        assertNotNull(jtiReplayCache.get(jwtCacheKey, START_TIME + 2499));
+        assertNull(jtiReplayCache.get(jwtCacheKey, START_TIME + 2500));
+        // The entry is evicted within a tick of its eviction time.
+        jtiReplayCache.advance(START_TIME + 2500 + TICK_IN_MILLIS);
+        assertEquals(jtiReplayCache.size(), 0);
+        // An evicted JTI is no longer a replay.
+        assertNull(jtiReplayCache.putIfAbsent(jwtCacheKey, new JWTCacheEntry(START_TIME + 9000), START_TIME + 9000,
+                START_TIME + 5000));
+    }
+
+    @Test
+    public void testEvictionAcrossLevels() {
+
+        JTIReplayCache jtiReplayCache = new JTIReplayCache(TICK_IN_MILLIS);
+        // Eviction times spread over the first three levels of the wheel.
+        long[] lifetimes = {1, 63, 64, 65, 4095, 4096, 4097, 100000};
+        for (int i = 0; i < lifetimes.length; i++) {
+            long evictionTime = START_TIME + lifetimes[i] * TICK_IN_MILLIS;
+            jtiReplayCache.put(new JWTCacheKey("jti-" + i, -1234), new JWTCacheEntry(evictionTime), evictionTime,
+                    START_TIME);
+        }
+        for (int i = 0; i < lifetimes.length; i++) {
+            long evictionTime = START_TIME + lifetimes[i] * TICK_IN_MILLIS;
+            jtiReplayCache.advance(evictionTime - 1);
+            assertEquals(jtiReplayCache.size(), lifetimes.length - i, "Entry " + i + " was evicted early.");
+            jtiReplayCache.advance(evictionTime + TICK_IN_MILLIS - 1);
+            assertEquals(jtiReplayCache.size(), lifetimes.length - i - 1, "Entry " + i + " was not evicted.");
+        }
+    }
+
+    @Test
+    public void testEvictionBeyondWheelSpan() {
+
+        JTIReplayCache jtiReplayCache = new JTIReplayCache(1);
+        JWTCacheKey jwtCacheKey = new JWTCacheKey("jti-3", -1234);
+        // Longer than the 2^24 ticks covered by the wheel.
+        long evictionTime = START_TIME + 20000000L;
+        jtiReplayCache.put(jwtCacheKey, new JWTCacheEntry(evictionTime), evictionTime, START_TIME);
+        jtiReplayCache.put(new JWTCacheKey("jti-4", -1234), new JWTCacheEntry(START_TIME + 10), START_TIME + 10,
+                START_TIME);
+
+        jtiReplayCache.advance(evictionTime - 1);
+        assertEquals(jtiReplayCache.size(), 1);
+        assertNotNull(jtiReplayCache.get(jwtCacheKey, evictionTime - 1));
+        jtiReplayCache.advance(evictionTime);
+        assertEquals(jtiReplayCache.size(), 0);
+    }
+
+    @Test
+    public void testReplaceAndRemove() throws Exception {
+
+        JTIReplayCache jtiReplayCache = new JTIReplayCache(TICK_IN_MILLIS);
+        JWTCacheKey jwtCacheKey = new JWTCacheKey("jti-5", -1234);
+        jtiReplayCache.put(jwtCacheKey, new JWTCacheEntry(START_TIME + 2000), START_TIME + 2000, START_TIME);
+        // Replacing the entry re-schedules its eviction.
+        jtiReplayCache.put(jwtCacheKey, new JWTCacheEntry(START_TIME + 10000), START_TIME + 10000, START_TIME);
+        jtiReplayCache.advance(START_TIME + 5000);
+        assertEquals(jtiReplayCache.get(jwtCacheKey, START_TIME + 5000).getExpiryTime(), START_TIME + 10000);
+
+        jtiReplayCache.remove(jwtCacheKey);
+        assertNull(jtiReplayCache.get(jwtCacheKey, START_TIME + 5000));
+        assertEquals(jtiReplayCache.size(), 0);
+    }
+
+    @Test
+    public void testEvictionAfterIdle() {
+
+        JTIReplayCache jtiReplayCache = new JTIReplayCache(1);
+        JWTCacheKey shortLivedKey = new JWTCacheKey("jti-6", -1234);
+        JWTCacheKey longLivedKey = new JWTCacheKey("jti-7", -1234);
+        jtiReplayCache.put(shortLivedKey, new JWTCacheEntry(START_TIME + 100), START_TIME + 100, START_TIME);
+        jtiReplayCache.put(longLivedKey, new JWTCacheEntry(START_TIME + 5000000), START_TIME + 5000000, START_TIME);
+
+        // Millions of ticks pass without any request, within the span of the wheel.
+        jtiReplayCache.advance(START_TIME + 4000000);
+        assertEquals(jtiReplayCache.size(), 1);
+        assertNull(jtiReplayCache.get(shortLivedKey, START_TIME + 4000000));
+        assertNotNull(jtiReplayCache.get(longLivedKey, START_TIME + 4000000));
+        jtiReplayCache.advance(START_TIME + 4999999);
+        assertEquals(jtiReplayCache.size(), 1);
+        jtiReplayCache.advance(START_TIME + 5000000);
+        assertEquals(jtiReplayCache.size(), 0);
+    }
+
+    @Test
+    public void testConcurrentPutIfAbsent() throws Exception {
+
+        JTIReplayCache jtiReplayCache = new JTIReplayCache(TICK_IN_MILLIS);
+        JWTCacheKey[] jwtCacheKeys = new JWTCacheKey[1000];
+        for (int i = 0; i < jwtCacheKeys.length; i++) {
+            jwtCacheKeys[i] = new JWTCacheKey("jti-" + i, -1234);
+        }
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 4000; i++) {
+                JWTCacheKey jwtCacheKey = jwtCacheKeys[i % jwtCacheKeys.length];
+                long currentTime = START_TIME + i;
+                results.add(executorService.submit(() -> jtiReplayCache.putIfAbsent(jwtCacheKey,
+                        new JWTCacheEntry(START_TIME + 60000), START_TIME + 60000, currentTime) == null));
+            }
+            int accepted = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get(10, TimeUnit.SECONDS)) {
+                    accepted++;
+                }
+            }
+            // Each JTI is accepted exactly once.
+            assertEquals(accepted, 1000);
+            assertEquals(jtiReplayCache.size(), 1000);
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,303 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jose.util.Base64URL;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.sun.net.httpserver.HttpServer;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
+
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests the JWKS cache against a local HTTP server serving the JWKS.
+ */
+public class JWKSCacheTest {
+
+    private static final String JWKS_PATH = "/jwks";
+
+    private HttpServer httpServer;
+    private String jwksUri;
+    private final AtomicInteger fetchCount = new AtomicInteger();
+    private volatile String jwks;
+    private volatile int status = 200;
+    private volatile long delayInMillis;
+    private RSAKey key1;
+    private RSAKey key2;
+
+    @BeforeClass
+    public void setUp() throws Exception {
+
+        key1 = new RSAKeyGenerator(2048).keyID("key-1").generate();
+        key2 = new RSAKeyGenerator(2048).keyID("key-2").generate();
+        httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        httpServer.setExecutor(Executors.newCachedThreadPool());
+        httpServer.createContext(JWKS_PATH, exchange -> {
+            fetchCount.incrementAndGet();
+            try {
+                Thread.sleep(delayInMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] response = jwks.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, response.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(response);
+            }
+        });
+        httpServer.start();
+        jwksUri = "http://127.0.0.1:" + httpServer.getAddress().getPort() + JWKS_PATH;
+    }
+
+    @AfterClass
+    public void tearDown() {
+
+        httpServer.stop(0);
+    }
+
+    @AfterMethod
+    public void reset() {
+
+        fetchCount.set(0);
+        status = 200;
+        delayInMillis = 0;
+    }
+
+    @Test
+    public void testGetVerifiers() throws Exception {
+
+        jwks = new JWKSet(key1.toPublicJWK()).toString();
+        JWKSCache jwksCache = new JWKSCache(10, 60000, 60000, 60000);
+        try {
+            assertTrue(verify(jwksCache, sign(key1, "key-1")));
+            // An assertion without a key id is verified with any key of the algorithm family.
+            assertTrue(verify(jwksCache, sign(key1, null)));
+            // A key of another algorithm family does not match.
+            assertTrue(jwksCache.getVerifiers(jwksUri, "key-1", JWSAlgorithm.ES256).isEmpty());
+            // The verifiers of a key id are not copied for each assertion.
+            assertSame(jwksCache.getVerifiers(jwksUri, "key-1", JWSAlgorithm.RS256),
+                    jwksCache.getVerifiers(jwksUri, "key-1", JWSAlgorithm.RS256));
+            // An unknown key id within the minimum refetch interval does not refetch the JWKS.
+            assertFalse(verify(jwksCache, sign(key2, "key-2")));
+            assertEquals(fetchCount.get(), 1);
+        } finally {
+            jwksCache.shutdown();
+        }
+    }
+
+    @Test
+    public void testGetVerifiersByThumbprint() throws Exception {
+
+        List<JWK> keys = new ArrayList<>();
+        keys.add(new RSAKey.Builder(key1.toPublicJWK()).keyID(null)
+                .x509CertSHA256Thumbprint(new Base64URL("thumbprint-1")).build());
+        keys.add(new RSAKey.Builder(key2.toPublicJWK()).keyID(null)
+                .x509CertSHA256Thumbprint(new Base64URL("thumbprint-2")).build());
+        jwks = new JWKSet(keys).toString();
+        JWKSCache jwksCache = new JWKSCache(10, 60000, 60000, 60000);
+        try {
+            List<JWSVerifier> verifiers = jwksCache.getVerifiers(jwksUri, null, "thumbprint-1", JWSAlgorithm.RS256);
+            assertEquals(verifiers.size(), 1);
+            assertTrue(sign(key1, null).verify(verifiers.get(0)));
+            // An unknown thumbprint falls back to all the keys of the algorithm family.
+            assertEquals(jwksCache.getVerifiers(jwksUri, null, "thumbprint-3", JWSAlgorithm.RS256).size(), 2);
+            assertEquals(fetchCount.get(), 1);
+        } finally {
+            jwksCache.shutdown();
+        }
+    }
+
+    @Test
+    public void testUnknownKeyIdRefetch() throws Exception {
+
+        jwks = new JWKSet(key1.toPublicJWK()).toString();
+        JWKSCache jwksCache = new JWKSCache(10, 60000, 60000, 50);
+        try {
+            assertTrue(verify(jwksCache, sign(key1, "key-1")));
+
+            // The client rotates its keys.
+            List<JWK> keys = new ArrayList<>();
+            keys.add(key1.toPublicJWK());
+            keys.add(key2.toPublicJWK());
+            jwks = new JWKSet(keys).toString();
+            Thread.sleep(100);
+            assertTrue(verify(jwksCache, sign(key2, "key-2")));
+            assertEquals(fetchCount.get(), 2);
+
+            // The refetch for an unknown key id is throttled.
+            assertFalse(verify(jwksCache, sign(key2, "key-3")));
+            assertEquals(fetchCount.get(), 2);
+        } finally {
+            jwksCache.shutdown();
+        }
+    }
+
+    @Test
+    public void testSingleFlightFetch() throws Exception {
+
+        jwks = new JWKSet(key1.toPublicJWK()).toString();
+        delayInMillis = 300;
+        JWKSCache jwksCache = new JWKSCache(10, 60000, 60000, 60000);
+        int threadCount = 8;
+        ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+        try {
+            SignedJWT signedJWT = sign(key1, "key-1");
+            CountDownLatch startLatch = new CountDownLatch(1);
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < threadCount; i++) {
+                results.add(executorService.submit(() -> {
+                    startLatch.await();
+                    return verify(jwksCache, signedJWT);
+                }));
+            }
+            startLatch.countDown();
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+            assertEquals(fetchCount.get(), 1);
+        } finally {
+            executorService.shutdownNow();
+            jwksCache.shutdown();
+        }
+    }
+
+    @Test
+    public void testStaleWhileRevalidate() throws Exception {
+
+        jwks = new JWKSet(key1.toPublicJWK()).toString();
+        JWKSCache jwksCache = new JWKSCache(10, 50, 60000, 60000);
+        try {
+            // The key set is refreshed ahead of its max age, without waiting for a request.
+            delayInMillis = 300;
+            assertTrue(verify(jwksCache, sign(key1, "key-1")));
+            waitForFetchCount(2);
+            Thread.sleep(50);
+
+            // The stale keys are served while the JWKS is refreshed in the background.
+            long startTime = System.currentTimeMillis();
+            assertTrue(verify(jwksCache, sign(key1, "key-1")));
+            assertTrue(System.currentTimeMillis() - startTime < delayInMillis);
+            assertEquals(fetchCount.get(), 2);
+        } finally {
+            jwksCache.shutdown();
+        }
+    }
+
+    @Test
+    public void testUnusedKeySetIsNotRefreshed() throws Exception {
+
+        jwks = new JWKSet(key1.toPublicJWK()).toString();
+        JWKSCache jwksCache = new JWKSCache(10, 50, 60000, 60000);
+        try {
+            assertTrue(verify(jwksCache, sign(key1, "key-1")));
+            waitForFetchCount(2);
+            // The refreshed key set is not used, hence it is left to age out.
+            Thread.sleep(200);
+            assertEquals(fetchCount.get(), 2);
+        } finally {
+            jwksCache.shutdown();
+        }
+    }
+
+    @Test
+    public void testStaleOnFailure() throws Exception {
+
+        jwks = new JWKSet(key1.toPublicJWK()).toString();
+        JWKSCache jwksCache = new JWKSCache(10, 60000, 60000, 0);
+        try {
+            assertTrue(verify(jwksCache, sign(key1, "key-1")));
+
+            // The cached keys are kept when the refetch fails.
+            status = 500;
+            assertFalse(verify(jwksCache, sign(key2, "key-2")));
+            assertEquals(fetchCount.get(), 2);
+            assertTrue(verify(jwksCache, sign(key1, "key-1")));
+        } finally {
+            jwksCache.shutdown();
+        }
+    }
+
+    @Test(expectedExceptions = IdentityOAuth2Exception.class)
+    public void testFetchFailure() throws Exception {
+
+        status = 500;
+        JWKSCache jwksCache = new JWKSCache(10, 60000, 60000, 60000);
+        try {
+            jwksCache.getVerifiers(jwksUri, "key-1", JWSAlgorithm.RS256);
+        } finally {
+            jwksCache.shutdown();
+        }
+    }
+
+    private boolean verify(JWKSCache jwksCache, SignedJWT signedJWT) throws Exception {
+
+        for (JWSVerifier verifier : jwksCache.getVerifiers(jwksUri, signedJWT.getHeader().getKeyID(),
+                signedJWT.getHeader().getAlgorithm())) {
+            if (signedJWT.verify(verifier)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void waitForFetchCount(int expectedFetchCount) throws InterruptedException {
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (fetchCount.get() < expectedFetchCount && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static SignedJWT sign(RSAKey rsaKey, String keyId) throws Exception {
+
+        SignedJWT signedJWT = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(keyId).build(),
+                new JWTClaimsSet.Builder().subject("client-id").build());
+        signedJWT.sign(new RSASSASigner(rsaKey));
+        return signedJWT;
+    }
+}
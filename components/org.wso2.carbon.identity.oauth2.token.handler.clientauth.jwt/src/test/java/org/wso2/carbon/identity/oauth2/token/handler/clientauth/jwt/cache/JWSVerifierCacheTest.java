@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache;
+
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.RSASSAVerifier;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.carbon.base.CarbonBaseConstants;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache.ClientKeySourceCache.ClientKeySource;
+
+import java.security.cert.X509Certificate;
+import java.security.interfaces.RSAPublicKey;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.util.JWTTestUtil.getKeyStoreFromFile;
+
+public class JWSVerifierCacheTest {
+
+    private static final String CLIENT_ID = "client-id";
+    private static final int TENANT_ID = -1234;
+
+    private X509Certificate certificate;
+    private X509Certificate renewedCertificate;
+    private ClientKeySource keySource;
+    private ClientKeySource renewedKeySource;
+
+    @BeforeClass
+    public void setUp() throws Exception {
+
+        certificate = (X509Certificate) getKeyStoreFromFile("testkeystore.jks", "wso2carbon",
+                System.getProperty(CarbonBaseConstants.CARBON_HOME)).getCertificate("wso2carbon");
+        renewedCertificate = (X509Certificate) getKeyStoreFromFile("wso2carbon.jks", "wso2carbon",
+                System.getProperty(CarbonBaseConstants.CARBON_HOME)).getCertificate("wso2carbon");
+        keySource = ClientKeySource.fromCertificate(certificate);
+        renewedKeySource = ClientKeySource.fromKeyStore(renewedCertificate);
+    }
+
+    @Test
+    public void testGetAndPut() throws Exception {
+
+        JWSVerifierCache jwsVerifierCache = new JWSVerifierCache();
+        assertNull(jwsVerifierCache.get(CLIENT_ID, TENANT_ID, JWSVerifierCache.AlgorithmFamily.RSA, keySource));
+
+        JWSVerifier verifier = new RSASSAVerifier((RSAPublicKey) certificate.getPublicKey());
+        jwsVerifierCache.put(CLIENT_ID, TENANT_ID, JWSVerifierCache.AlgorithmFamily.RSA, keySource, verifier);
+        assertSame(jwsVerifierCache.get(CLIENT_ID, TENANT_ID, JWSVerifierCache.AlgorithmFamily.RSA, keySource),
+                verifier);
+        // Verifiers are not shared across tenants and algorithm families.
+        assertNull(jwsVerifierCache.get(CLIENT_ID, 1, JWSVerifierCache.AlgorithmFamily.RSA, keySource));
+        assertNull(jwsVerifierCache.get(CLIENT_ID, TENANT_ID, JWSVerifierCache.AlgorithmFamily.EC, keySource));
+
+        jwsVerifierCache.invalidate(CLIENT_ID, TENANT_ID);
+        assertNull(jwsVerifierCache.get(CLIENT_ID, TENANT_ID, JWSVerifierCache.AlgorithmFamily.RSA, keySource));
+    }
+
+    @Test
+    public void testCertificateChange() throws Exception {
+
+        JWSVerifierCache jwsVerifierCache = new JWSVerifierCache();
+        jwsVerifierCache.put(CLIENT_ID, TENANT_ID, JWSVerifierCache.AlgorithmFamily.RSA, keySource,
+                new RSASSAVerifier((RSAPublicKey) certificate.getPublicKey()));
+        // The verifier of the previous certificate is not returned for the renewed certificate.
+        assertNull(jwsVerifierCache.get(CLIENT_ID, TENANT_ID, JWSVerifierCache.AlgorithmFamily.RSA,
+                renewedKeySource));
+
+        JWSVerifier renewedVerifier = new RSASSAVerifier((RSAPublicKey) renewedCertificate.getPublicKey());
+        jwsVerifierCache.put(CLIENT_ID, TENANT_ID, JWSVerifierCache.AlgorithmFamily.RSA, renewedKeySource,
+                renewedVerifier);
+        assertSame(jwsVerifierCache.get(CLIENT_ID, TENANT_ID, JWSVerifierCache.AlgorithmFamily.RSA,
+                renewedKeySource), renewedVerifier);
+        assertNull(jwsVerifierCache.get(CLIENT_ID, TENANT_ID, JWSVerifierCache.AlgorithmFamily.RSA, keySource));
+        assertEquals(jwsVerifierCache.size(), 1);
+    }
+
+    @Test
+    public void testCapacity() throws Exception {
+
+        JWSVerifierCache jwsVerifierCache = new JWSVerifierCache(2);
+        JWSVerifier verifier = new RSASSAVerifier((RSAPublicKey) certificate.getPublicKey());
+        for (int i = 0; i < 5; i++) {
+            jwsVerifierCache.put(CLIENT_ID + i, TENANT_ID, JWSVerifierCache.AlgorithmFamily.RSA, keySource,
+                    verifier);
+        }
+        assertEquals(jwsVerifierCache.size(), 2);
+        assertSame(jwsVerifierCache.get(CLIENT_ID + 4, TENANT_ID, JWSVerifierCache.AlgorithmFamily.RSA,
+                keySource), verifier);
+    }
+
+    @Test
+    public void testEvictionOrder() throws Exception {
+
+        JWSVerifierCache jwsVerifierCache = new JWSVerifierCache(2);
+        JWSVerifier verifier = new RSASSAVerifier((RSAPublicKey) certificate.getPublicKey());
+        jwsVerifierCache.put(CLIENT_ID + 0, TENANT_ID, JWSVerifierCache.AlgorithmFamily.RSA, keySource, verifier);
+        jwsVerifierCache.put(CLIENT_ID + 1, TENANT_ID, JWSVerifierCache.AlgorithmFamily.RSA, keySource, verifier);
+        jwsVerifierCache.put(CLIENT_ID + 2, TENANT_ID, JWSVerifierCache.AlgorithmFamily.RSA, keySource, verifier);
+        // The verifier cached first is evicted.
+        assertNull(jwsVerifierCache.get(CLIENT_ID + 0, TENANT_ID, JWSVerifierCache.AlgorithmFamily.RSA, keySource));
+        assertSame(jwsVerifierCache.get(CLIENT_ID + 1, TENANT_ID, JWSVerifierCache.AlgorithmFamily.RSA, keySource),
+                verifier);
+        assertSame(jwsVerifierCache.get(CLIENT_ID + 2, TENANT_ID, JWSVerifierCache.AlgorithmFamily.RSA, keySource),
+                verifier);
+    }
+
+    @Test
+    public void testInvalidateTenant() throws Exception {
+
+        JWSVerifierCache jwsVerifierCache = new JWSVerifierCache();
+        JWSVerifier verifier = new RSASSAVerifier((RSAPublicKey) certificate.getPublicKey());
+        jwsVerifierCache.put(CLIENT_ID, TENANT_ID, JWSVerifierCache.AlgorithmFamily.RSA, keySource, verifier);
+        jwsVerifierCache.put(CLIENT_ID, 1, JWSVerifierCache.AlgorithmFamily.RSA, keySource, verifier);
+
+        jwsVerifierCache.invalidate(TENANT_ID);
+        assertNull(jwsVerifierCache.get(CLIENT_ID, TENANT_ID, JWSVerifierCache.AlgorithmFamily.RSA, keySource));
+        assertSame(jwsVerifierCache.get(CLIENT_ID, 1, JWSVerifierCache.AlgorithmFamily.RSA, keySource), verifier);
+    }
+}
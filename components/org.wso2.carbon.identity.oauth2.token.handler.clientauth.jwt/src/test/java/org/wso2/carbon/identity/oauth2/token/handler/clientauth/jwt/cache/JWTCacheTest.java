@@ -74,4 +74,17 @@ public class JWTCacheTest {
         assertNull(jwtCache.getValueFromCache(jwtCacheKey));
 
     }
+
+    @Test()
+    public void testCompactCacheEntry() throws Exception {
+        JWTCacheEntry compactEntry = new JWTCacheEntry(1000L);
+        assertEquals(compactEntry.getExpiryTime(), 1000L);
+        assertNull(compactEntry.getJwt());
+        assertNull(compactEntry.getEncodedJWt());
+    }
+
+    @Test()
+    public void testExpiryTimeOfSerializedJWTEntry() throws Exception {
+        assertEquals(cacheEntry.getExpiryTime(), signedJWT.getJWTClaimsSet().getExpirationTime().getTime());
+    }
 }
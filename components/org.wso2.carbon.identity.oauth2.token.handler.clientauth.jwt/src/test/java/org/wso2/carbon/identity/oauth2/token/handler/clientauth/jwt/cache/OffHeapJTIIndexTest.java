@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache;
+
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertTrue;
+
+public class OffHeapJTIIndexTest {
+
+    private static final long CURRENT_TIME = 1700000000000L;
+    private static final long EVICTION_TIME = CURRENT_TIME + 60000;
+
+    @Test
+    public void testPutIfAbsent() {
+
+        OffHeapJTIIndex offHeapJTIIndex = new OffHeapJTIIndex(1024);
+        assertEquals(offHeapJTIIndex.putIfAbsent("jti-1", -1234, EVICTION_TIME, CURRENT_TIME),
+                OffHeapJTIIndex.Result.INSERTED);
+        assertEquals(offHeapJTIIndex.putIfAbsent("jti-1", -1234, EVICTION_TIME, CURRENT_TIME + 1000),
+                OffHeapJTIIndex.Result.REPLAYED);
+        assertEquals(offHeapJTIIndex.putIfAbsent("jti-1", 1, EVICTION_TIME, CURRENT_TIME),
+                OffHeapJTIIndex.Result.INSERTED);
+        assertTrue(offHeapJTIIndex.contains("jti-1", -1234, CURRENT_TIME));
+        assertFalse(offHeapJTIIndex.contains("jti-2", -1234, CURRENT_TIME));
+    }
+
+    @Test
+    public void testEviction() {
+
+        OffHeapJTIIndex offHeapJTIIndex = new OffHeapJTIIndex(1024);
+        offHeapJTIIndex.putIfAbsent("jti-1", -1234, EVICTION_TIME, CURRENT_TIME);
+        assertTrue(offHeapJTIIndex.contains("jti-1", -1234, EVICTION_TIME - 1));
+        assertFalse(offHeapJTIIndex.contains("jti-1", -1234, EVICTION_TIME));
+        // The slot of an evicted JTI is reused.
+        assertEquals(offHeapJTIIndex.putIfAbsent("jti-1", -1234, EVICTION_TIME + 60000, EVICTION_TIME),
+                OffHeapJTIIndex.Result.INSERTED);
+        assertTrue(offHeapJTIIndex.contains("jti-1", -1234, EVICTION_TIME + 1000));
+    }
+
+    @Test
+    public void testRemove() {
+
+        OffHeapJTIIndex offHeapJTIIndex = new OffHeapJTIIndex(1024);
+        offHeapJTIIndex.putIfAbsent("jti-1", -1234, EVICTION_TIME, CURRENT_TIME);
+        offHeapJTIIndex.remove("jti-1", -1234, CURRENT_TIME);
+        assertFalse(offHeapJTIIndex.contains("jti-1", -1234, CURRENT_TIME));
+        assertEquals(offHeapJTIIndex.putIfAbsent("jti-1", -1234, EVICTION_TIME, CURRENT_TIME),
+                OffHeapJTIIndex.Result.INSERTED);
+    }
+
+    @Test
+    public void testFullIndex() {
+
+        OffHeapJTIIndex offHeapJTIIndex = new OffHeapJTIIndex(1, 4);
+        int inserted = 0;
+        boolean full = false;
+        for (int i = 0; i < 16 * 64 + 1; i++) {
+            OffHeapJTIIndex.Result result = offHeapJTIIndex.putIfAbsent("jti-" + i, -1234, EVICTION_TIME,
+                    CURRENT_TIME);
+            if (result == OffHeapJTIIndex.Result.INSERTED) {
+                inserted++;
+            } else {
+                assertEquals(result, OffHeapJTIIndex.Result.FULL);
+                full = true;
+            }
+        }
+        assertTrue(full);
+        assertTrue(inserted <= offHeapJTIIndex.getCapacity());
+        // Once evicted, the slots can be reused.
+        assertEquals(offHeapJTIIndex.putIfAbsent("jti-new", -1234, EVICTION_TIME + 60000, EVICTION_TIME),
+                OffHeapJTIIndex.Result.INSERTED);
+    }
+
+    @Test
+    public void testHash() {
+
+        long[] hash = OffHeapJTIIndex.hash("a-jti-longer-than-a-block", -1234);
+        assertEquals(OffHeapJTIIndex.hash("a-jti-longer-than-a-block", -1234), hash);
+        assertNotEquals(OffHeapJTIIndex.hash("a-jti-longer-than-a-block", 1), hash);
+        assertNotEquals(OffHeapJTIIndex.hash("a-jti-longer-than-a-blocK", -1234), hash);
+    }
+
+    @Test
+    public void testConcurrentPutIfAbsent() throws Exception {
+
+        // A small index, so that the threads contend on the same probe chains.
+        OffHeapJTIIndex offHeapJTIIndex = new OffHeapJTIIndex(2048);
+        int threads = 8;
+        int jtis = 1000;
+        ExecutorService executorService = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executorService.submit(() -> {
+                    start.await();
+                    int inserted = 0;
+                    for (int j = 0; j < jtis; j++) {
+                        if (offHeapJTIIndex.putIfAbsent("jti-" + j, -1234, EVICTION_TIME, CURRENT_TIME)
+                                == OffHeapJTIIndex.Result.INSERTED) {
+                            inserted++;
+                        }
+                    }
+                    return inserted;
+                }));
+            }
+            start.countDown();
+            int inserted = 0;
+            for (Future<Integer> result : results) {
+                inserted += result.get(30, TimeUnit.SECONDS);
+            }
+            // Each JTI is accepted exactly once.
+            assertEquals(inserted, jtis);
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+}
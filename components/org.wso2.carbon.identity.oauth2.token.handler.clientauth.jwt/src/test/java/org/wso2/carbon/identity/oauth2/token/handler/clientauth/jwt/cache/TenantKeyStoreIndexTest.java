@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache;
+
+import org.mockito.MockedStatic;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.carbon.base.CarbonBaseConstants;
+import org.wso2.carbon.core.util.KeyStoreManager;
+
+import java.security.KeyStore;
+import java.security.cert.X509Certificate;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertNull;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.util.JWTTestUtil.getKeyStoreFromFile;
+import static org.wso2.carbon.utils.multitenancy.MultitenantConstants.SUPER_TENANT_DOMAIN_NAME;
+import static org.wso2.carbon.utils.multitenancy.MultitenantConstants.SUPER_TENANT_ID;
+
+public class TenantKeyStoreIndexTest {
+
+    private static final String TENANT_DOMAIN = "abc.com";
+    private static final int TENANT_ID = 1;
+
+    private KeyStore keyStore;
+    private KeyStore renewedKeyStore;
+
+    @BeforeClass
+    public void setUp() throws Exception {
+
+        keyStore = getKeyStoreFromFile("testkeystore.jks", "wso2carbon",
+                System.getProperty(CarbonBaseConstants.CARBON_HOME));
+        renewedKeyStore = getKeyStoreFromFile("wso2carbon.jks", "wso2carbon",
+                System.getProperty(CarbonBaseConstants.CARBON_HOME));
+    }
+
+    @Test
+    public void testGetCertificate() throws Exception {
+
+        KeyStoreManager keyStoreManager = mock(KeyStoreManager.class);
+        when(keyStoreManager.getKeyStore("abc-com.jks")).thenReturn(keyStore);
+        try (MockedStatic<KeyStoreManager> keyStoreManagerMockedStatic = mockStatic(KeyStoreManager.class)) {
+            keyStoreManagerMockedStatic.when(() -> KeyStoreManager.getInstance(anyInt())).thenReturn(keyStoreManager);
+
+            TenantKeyStoreIndex tenantKeyStoreIndex = new TenantKeyStoreIndex();
+            assertEquals(tenantKeyStoreIndex.getCertificate(TENANT_DOMAIN, TENANT_ID, "wso2carbon"),
+                    keyStore.getCertificate("wso2carbon"));
+            // Keystore aliases are case insensitive.
+            assertEquals(tenantKeyStoreIndex.getCertificate(TENANT_DOMAIN, TENANT_ID, "WSO2Carbon"),
+                    keyStore.getCertificate("wso2carbon"));
+            assertNull(tenantKeyStoreIndex.getCertificate(TENANT_DOMAIN, TENANT_ID, "unknown"));
+            // The keystore is loaded once within the refresh interval.
+            verify(keyStoreManager, times(1)).getKeyStore("abc-com.jks");
+        }
+    }
+
+    @Test
+    public void testSuperTenantKeyStore() throws Exception {
+
+        KeyStoreManager keyStoreManager = mock(KeyStoreManager.class);
+        when(keyStoreManager.getPrimaryKeyStore()).thenReturn(renewedKeyStore);
+        try (MockedStatic<KeyStoreManager> keyStoreManagerMockedStatic = mockStatic(KeyStoreManager.class)) {
+            keyStoreManagerMockedStatic.when(() -> KeyStoreManager.getInstance(SUPER_TENANT_ID))
+                    .thenReturn(keyStoreManager);
+
+            TenantKeyStoreIndex tenantKeyStoreIndex = new TenantKeyStoreIndex();
+            assertEquals(tenantKeyStoreIndex.getCertificate(SUPER_TENANT_DOMAIN_NAME, SUPER_TENANT_ID,
+                    "wso2carbon"), renewedKeyStore.getCertificate("wso2carbon"));
+        }
+    }
+
+    @Test
+    public void testRefresh() throws Exception {
+
+        KeyStoreManager keyStoreManager = mock(KeyStoreManager.class);
+        when(keyStoreManager.getKeyStore("abc-com.jks")).thenReturn(keyStore, keyStore, renewedKeyStore);
+        try (MockedStatic<KeyStoreManager> keyStoreManagerMockedStatic = mockStatic(KeyStoreManager.class)) {
+            keyStoreManagerMockedStatic.when(() -> KeyStoreManager.getInstance(anyInt())).thenReturn(keyStoreManager);
+
+            TenantKeyStoreIndex tenantKeyStoreIndex = new TenantKeyStoreIndex(50);
+            assertEquals(tenantKeyStoreIndex.getCertificate(TENANT_DOMAIN, TENANT_ID, "wso2carbon"),
+                    keyStore.getCertificate("wso2carbon"));
+
+            // The keystore is not reloaded, hence the index is kept.
+            Thread.sleep(100);
+            assertEquals(tenantKeyStoreIndex.getCertificate(TENANT_DOMAIN, TENANT_ID, "wso2carbon"),
+                    keyStore.getCertificate("wso2carbon"));
+
+            // The keystore is reloaded, hence the index is rebuilt.
+            Thread.sleep(100);
+            assertEquals(tenantKeyStoreIndex.getCertificate(TENANT_DOMAIN, TENANT_ID, "wso2carbon"),
+                    renewedKeyStore.getCertificate("wso2carbon"));
+            assertNotEquals(renewedKeyStore.getCertificate("wso2carbon"), keyStore.getCertificate("wso2carbon"));
+            verify(keyStoreManager, times(3)).getKeyStore("abc-com.jks");
+
+            tenantKeyStoreIndex.invalidate(TENANT_ID);
+            tenantKeyStoreIndex.getCertificate(TENANT_DOMAIN, TENANT_ID, "wso2carbon");
+            verify(keyStoreManager, times(4)).getKeyStore("abc-com.jks");
+        }
+    }
+
+    @Test
+    public void testTenantsRefreshIndependently() throws Exception {
+
+        CountDownLatch slowLoadStarted = new CountDownLatch(1);
+        CountDownLatch slowLoadReleased = new CountDownLatch(1);
+        KeyStoreManager keyStoreManager = mock(KeyStoreManager.class);
+        when(keyStoreManager.getKeyStore("abc-com.jks")).thenReturn(keyStore);
+        when(keyStoreManager.getKeyStore("slow-com.jks")).thenAnswer(invocation -> {
+            slowLoadStarted.countDown();
+            slowLoadReleased.await();
+            return renewedKeyStore;
+        });
+        TenantKeyStoreIndex tenantKeyStoreIndex = new TenantKeyStoreIndex();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<X509Certificate> slowLookup = executor.submit(lookup(keyStoreManager, tenantKeyStoreIndex,
+                    "slow.com", 2));
+            slowLoadStarted.await();
+            // The keystore of another tenant is loaded while the slow keystore is still loading.
+            Future<X509Certificate> lookup = executor.submit(lookup(keyStoreManager, tenantKeyStoreIndex,
+                    TENANT_DOMAIN, TENANT_ID));
+            assertEquals(lookup.get(5, TimeUnit.SECONDS), keyStore.getCertificate("wso2carbon"));
+
+            slowLoadReleased.countDown();
+            assertEquals(slowLookup.get(5, TimeUnit.SECONDS), renewedKeyStore.getCertificate("wso2carbon"));
+        } finally {
+            slowLoadReleased.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    private static Callable<X509Certificate> lookup(KeyStoreManager keyStoreManager,
+                                                    TenantKeyStoreIndex tenantKeyStoreIndex, String tenantDomain,
+                                                    int tenantId) {
+
+        // Static mocks are thread local, hence each lookup thread mocks the keystore manager on its own.
+        return () -> {
+            try (MockedStatic<KeyStoreManager> keyStoreManagerMockedStatic = mockStatic(KeyStoreManager.class)) {
+                keyStoreManagerMockedStatic.when(() -> KeyStoreManager.getInstance(anyInt()))
+                        .thenReturn(keyStoreManager);
+                return tenantKeyStoreIndex.getCertificate(tenantDomain, tenantId, "wso2carbon");
+            }
+        };
+    }
+}
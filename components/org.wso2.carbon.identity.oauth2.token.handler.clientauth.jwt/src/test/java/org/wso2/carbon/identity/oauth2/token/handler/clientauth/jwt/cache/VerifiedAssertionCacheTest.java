@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.oauth.common.OAuth2ErrorCodes;
+import org.wso2.carbon.identity.oauth2.client.authentication.OAuthClientAuthnException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class VerifiedAssertionCacheTest {
+
+    private static final String CLIENT_ID = "client-id";
+    private static final int TENANT_ID = -1234;
+
+    private RSAKey rsaKey;
+
+    @BeforeClass
+    public void setUp() throws Exception {
+
+        rsaKey = new RSAKeyGenerator(2048).generate();
+    }
+
+    @Test
+    public void testVerify() throws Exception {
+
+        VerifiedAssertionCache verifiedAssertionCache = new VerifiedAssertionCache();
+        AtomicInteger verificationCount = new AtomicInteger();
+        SignedJWT signedJWT = sign("jti-1");
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 3; i++) {
+            assertTrue(verifiedAssertionCache.verify(signedJWT, CLIENT_ID, TENANT_ID, now + 60000, now, () -> {
+                verificationCount.incrementAndGet();
+                return true;
+            }));
+        }
+        assertEquals(verificationCount.get(), 1);
+
+        // The assertion parsed from its compact serialization is the same assertion.
+        assertTrue(verifiedAssertionCache.verify(SignedJWT.parse(signedJWT.serialize()), CLIENT_ID, TENANT_ID,
+                now + 60000, now, () -> {
+                    verificationCount.incrementAndGet();
+                    return true;
+                }));
+        assertEquals(verificationCount.get(), 1);
+
+        // Another assertion, or the same assertion of another client, is verified again.
+        verifiedAssertionCache.verify(sign("jti-2"), CLIENT_ID, TENANT_ID, now + 60000, now, () -> {
+            verificationCount.incrementAndGet();
+            return true;
+        });
+        verifiedAssertionCache.verify(signedJWT, CLIENT_ID + 1, TENANT_ID, now + 60000, now, () -> {
+            verificationCount.incrementAndGet();
+            return true;
+        });
+        assertEquals(verificationCount.get(), 3);
+
+        verifiedAssertionCache.invalidate(CLIENT_ID, TENANT_ID);
+        assertEquals(verifiedAssertionCache.size(), 1);
+    }
+
+    @Test
+    public void testInvalidateTenant() throws Exception {
+
+        VerifiedAssertionCache verifiedAssertionCache = new VerifiedAssertionCache();
+        long now = System.currentTimeMillis();
+        verifiedAssertionCache.verify(sign("jti-1"), CLIENT_ID, TENANT_ID, now + 60000, now, () -> true);
+        verifiedAssertionCache.verify(sign("jti-2"), CLIENT_ID + 1, TENANT_ID, now + 60000, now, () -> true);
+        verifiedAssertionCache.verify(sign("jti-3"), CLIENT_ID, 1, now + 60000, now, () -> true);
+        assertEquals(verifiedAssertionCache.size(), 3);
+
+        // The assertions of the deleted application's tenant are dropped, the other tenants are untouched.
+        verifiedAssertionCache.invalidate(TENANT_ID);
+        assertEquals(verifiedAssertionCache.size(), 1);
+    }
+
+    @Test
+    public void testFailedVerificationIsNotCached() throws Exception {
+
+        VerifiedAssertionCache verifiedAssertionCache = new VerifiedAssertionCache();
+        SignedJWT signedJWT = sign("jti-1");
+        long now = System.currentTimeMillis();
+        assertFalse(verifiedAssertionCache.verify(signedJWT, CLIENT_ID, TENANT_ID, now + 60000, now, () -> false));
+        assertEquals(verifiedAssertionCache.size(), 0);
+        try {
+            verifiedAssertionCache.verify(signedJWT, CLIENT_ID, TENANT_ID, now + 60000, now, () -> {
+                throw new OAuthClientAuthnException("Invalid signature", OAuth2ErrorCodes.INVALID_REQUEST);
+            });
+        } catch (OAuthClientAuthnException e) {
+            assertEquals(verifiedAssertionCache.size(), 0);
+            return;
+        }
+        throw new AssertionError("Verification failure was not propagated.");
+    }
+
+    @Test
+    public void testExpiry() throws Exception {
+
+        VerifiedAssertionCache verifiedAssertionCache = new VerifiedAssertionCache();
+        AtomicInteger verificationCount = new AtomicInteger();
+        SignedJWT signedJWT = sign("jti-1");
+        long now = System.currentTimeMillis();
+        verifiedAssertionCache.verify(signedJWT, CLIENT_ID, TENANT_ID, now + 1000, now, () -> {
+            verificationCount.incrementAndGet();
+            return true;
+        });
+        // The assertion is verified again once it has expired.
+        verifiedAssertionCache.verify(signedJWT, CLIENT_ID, TENANT_ID, now + 1000, now + 1000, () -> {
+            verificationCount.incrementAndGet();
+            return true;
+        });
+        assertEquals(verificationCount.get(), 2);
+        assertEquals(verifiedAssertionCache.size(), 0);
+    }
+
+    @Test
+    public void testConcurrentVerificationsAreCoalesced() throws Exception {
+
+        VerifiedAssertionCache verifiedAssertionCache = new VerifiedAssertionCache();
+        AtomicInteger verificationCount = new AtomicInteger();
+        SignedJWT signedJWT = sign("jti-1");
+        int threadCount = 8;
+        ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+        try {
+            CountDownLatch startLatch = new CountDownLatch(1);
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < threadCount; i++) {
+                results.add(executorService.submit(() -> {
+                    startLatch.await();
+                    long now = System.currentTimeMillis();
+                    return verifiedAssertionCache.verify(signedJWT, CLIENT_ID, TENANT_ID, now + 60000, now, () -> {
+                        verificationCount.incrementAndGet();
+                        try {
+                            Thread.sleep(300);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return true;
+                    });
+                }));
+            }
+            startLatch.countDown();
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+            assertEquals(verificationCount.get(), 1);
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private SignedJWT sign(String jti) throws Exception {
+
+        SignedJWT signedJWT = new SignedJWT(new JWSHeader(JWSAlgorithm.RS256),
+                new JWTClaimsSet.Builder().subject(CLIENT_ID).jwtID(jti).build());
+        signedJWT.sign(new RSASSASigner(rsaKey));
+        return signedJWT;
+    }
+}
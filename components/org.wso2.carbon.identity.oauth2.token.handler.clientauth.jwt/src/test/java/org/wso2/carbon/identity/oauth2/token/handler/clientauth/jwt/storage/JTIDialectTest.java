@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.storage;
+
+import org.mockito.MockedStatic;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.core.util.JdbcUtils;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.SQLQueries;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao.dialect.DB2JTIDialect;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao.dialect.H2JTIDialect;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao.dialect.JTIDialect;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao.dialect.MSSQLJTIDialect;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao.dialect.MySQLJTIDialect;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao.dialect.OracleJTIDialect;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao.dialect.PostgreSQLJTIDialect;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.Calendar;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class JTIDialectTest {
+
+    @Test
+    public void testResolve() throws Exception {
+
+        try (MockedStatic<JdbcUtils> jdbcUtils = mockStatic(JdbcUtils.class)) {
+            jdbcUtils.when(JdbcUtils::isH2DB).thenReturn(true);
+            assertTrue(JTIDialect.resolve(true) instanceof H2JTIDialect);
+
+            jdbcUtils.when(JdbcUtils::isH2DB).thenReturn(false);
+            jdbcUtils.when(JdbcUtils::isMariaDB).thenReturn(true);
+            assertTrue(JTIDialect.resolve(true) instanceof MySQLJTIDialect);
+
+            jdbcUtils.when(JdbcUtils::isMariaDB).thenReturn(false);
+            jdbcUtils.when(JdbcUtils::isPostgreSQLDB).thenReturn(true);
+            assertTrue(JTIDialect.resolve(true) instanceof PostgreSQLJTIDialect);
+
+            jdbcUtils.when(JdbcUtils::isPostgreSQLDB).thenReturn(false);
+            jdbcUtils.when(JdbcUtils::isDB2DB).thenReturn(true);
+            JTIDialect db2Dialect = JTIDialect.resolve(true);
+            assertTrue(db2Dialect instanceof DB2JTIDialect);
+            assertEquals(db2Dialect.getLimitClause(), SQLQueries.LIMIT_CLAUSE_ORACLE_OR_DB2);
+
+            jdbcUtils.when(JdbcUtils::isDB2DB).thenReturn(false);
+            jdbcUtils.when(JdbcUtils::isMSSqlDB).thenReturn(true);
+            JTIDialect msSqlDialect = JTIDialect.resolve(true);
+            assertTrue(msSqlDialect instanceof MSSQLJTIDialect);
+            assertEquals(msSqlDialect.getLimitClause(), SQLQueries.LIMIT_CLAUSE_MSSQL);
+
+            jdbcUtils.when(JdbcUtils::isMSSqlDB).thenReturn(false);
+            jdbcUtils.when(JdbcUtils::isOracleDB).thenReturn(true);
+            assertTrue(JTIDialect.resolve(false) instanceof OracleJTIDialect);
+
+            jdbcUtils.when(JdbcUtils::isOracleDB).thenReturn(false);
+            assertNull(JTIDialect.resolve(true));
+        }
+    }
+
+    @Test
+    public void testOracleUpsertBindsEntryTwice() throws Exception {
+
+        Connection connection = mock(Connection.class);
+        PreparedStatement preparedStatement = mock(PreparedStatement.class);
+        when(connection.prepareStatement(SQLQueries.INSERT_OR_UPDATE_TENANTED_JWT_ID_ORACLE))
+                .thenReturn(preparedStatement);
+
+        JTIDialect dialect = new OracleJTIDialect(true);
+        PreparedStatement statement = dialect.prepareUpsert(connection);
+        dialect.bindUpsert(statement, "jti-1", 1, 2000L, 1000L);
+
+        verify(preparedStatement).setString(1, "jti-1");
+        verify(preparedStatement).setInt(2, 1);
+        verify(preparedStatement).setString(5, "jti-1");
+        verify(preparedStatement).setInt(6, 1);
+        verify(preparedStatement).setTimestamp(eq(8), any(Timestamp.class),
+                any(Calendar.class));
+        verify(preparedStatement, times(4)).setTimestamp(anyInt(), any(Timestamp.class), any(Calendar.class));
+    }
+
+    @Test
+    public void testInsertIfAbsentParameters() throws Exception {
+
+        PreparedStatement preparedStatement = mock(PreparedStatement.class);
+        new H2JTIDialect(true).bindInsertIfAbsent(preparedStatement, "jti-1", 1, 2000L, 1000L);
+        verify(preparedStatement).setString(5, "jti-1");
+        verify(preparedStatement).setInt(6, 1);
+        verify(preparedStatement).setInt(7, -1);
+
+        // The MERGE statement has no sub query parameters.
+        PreparedStatement mergeStatement = mock(PreparedStatement.class);
+        new MSSQLJTIDialect(true).bindInsertIfAbsent(mergeStatement, "jti-1", 1, 2000L, 1000L);
+        verify(mergeStatement, times(1)).setString(anyInt(), anyString());
+        verify(mergeStatement, never()).setInt(6, 1);
+    }
+}
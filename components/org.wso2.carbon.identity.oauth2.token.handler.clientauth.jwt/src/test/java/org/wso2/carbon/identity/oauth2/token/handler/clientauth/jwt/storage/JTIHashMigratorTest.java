@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.storage;
+
+import org.mockito.MockedStatic;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.application.authentication.framework.util.FrameworkUtils;
+import org.wso2.carbon.identity.core.util.IdentityDatabaseUtil;
+import org.wso2.carbon.identity.core.util.JdbcUtils;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao.JTIDigest;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao.JTIHashMigrator;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao.JWTEntry;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao.JWTStorageManager;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.internal.JWTServiceDataHolder;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.util.JWTTestUtil;
+
+import java.sql.Connection;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.util.JWTTestUtil.closeH2Base;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.util.JWTTestUtil.initiateH2Base;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.util.JWTTestUtil.spyConnection;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.util.Util.checkIfTenantIdColumnIsAvailableInIdnOidcAuthTable;
+
+public class JTIHashMigratorTest {
+
+    private JWTStorageManager jwtStorageManager;
+    private Connection connection;
+
+    private MockedStatic<IdentityDatabaseUtil> mockedIdentityDatabaseUtil;
+    private MockedStatic<JdbcUtils> mockedJdbcUtils;
+    private MockedStatic<FrameworkUtils> mockedFrameworkUtils;
+
+    @BeforeClass
+    public void setUp() throws Exception {
+
+        initiateH2Base();
+        jwtStorageManager = new JWTStorageManager();
+    }
+
+    @BeforeMethod
+    public void init() throws Exception {
+
+        mockedIdentityDatabaseUtil = mockStatic(IdentityDatabaseUtil.class);
+        connection = JWTTestUtil.getConnection();
+        // Identity database connections are transactional.
+        connection.setAutoCommit(false);
+        Connection spyConnection = spyConnection(connection);
+        when(IdentityDatabaseUtil.getDBConnection()).thenReturn(spyConnection);
+        // A failed batch is retried one by one, which relies on the rollback of the partially applied batch.
+        mockedIdentityDatabaseUtil.when(() -> IdentityDatabaseUtil.rollbackTransaction(any(Connection.class)))
+                .thenCallRealMethod();
+        mockedJdbcUtils = mockStatic(JdbcUtils.class);
+        when(JdbcUtils.isH2DB()).thenReturn(true);
+        mockedFrameworkUtils = mockStatic(FrameworkUtils.class);
+        when(FrameworkUtils.isTableColumnExists(Constants.SQLQueries.IDN_OIDC_JTI,
+                Constants.SQLQueries.TENANT_ID)).thenReturn(true);
+        checkIfTenantIdColumnIsAvailableInIdnOidcAuthTable();
+    }
+
+    @AfterMethod
+    public void tearDownMethod() throws Exception {
+
+        JWTServiceDataHolder.getInstance().setHashedJTIStorage(false);
+        JWTServiceDataHolder.getInstance().setRawJTILookup(false);
+        if (connection != null && !connection.isClosed()) {
+            connection.close();
+        }
+        mockedIdentityDatabaseUtil.close();
+        mockedJdbcUtils.close();
+        mockedFrameworkUtils.close();
+    }
+
+    @AfterClass
+    public void tearDown() throws Exception {
+
+        closeH2Base();
+    }
+
+    @Test
+    public void testDigest() {
+
+        byte[] digest = JTIDigest.digest(-1234, "2e8f3c1a-0b4d-4c5e-9f7a-6d2b1e0c9a8f-" + "x".repeat(200));
+        assertEquals(digest.length, JTIDigest.LENGTH);
+        assertEquals(JTIDigest.digest(1, "jti"), JTIDigest.digest(1, "jti"));
+        assertFalse(Arrays.equals(JTIDigest.digest(1, "jti"), JTIDigest.digest(1, "JTI")));
+        // The tenant is a part of the digest.
+        assertFalse(Arrays.equals(JTIDigest.digest(1, "jti"), JTIDigest.digest(2, "jti")));
+    }
+
+    @Test
+    public void testHashedStorage() throws Exception {
+
+        long now = System.currentTimeMillis();
+        JWTServiceDataHolder.getInstance().setHashedJTIStorage(true);
+        assertTrue(jwtStorageManager.persistJWTIdIfAbsent("hashed-1", 1, now + 60000, now));
+        assertFalse(jwtStorageManager.persistJWTIdIfAbsent("hashed-1", 1, now + 60000, now));
+        assertEquals(jwtStorageManager.getJwtsFromDB("hashed-1", 1).size(), 1);
+        // The same JTI of another tenant is kept apart.
+        assertTrue(jwtStorageManager.getJwtsFromDB("hashed-1", 2).isEmpty());
+        assertTrue(jwtStorageManager.persistJWTIdIfAbsent("hashed-1", 2, now + 60000, now));
+
+        // The JTIs of the clients which allow token reuse are upserted.
+        jwtStorageManager.persistJWTIdsInDB(Arrays.asList(new JWTEntry("hashed-1", now + 120000, now, 1),
+                new JWTEntry("hashed-2", now + 120000, now, 1)));
+        assertEquals(jwtStorageManager.getJwtsFromDB("hashed-1", 1).get(0).getExp(), now + 120000);
+        assertEquals(jwtStorageManager.getJwtsFromDB("hashed-2", 1).size(), 1);
+
+        // The batch of the single use JTIs reports the replayed ones.
+        List<JWTEntry> replayedEntries = jwtStorageManager.persistJWTIdsIfAbsentInDB(Arrays.asList(
+                new JWTEntry("hashed-2", now + 60000, now, 1), new JWTEntry("hashed-3", now + 60000, now, 1)));
+        assertEquals(replayedEntries.size(), 1);
+        assertEquals(replayedEntries.get(0).getJti(), "hashed-2");
+        assertEquals(jwtStorageManager.getJwtsFromDB("hashed-3", 1).size(), 1);
+
+        // The raw JTIs are not persisted.
+        JWTServiceDataHolder.getInstance().setHashedJTIStorage(false);
+        assertTrue(jwtStorageManager.getJwtsFromDB("hashed-1", 1).isEmpty());
+        assertTrue(jwtStorageManager.getJwtsFromDB("hashed-3", 1).isEmpty());
+    }
+
+    @Test
+    public void testMigrate() throws Exception {
+
+        long now = System.currentTimeMillis();
+        long oneHour = TimeUnit.HOURS.toMillis(1);
+        for (int i = 0; i < 5; i++) {
+            jwtStorageManager.persistJWTIdInDB("migrate-" + i, -1234, now + oneHour, now, true);
+        }
+        jwtStorageManager.persistJWTIdInDB("migrate-expired", -1234, 10000000, 10000000, true);
+
+        JWTServiceDataHolder.getInstance().setHashedJTIStorage(true);
+        // A JTI accepted in the hashed storage mode while its raw JTI is still persisted.
+        jwtStorageManager.persistJWTIdInDB("migrate-0", -1234, now + oneHour, now, true);
+        assertTrue(jwtStorageManager.getJwtsFromDB("migrate-1", -1234).isEmpty());
+
+        // Until the migration is completed, the replay of a raw JTI is detected.
+        JWTServiceDataHolder.getInstance().setRawJTILookup(true);
+        assertEquals(jwtStorageManager.getJwtsFromDB("migrate-1", -1234).size(), 1);
+        assertEquals(jwtStorageManager.getJwtsFromDB("migrate-0", -1234).size(), 2);
+        assertFalse(jwtStorageManager.persistJWTIdIfAbsent("migrate-2", -1234, now + oneHour, now));
+
+        // A chunk size of 2 makes the migration go through several keyset paginated chunks.
+        JTIHashMigrator jtiHashMigrator = new JTIHashMigrator(jwtStorageManager, 2, 0);
+        assertEquals(jtiHashMigrator.migrate(), 4);
+        assertTrue(jtiHashMigrator.isCompleted());
+        assertFalse(JWTServiceDataHolder.getInstance().isRawJTILookup());
+        for (int i = 0; i < 5; i++) {
+            assertEquals(jwtStorageManager.getJwtsFromDB("migrate-" + i, -1234).size(), 1);
+        }
+        // Expired JTIs are left to the purge.
+        assertTrue(jwtStorageManager.getJwtsFromDB("migrate-expired", -1234).isEmpty());
+
+        // Nothing is left to migrate.
+        assertEquals(jtiHashMigrator.migrate(), 0);
+        assertEquals(jtiHashMigrator.getMigratedRowCount(), 4);
+    }
+
+    @Test
+    public void testMigrationLease() throws Exception {
+
+        long now = System.currentTimeMillis();
+        long oneHour = TimeUnit.HOURS.toMillis(1);
+        JWTServiceDataHolder.getInstance().setHashedJTIStorage(true);
+        JWTServiceDataHolder.getInstance().setRawJTILookup(true);
+        jwtStorageManager.persistJWTIdInDB("lease-1", -1234, now + oneHour, now, true);
+        JWTServiceDataHolder.getInstance().setHashedJTIStorage(false);
+        jwtStorageManager.persistJWTIdInDB("lease-2", -1234, now + oneHour, now, true);
+        JWTServiceDataHolder.getInstance().setHashedJTIStorage(true);
+
+        // Another node is migrating.
+        assertTrue(jwtStorageManager.acquireLease(Constants.JTI_HASH_MIGRATION_LEASE, "other-node", now,
+                now + oneHour));
+        JTIHashMigrator jtiHashMigrator = new JTIHashMigrator(jwtStorageManager, 10, 0);
+        assertEquals(jtiHashMigrator.migrate(), 0);
+        assertFalse(jtiHashMigrator.isCompleted());
+        assertTrue(JWTServiceDataHolder.getInstance().isRawJTILookup());
+        assertEquals(jwtStorageManager.getJwtsFromDB("lease-2", -1234).size(), 1);
+
+        jwtStorageManager.releaseLease(Constants.JTI_HASH_MIGRATION_LEASE, "other-node",
+                System.currentTimeMillis() - 1);
+        assertTrue(jtiHashMigrator.migrate() >= 1);
+        assertTrue(jtiHashMigrator.isCompleted());
+        assertFalse(JWTServiceDataHolder.getInstance().isRawJTILookup());
+        assertEquals(jwtStorageManager.getJwtsFromDB("lease-2", -1234).size(), 1);
+    }
+}
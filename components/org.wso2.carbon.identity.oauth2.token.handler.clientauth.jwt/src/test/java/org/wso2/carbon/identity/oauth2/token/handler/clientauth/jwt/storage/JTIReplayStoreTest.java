@@ -0,0 +1,242 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.storage;
+
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.oauth2.client.authentication.OAuthClientAuthnException;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao.JWTEntry;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao.impl.InMemoryJTIReplayStore;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao.impl.RedisJTIReplayStore;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.util.EmbeddedRedisServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+public class JTIReplayStoreTest {
+
+    private static final String PASSWORD = "redis-password";
+    private static final long CLOCK_SKEW_IN_MILLIS = 300000;
+
+    private EmbeddedRedisServer redisServer;
+    private RedisJTIReplayStore redisJTIReplayStore;
+
+    @BeforeClass
+    public void setUp() throws Exception {
+
+        redisServer = new EmbeddedRedisServer(PASSWORD);
+        redisJTIReplayStore = new RedisJTIReplayStore(InetAddress.getLoopbackAddress().getHostAddress(),
+                redisServer.getPort(), PASSWORD, 2000, "jti:", 4, 8, false, CLOCK_SKEW_IN_MILLIS);
+    }
+
+    @AfterClass
+    public void tearDown() throws Exception {
+
+        redisJTIReplayStore.close();
+        redisServer.close();
+    }
+
+    @Test
+    public void testInMemoryStore() {
+
+        InMemoryJTIReplayStore jtiReplayStore = new InMemoryJTIReplayStore(CLOCK_SKEW_IN_MILLIS);
+        long expiryTime = System.currentTimeMillis() + 60000;
+        assertTrue(jtiReplayStore.putIfAbsent("1001", -1234, expiryTime, 0));
+        assertFalse(jtiReplayStore.putIfAbsent("1001", -1234, expiryTime, 0));
+        assertTrue(jtiReplayStore.putIfAbsent("1001", 1, expiryTime, 0));
+        assertEquals(jtiReplayStore.get("1001", -1234).getExp(), expiryTime);
+        assertNull(jtiReplayStore.get("1002", -1234));
+    }
+
+    @Test
+    public void testInMemoryStoreExpiry() {
+
+        InMemoryJTIReplayStore jtiReplayStore = new InMemoryJTIReplayStore(0);
+        long expiredTime = System.currentTimeMillis() - 1000;
+        jtiReplayStore.put("2001", -1234, expiredTime, 0);
+        assertNull(jtiReplayStore.get("2001", -1234));
+        // An expired JTI does not count as a replay.
+        assertTrue(jtiReplayStore.putIfAbsent("2001", -1234, System.currentTimeMillis() + 60000, 0));
+        jtiReplayStore.put("2002", -1234, expiredTime, 0);
+        jtiReplayStore.sweep();
+        assertEquals(jtiReplayStore.size(), 1);
+    }
+
+    @Test
+    public void testRedisStore() throws Exception {
+
+        long expiryTime = System.currentTimeMillis() + 60000;
+        assertTrue(redisJTIReplayStore.putIfAbsent("3001", -1234, expiryTime, 1000));
+        assertFalse(redisJTIReplayStore.putIfAbsent("3001", -1234, expiryTime, 1000));
+        assertTrue(redisJTIReplayStore.putIfAbsent("3001", 1, expiryTime, 1000));
+
+        JWTEntry jwtEntry = redisJTIReplayStore.get("3001", -1234);
+        assertNotNull(jwtEntry);
+        assertEquals(jwtEntry.getExp(), expiryTime);
+        assertEquals(jwtEntry.getCreatedTime(), 1000);
+        assertNull(redisJTIReplayStore.get("3002", -1234));
+
+        // The key expires once the assertion can no longer be accepted.
+        long ttl = redisServer.getExpiryTime("jti:-1234:3001") - System.currentTimeMillis();
+        assertTrue(ttl > 60000 && ttl <= 60000 + CLOCK_SKEW_IN_MILLIS);
+    }
+
+    @Test
+    public void testRedisStorePut() throws Exception {
+
+        long expiryTime = System.currentTimeMillis() + 60000;
+        redisJTIReplayStore.put("4001", -1234, expiryTime, 0);
+        redisJTIReplayStore.put("4001", -1234, expiryTime + 1000, 0);
+        assertEquals(redisJTIReplayStore.get("4001", -1234).getExp(), expiryTime + 1000);
+    }
+
+    @Test
+    public void testRedisStoreConcurrentPutIfAbsent() throws Exception {
+
+        long expiryTime = System.currentTimeMillis() + 60000;
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                Callable<Boolean> task = () -> redisJTIReplayStore.putIfAbsent("5001", -1234, expiryTime, 0);
+                results.add(executorService.submit(task));
+            }
+            int accepted = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get(10, TimeUnit.SECONDS)) {
+                    accepted++;
+                }
+            }
+            assertEquals(accepted, 1);
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test(expectedExceptions = OAuthClientAuthnException.class)
+    public void testRedisStoreWithInvalidPassword() throws Exception {
+
+        RedisJTIReplayStore jtiReplayStore = new RedisJTIReplayStore(
+                InetAddress.getLoopbackAddress().getHostAddress(), redisServer.getPort(), "invalid", 2000, "jti:",
+                4, 8, false, CLOCK_SKEW_IN_MILLIS);
+        jtiReplayStore.putIfAbsent("6001", -1234, System.currentTimeMillis() + 60000, 0);
+    }
+
+    @Test
+    public void testRedisStoreWithConnectionLimit() throws Exception {
+
+        RedisJTIReplayStore jtiReplayStore = new RedisJTIReplayStore(
+                InetAddress.getLoopbackAddress().getHostAddress(), redisServer.getPort(), PASSWORD, 2000, "jti:",
+                4, 1, false, CLOCK_SKEW_IN_MILLIS);
+        long expiryTime = System.currentTimeMillis() + 60000;
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            // The requests wait for the single connection in turn.
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                String jti = "7" + i;
+                results.add(executorService.submit(() -> jtiReplayStore.putIfAbsent(jti, -1234, expiryTime, 0)));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executorService.shutdownNow();
+            jtiReplayStore.close();
+        }
+    }
+
+    @Test
+    public void testRedisStoreWithMalformedReply() throws Exception {
+
+        AtomicInteger connectionCount = new AtomicInteger();
+        ExecutorService executorService = Executors.newCachedThreadPool();
+        try (ServerSocket serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            // Every command is answered with a bulk string of a malformed length.
+            executorService.execute(() -> {
+                while (!serverSocket.isClosed()) {
+                    try {
+                        Socket socket = serverSocket.accept();
+                        connectionCount.incrementAndGet();
+                        InputStream inputStream = socket.getInputStream();
+                        executorService.execute(() -> {
+                            try {
+                                while (inputStream.read(new byte[1024]) > 0) {
+                                    socket.getOutputStream().write("$abc\r\n".getBytes(StandardCharsets.UTF_8));
+                                }
+                            } catch (IOException e) {
+                                // Client disconnected.
+                            }
+                        });
+                    } catch (IOException e) {
+                        return;
+                    }
+                }
+            });
+            RedisJTIReplayStore jtiReplayStore = new RedisJTIReplayStore(
+                    InetAddress.getLoopbackAddress().getHostAddress(), serverSocket.getLocalPort(), null, 2000,
+                    "jti:", 4, 8, false, CLOCK_SKEW_IN_MILLIS);
+            try {
+                for (int i = 0; i < 2; i++) {
+                    try {
+                        jtiReplayStore.get("9001", -1234);
+                        fail("A malformed reply should fail the command.");
+                    } catch (OAuthClientAuthnException e) {
+                        // Expected.
+                    }
+                }
+            } finally {
+                jtiReplayStore.close();
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+        // The connection which received the malformed reply is discarded rather than reused.
+        assertEquals(connectionCount.get(), 2);
+    }
+
+    @Test(expectedExceptions = OAuthClientAuthnException.class)
+    public void testRedisStoreWithSSLToPlainServer() throws Exception {
+
+        RedisJTIReplayStore jtiReplayStore = new RedisJTIReplayStore(
+                InetAddress.getLoopbackAddress().getHostAddress(), redisServer.getPort(), PASSWORD, 2000, "jti:",
+                4, 8, true, CLOCK_SKEW_IN_MILLIS);
+        jtiReplayStore.putIfAbsent("8001", -1234, System.currentTimeMillis() + 60000, 0);
+    }
+}
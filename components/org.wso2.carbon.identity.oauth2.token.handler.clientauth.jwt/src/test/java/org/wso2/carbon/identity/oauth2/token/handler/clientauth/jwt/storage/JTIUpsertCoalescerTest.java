@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.storage;
+
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao.JTIUpsertCoalescer;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class JTIUpsertCoalescerTest {
+
+    private static final long CURRENT_TIME = 1700000000000L;
+    private static final long EXPIRY_TIME = CURRENT_TIME + 3600000;
+
+    @Test
+    public void testCoalescing() {
+
+        JTIUpsertCoalescer jtiUpsertCoalescer = new JTIUpsertCoalescer(1000);
+        assertFalse(jtiUpsertCoalescer.isCoalesced("jti-1", -1234, EXPIRY_TIME, CURRENT_TIME));
+        jtiUpsertCoalescer.recordWrite("jti-1", -1234, EXPIRY_TIME, CURRENT_TIME);
+
+        assertTrue(jtiUpsertCoalescer.isCoalesced("jti-1", -1234, EXPIRY_TIME, CURRENT_TIME + 999));
+        // Writes past the window, of another tenant, or with another expiry time are not coalesced.
+        assertFalse(jtiUpsertCoalescer.isCoalesced("jti-1", -1234, EXPIRY_TIME, CURRENT_TIME + 1000));
+        assertFalse(jtiUpsertCoalescer.isCoalesced("jti-1", 1, EXPIRY_TIME, CURRENT_TIME));
+        assertFalse(jtiUpsertCoalescer.isCoalesced("jti-1", -1234, EXPIRY_TIME + 1000, CURRENT_TIME));
+    }
+
+    @Test
+    public void testSweep() {
+
+        JTIUpsertCoalescer jtiUpsertCoalescer = new JTIUpsertCoalescer(1000);
+        for (int i = 0; i < 1023; i++) {
+            jtiUpsertCoalescer.recordWrite("jti-" + i, -1234, EXPIRY_TIME, CURRENT_TIME);
+        }
+        jtiUpsertCoalescer.recordWrite("jti-last", -1234, EXPIRY_TIME, CURRENT_TIME + 5000);
+        assertEquals(jtiUpsertCoalescer.size(), 1);
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.storage;
+
+import org.mockito.MockedStatic;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.application.authentication.framework.util.FrameworkUtils;
+import org.wso2.carbon.identity.core.util.IdentityDatabaseUtil;
+import org.wso2.carbon.identity.core.util.JdbcUtils;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao.JWTPurgeScheduler;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao.JWTStorageManager;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.internal.JWTServiceDataHolder;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.util.JWTTestUtil;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.JTI_PURGE_LEASE;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.util.JWTTestUtil.closeH2Base;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.util.JWTTestUtil.initiateH2Base;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.util.JWTTestUtil.spyConnection;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.util.Util.checkIfTenantIdColumnIsAvailableInIdnOidcAuthTable;
+
+public class JWTPurgeSchedulerTest {
+
+    private JWTStorageManager jwtStorageManager;
+    private Connection connection;
+
+    private MockedStatic<IdentityDatabaseUtil> mockedIdentityDatabaseUtil;
+    private MockedStatic<JdbcUtils> mockedJdbcUtils;
+    private MockedStatic<FrameworkUtils> mockedFrameworkUtils;
+
+    @BeforeClass
+    public void setUp() throws Exception {
+
+        initiateH2Base();
+        jwtStorageManager = new JWTStorageManager();
+    }
+
+    @BeforeMethod
+    public void init() throws Exception {
+
+        mockedIdentityDatabaseUtil = mockStatic(IdentityDatabaseUtil.class);
+        connection = JWTTestUtil.getConnection();
+        Connection spyConnection = spyConnection(connection);
+        when(IdentityDatabaseUtil.getDBConnection()).thenReturn(spyConnection);
+        mockedJdbcUtils = mockStatic(JdbcUtils.class);
+        when(JdbcUtils.isH2DB()).thenReturn(true);
+        mockedFrameworkUtils = mockStatic(FrameworkUtils.class);
+        when(FrameworkUtils.isTableColumnExists(Constants.SQLQueries.IDN_OIDC_JTI,
+                Constants.SQLQueries.TENANT_ID)).thenReturn(true);
+        checkIfTenantIdColumnIsAvailableInIdnOidcAuthTable();
+    }
+
+    @AfterMethod
+    public void tearDownMethod() throws Exception {
+
+        if (connection != null && !connection.isClosed()) {
+            connection.close();
+        }
+        mockedIdentityDatabaseUtil.close();
+        mockedJdbcUtils.close();
+        mockedFrameworkUtils.close();
+    }
+
+    @AfterClass
+    public void tearDown() throws Exception {
+
+        closeH2Base();
+    }
+
+    @Test
+    public void testAcquireLease() throws Exception {
+
+        long now = System.currentTimeMillis();
+        long oneHour = TimeUnit.HOURS.toMillis(1);
+        assertTrue(jwtStorageManager.acquireLease(JTI_PURGE_LEASE, "node-1", now, now + oneHour));
+        // The lease is held until it expires, but its holder can renew it.
+        assertFalse(jwtStorageManager.acquireLease(JTI_PURGE_LEASE, "node-2", now + 1000, now + oneHour));
+        assertTrue(jwtStorageManager.acquireLease(JTI_PURGE_LEASE, "node-1", now + 1000, now + oneHour));
+        // An expired lease can be taken over.
+        assertTrue(jwtStorageManager.acquireLease(JTI_PURGE_LEASE, "node-2", now + 2 * oneHour, now + 3 * oneHour));
+        // The lease does not collide with the client JTIs.
+        assertTrue(jwtStorageManager.getJwtsFromDB(JTI_PURGE_LEASE, -1234).isEmpty());
+    }
+
+    @Test(dependsOnMethods = {"testAcquireLease"})
+    public void testPurge() throws Exception {
+
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 5; i++) {
+            jwtStorageManager.persistJWTIdInDB("purge-" + i, -1234, 10000000, 10000000, true);
+            jwtStorageManager.persistJWTIdInDB("purge-" + i, 1, 10000000, 10000000, true);
+        }
+        jwtStorageManager.persistJWTIdInDB("purge-active", -1234, now + TimeUnit.HOURS.toMillis(1), now, true);
+
+        // A chunk size of 3 makes the purge go through several keyset paginated chunks.
+        JWTPurgeScheduler purgeScheduler = new JWTPurgeScheduler(jwtStorageManager, TimeUnit.HOURS.toMillis(1), 3,
+                0, 0);
+        // The lease acquired in the previous test is still held.
+        assertEquals(purgeScheduler.purge(), 0);
+        assertEquals(purgeScheduler.getPurgeRunCount(), 1);
+        assertEquals(purgeScheduler.getDeletedRowCount(), 0);
+
+        // Release the lease by moving its expiry to the past.
+        jwtStorageManager.acquireLease(JTI_PURGE_LEASE, "node-2", now + TimeUnit.HOURS.toMillis(4), 10000000);
+        int deletedRows = purgeScheduler.purge();
+        // The expired rows of the test data set are purged along with the ones inserted here.
+        assertTrue(deletedRows >= 10);
+        assertEquals(purgeScheduler.getPurgeRunCount(), 2);
+        assertEquals(purgeScheduler.getDeletedRowCount(), deletedRows);
+        assertTrue(purgeScheduler.getPurgeTimeInMillis() >= 0);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(jwtStorageManager.getJwtsFromDB("purge-" + i, -1234).isEmpty());
+            assertTrue(jwtStorageManager.getJwtsFromDB("purge-" + i, 1).isEmpty());
+        }
+        assertEquals(jwtStorageManager.getJwtsFromDB("purge-active", -1234).size(), 1);
+    }
+
+    @Test(dependsOnMethods = {"testPurge"})
+    public void testPurgeJTIDigests() throws Exception {
+
+        long now = System.currentTimeMillis();
+        JWTServiceDataHolder.getInstance().setHashedJTIStorage(true);
+        try {
+            for (int i = 0; i < 5; i++) {
+                jwtStorageManager.persistJWTIdInDB("purge-digest-" + i, -1234, 10000000, 10000000, true);
+            }
+            jwtStorageManager.persistJWTIdInDB("purge-digest-active", -1234, now + TimeUnit.HOURS.toMillis(1), now,
+                    true);
+
+            JWTPurgeScheduler purgeScheduler = new JWTPurgeScheduler(jwtStorageManager, TimeUnit.HOURS.toMillis(1),
+                    2, 0, 0);
+            jwtStorageManager.acquireLease(JTI_PURGE_LEASE, "node-2", now + TimeUnit.HOURS.toMillis(4), 10000000);
+            assertEquals(purgeScheduler.purge(), 5);
+            for (int i = 0; i < 5; i++) {
+                assertTrue(jwtStorageManager.getJwtsFromDB("purge-digest-" + i, -1234).isEmpty());
+            }
+            assertEquals(jwtStorageManager.getJwtsFromDB("purge-digest-active", -1234).size(), 1);
+        } finally {
+            JWTServiceDataHolder.getInstance().setHashedJTIStorage(false);
+        }
+    }
+
+    @Test(dependsOnMethods = {"testPurgeJTIDigests"})
+    public void testMissingLeaseTable() throws Exception {
+
+        long now = System.currentTimeMillis();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ALTER TABLE IDN_OIDC_JTI_LEASE RENAME TO IDN_OIDC_JTI_LEASE_RENAMED");
+        }
+        try {
+            // Without the lease table, the leased tasks are run on each node.
+            assertTrue(jwtStorageManager.acquireLease(JTI_PURGE_LEASE, "node-3", now, now + 1000));
+            jwtStorageManager.releaseLease(JTI_PURGE_LEASE, "node-3", now);
+            jwtStorageManager.persistJWTIdInDB("purge-without-lease", -1234, 10000000, 10000000, true);
+            JWTPurgeScheduler purgeScheduler = new JWTPurgeScheduler(jwtStorageManager, TimeUnit.HOURS.toMillis(1),
+                    10, 0, 0);
+            assertEquals(purgeScheduler.purge(), 1);
+        } finally {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("ALTER TABLE IDN_OIDC_JTI_LEASE_RENAMED RENAME TO IDN_OIDC_JTI_LEASE");
+            }
+        }
+    }
+}
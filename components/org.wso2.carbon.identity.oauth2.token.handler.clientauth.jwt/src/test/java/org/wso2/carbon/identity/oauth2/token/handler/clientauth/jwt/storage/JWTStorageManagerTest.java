@@ -35,13 +35,17 @@ import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.internal.JWT
 import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.util.JWTTestUtil;
 
 import java.sql.Connection;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertTrue;
 import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.util.JWTTestUtil.closeH2Base;
 import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.util.JWTTestUtil.initiateH2Base;
 import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.util.JWTTestUtil.spyConnection;
@@ -50,6 +54,7 @@ import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.util.
 public class JWTStorageManagerTest {
 
     private JWTStorageManager jwtStorageManager;
+    private Connection connection;
     private Connection spyConnection;
 
     private MockedStatic<IdentityDatabaseUtil> mockedIdentityDatabaseUtil;
@@ -68,7 +73,8 @@ public class JWTStorageManagerTest {
     public void init() throws Exception {
 
         mockedIdentityDatabaseUtil = mockStatic(IdentityDatabaseUtil.class);
-        spyConnection = spyConnection(JWTTestUtil.getConnection());
+        connection = JWTTestUtil.getConnection();
+        spyConnection = spyConnection(connection);
         when(IdentityDatabaseUtil.getDBConnection()).thenReturn(spyConnection);
         mockedJdbcUtils = mockStatic(JdbcUtils.class);
         mockedFrameworkUtils = mockStatic(FrameworkUtils.class);
@@ -82,8 +88,9 @@ public class JWTStorageManagerTest {
     public void tearDownMethod() {
 
         try {
-            if (spyConnection != null && !spyConnection.isClosed()) {
-                spyConnection.close();
+            // Close the actual connection, as the close method of the spied connection does nothing.
+            if (connection != null && !connection.isClosed()) {
+                connection.close();
             }
         } catch (Exception e) {
             // Ignore
@@ -164,4 +171,76 @@ public class JWTStorageManagerTest {
         assertEquals(jwtEntry.getExp(), 10001000);
         assertEquals(jwtEntry.getCreatedTime(), 10000100);
     }
+
+    @Test()
+    public void testPersistJWTIdIfAbsent() throws Exception {
+
+        when(JdbcUtils.isH2DB()).thenReturn(true);
+        assertTrue(jwtStorageManager.persistJWTIdIfAbsent("3001", -1234, 10000000, 10000000));
+        // The same JTI of the same tenant should be detected as a replay.
+        assertFalse(jwtStorageManager.persistJWTIdIfAbsent("3001", -1234, 10000000, 10000000));
+        // The same JTI of a different tenant is a new entry.
+        assertTrue(jwtStorageManager.persistJWTIdIfAbsent("3001", 1, 10000000, 10000000));
+    }
+
+    @Test()
+    public void testPersistJWTIdIfAbsentForExistingJTI() throws Exception {
+
+        when(JdbcUtils.isH2DB()).thenReturn(true);
+        assertFalse(jwtStorageManager.persistJWTIdIfAbsent("2001", -1234, 10000000, 10000000));
+    }
+
+    @Test()
+    public void testPersistJWTIdsInDB() throws Exception {
+
+        when(JdbcUtils.isH2DB()).thenReturn(true);
+        when(JdbcUtils.isOracleDB()).thenReturn(false);
+        jwtStorageManager.persistJWTIdsInDB(Arrays.asList(new JWTEntry("4001", 10000000, 10000000, -1234),
+                new JWTEntry("4002", 10000000, 10000000, -1234), new JWTEntry("4001", 10000000, 10000000, 1)));
+    }
+
+    @Test(dependsOnMethods = {"testPersistJWTIdsInDB"})
+    public void testBatchPersistedJTIEntries() throws Exception {
+
+        assertEquals(jwtStorageManager.getJwtsFromDB("4001", -1234).size(), 1);
+        assertEquals(jwtStorageManager.getJwtsFromDB("4002", -1234).size(), 1);
+        assertEquals(jwtStorageManager.getJwtsFromDB("4001", 1).get(0).getTenantId(), 1);
+    }
+
+    @Test()
+    public void testPersistJWTIdsIfAbsentInDB() throws Exception {
+
+        when(JdbcUtils.isH2DB()).thenReturn(true);
+        when(JdbcUtils.isOracleDB()).thenReturn(false);
+        assertTrue(jwtStorageManager.persistJWTIdIfAbsent("4101", -1234, 10000000, 10000000));
+        JWTEntry persistedByAnotherNode = new JWTEntry("4101", 10001000, 10000100, -1234);
+        List<JWTEntry> replayedEntries = jwtStorageManager.persistJWTIdsIfAbsentInDB(Arrays.asList(
+                persistedByAnotherNode, new JWTEntry("4102", 10000000, 10000000, -1234)));
+        assertEquals(replayedEntries, Collections.singletonList(persistedByAnotherNode));
+        // The entry persisted by another node is kept as it is.
+        assertEquals(jwtStorageManager.getJwtsFromDB("4101", -1234).get(0).getExp(), 10000000);
+        assertEquals(jwtStorageManager.getJwtsFromDB("4102", -1234).size(), 1);
+    }
+
+    @Test()
+    public void testPersistJWTIdWithoutDialect() throws Exception {
+
+        // None of the supported databases is detected.
+        jwtStorageManager.persistJWTIdInDB("5001", -1234, 10000000, 10000000, false);
+        jwtStorageManager.persistJWTIdInDB("5001", -1234, 10001000, 10000100, false);
+        JWTEntry jwtEntry = jwtStorageManager.getJwtsFromDB("5001", -1234).get(0);
+        assertEquals(jwtEntry.getExp(), 10001000);
+        assertEquals(jwtEntry.getCreatedTime(), 10000100);
+
+        assertTrue(jwtStorageManager.persistJWTIdIfAbsent("5002", -1234, 10000000, 10000000));
+        assertFalse(jwtStorageManager.persistJWTIdIfAbsent("5002", -1234, 10000000, 10000000));
+
+        jwtStorageManager.persistJWTIdsInDB(Arrays.asList(new JWTEntry("5003", 10000000, 10000000, -1234),
+                new JWTEntry("5001", 10002000, 10000200, -1234)));
+        assertEquals(jwtStorageManager.getJwtsFromDB("5003", -1234).size(), 1);
+        assertEquals(jwtStorageManager.getJwtsFromDB("5001", -1234).get(0).getExp(), 10002000);
+
+        // The unsupported database is probed only once.
+        mockedJdbcUtils.verify(JdbcUtils::isH2DB, times(1));
+    }
 }
@@ -0,0 +1,283 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.storage;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.oauth.common.OAuth2ErrorCodes;
+import org.wso2.carbon.identity.oauth2.client.authentication.OAuthClientAuthnException;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao.JWTEntry;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao.JWTStorageManager;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao.JWTWriteBehindQueue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class JWTWriteBehindQueueTest {
+
+    private static final long CLOCK_SKEW_IN_MILLIS = 300000;
+    // Expiry time of the reserved JTIs, which do not expire within the tests.
+    private static final long RESERVATION_EXP_TIME = Long.MAX_VALUE / 2;
+
+    private JWTStorageManager jwtStorageManager;
+    private List<String> persistedJTIs;
+
+    @BeforeMethod
+    public void init() throws Exception {
+
+        jwtStorageManager = mock(JWTStorageManager.class);
+        persistedJTIs = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> {
+            List<JWTEntry> batch = invocation.getArgument(0);
+            for (JWTEntry jwtEntry : batch) {
+                persistedJTIs.add(jwtEntry.getJti());
+            }
+            return null;
+        }).when(jwtStorageManager).persistJWTIdsInDB(anyList());
+    }
+
+    @Test
+    public void testReserve() {
+
+        JWTWriteBehindQueue queue = new JWTWriteBehindQueue(jwtStorageManager, 10, 50, 100,
+                JWTWriteBehindQueue.OverflowPolicy.SYNC, CLOCK_SKEW_IN_MILLIS);
+        assertTrue(queue.reserve("5001", -1234, RESERVATION_EXP_TIME));
+        assertFalse(queue.reserve("5001", -1234, RESERVATION_EXP_TIME));
+        assertTrue(queue.reserve("5001", 1, RESERVATION_EXP_TIME));
+        assertTrue(queue.isReserved("5001", -1234));
+        assertFalse(queue.isReserved("5002", -1234));
+    }
+
+    @Test
+    public void testExpiredReservation() {
+
+        JWTWriteBehindQueue queue = new JWTWriteBehindQueue(jwtStorageManager, 10, 50, 100,
+                JWTWriteBehindQueue.OverflowPolicy.SYNC, CLOCK_SKEW_IN_MILLIS);
+        long currentTime = System.currentTimeMillis();
+        // The reservation is kept within the clock skew after the expiry.
+        assertTrue(queue.reserve("5101", -1234, currentTime - 1000));
+        assertTrue(queue.isReserved("5101", -1234));
+        assertFalse(queue.reserve("5101", -1234, currentTime + 60000));
+
+        // A reservation past the clock skew does not hold the JTI, even before it is swept.
+        assertTrue(queue.reserve("5102", -1234, currentTime - CLOCK_SKEW_IN_MILLIS - 1000));
+        assertFalse(queue.isReserved("5102", -1234));
+        assertTrue(queue.reserve("5102", -1234, currentTime + 60000));
+        assertTrue(queue.isReserved("5102", -1234));
+
+        assertTrue(queue.reserve("5103", -1234, currentTime - CLOCK_SKEW_IN_MILLIS - 1000));
+        assertEquals(queue.getReservationCount(), 3);
+        queue.sweepExpiredReservations(System.currentTimeMillis());
+        assertEquals(queue.getReservationCount(), 2);
+        queue.sweepExpiredReservations(currentTime + 60000 + CLOCK_SKEW_IN_MILLIS);
+        assertEquals(queue.getReservationCount(), 0);
+    }
+
+    @Test
+    public void testBatchedFlush() throws Exception {
+
+        JWTWriteBehindQueue queue = new JWTWriteBehindQueue(jwtStorageManager, 5, 60000, 100,
+                JWTWriteBehindQueue.OverflowPolicy.SYNC, CLOCK_SKEW_IN_MILLIS);
+        queue.start();
+        for (int i = 0; i < 5; i++) {
+            String jti = "600" + i;
+            assertTrue(queue.reserve(jti, -1234, RESERVATION_EXP_TIME));
+            queue.enqueue(new JWTEntry(jti, 10000000, 10000000, -1234));
+        }
+        // A full batch is flushed without waiting for the flush interval.
+        verify(jwtStorageManager, timeout(5000)).persistJWTIdsInDB(anyList());
+        queue.shutdown();
+        assertEquals(persistedJTIs.size(), 5);
+        // Reservations are released once the JTIs are persisted.
+        assertFalse(queue.isReserved("6000", -1234));
+    }
+
+    @Test
+    public void testShutdownDrainsPendingJTIs() throws Exception {
+
+        JWTWriteBehindQueue queue = new JWTWriteBehindQueue(jwtStorageManager, 100, 60000, 100,
+                JWTWriteBehindQueue.OverflowPolicy.SYNC, CLOCK_SKEW_IN_MILLIS);
+        queue.start();
+        for (int i = 0; i < 10; i++) {
+            queue.enqueue(new JWTEntry("700" + i, 10000000, 10000000, -1234));
+        }
+        queue.shutdown();
+        assertFalse(queue.isRunning());
+        assertEquals(persistedJTIs.size(), 10);
+    }
+
+    @Test
+    public void testSynchronousPersistenceWhenNotRunning() throws Exception {
+
+        JWTWriteBehindQueue queue = new JWTWriteBehindQueue(jwtStorageManager, 10, 50, 100,
+                JWTWriteBehindQueue.OverflowPolicy.SYNC, CLOCK_SKEW_IN_MILLIS);
+        queue.reserve("8001", -1234, RESERVATION_EXP_TIME);
+        queue.enqueue(new JWTEntry("8001", 10000000, 10000000, -1234));
+        verify(jwtStorageManager).persistJWTIdInDB("8001", -1234, 10000000, 10000000, false);
+        verify(jwtStorageManager, never()).persistJWTIdsInDB(anyList());
+        assertFalse(queue.isReserved("8001", -1234));
+    }
+
+    @Test
+    public void testFallbackToSingleInsertsOnBatchFailure() throws Exception {
+
+        doThrow(new OAuthClientAuthnException("Batch failed.", OAuth2ErrorCodes.INVALID_REQUEST))
+                .when(jwtStorageManager).persistJWTIdsInDB(anyList());
+        JWTWriteBehindQueue queue = new JWTWriteBehindQueue(jwtStorageManager, 2, 60000, 100,
+                JWTWriteBehindQueue.OverflowPolicy.SYNC, CLOCK_SKEW_IN_MILLIS);
+        queue.start();
+        queue.enqueue(new JWTEntry("9001", 10000000, 10000000, -1234));
+        queue.enqueue(new JWTEntry("9002", 10000000, 10000000, -1234));
+        queue.shutdown();
+        verify(jwtStorageManager).persistJWTIdInDB(eq("9001"), eq(-1234), anyLong(), anyLong(), eq(false));
+        verify(jwtStorageManager).persistJWTIdInDB(eq("9002"), eq(-1234), anyLong(), anyLong(), eq(false));
+    }
+
+    @Test
+    public void testConditionalInsertWhenTokenReuseIsPrevented() throws Exception {
+
+        when(jwtStorageManager.persistJWTIdIfAbsent("9101", -1234, 10000000, 10000000)).thenReturn(false);
+        JWTWriteBehindQueue queue = new JWTWriteBehindQueue(jwtStorageManager, 10, 50, 100,
+                JWTWriteBehindQueue.OverflowPolicy.SYNC, CLOCK_SKEW_IN_MILLIS);
+        queue.reserve("9101", -1234, RESERVATION_EXP_TIME);
+        // The JTI is already persisted by another node.
+        assertFalse(queue.enqueue(new JWTEntry("9101", 10000000, 10000000, -1234), true));
+        verify(jwtStorageManager, never()).persistJWTIdInDB(anyString(), anyInt(), anyLong(), anyLong(),
+                anyBoolean());
+        assertFalse(queue.isReserved("9101", -1234));
+    }
+
+    @Test
+    public void testConditionalBatchWhenTokenReuseIsPrevented() throws Exception {
+
+        JWTEntry replayedEntry = new JWTEntry("9151", 10000000, 10000000, -1234);
+        when(jwtStorageManager.persistJWTIdsIfAbsentInDB(anyList())).thenReturn(
+                Collections.singletonList(replayedEntry));
+        JWTWriteBehindQueue queue = new JWTWriteBehindQueue(jwtStorageManager, 10, 60000, 100,
+                JWTWriteBehindQueue.OverflowPolicy.SYNC, CLOCK_SKEW_IN_MILLIS);
+        queue.start();
+        assertTrue(queue.reserve("9151", -1234, RESERVATION_EXP_TIME));
+        assertTrue(queue.enqueue(replayedEntry, true));
+        assertTrue(queue.reserve("9152", -1234, RESERVATION_EXP_TIME));
+        assertTrue(queue.enqueue(new JWTEntry("9152", 10000000, 10000000, -1234), true));
+        queue.shutdown();
+
+        // The JTIs are not upserted over the ones persisted by another node.
+        verify(jwtStorageManager, never()).persistJWTIdsInDB(anyList());
+        verify(jwtStorageManager).persistJWTIdsIfAbsentInDB(anyList());
+        assertFalse(queue.isReserved("9151", -1234));
+        assertFalse(queue.isReserved("9152", -1234));
+    }
+
+    @Test
+    public void testConditionalInsertOnBatchFailure() throws Exception {
+
+        doThrow(new OAuthClientAuthnException("Batch failed.", OAuth2ErrorCodes.INVALID_REQUEST))
+                .when(jwtStorageManager).persistJWTIdsIfAbsentInDB(anyList());
+        when(jwtStorageManager.persistJWTIdIfAbsent("9161", -1234, 10000000, 10000000)).thenReturn(false);
+        when(jwtStorageManager.persistJWTIdIfAbsent("9162", -1234, 10000000, 10000000)).thenReturn(true);
+        JWTWriteBehindQueue queue = new JWTWriteBehindQueue(jwtStorageManager, 10, 60000, 100,
+                JWTWriteBehindQueue.OverflowPolicy.SYNC, CLOCK_SKEW_IN_MILLIS);
+        queue.start();
+        queue.enqueue(new JWTEntry("9161", 10000000, 10000000, -1234), true);
+        queue.enqueue(new JWTEntry("9162", 10000000, 10000000, -1234), true);
+        queue.shutdown();
+
+        verify(jwtStorageManager).persistJWTIdIfAbsent("9161", -1234, 10000000, 10000000);
+        verify(jwtStorageManager).persistJWTIdIfAbsent("9162", -1234, 10000000, 10000000);
+        verify(jwtStorageManager, never()).persistJWTIdInDB(anyString(), anyInt(), anyLong(), anyLong(),
+                anyBoolean());
+    }
+
+    @Test
+    public void testFailedJTIKeepsReservation() throws Exception {
+
+        doThrow(new OAuthClientAuthnException("Batch failed.", OAuth2ErrorCodes.INVALID_REQUEST))
+                .when(jwtStorageManager).persistJWTIdsIfAbsentInDB(anyList());
+        doThrow(new OAuthClientAuthnException("Insert failed.", OAuth2ErrorCodes.INVALID_REQUEST))
+                .when(jwtStorageManager).persistJWTIdIfAbsent(anyString(), anyInt(), anyLong(), anyLong());
+        long expTime = System.currentTimeMillis() + 60000;
+        JWTWriteBehindQueue queue = new JWTWriteBehindQueue(jwtStorageManager, 1, 10, 100,
+                JWTWriteBehindQueue.OverflowPolicy.SYNC, CLOCK_SKEW_IN_MILLIS);
+        queue.start();
+        try {
+            assertTrue(queue.reserve("9201", -1234, expTime));
+            assertTrue(queue.enqueue(new JWTEntry("9201", expTime, expTime, -1234), true));
+            // The failed JTI is retried with the conditional insert, and its replay is still rejected meanwhile.
+            verify(jwtStorageManager, timeout(5000).atLeast(2)).persistJWTIdIfAbsent(eq("9201"), eq(-1234),
+                    anyLong(), anyLong());
+            assertTrue(queue.isReserved("9201", -1234));
+
+            // The database recovers.
+            doReturn(true).when(jwtStorageManager).persistJWTIdIfAbsent(anyString(), anyInt(), anyLong(),
+                    anyLong());
+            long deadline = System.currentTimeMillis() + 5000;
+            while (queue.isReserved("9201", -1234) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertFalse(queue.isReserved("9201", -1234));
+        } finally {
+            queue.shutdown();
+        }
+    }
+
+    @Test
+    public void testExpiredFailedJTIIsReleased() throws Exception {
+
+        doThrow(new OAuthClientAuthnException("Batch failed.", OAuth2ErrorCodes.INVALID_REQUEST))
+                .when(jwtStorageManager).persistJWTIdsIfAbsentInDB(anyList());
+        doThrow(new OAuthClientAuthnException("Insert failed.", OAuth2ErrorCodes.INVALID_REQUEST))
+                .when(jwtStorageManager).persistJWTIdIfAbsent(anyString(), anyInt(), anyLong(), anyLong());
+        JWTWriteBehindQueue queue = new JWTWriteBehindQueue(jwtStorageManager, 1, 10, 100,
+                JWTWriteBehindQueue.OverflowPolicy.SYNC, CLOCK_SKEW_IN_MILLIS);
+        queue.start();
+        try {
+            assertTrue(queue.reserve("9301", -1234, 1000));
+            queue.enqueue(new JWTEntry("9301", 1000, 1000, -1234), true);
+            verify(jwtStorageManager, timeout(5000)).persistJWTIdIfAbsent(eq("9301"), eq(-1234), anyLong(),
+                    anyLong());
+            long deadline = System.currentTimeMillis() + 5000;
+            while (queue.isReserved("9301", -1234) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertFalse(queue.isReserved("9301", -1234));
+        } finally {
+            queue.shutdown();
+        }
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.util;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A minimal in process stand-in for a Redis server, supporting the AUTH, PING, GET and SET (with NX and PX)
+ * commands over the Redis protocol.
+ */
+public class EmbeddedRedisServer implements Closeable {
+
+    private final ServerSocket serverSocket;
+    private final String password;
+    private final ExecutorService executorService = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "EmbeddedRedisServer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Map<String, String> values = new HashMap<>();
+    private final Map<String, Long> expiryTimes = new HashMap<>();
+
+    public EmbeddedRedisServer(String password) throws IOException {
+
+        this.password = password;
+        this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        executorService.execute(this::accept);
+    }
+
+    public int getPort() {
+
+        return serverSocket.getLocalPort();
+    }
+
+    public synchronized Long getExpiryTime(String key) {
+
+        return expiryTimes.get(key);
+    }
+
+    @Override
+    public void close() throws IOException {
+
+        serverSocket.close();
+        executorService.shutdownNow();
+    }
+
+    private void accept() {
+
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                executorService.execute(() -> serve(socket));
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+
+        try (Socket client = socket) {
+            InputStream inputStream = new BufferedInputStream(client.getInputStream());
+            OutputStream outputStream = client.getOutputStream();
+            boolean authenticated = password == null;
+            List<String> command;
+            while ((command = readCommand(inputStream)) != null) {
+                String name = command.get(0).toUpperCase();
+                String reply;
+                if ("AUTH".equals(name)) {
+                    authenticated = command.size() == 2 && command.get(1).equals(password);
+                    reply = authenticated ? "+OK\r\n" : "-WRONGPASS invalid password\r\n";
+                } else if (!authenticated) {
+                    reply = "-NOAUTH Authentication required.\r\n";
+                } else if ("PING".equals(name)) {
+                    reply = "+PONG\r\n";
+                } else if ("GET".equals(name)) {
+                    reply = toBulkString(get(command.get(1)));
+                } else if ("SET".equals(name)) {
+                    reply = set(command) ? "+OK\r\n" : "$-1\r\n";
+                } else {
+                    reply = "-ERR unknown command '" + name + "'\r\n";
+                }
+                outputStream.write(reply.getBytes(StandardCharsets.UTF_8));
+                outputStream.flush();
+            }
+        } catch (IOException e) {
+            // Client disconnected.
+        }
+    }
+
+    private synchronized String get(String key) {
+
+        Long expiryTime = expiryTimes.get(key);
+        if (expiryTime != null && expiryTime <= System.currentTimeMillis()) {
+            values.remove(key);
+            expiryTimes.remove(key);
+        }
+        return values.get(key);
+    }
+
+    private synchronized boolean set(List<String> command) {
+
+        String key = command.get(1);
+        boolean onlyIfAbsent = false;
+        Long expiryTime = null;
+        for (int i = 3; i < command.size(); i++) {
+            String option = command.get(i).toUpperCase();
+            if ("NX".equals(option)) {
+                onlyIfAbsent = true;
+            } else if ("PX".equals(option)) {
+                expiryTime = System.currentTimeMillis() + Long.parseLong(command.get(++i));
+            }
+        }
+        if (onlyIfAbsent && get(key) != null) {
+            return false;
+        }
+        values.put(key, command.get(2));
+        if (expiryTime == null) {
+            expiryTimes.remove(key);
+        } else {
+            expiryTimes.put(key, expiryTime);
+        }
+        return true;
+    }
+
+    private static String toBulkString(String value) {
+
+        if (value == null) {
+            return "$-1\r\n";
+        }
+        return "$" + value.getBytes(StandardCharsets.UTF_8).length + "\r\n" + value + "\r\n";
+    }
+
+    private static List<String> readCommand(InputStream inputStream) throws IOException {
+
+        String header = readLine(inputStream);
+        if (header == null) {
+            return null;
+        }
+        int count = Integer.parseInt(header.substring(1));
+        List<String> command = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int length = Integer.parseInt(readLine(inputStream).substring(1));
+            byte[] bytes = new byte[length];
+            int offset = 0;
+            while (offset < length) {
+                offset += inputStream.read(bytes, offset, length - offset);
+            }
+            readLine(inputStream);
+            command.add(new String(bytes, StandardCharsets.UTF_8));
+        }
+        return command;
+    }
+
+    private static String readLine(InputStream inputStream) throws IOException {
+
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int current;
+        while ((current = inputStream.read()) != -1) {
+            if (current == '\r') {
+                inputStream.read();
+                return new String(line.toByteArray(), StandardCharsets.UTF_8);
+            }
+            line.write(current);
+        }
+        return null;
+    }
+}
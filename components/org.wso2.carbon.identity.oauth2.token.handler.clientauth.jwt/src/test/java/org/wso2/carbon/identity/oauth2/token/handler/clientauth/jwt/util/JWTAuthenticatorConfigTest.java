@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.util;
+
+import org.mockito.MockedStatic;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.identity.oauth.config.OAuthServerConfiguration;
+
+import java.util.Properties;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.CLIENT_ASSERTION_MAX_LENGTH;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.DEFAULT_AUDIENCE;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.DEFAULT_VALIDITY_PERIOD_IN_MINUTES;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.ENABLE_HASHED_JTI_STORAGE;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.ENABLE_JTI_WRITE_BEHIND;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.ENABLE_JWS_VERIFIER_CACHE;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.JTI_WRITE_BEHIND_BATCH_SIZE;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.REJECT_BEFORE_IN_MINUTES;
+
+public class JWTAuthenticatorConfigTest {
+
+    @Test
+    public void testDefaults() {
+
+        JWTAuthenticatorConfig config = load(new Properties());
+        assertEquals(config.getTokenEndpointAlias(), DEFAULT_AUDIENCE);
+        assertEquals(config.getRejectBeforeInMinutes(), DEFAULT_VALIDITY_PERIOD_IN_MINUTES);
+        assertFalse(config.isHashedJTIStorage());
+        assertNull(config.getValidationStageOrder());
+        assertNull(config.createJTIWriteBehindQueue());
+        assertNull(config.createJTIPurgeScheduler());
+        assertNull(config.createJWSVerifierCache());
+        assertNull(config.createClientKeySourceCache());
+        assertNull(config.createClientAssertionPolicyCache());
+        assertNull(config.createClientAssertionGuard());
+    }
+
+    @Test
+    public void testInvalidValues() {
+
+        Properties properties = new Properties();
+        properties.setProperty(REJECT_BEFORE_IN_MINUTES, "abc");
+        properties.setProperty(ENABLE_JWS_VERIFIER_CACHE, "true");
+        JWTAuthenticatorConfig config = load(properties);
+        assertEquals(config.getRejectBeforeInMinutes(), DEFAULT_VALIDITY_PERIOD_IN_MINUTES);
+        assertNotNull(config.createJWSVerifierCache());
+    }
+
+    @Test
+    public void testChangeDetection() {
+
+        Properties properties = new Properties();
+        properties.setProperty(ENABLE_HASHED_JTI_STORAGE, "true");
+        properties.setProperty(ENABLE_JTI_WRITE_BEHIND, "true");
+        JWTAuthenticatorConfig previous = load(properties);
+        assertTrue(previous.isHashedJTIStorageChanged(null));
+        assertTrue(previous.isJTIWriteBehindChanged(null));
+
+        JWTAuthenticatorConfig unchanged = load(properties);
+        assertFalse(unchanged.isHashedJTIStorageChanged(previous));
+        assertFalse(unchanged.isJTIWriteBehindChanged(previous));
+        assertFalse(unchanged.isJTIReplayStoreChanged(previous));
+        assertFalse(unchanged.isJTIPurgeChanged(previous));
+        assertFalse(unchanged.isOffHeapJTIIndexChanged(previous));
+        assertFalse(unchanged.isJWKSCacheChanged(previous));
+        assertFalse(unchanged.isClientAssertionGuardChanged(previous));
+
+        // The hashed JTI storage can be switched off again.
+        properties.setProperty(ENABLE_HASHED_JTI_STORAGE, "false");
+        properties.setProperty(JTI_WRITE_BEHIND_BATCH_SIZE, "10");
+        JWTAuthenticatorConfig changed = load(properties);
+        assertFalse(changed.isHashedJTIStorage());
+        assertTrue(changed.isHashedJTIStorageChanged(previous));
+        assertTrue(changed.isJTIWriteBehindChanged(previous));
+        assertFalse(changed.isJTIReplayStoreChanged(previous));
+
+        // The guard is kept with its rejection counts until its limits are changed.
+        properties.setProperty(CLIENT_ASSERTION_MAX_LENGTH, "1024");
+        assertTrue(load(properties).isClientAssertionGuardChanged(changed));
+    }
+
+    private JWTAuthenticatorConfig load(Properties properties) {
+
+        try (MockedStatic<IdentityUtil> ignored = mockStatic(IdentityUtil.class);
+             MockedStatic<OAuthServerConfiguration> oAuthServerConfiguration =
+                     mockStatic(OAuthServerConfiguration.class)) {
+            OAuthServerConfiguration serverConfiguration = mock(OAuthServerConfiguration.class);
+            when(serverConfiguration.getTimeStampSkewInSeconds()).thenReturn(300L);
+            oAuthServerConfiguration.when(OAuthServerConfiguration::getInstance).thenReturn(serverConfiguration);
+            return JWTAuthenticatorConfig.load(properties);
+        }
+    }
+}
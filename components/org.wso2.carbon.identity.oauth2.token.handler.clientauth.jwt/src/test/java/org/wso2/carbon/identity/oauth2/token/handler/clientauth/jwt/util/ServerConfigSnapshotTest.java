@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.util;
+
+import org.mockito.MockedStatic;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.identity.oauth.config.OAuthServerConfiguration;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache.AudienceCache;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.internal.JWTServiceDataHolder;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+public class ServerConfigSnapshotTest {
+
+    private static final String FAPI_SIGNATURE_ALG_CONFIGURATION = "OAuth.OpenIDConnect.FAPI." +
+            "AllowedSignatureAlgorithms.AllowedSignatureAlgorithm";
+    private static final String MTLS_HOSTNAME = "mtls.localhost";
+    private static final String ISSUER = "https://localhost:9443/oauth2/token";
+    private static final String PAR_EP = "https://localhost:9443/oauth2/par";
+    private static final String TENANT_DOMAIN = "carbon.super";
+
+    @AfterMethod
+    public void resetSnapshot() {
+
+        JWTServiceDataHolder.getInstance().setServerConfigSnapshot(null);
+    }
+
+    @Test
+    public void testLoad() {
+
+        try (MockedStatic<IdentityUtil> identityUtil = mockStatic(IdentityUtil.class);
+             MockedStatic<OAuthServerConfiguration> oAuthServerConfiguration =
+                     mockStatic(OAuthServerConfiguration.class)) {
+            mockServerConfig(identityUtil, oAuthServerConfiguration, "true");
+
+            ServerConfigSnapshot snapshot = ServerConfigSnapshot.load();
+            assertEquals(snapshot.getFapiAllowedSigningAlgorithms().size(), 2);
+            assertTrue(snapshot.getFapiAllowedSigningAlgorithms().contains("PS256"));
+            assertEquals(snapshot.getMtlsAliasHostname(), MTLS_HOSTNAME);
+            assertEquals(snapshot.getIdTokenIssuerId(), ISSUER);
+            assertEquals(snapshot.getParEndpoint(), PAR_EP);
+            assertEquals(snapshot.getTimeStampSkewInMillis(), 300000);
+        }
+    }
+
+    @Test
+    public void testMtlsRequest() {
+
+        ServerConfigSnapshot snapshot = new ServerConfigSnapshot(Collections.emptyList(), MTLS_HOSTNAME, ISSUER,
+                PAR_EP, 0);
+        assertTrue(snapshot.isMtlsRequest("https://" + MTLS_HOSTNAME + "/oauth2/token"));
+        assertFalse(snapshot.isMtlsRequest(ISSUER));
+        assertFalse(snapshot.isMtlsRequest(null));
+
+        ServerConfigSnapshot withoutAliases = new ServerConfigSnapshot(Collections.emptyList(), null, ISSUER,
+                PAR_EP, 0);
+        assertFalse(withoutAliases.isMtlsRequest("https://" + MTLS_HOSTNAME + "/oauth2/token"));
+    }
+
+    @Test
+    public void testReload() {
+
+        try (MockedStatic<IdentityUtil> identityUtil = mockStatic(IdentityUtil.class);
+             MockedStatic<OAuthServerConfiguration> oAuthServerConfiguration =
+                     mockStatic(OAuthServerConfiguration.class)) {
+            mockServerConfig(identityUtil, oAuthServerConfiguration, "true");
+
+            JWTServiceDataHolder dataHolder = JWTServiceDataHolder.getInstance();
+            AudienceCache previousAudienceCache = dataHolder.getAudienceCache();
+            AudienceCache audienceCache = new AudienceCache();
+            dataHolder.setAudienceCache(audienceCache);
+            try {
+                ServerConfigSnapshot snapshot = dataHolder.getServerConfigSnapshot();
+                assertSame(dataHolder.getServerConfigSnapshot(), snapshot);
+                audienceCache.put(TENANT_DOMAIN, null, true, new AudienceCache.Audiences(
+                        Collections.singleton("https://" + MTLS_HOSTNAME + "/oauth2/token"), PAR_EP, null));
+
+                // A reload replaces the snapshot, while the snapshot already read is left unchanged.
+                mockServerConfig(identityUtil, oAuthServerConfiguration, "false");
+                dataHolder.reloadServerConfigSnapshot();
+                assertNotSame(dataHolder.getServerConfigSnapshot(), snapshot);
+                assertNull(dataHolder.getServerConfigSnapshot().getMtlsAliasHostname());
+                assertEquals(snapshot.getMtlsAliasHostname(), MTLS_HOSTNAME);
+                // The audiences derived from the previous snapshot are not served anymore.
+                assertNull(audienceCache.get(TENANT_DOMAIN, null, true));
+                assertEquals(audienceCache.size(), 0);
+            } finally {
+                dataHolder.setAudienceCache(previousAudienceCache);
+            }
+        }
+    }
+
+    private void mockServerConfig(MockedStatic<IdentityUtil> identityUtil,
+                                  MockedStatic<OAuthServerConfiguration> oAuthServerConfiguration,
+                                  String mtlsAliasesEnabled) {
+
+        identityUtil.when(() -> IdentityUtil.getPropertyAsList(FAPI_SIGNATURE_ALG_CONFIGURATION))
+                .thenReturn(Arrays.asList("PS256", "ES256"));
+        identityUtil.when(() -> IdentityUtil.getProperty("OAuth.MutualTLSAliases.Enabled"))
+                .thenReturn(mtlsAliasesEnabled);
+        identityUtil.when(() -> IdentityUtil.getProperty("OAuth.MutualTLSAliases.Hostname")).thenReturn(MTLS_HOSTNAME);
+        identityUtil.when(() -> IdentityUtil.getProperty("OAuth.OpenIDConnect.IDTokenIssuerID")).thenReturn(ISSUER);
+        identityUtil.when(() -> IdentityUtil.getProperty("OAuth.OAuth2ParEPUrl")).thenReturn(PAR_EP);
+        OAuthServerConfiguration serverConfiguration = mock(OAuthServerConfiguration.class);
+        when(serverConfiguration.getTimeStampSkewInSeconds()).thenReturn(300L);
+        oAuthServerConfiguration.when(OAuthServerConfiguration::getInstance).thenReturn(serverConfiguration);
+    }
+}
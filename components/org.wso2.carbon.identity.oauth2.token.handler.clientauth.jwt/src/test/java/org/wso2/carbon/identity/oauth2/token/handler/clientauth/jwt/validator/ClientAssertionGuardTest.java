@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.validator;
+
+import com.nimbusds.jose.util.Base64URL;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.oauth2.client.authentication.OAuthClientAuthnException;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.validator.ClientAssertionGuard.Rejection;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.fail;
+
+public class ClientAssertionGuardTest {
+
+    private static final String PAYLOAD = "{\"sub\":\"KrVLov4Bl3natUksF2HmWsdw684a\"}";
+    private static final String SIGNATURE = Base64URL.encode("signature").toString();
+
+    @Test
+    public void testAcceptAssertion() throws Exception {
+
+        ClientAssertionGuard guard = new ClientAssertionGuard(1024, 256, 256,
+                new HashSet<>(Arrays.asList("PS256", "ES256")));
+        guard.check(assertion("{\"kid\":\"a\\\"b\", \"alg\" : \"PS256\",\"x5c\":[\"MIIC\"]}", PAYLOAD));
+        for (Rejection rejection : Rejection.values()) {
+            assertEquals(guard.getRejectionCount(rejection), 0);
+        }
+        assertEquals(guard.getTotalRejectionCount(), 0);
+    }
+
+    @Test
+    public void testAcceptAnyAlgorithm() throws Exception {
+
+        ClientAssertionGuard guard = new ClientAssertionGuard(1024, 256, 256, Collections.emptySet());
+        guard.check(assertion("{\"alg\":\"RS384\"}", PAYLOAD));
+    }
+
+    @DataProvider
+    public Object[][] rejectedAssertions() {
+
+        StringBuilder largeClaim = new StringBuilder();
+        for (int i = 0; i < 300; i++) {
+            largeClaim.append('x');
+        }
+        String header = "{\"alg\":\"PS256\"}";
+        String validAssertion = assertion(header, PAYLOAD);
+        return new Object[][]{
+                {validAssertion + largeClaim + largeClaim + largeClaim + largeClaim, Rejection.LENGTH},
+                {validAssertion + ".encrypted", Rejection.SEGMENT_COUNT},
+                {"no-segments", Rejection.SEGMENT_COUNT},
+                {assertion("{\"alg\":\"PS256\",\"kid\":\"" + largeClaim + "\"}", PAYLOAD), Rejection.HEADER_SIZE},
+                {assertion(header, "{\"custom\":\"" + largeClaim + "\"}"), Rejection.PAYLOAD_SIZE},
+                {"." + validAssertion.substring(validAssertion.indexOf('.') + 1), Rejection.MALFORMED},
+                {"e30" + validAssertion.substring(validAssertion.indexOf('.')), Rejection.MALFORMED},
+                {"e3*" + validAssertion.substring(validAssertion.indexOf('.')), Rejection.MALFORMED},
+                {assertion("{\"alg\":\"PS256\",\"alg\":\"none\"}", PAYLOAD), Rejection.MALFORMED},
+                {assertion("{\"alg\":\"HS256\"}", PAYLOAD), Rejection.ALGORITHM},
+                {assertion("{\"alg\":\"none\"}", PAYLOAD), Rejection.ALGORITHM},
+        };
+    }
+
+    @Test(dataProvider = "rejectedAssertions")
+    public void testRejectAssertion(String assertion, Rejection expectedRejection) {
+
+        ClientAssertionGuard guard = new ClientAssertionGuard(1024, 256, 256,
+                new HashSet<>(Arrays.asList("PS256", "ES256")));
+        try {
+            guard.check(assertion);
+            fail("The client assertion should be rejected for: " + expectedRejection);
+        } catch (OAuthClientAuthnException e) {
+            for (Rejection rejection : Rejection.values()) {
+                assertEquals(guard.getRejectionCount(rejection), rejection == expectedRejection ? 1 : 0,
+                        "Unexpected count of the rejection: " + rejection);
+            }
+            assertEquals(guard.getTotalRejectionCount(), 1);
+        }
+    }
+
+    private static String assertion(String header, String payload) {
+
+        return Base64URL.encode(header) + "." + Base64URL.encode(payload) + "." + SIGNATURE;
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.validator;
+
+import com.nimbusds.jose.util.Base64URL;
+import com.nimbusds.jwt.SignedJWT;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+
+public class ClientAssertionReaderTest {
+
+    private static final String HEADER = "{\"alg\":\"RS256\",\"typ\":\"JWT\"}";
+    private static final String CLIENT_ID = "KrVLov4Bl3natUksF2HmWsdw684a";
+    private static final String AUDIENCE = "https://localhost:9443/oauth2/token";
+
+    private final ClientAssertionReader reader = new ClientAssertionReader(
+            Arrays.asList("iss", "sub", "aud", "exp", "jti"));
+
+    @Test
+    public void testReadClaims() throws Exception {
+
+        String payload = "{\"iss\":\"" + CLIENT_ID + "\", \"sub\":\"" + CLIENT_ID + "\",\n" +
+                "\"aud\":[\"" + AUDIENCE + "\",\"https://localhost:9443/oauth2/par\"],\"exp\":2554440132," +
+                "\"nbf\":null,\"iat\":1554440132,\"jti\":\"3000\",\"custom\":{\"nested\":[1,-2.5e3,true,false," +
+                "null,\"esc\\\"aped\",{}],\"empty\":[]}}";
+        ParsedClientAssertion assertion = reader.read(assertion(payload));
+
+        assertNotNull(assertion);
+        assertEquals(assertion.getAlgorithm(), "RS256");
+        assertEquals(assertion.getIssuer(), CLIENT_ID);
+        assertEquals(assertion.getSubject(), CLIENT_ID);
+        assertEquals(assertion.getAudience(), Arrays.asList(AUDIENCE, "https://localhost:9443/oauth2/par"));
+        assertEquals(assertion.getExpirationTime(), 2554440132000L);
+        assertEquals(assertion.getNotBeforeTime(), 0);
+        assertEquals(assertion.getIssueTime(), 1554440132000L);
+        assertEquals(assertion.getJWTID(), "3000");
+        assertNull(assertion.findMissingClaim(Collections.emptyList()));
+        // The full claims set is still available on demand.
+        assertEquals(assertion.getClaimsSet().getJSONObjectClaim("custom").size(), 2);
+    }
+
+    @Test
+    public void testMissingMandatoryClaim() throws Exception {
+
+        String payload = "{\"iss\":\"" + CLIENT_ID + "\",\"sub\":\"" + CLIENT_ID + "\",\"aud\":\"" + AUDIENCE +
+                "\",\"exp\":2554440132,\"jti\":null}";
+        ParsedClientAssertion assertion = reader.read(assertion(payload));
+
+        assertNotNull(assertion);
+        assertEquals(assertion.getAudience(), Collections.singletonList(AUDIENCE));
+        assertNull(assertion.getJWTID());
+        assertEquals(assertion.findMissingClaim(Collections.emptyList()), "jti");
+    }
+
+    @DataProvider
+    public Object[][] unreadPayloads() {
+
+        return new Object[][]{
+                {"{\"iss\":\"a\\\"b\",\"exp\":2554440132}"},
+                {"{\"sub\":\"a\",\"sub\":\"b\"}"},
+                {"{\"exp\":2554440132.5}"},
+                {"{\"exp\":\"2554440132\"}"},
+                {"{\"aud\":[\"a\",1]}"},
+                {"{\"iss\":\"a\"} trailing"},
+                {"{\"iss\":\"a\",}"},
+                {"[\"iss\"]"},
+        };
+    }
+
+    @Test(dataProvider = "unreadPayloads")
+    public void testFallbackToFullParsing(String payload) throws Exception {
+
+        assertNull(reader.read(assertion(payload)), "The payload should be left to the full parsing: " + payload);
+    }
+
+    @Test
+    public void testReuseBuffer() throws Exception {
+
+        StringBuilder largeClaim = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            largeClaim.append('x');
+        }
+        String large = "{\"sub\":\"large\",\"custom\":\"" + largeClaim + "\"}";
+        String small = "{\"sub\":\"small\"}";
+        assertEquals(reader.read(assertion(large)).getSubject(), "large");
+        assertEquals(reader.read(assertion(small)).getSubject(), "small");
+        assertEquals(reader.read(assertion(large)).getSubject(), "large");
+    }
+
+    private SignedJWT assertion(String payload) throws Exception {
+
+        return new SignedJWT(Base64URL.encode(HEADER), Base64URL.encode(payload), Base64URL.encode("signature"));
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.validator;
+
+import org.testng.SkipException;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.common.testng.WithCarbonHome;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache.VerifiedAssertionCache;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao.JTIUpsertCoalescer;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.internal.JWTServiceDataHolder;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.util.Collections;
+
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Checks that accepting a client assertion stays within an allocation budget, as the error messages of the
+ * validations are only to be built once the assertion is rejected. The allocations depend on the JIT and on the
+ * coverage agent, hence the test is run with the perf profile only, from testng-perf.xml.
+ */
+@WithCarbonHome
+public class JWTValidatorAllocationTest {
+
+    private static final String CLIENT_ID = "KrVLov4Bl3natUksF2HmWsdw684a";
+    private static final int WARM_UP_ITERATIONS = 20000;
+    private static final int ITERATIONS = 100000;
+    // Formatting the messages on every call allocated over a kilobyte per operation.
+    private static final long BYTES_PER_OPERATION_BUDGET = 64;
+    // An accepted assertion allocates its per request state and the keys of the cache lookups. Encoding the signing
+    // input again to look up the verified assertion allocated about 1.3 kilobytes per assertion.
+    private static final long BYTES_PER_ACCEPTED_ASSERTION_BUDGET = 1024;
+
+    private final JWTValidatorFixture fixture = new JWTValidatorFixture();
+    private com.sun.management.ThreadMXBean threadMXBean;
+    private JWTValidator jwtValidator;
+    private Method validateIssuer;
+
+    @BeforeClass
+    public void setUp() throws Exception {
+
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)) {
+            throw new SkipException("Thread allocation accounting is not available in this JVM.");
+        }
+        threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!threadMXBean.isThreadAllocatedMemorySupported() || !threadMXBean.isThreadAllocatedMemoryEnabled()) {
+            throw new SkipException("Thread allocation accounting is not enabled in this JVM.");
+        }
+        jwtValidator = new JWTValidator(true, null, 300, null, Collections.emptyList(), true);
+        validateIssuer = JWTValidator.class.getDeclaredMethod("validateIssuer", String.class, String.class);
+        validateIssuer.setAccessible(true);
+
+        fixture.setUp();
+        fixture.addClient(CLIENT_ID, true);
+        // The client is resolved from the mocked application by the first validation of the warm up.
+        fixture.enableCaches();
+        // The signature of a reused assertion is verified once, and its JTI is written once within the window.
+        JWTServiceDataHolder.getInstance().setVerifiedAssertionCache(new VerifiedAssertionCache());
+        JWTServiceDataHolder.getInstance().setJTIUpsertCoalescer(new JTIUpsertCoalescer(3600000));
+    }
+
+    @AfterClass
+    public void tearDown() {
+
+        fixture.tearDown();
+    }
+
+    @Test
+    public void testIsValidAssertionAllocation() throws Exception {
+
+        JWTValidator validator = fixture.createValidator(null);
+        ParsedClientAssertion assertion = fixture.buildAssertion(CLIENT_ID, "allocation-jti");
+        for (int i = 0; i < WARM_UP_ITERATIONS; i++) {
+            assertTrue(validator.isValidAssertion(assertion, JWTValidatorFixture.TOKEN_ENDPOINT));
+        }
+        long threadId = Thread.currentThread().getId();
+        long allocatedBytes = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < ITERATIONS; i++) {
+            validator.isValidAssertion(assertion, JWTValidatorFixture.TOKEN_ENDPOINT);
+        }
+        assertWithinBudget(threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBytes,
+                BYTES_PER_ACCEPTED_ASSERTION_BUDGET);
+    }
+
+    @Test
+    public void testValidateSubjectAllocation() throws Exception {
+
+        for (int i = 0; i < WARM_UP_ITERATIONS; i++) {
+            jwtValidator.validateSubject(CLIENT_ID, CLIENT_ID);
+        }
+        long threadId = Thread.currentThread().getId();
+        long allocatedBytes = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < ITERATIONS; i++) {
+            jwtValidator.validateSubject(CLIENT_ID, CLIENT_ID);
+        }
+        assertWithinBudget(threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBytes,
+                BYTES_PER_OPERATION_BUDGET);
+    }
+
+    @Test
+    public void testValidateIssuerAllocation() throws Exception {
+
+        // The arguments are reused so that only the validation itself is measured.
+        Object[] arguments = {CLIENT_ID, CLIENT_ID};
+        for (int i = 0; i < WARM_UP_ITERATIONS; i++) {
+            validateIssuer.invoke(jwtValidator, arguments);
+        }
+        long threadId = Thread.currentThread().getId();
+        long allocatedBytes = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < ITERATIONS; i++) {
+            validateIssuer.invoke(jwtValidator, arguments);
+        }
+        assertWithinBudget(threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBytes,
+                BYTES_PER_OPERATION_BUDGET);
+    }
+
+    private static void assertWithinBudget(long allocatedBytes, long budget) {
+
+        long bytesPerOperation = allocatedBytes / ITERATIONS;
+        assertTrue(bytesPerOperation <= budget, "Accepting an assertion allocated " + bytesPerOperation +
+                " bytes per operation, over the budget of " + budget + ".");
+    }
+}
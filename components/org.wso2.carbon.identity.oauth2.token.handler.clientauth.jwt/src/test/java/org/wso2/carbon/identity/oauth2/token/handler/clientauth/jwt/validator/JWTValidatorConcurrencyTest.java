@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.validator;
+
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.common.testng.WithCarbonHome;
+import org.wso2.carbon.identity.oauth2.client.authentication.OAuthClientAuthnException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Validates the client assertions of two clients with different token reuse settings concurrently, with a shared
+ * {@link JWTValidator}.
+ */
+@WithCarbonHome
+public class JWTValidatorConcurrencyTest {
+
+    private static final int THREAD_COUNT = 8;
+    private static final int ITERATIONS = 200;
+    private static final String STRICT_CLIENT_ID = "strict-client";
+    private static final String REUSE_CLIENT_ID = "reuse-client";
+
+    private final JWTValidatorFixture fixture = new JWTValidatorFixture();
+    private JWTValidator jwtValidator;
+    private String sharedReusedAssertion;
+    private String[] reusedAssertions;
+    private String[][] strictAssertions;
+    private String[] contestedAssertions;
+
+    @BeforeClass
+    public void setUp() throws Exception {
+
+        fixture.setUp();
+        fixture.addClient(STRICT_CLIENT_ID, false);
+        fixture.addClient(REUSE_CLIENT_ID, true);
+        fixture.enableCaches();
+        jwtValidator = fixture.createValidator(null);
+        // The clients are resolved from the mocked applications on this thread, which populates the caches read by
+        // the threads of the test.
+        assertTrue(validate(fixture.signAssertion(STRICT_CLIENT_ID, "strict-warm-up")));
+        assertTrue(validate(fixture.signAssertion(REUSE_CLIENT_ID, "reuse-warm-up")));
+
+        // The assertions are signed upfront, so that the threads contend on the validator only.
+        sharedReusedAssertion = fixture.signAssertion(REUSE_CLIENT_ID, "reuse-shared");
+        reusedAssertions = new String[THREAD_COUNT];
+        strictAssertions = new String[THREAD_COUNT][ITERATIONS];
+        for (int t = 0; t < THREAD_COUNT; t++) {
+            reusedAssertions[t] = fixture.signAssertion(REUSE_CLIENT_ID, "reuse-" + t);
+            for (int i = 0; i < ITERATIONS; i++) {
+                strictAssertions[t][i] = fixture.signAssertion(STRICT_CLIENT_ID, "strict-" + t + "-" + i);
+            }
+        }
+        contestedAssertions = new String[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            contestedAssertions[i] = fixture.signAssertion(STRICT_CLIENT_ID, "strict-contested-" + i);
+        }
+    }
+
+    @AfterClass
+    public void tearDown() {
+
+        fixture.tearDown();
+    }
+
+    @Test
+    public void testNoCrossTalkBetweenClients() throws Exception {
+
+        Queue<String> failures = new ConcurrentLinkedQueue<>();
+        AtomicInteger acceptedContestedJTIs = new AtomicInteger();
+        CountDownLatch startLatch = new CountDownLatch(1);
+        ExecutorService executorService = Executors.newFixedThreadPool(THREAD_COUNT);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < THREAD_COUNT; t++) {
+                int thread = t;
+                futures.add(executorService.submit(() -> {
+                    startLatch.await();
+                    for (int i = 0; i < ITERATIONS; i++) {
+                        // A client which allows reuse, validated in between the requests of a client which
+                        // does not, always gets the shared JTI accepted.
+                        if (!validate(sharedReusedAssertion)) {
+                            failures.add("Reused JTI rejected in iteration " + i);
+                        }
+                        String strictAssertion = strictAssertions[thread][i];
+                        if (!validate(strictAssertion)) {
+                            failures.add("First use of the JTI strict-" + thread + "-" + i + " rejected");
+                        }
+                        if (!validate(reusedAssertions[thread])) {
+                            failures.add("Reused JTI of thread " + thread + " rejected in iteration " + i);
+                        }
+                        if (validate(strictAssertion)) {
+                            failures.add("Replay of the JTI strict-" + thread + "-" + i + " accepted");
+                        }
+                        // Every thread presents the same JTI, only one of them is accepted.
+                        if (validate(contestedAssertions[i])) {
+                            acceptedContestedJTIs.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            startLatch.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+        assertTrue(failures.isEmpty(), "Cross-talk between clients detected: " + failures);
+        assertEquals(acceptedContestedJTIs.get(), ITERATIONS);
+    }
+
+    private boolean validate(String serializedAssertion) throws Exception {
+
+        // Each request parses its own assertion.
+        try {
+            return jwtValidator.isValidAssertion(JWTValidatorFixture.parse(serializedAssertion),
+                    JWTValidatorFixture.TOKEN_ENDPOINT);
+        } catch (OAuthClientAuthnException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,307 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.validator;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+import org.wso2.carbon.base.CarbonBaseConstants;
+import org.wso2.carbon.identity.application.authentication.framework.model.AuthenticatedUser;
+import org.wso2.carbon.identity.application.common.model.FederatedAuthenticatorConfig;
+import org.wso2.carbon.identity.application.common.model.IdentityProvider;
+import org.wso2.carbon.identity.application.common.model.Property;
+import org.wso2.carbon.identity.application.common.util.IdentityApplicationConstants;
+import org.wso2.carbon.identity.oauth.dao.OAuthAppDO;
+import org.wso2.carbon.identity.oauth2.fapi.utils.FapiUtil;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache.AudienceCache;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache.ClientAssertionPolicyCache;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache.ClientKeySourceCache;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache.JWSVerifierCache;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache.OffHeapJTIIndex;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache.VerifiedAssertionCache;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao.JTIUpsertCoalescer;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.dao.impl.InMemoryJTIReplayStore;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.internal.JWTServiceDataHolder;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.util.ServerConfigSnapshot;
+import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
+import org.wso2.carbon.idp.mgt.IdentityProviderManager;
+import org.wso2.carbon.user.core.service.RealmService;
+
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.cert.X509Certificate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.when;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.AUDIENCE_CLAIM;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.EXPIRATION_TIME_CLAIM;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.ISSUER_CLAIM;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.JWT_ID_CLAIM;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants.SUBJECT_CLAIM;
+import static org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.util.JWTTestUtil.getKeyStoreFromFile;
+
+/**
+ * Sets up the data holder, so that a real {@link JWTValidator} validates signed client assertions of the registered
+ * clients without a database, a user store or a resident IdP. The applications, the resident IdP and the tenant are
+ * mocked, and the clients are resolved from them as the validator does in the server. The caches of the data holder
+ * are disabled unless {@link #enableCaches()} is called.
+ * <p>
+ * The static methods are mocked for the thread which sets up the fixture only, hence the other threads can validate
+ * the assertions of a client only once the caches are populated by a validation on that thread.
+ */
+final class JWTValidatorFixture {
+
+    static final String TENANT_DOMAIN = "carbon.super";
+    static final int TENANT_ID = -1234;
+    static final String TOKEN_ENDPOINT = "https://localhost:9443/oauth2/token";
+    static final String PAR_ENDPOINT = "https://localhost:9443/oauth2/par";
+    static final long CLOCK_SKEW_IN_MILLIS = 300000;
+    static final int REJECT_BEFORE_IN_MINUTES = 30;
+    private static final String PROP_TOKEN_EP = "OAuth2TokenEPUrl";
+    private static final String PROP_PAR_EP = "OAuth2ParEPUrl";
+
+    private final JWTServiceDataHolder dataHolder = JWTServiceDataHolder.getInstance();
+    private final InMemoryJTIReplayStore jtiReplayStore = new InMemoryJTIReplayStore(CLOCK_SKEW_IN_MILLIS);
+    private PrivateKey privateKey;
+    private X509Certificate certificate;
+    private MockedStatic<OAuth2Util> oAuth2Util;
+    private MockedStatic<IdentityProviderManager> identityProviderManager;
+    private MockedStatic<FapiUtil> fapiUtil;
+
+    private String previousJTIReplayStoreName;
+    private boolean previousLazyClaimExtraction;
+    private OffHeapJTIIndex previousOffHeapJTIIndex;
+    private JWSVerifierCache previousJWSVerifierCache;
+    private ClientKeySourceCache previousClientKeySourceCache;
+    private ClientAssertionPolicyCache previousClientAssertionPolicyCache;
+    private AudienceCache previousAudienceCache;
+    private VerifiedAssertionCache previousVerifiedAssertionCache;
+    private JTIUpsertCoalescer previousJTIUpsertCoalescer;
+    private RealmService previousRealmService;
+
+    void setUp() throws Exception {
+
+        KeyStore keyStore = getKeyStoreFromFile("testkeystore.jks", "wso2carbon",
+                System.getProperty(CarbonBaseConstants.CARBON_HOME));
+        privateKey = (PrivateKey) keyStore.getKey("wso2carbon", "wso2carbon".toCharArray());
+        certificate = (X509Certificate) keyStore.getCertificate("wso2carbon");
+
+        previousJTIReplayStoreName = dataHolder.getJTIReplayStoreName();
+        previousLazyClaimExtraction = dataHolder.isLazyClaimExtraction();
+        previousOffHeapJTIIndex = dataHolder.getOffHeapJTIIndex();
+        previousJWSVerifierCache = dataHolder.getJWSVerifierCache();
+        previousClientKeySourceCache = dataHolder.getClientKeySourceCache();
+        previousClientAssertionPolicyCache = dataHolder.getClientAssertionPolicyCache();
+        previousAudienceCache = dataHolder.getAudienceCache();
+        previousVerifiedAssertionCache = dataHolder.getVerifiedAssertionCache();
+        previousJTIUpsertCoalescer = dataHolder.getJTIUpsertCoalescer();
+        previousRealmService = dataHolder.getRealmService();
+
+        dataHolder.addJTIReplayStore(jtiReplayStore);
+        dataHolder.setJTIReplayStoreName(InMemoryJTIReplayStore.NAME);
+        dataHolder.setLazyClaimExtraction(false);
+        dataHolder.setOffHeapJTIIndex(null);
+        dataHolder.setJWSVerifierCache(null);
+        dataHolder.setClientKeySourceCache(null);
+        dataHolder.setClientAssertionPolicyCache(null);
+        dataHolder.setAudienceCache(null);
+        dataHolder.setVerifiedAssertionCache(null);
+        dataHolder.setJTIUpsertCoalescer(null);
+        dataHolder.setServerConfigSnapshot(new ServerConfigSnapshot(Collections.emptyList(), null, TOKEN_ENDPOINT,
+                PAR_ENDPOINT, CLOCK_SKEW_IN_MILLIS));
+
+        RealmService realmService = mock(RealmService.class, Mockito.RETURNS_DEEP_STUBS);
+        when(realmService.getTenantManager().getTenantId(TENANT_DOMAIN)).thenReturn(TENANT_ID);
+        dataHolder.setRealmService(realmService);
+
+        oAuth2Util = mockStatic(OAuth2Util.class);
+        oAuth2Util.when(() -> OAuth2Util.mapSignatureAlgorithmForJWSAlgorithm(JWSAlgorithm.RS256.getName()))
+                .thenReturn(JWSAlgorithm.RS256);
+        oAuth2Util.when(OAuth2Util::getIDTokenIssuer).thenReturn(TOKEN_ENDPOINT);
+        oAuth2Util.when(() -> OAuth2Util.getIdTokenIssuer(anyString())).thenReturn(TOKEN_ENDPOINT);
+        fapiUtil = mockStatic(FapiUtil.class);
+        identityProviderManager = mockStatic(IdentityProviderManager.class);
+        IdentityProviderManager idpManager = mock(IdentityProviderManager.class);
+        IdentityProvider residentIdP = createResidentIdP();
+        when(idpManager.getResidentIdP(TENANT_DOMAIN)).thenReturn(residentIdP);
+        identityProviderManager.when(IdentityProviderManager::getInstance).thenReturn(idpManager);
+    }
+
+    /**
+     * Enable the caches of the clients, the key sources, the verifiers and the audiences, as configured in the
+     * server. The caches are populated by the first validation of each client.
+     */
+    void enableCaches() {
+
+        dataHolder.setJWSVerifierCache(new JWSVerifierCache());
+        dataHolder.setClientKeySourceCache(new ClientKeySourceCache());
+        dataHolder.setClientAssertionPolicyCache(new ClientAssertionPolicyCache());
+        dataHolder.setAudienceCache(new AudienceCache());
+    }
+
+    void tearDown() {
+
+        oAuth2Util.close();
+        identityProviderManager.close();
+        fapiUtil.close();
+        dataHolder.removeJTIReplayStore(jtiReplayStore);
+        dataHolder.setJTIReplayStoreName(previousJTIReplayStoreName);
+        dataHolder.setLazyClaimExtraction(previousLazyClaimExtraction);
+        dataHolder.setOffHeapJTIIndex(previousOffHeapJTIIndex);
+        dataHolder.setJWSVerifierCache(previousJWSVerifierCache);
+        dataHolder.setClientKeySourceCache(previousClientKeySourceCache);
+        dataHolder.setClientAssertionPolicyCache(previousClientAssertionPolicyCache);
+        dataHolder.setAudienceCache(previousAudienceCache);
+        dataHolder.setVerifiedAssertionCache(previousVerifiedAssertionCache);
+        dataHolder.setJTIUpsertCoalescer(previousJTIUpsertCoalescer);
+        dataHolder.setRealmService(previousRealmService);
+        dataHolder.setValidationStageOrder(null);
+        dataHolder.setServerConfigSnapshot(null);
+    }
+
+    /**
+     * Register a client, which signs its assertions with RS256 using the key of the test key store.
+     *
+     * @param clientId          Client id.
+     * @param tokenReuseAllowed Whether the client allows reusing its assertions.
+     */
+    void addClient(String clientId, boolean tokenReuseAllowed) {
+
+        AuthenticatedUser appOwner = mock(AuthenticatedUser.class);
+        when(appOwner.getTenantDomain()).thenReturn(TENANT_DOMAIN);
+        OAuthAppDO oAuthAppDO = mock(OAuthAppDO.class);
+        when(oAuthAppDO.getOauthConsumerKey()).thenReturn(clientId);
+        when(oAuthAppDO.getUser()).thenReturn(appOwner);
+        when(oAuthAppDO.getTokenEndpointAuthSignatureAlgorithm()).thenReturn(JWSAlgorithm.RS256.getName());
+        when(oAuthAppDO.isTokenEndpointAllowReusePvtKeyJwt()).thenReturn(tokenReuseAllowed);
+
+        oAuth2Util.when(() -> OAuth2Util.getAppInformationByClientId(clientId)).thenReturn(oAuthAppDO);
+        oAuth2Util.when(() -> OAuth2Util.getAppInformationByClientId(eq(clientId), any())).thenReturn(oAuthAppDO);
+        oAuth2Util.when(() -> OAuth2Util.getX509CertOfOAuthApp(clientId, TENANT_DOMAIN)).thenReturn(certificate);
+    }
+
+    /**
+     * Create a validator with the mandatory claims of the authenticator, which runs the validation stages in the
+     * given order.
+     *
+     * @param stageOrder Order of the validation stages, or null for the default order.
+     * @return Validator.
+     */
+    JWTValidator createValidator(List<ValidationStage> stageOrder) {
+
+        dataHolder.setValidationStageOrder(stageOrder);
+        try {
+            return new JWTValidator(true, null, REJECT_BEFORE_IN_MINUTES, null, Arrays.asList(ISSUER_CLAIM,
+                    SUBJECT_CLAIM, AUDIENCE_CLAIM, EXPIRATION_TIME_CLAIM, JWT_ID_CLAIM), false);
+        } finally {
+            dataHolder.setValidationStageOrder(null);
+        }
+    }
+
+    /**
+     * Build an assertion of the client, issued now, which expires in an hour.
+     */
+    ParsedClientAssertion buildAssertion(String clientId, String jti) throws Exception {
+
+        return parse(signAssertion(clientId, jti));
+    }
+
+    /**
+     * Sign an assertion of the client, issued now, which expires in an hour.
+     *
+     * @return Serialized assertion.
+     */
+    String signAssertion(String clientId, String jti) throws Exception {
+
+        long currentTimeInMillis = System.currentTimeMillis();
+        return sign(new JWTClaimsSet.Builder()
+                .issuer(clientId)
+                .subject(clientId)
+                .audience(TOKEN_ENDPOINT)
+                .jwtID(jti)
+                .issueTime(new Date(currentTimeInMillis))
+                .expirationTime(new Date(currentTimeInMillis + 3600000))
+                .build(), privateKey);
+    }
+
+    /**
+     * Sign the claims with RS256 and parse the signed assertion.
+     *
+     * @param claimsSet  Claims of the assertion.
+     * @param signingKey Key to sign the assertion with.
+     * @return Parsed assertion.
+     */
+    static ParsedClientAssertion buildAssertion(JWTClaimsSet claimsSet, PrivateKey signingKey) throws Exception {
+
+        return parse(sign(claimsSet, signingKey));
+    }
+
+    /**
+     * Parse a serialized assertion, as the authenticator does for each request.
+     *
+     * @param serializedAssertion Serialized assertion.
+     * @return Parsed assertion.
+     */
+    static ParsedClientAssertion parse(String serializedAssertion) throws Exception {
+
+        SignedJWT signedJWT = SignedJWT.parse(serializedAssertion);
+        return new ParsedClientAssertion(signedJWT, signedJWT.getJWTClaimsSet());
+    }
+
+    private static String sign(JWTClaimsSet claimsSet, PrivateKey signingKey) throws Exception {
+
+        SignedJWT signedJWT = new SignedJWT(new JWSHeader(JWSAlgorithm.RS256), claimsSet);
+        signedJWT.sign(new RSASSASigner(signingKey));
+        return signedJWT.serialize();
+    }
+
+    private static IdentityProvider createResidentIdP() {
+
+        Property tokenEndpoint = new Property();
+        tokenEndpoint.setName(PROP_TOKEN_EP);
+        tokenEndpoint.setValue(TOKEN_ENDPOINT);
+        Property parEndpoint = new Property();
+        parEndpoint.setName(PROP_PAR_EP);
+        parEndpoint.setValue(PAR_ENDPOINT);
+        FederatedAuthenticatorConfig oidcConfig = new FederatedAuthenticatorConfig();
+        oidcConfig.setName(IdentityApplicationConstants.Authenticator.OIDC.NAME);
+        oidcConfig.setProperties(new Property[]{tokenEndpoint, parEndpoint});
+
+        IdentityProvider residentIdP = mock(IdentityProvider.class);
+        when(residentIdP.getFederatedAuthenticatorConfigs()).thenReturn(new FederatedAuthenticatorConfig[]{oidcConfig});
+        return residentIdP;
+    }
+
+    PrivateKey getPrivateKey() {
+
+        return privateKey;
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.validator;
+
+import com.nimbusds.jwt.JWTClaimsSet;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.common.testng.WithCarbonHome;
+import org.wso2.carbon.identity.oauth2.client.authentication.OAuthClientAuthnException;
+
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Validates client assertions with the real {@link JWTValidator}, running its validation stages in every order of
+ * the stages which can be reordered.
+ */
+@WithCarbonHome
+public class JWTValidatorStageOrderTest {
+
+    private static final String CLIENT_ID = "stage-order-client";
+    private static final List<ValidationStage> REORDERABLE_STAGES = Arrays.asList(ValidationStage.TEMPORAL,
+            ValidationStage.CLIENT, ValidationStage.AUDIENCE, ValidationStage.SIGNATURE);
+
+    private final JWTValidatorFixture fixture = new JWTValidatorFixture();
+    private final AtomicInteger jtiSequence = new AtomicInteger();
+    private PrivateKey otherPrivateKey;
+
+    @BeforeClass
+    public void setUp() throws Exception {
+
+        fixture.setUp();
+        fixture.addClient(CLIENT_ID, false);
+        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+        keyPairGenerator.initialize(2048);
+        otherPrivateKey = keyPairGenerator.generateKeyPair().getPrivate();
+    }
+
+    @AfterClass
+    public void tearDown() {
+
+        fixture.tearDown();
+    }
+
+    @DataProvider(name = "stageOrders")
+    public Object[][] stageOrders() {
+
+        List<List<ValidationStage>> orders = new ArrayList<>();
+        permute(new ArrayList<>(REORDERABLE_STAGES), 0, orders);
+        Object[][] data = new Object[orders.size() + 1][];
+        for (int i = 0; i < orders.size(); i++) {
+            data[i] = new Object[]{orders.get(i)};
+        }
+        // The default order.
+        data[orders.size()] = new Object[]{null};
+        return data;
+    }
+
+    @Test(dataProvider = "stageOrders")
+    public void testSameOutcomeForAllOrders(List<ValidationStage> stageOrder) throws Exception {
+
+        JWTValidator jwtValidator = fixture.createValidator(stageOrder);
+        for (Map.Entry<String, InvalidClaims> invalidAssertion : invalidAssertions().entrySet()) {
+            String jti = nextJTI();
+            long currentTimeInMillis = System.currentTimeMillis();
+            JWTClaimsSet.Builder claims = validClaims(jti, currentTimeInMillis);
+            PrivateKey signingKey = invalidAssertion.getValue().apply(claims, currentTimeInMillis);
+            assertFalse(validate(jwtValidator, JWTValidatorFixture.buildAssertion(claims.build(),
+                    signingKey != null ? signingKey : fixture.getPrivateKey())),
+                    "Accepted the assertion with " + invalidAssertion.getKey() + " for the order: " + stageOrder);
+
+            // The JTI of a rejected assertion is not recorded, hence a valid assertion with the same JTI is accepted
+            // once, whichever stage rejected the invalid assertion.
+            ParsedClientAssertion validAssertion = fixture.buildAssertion(CLIENT_ID, jti);
+            assertTrue(validate(jwtValidator, validAssertion), "Rejected the valid assertion after the one with " +
+                    invalidAssertion.getKey() + " for the order: " + stageOrder);
+            assertFalse(validate(jwtValidator, validAssertion), "Accepted the replayed assertion for the order: " +
+                    stageOrder);
+        }
+    }
+
+    /**
+     * Invalid assertions by the defect, each of which is rejected by a different stage. The claims are modified in
+     * place, and the key to sign the assertion with is returned, or null for the key of the client.
+     */
+    private Map<String, InvalidClaims> invalidAssertions() {
+
+        Map<String, InvalidClaims> invalidAssertions = new LinkedHashMap<>();
+        invalidAssertions.put("a missing audience", (claims, now) -> {
+            claims.audience((String) null);
+            return null;
+        });
+        invalidAssertions.put("an expired token", (claims, now) -> {
+            claims.expirationTime(new Date(now - JWTValidatorFixture.CLOCK_SKEW_IN_MILLIS - 1000));
+            return null;
+        });
+        invalidAssertions.put("a future not before time", (claims, now) -> {
+            claims.notBeforeTime(new Date(now + JWTValidatorFixture.CLOCK_SKEW_IN_MILLIS + 60000));
+            return null;
+        });
+        invalidAssertions.put("an old issued at time", (claims, now) -> {
+            claims.issueTime(new Date(now - JWTValidatorFixture.REJECT_BEFORE_IN_MINUTES * 60000L -
+                    JWTValidatorFixture.CLOCK_SKEW_IN_MILLIS - 60000));
+            return null;
+        });
+        invalidAssertions.put("an invalid issuer", (claims, now) -> {
+            claims.issuer("other-client");
+            return null;
+        });
+        invalidAssertions.put("an invalid audience", (claims, now) -> {
+            claims.audience("https://localhost:9443/oauth2/authorize");
+            return null;
+        });
+        invalidAssertions.put("the signature of another key", (claims, now) -> otherPrivateKey);
+        return invalidAssertions;
+    }
+
+    private static JWTClaimsSet.Builder validClaims(String jti, long currentTimeInMillis) {
+
+        return new JWTClaimsSet.Builder()
+                .issuer(CLIENT_ID)
+                .subject(CLIENT_ID)
+                .audience(JWTValidatorFixture.TOKEN_ENDPOINT)
+                .jwtID(jti)
+                .issueTime(new Date(currentTimeInMillis))
+                .expirationTime(new Date(currentTimeInMillis + 3600000));
+    }
+
+    private String nextJTI() {
+
+        return "stage-order-jti-" + jtiSequence.incrementAndGet();
+    }
+
+    private static boolean validate(JWTValidator jwtValidator, ParsedClientAssertion assertion) {
+
+        try {
+            return jwtValidator.isValidAssertion(assertion, JWTValidatorFixture.TOKEN_ENDPOINT);
+        } catch (OAuthClientAuthnException e) {
+            return false;
+        }
+    }
+
+    private static void permute(List<ValidationStage> stages, int index, List<List<ValidationStage>> orders) {
+
+        if (index == stages.size()) {
+            orders.add(Collections.unmodifiableList(new ArrayList<>(stages)));
+            return;
+        }
+        for (int i = index; i < stages.size(); i++) {
+            Collections.swap(stages, index, i);
+            permute(stages, index + 1, orders);
+            Collections.swap(stages, index, i);
+        }
+    }
+
+    private interface InvalidClaims {
+
+        PrivateKey apply(JWTClaimsSet.Builder claims, long currentTimeInMillis);
+    }
+}
@@ -50,6 +50,7 @@ import org.wso2.carbon.identity.oauth2.fapi.models.FapiProfileEnum;
 import org.wso2.carbon.identity.oauth2.fapi.utils.FapiUtil;
 import org.wso2.carbon.identity.oauth2.internal.OAuth2ServiceComponentHolder;
 import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.Constants;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache.ClientAssertionPolicyCache;
 import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.internal.JWTServiceComponent;
 import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.internal.JWTServiceDataHolder;
 import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
@@ -74,6 +75,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 import static org.mockito.ArgumentMatchers.anyString;
@@ -167,6 +169,22 @@ public class JWTValidatorTest {
                 .setAccessingOrganizationId(previousAccessingOrgId);
     }
 
+    /*
+     The client assertion policies, the accepted audiences and the server configuration are cached across requests,
+     while every test mocks its own application, resident identity provider and server configuration.
+    */
+    @AfterMethod
+    public void clearCaches() {
+
+        ClientAssertionPolicyCache clientAssertionPolicyCache =
+                JWTServiceDataHolder.getInstance().getClientAssertionPolicyCache();
+        if (clientAssertionPolicyCache != null) {
+            clientAssertionPolicyCache.clear();
+        }
+        JWTServiceDataHolder.getInstance().getAudienceCache().clear();
+        JWTServiceDataHolder.getInstance().setServerConfigSnapshot(null);
+    }
+
     @BeforeClass
     public void setUp() throws Exception {
 
@@ -524,7 +542,7 @@ public class JWTValidatorTest {
                     .thenReturn(ORG_QUALIFIED_PAR_EP);
             PrivilegedCarbonContext.getThreadLocalCarbonContext().setApplicationResidentOrganizationId(TEST_ORG_ID);
 
-            List<String> audiences = invokeGetValidAudiences(jwtValidator, SUPER_TENANT_DOMAIN_NAME,
+            Set<String> audiences = invokeGetValidAudiences(jwtValidator, SUPER_TENANT_DOMAIN_NAME,
                     ORG_QUALIFIED_TOKEN_EP);
 
             assertTrue(audiences.contains(ORG_QUALIFIED_TOKEN_EP),
@@ -545,7 +563,7 @@ public class JWTValidatorTest {
         try (MockedStatic<IdentityProviderManager> ignored = mockResidentIdpWithOidcTokenEndpoint()) {
             PrivilegedCarbonContext.getThreadLocalCarbonContext().setApplicationResidentOrganizationId(null);
 
-            List<String> audiences = invokeGetValidAudiences(jwtValidator, SUPER_TENANT_DOMAIN_NAME,
+            Set<String> audiences = invokeGetValidAudiences(jwtValidator, SUPER_TENANT_DOMAIN_NAME,
                     ORG_QUALIFIED_TOKEN_EP);
 
             assertFalse(audiences.contains(ORG_QUALIFIED_TOKEN_EP),
@@ -568,10 +586,10 @@ public class JWTValidatorTest {
     }
 
     @SuppressWarnings("unchecked")
-    private List<String> invokeGetValidAudiences(JWTValidator jwtValidator, String tenantDomain, String requestUrl)
+    private Set<String> invokeGetValidAudiences(JWTValidator jwtValidator, String tenantDomain, String requestUrl)
             throws Exception {
 
-        return (List<String>) invokePrivate(jwtValidator, "getValidAudiences",
+        return (Set<String>) invokePrivate(jwtValidator, "getValidAudiences",
                 new Class<?>[]{String.class, String.class}, tenantDomain, requestUrl);
     }
 
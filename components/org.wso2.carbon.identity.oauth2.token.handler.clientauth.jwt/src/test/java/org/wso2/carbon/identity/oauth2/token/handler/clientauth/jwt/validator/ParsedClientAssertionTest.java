@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.validator;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.MACSigner;
+import com.nimbusds.jose.util.Base64URL;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.oauth2.client.authentication.OAuthClientAuthnException;
+import org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.cache.JWSVerifierCache.AlgorithmFamily;
+
+import java.util.Collections;
+import java.util.Date;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.fail;
+
+public class ParsedClientAssertionTest {
+
+    private static final String CLIENT_ID = "KrVLov4Bl3natUksF2HmWsdw684a";
+    private static final String AUDIENCE = "https://localhost:9443/oauth2/token";
+    private static final byte[] SECRET = "a-shared-secret-of-at-least-256-bits".getBytes();
+
+    private JWTValidator jwtValidator;
+
+    @BeforeClass
+    public void setUp() {
+
+        jwtValidator = new JWTValidator(true, null, 300, null, Collections.emptyList(), true);
+    }
+
+    @Test
+    public void testParseClientAssertion() throws Exception {
+
+        long expirationTime = 2554440132000L;
+        long issueTime = 1554440132000L;
+        JWTClaimsSet claimsSet = new JWTClaimsSet.Builder()
+                .issuer(CLIENT_ID)
+                .subject(CLIENT_ID)
+                .audience(AUDIENCE)
+                .expirationTime(new Date(expirationTime))
+                .issueTime(new Date(issueTime))
+                .jwtID("3000")
+                .build();
+        SignedJWT signedJWT = sign(claimsSet);
+
+        ParsedClientAssertion assertion = jwtValidator.parseClientAssertion(signedJWT);
+        assertSame(assertion.getSignedJWT(), signedJWT);
+        assertEquals(assertion.getAlgorithm(), "HS256");
+        assertEquals(assertion.getIssuer(), CLIENT_ID);
+        assertEquals(assertion.getSubject(), CLIENT_ID);
+        assertEquals(assertion.getAudience(), Collections.singletonList(AUDIENCE));
+        assertEquals(assertion.getExpirationTime(), expirationTime);
+        assertEquals(assertion.getIssueTime(), issueTime);
+        // Absent time claims are represented by 0.
+        assertEquals(assertion.getNotBeforeTime(), 0);
+        assertEquals(assertion.getJWTID(), "3000");
+        assertEquals(jwtValidator.getClaimSet(signedJWT).getSubject(), CLIENT_ID);
+        // HMAC algorithms have no verifier family.
+        assertNull(assertion.getAlgorithmFamily());
+        assertNull(assertion.getKeyId());
+        assertNull(assertion.getX509CertSHA256Thumbprint());
+    }
+
+    @Test
+    public void testHeaderRouting() {
+
+        JWTClaimsSet claimsSet = new JWTClaimsSet.Builder().subject(CLIENT_ID).build();
+        JWSHeader header = new JWSHeader.Builder(JWSAlgorithm.PS256).keyID("key-1")
+                .x509CertSHA256Thumbprint(new Base64URL("thumbprint")).build();
+        ParsedClientAssertion assertion = new ParsedClientAssertion(new SignedJWT(header, claimsSet), claimsSet);
+        assertEquals(assertion.getAlgorithmFamily(), AlgorithmFamily.RSA);
+        assertEquals(assertion.getKeyId(), "key-1");
+        assertEquals(assertion.getX509CertSHA256Thumbprint(), "thumbprint");
+
+        header = new JWSHeader(JWSAlgorithm.ES384);
+        assertion = new ParsedClientAssertion(new SignedJWT(header, claimsSet), claimsSet);
+        assertEquals(assertion.getAlgorithmFamily(), AlgorithmFamily.EC);
+    }
+
+    @Test
+    public void testResolveSubject() throws Exception {
+
+        JWTClaimsSet claimsSet = new JWTClaimsSet.Builder()
+                .issuer(CLIENT_ID)
+                .subject(CLIENT_ID)
+                .audience(AUDIENCE)
+                .expirationTime(new Date(2554440132000L))
+                .jwtID("3000")
+                .claim("client_alias", "alias-of-" + CLIENT_ID)
+                .build();
+        SignedJWT signedJWT = sign(claimsSet);
+        ParsedClientAssertion parsedAssertion = new ParsedClientAssertion(signedJWT, claimsSet);
+        ParsedClientAssertion readAssertion = new ClientAssertionReader(Collections.singletonList("sub"))
+                .read(SignedJWT.parse(signedJWT.serialize()));
+        assertFalse(readAssertion.isFullyParsed());
+
+        assertEquals(jwtValidator.resolveSubject(parsedAssertion), CLIENT_ID);
+        assertEquals(jwtValidator.resolveSubject(readAssertion), CLIENT_ID);
+
+        // A subclass resolving the subject from the claims set is given the claims of every assertion.
+        JWTValidator aliasValidator = new JWTValidator(true, null, 300, null, Collections.emptyList(), true) {
+
+            @Override
+            public String resolveSubject(JWTClaimsSet claimsSet) {
+
+                return (String) claimsSet.getClaim("client_alias");
+            }
+        };
+        assertEquals(aliasValidator.resolveSubject(parsedAssertion), "alias-of-" + CLIENT_ID);
+        assertEquals(aliasValidator.resolveSubject(readAssertion), "alias-of-" + CLIENT_ID);
+    }
+
+    @Test
+    public void testParseMissingClientAssertion() {
+
+        try {
+            jwtValidator.parseClientAssertion(null);
+            fail("A missing client assertion should not be parsed.");
+        } catch (OAuthClientAuthnException e) {
+            assertEquals(e.getMessage(), "No Valid Assertion was found for " +
+                    "urn:ietf:params:oauth:client-assertion-type:jwt-bearer");
+        }
+    }
+
+    private SignedJWT sign(JWTClaimsSet claimsSet) throws Exception {
+
+        SignedJWT signedJWT = new SignedJWT(new JWSHeader(JWSAlgorithm.HS256), claimsSet);
+        signedJWT.sign(new MACSigner(SECRET));
+        return signedJWT;
+    }
+}
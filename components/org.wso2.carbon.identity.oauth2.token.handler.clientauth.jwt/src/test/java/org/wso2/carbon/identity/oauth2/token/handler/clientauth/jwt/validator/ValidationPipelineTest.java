@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.token.handler.clientauth.jwt.validator;
+
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.oauth.common.OAuth2ErrorCodes;
+import org.wso2.carbon.identity.oauth2.client.authentication.OAuthClientAuthnException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+public class ValidationPipelineTest {
+
+    private static final List<ValidationStage> REORDERABLE_STAGES = Arrays.asList(ValidationStage.TEMPORAL,
+            ValidationStage.CLIENT, ValidationStage.AUDIENCE, ValidationStage.SIGNATURE);
+
+    @Test
+    public void testDefaultOrder() {
+
+        ValidationPipeline<Set<ValidationStage>> pipeline = new ValidationPipeline<>(validations(
+                EnumSet.noneOf(ValidationStage.class), null), null);
+        assertEquals(pipeline.getOrder(), Arrays.asList(ValidationStage.HEADER, ValidationStage.STRUCTURAL,
+                ValidationStage.TEMPORAL, ValidationStage.CLIENT, ValidationStage.AUDIENCE, ValidationStage.SIGNATURE,
+                ValidationStage.REPLAY));
+    }
+
+    @Test
+    public void testConfiguredOrder() {
+
+        // Header, structural and replay stages are pinned, whatever the configured order.
+        ValidationPipeline<Set<ValidationStage>> pipeline = new ValidationPipeline<>(validations(
+                EnumSet.noneOf(ValidationStage.class), null), Arrays.asList(ValidationStage.REPLAY,
+                ValidationStage.SIGNATURE, ValidationStage.STRUCTURAL, ValidationStage.AUDIENCE,
+                ValidationStage.HEADER, ValidationStage.SIGNATURE));
+        // Stages which are not configured run after the configured stages, by cost.
+        assertEquals(pipeline.getOrder(), Arrays.asList(ValidationStage.HEADER, ValidationStage.STRUCTURAL,
+                ValidationStage.SIGNATURE, ValidationStage.AUDIENCE, ValidationStage.TEMPORAL, ValidationStage.CLIENT,
+                ValidationStage.REPLAY));
+    }
+
+    @Test
+    public void testValidateStopsAtFirstRejection() throws Exception {
+
+        List<ValidationStage> executedStages = new ArrayList<>();
+        ValidationPipeline<Set<ValidationStage>> pipeline = new ValidationPipeline<>(validations(
+                EnumSet.noneOf(ValidationStage.class), executedStages), null);
+        assertFalse(pipeline.validate(EnumSet.of(ValidationStage.CLIENT)));
+        assertEquals(executedStages, Arrays.asList(ValidationStage.HEADER, ValidationStage.STRUCTURAL,
+                ValidationStage.TEMPORAL, ValidationStage.CLIENT));
+
+        executedStages.clear();
+        assertTrue(pipeline.validate(EnumSet.noneOf(ValidationStage.class)));
+        assertEquals(executedStages, pipeline.getOrder());
+    }
+
+    @Test
+    public void testSameOutcomeForAllOrders() throws Exception {
+
+        List<List<ValidationStage>> orders = new ArrayList<>();
+        permute(new ArrayList<>(REORDERABLE_STAGES), 0, orders);
+        assertEquals(orders.size(), 24);
+
+        // Every combination of rejecting and failing stages.
+        List<ValidationStage> stages = Arrays.asList(ValidationStage.values());
+        for (int rejected = 0; rejected < 1 << stages.size(); rejected++) {
+            for (int failing = 0; failing < 1 << stages.size(); failing++) {
+                if ((rejected & failing) != 0) {
+                    continue;
+                }
+                Set<ValidationStage> rejectingStages = toStages(stages, rejected);
+                Set<ValidationStage> failingStages = toStages(stages, failing);
+                boolean expected = rejectingStages.isEmpty() && failingStages.isEmpty();
+                for (List<ValidationStage> order : orders) {
+                    List<ValidationStage> executedStages = new ArrayList<>();
+                    ValidationPipeline<Set<ValidationStage>> pipeline = new ValidationPipeline<>(validations(
+                            failingStages, executedStages), order);
+                    boolean accepted;
+                    try {
+                        accepted = pipeline.validate(rejectingStages);
+                    } catch (OAuthClientAuthnException e) {
+                        accepted = false;
+                    }
+                    assertEquals(accepted, expected, "Outcome differs for the order: " + order);
+                    // The JTI is only recorded once all the other stages accepted the assertion.
+                    if (executedStages.contains(ValidationStage.REPLAY)) {
+                        Set<ValidationStage> otherStages = EnumSet.complementOf(EnumSet.of(ValidationStage.REPLAY));
+                        for (ValidationStage stage : otherStages) {
+                            assertFalse(rejectingStages.contains(stage) || failingStages.contains(stage),
+                                    "Replay stage executed for the order: " + order);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testValidationExceptionIsPropagated() {
+
+        ValidationPipeline<Set<ValidationStage>> pipeline = new ValidationPipeline<>(validations(
+                EnumSet.of(ValidationStage.AUDIENCE), null), null);
+        try {
+            pipeline.validate(EnumSet.noneOf(ValidationStage.class));
+            fail("Expected the audience stage to fail the validation.");
+        } catch (Exception e) {
+            assertTrue(e instanceof OAuthClientAuthnException);
+            assertEquals(e.getMessage(), "Stage AUDIENCE failed.");
+        }
+    }
+
+    /**
+     * Stage validations which reject the stages in the context and throw for the failing stages.
+     */
+    private static Map<ValidationStage, ValidationPipeline.Validation<Set<ValidationStage>>> validations(
+            Set<ValidationStage> failingStages, List<ValidationStage> executedStages) {
+
+        Map<ValidationStage, ValidationPipeline.Validation<Set<ValidationStage>>> validations =
+                new EnumMap<>(ValidationStage.class);
+        for (ValidationStage stage : ValidationStage.values()) {
+            validations.put(stage, rejectingStages -> {
+                if (executedStages != null) {
+                    executedStages.add(stage);
+                }
+                if (failingStages.contains(stage)) {
+                    throw new OAuthClientAuthnException("Stage " + stage + " failed.",
+                            OAuth2ErrorCodes.INVALID_REQUEST);
+                }
+                return !rejectingStages.contains(stage);
+            });
+        }
+        return validations;
+    }
+
+    private static Set<ValidationStage> toStages(List<ValidationStage> stages, int mask) {
+
+        Set<ValidationStage> result = EnumSet.noneOf(ValidationStage.class);
+        for (int i = 0; i < stages.size(); i++) {
+            if ((mask & 1 << i) != 0) {
+                result.add(stages.get(i));
+            }
+        }
+        return result;
+    }
+
+    private static void permute(List<ValidationStage> stages, int index, List<List<ValidationStage>> orders) {
+
+        if (index == stages.size()) {
+            orders.add(Collections.unmodifiableList(new ArrayList<>(stages)));
+            return;
+        }
+        for (int i = index; i < stages.size(); i++) {
+            Collections.swap(stages, index, i);
+            permute(stages, index + 1, orders);
+            Collections.swap(stages, index, i);
+        }
+    }
+}
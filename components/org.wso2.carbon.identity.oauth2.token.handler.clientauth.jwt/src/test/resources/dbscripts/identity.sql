@@ -168,6 +168,12 @@ INSERT INTO IDP_AUTHENTICATOR_PROPERTY (TENANT_ID, AUTHENTICATOR_ID, PROPERTY_KE
 CREATE TABLE IF NOT EXISTS IDN_OIDC_JTI (JWT_ID VARCHAR(255), TENANT_ID INTEGER, EXP_TIME TIMESTAMP DEFAULT 0,
 TIME_CREATED TIMESTAMP DEFAULT 0, PRIMARY KEY (JWT_ID, TENANT_ID));
 
+CREATE TABLE IF NOT EXISTS IDN_OIDC_JTI_DIGEST (JTI_DIGEST BINARY(16) NOT NULL, EXP_TIME TIMESTAMP DEFAULT 0,
+TIME_CREATED TIMESTAMP DEFAULT 0, PRIMARY KEY (JTI_DIGEST));
+
+CREATE TABLE IF NOT EXISTS IDN_OIDC_JTI_LEASE (LEASE_NAME VARCHAR(100), NODE_ID VARCHAR(255),
+EXPIRY_TIME TIMESTAMP DEFAULT 0, PRIMARY KEY (LEASE_NAME));
+
 INSERT INTO IDN_OIDC_JTI (JWT_ID,TENANT_ID,EXP_TIME,TIME_CREATED)VALUES ('2000', -1234, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP);
 INSERT INTO IDN_OIDC_JTI (JWT_ID,TENANT_ID,EXP_TIME,TIME_CREATED)VALUES ('2001', -1234, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP);
 INSERT INTO IDN_OIDC_JTI (JWT_ID,TENANT_ID,EXP_TIME,TIME_CREATED)VALUES ('2002', -1234, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP);